@@ -0,0 +1,176 @@
+/*
+ * @(#) AtomicImmutableList.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
+
+/**
+ * A holder for an {@link ImmutableList}, updated atomically by compare-and-set.
+ * <br>
+ * As with {@link AtomicImmutableMap}, readers obtain a consistent snapshot with a single volatile read
+ * ({@link #snapshot()}), and writers create a new list from the current snapshot and install it with a compare-and-set
+ * operation, retrying (with backoff under heavy contention) if another writer has changed the list in the meantime.
+ * Update functions may be invoked more than once, so they must be free of side effects.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+public class AtomicImmutableList<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AtomicImmutableList, ImmutableList> updater =
+            AtomicReferenceFieldUpdater.newUpdater(AtomicImmutableList.class, ImmutableList.class, "list");
+
+    private volatile ImmutableList<T> list;
+
+    /**
+     * Construct an {@code AtomicImmutableList} holding an empty list.
+     */
+    public AtomicImmutableList() {
+        list = ImmutableList.emptyList();
+    }
+
+    /**
+     * Construct an {@code AtomicImmutableList} holding the supplied {@link ImmutableList}.
+     *
+     * @param   initial     the initial {@link ImmutableList}
+     * @throws  NullPointerException    if the list is {@code null}
+     */
+    public AtomicImmutableList(ImmutableList<T> initial) {
+        list = Objects.requireNonNull(initial);
+    }
+
+    /**
+     * Get the current snapshot of the list.  This is a single volatile read.
+     *
+     * @return          the current list
+     */
+    public ImmutableList<T> snapshot() {
+        return list;
+    }
+
+    /**
+     * Get the element at the specified index in the current snapshot.
+     *
+     * @param   index   the index
+     * @return          the element
+     * @throws  IndexOutOfBoundsException   if the index is out of range
+     */
+    public T get(int index) {
+        return list.get(index);
+    }
+
+    /**
+     * Get the number of elements in the current snapshot.
+     *
+     * @return          the number of elements
+     */
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * Replace the list with the result of applying a function to the current snapshot.  The function may be invoked
+     * more than once if other threads update the list concurrently.
+     *
+     * @param   function    the update function
+     * @return              the new list
+     * @throws  NullPointerException    if the function is {@code null}, or returns {@code null}
+     */
+    public ImmutableList<T> update(UnaryOperator<ImmutableList<T>> function) {
+        Objects.requireNonNull(function);
+        for (int attempt = 0; ; attempt++) {
+            ImmutableList<T> current = list;
+            ImmutableList<T> updated = Objects.requireNonNull(function.apply(current));
+            if (updated == current || updater.compareAndSet(this, current, updated))
+                return updated;
+            AtomicImmutableMap.backoff(attempt);
+        }
+    }
+
+    /**
+     * Add an element to the end of the list.
+     *
+     * @param   element the element
+     * @return          the new list
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<T> add(T element) {
+        for (int attempt = 0; ; attempt++) {
+            ImmutableList<T> current = list;
+            int n = current.length;
+            Object[] array = new Object[n + 1];
+            System.arraycopy(current.array, current.offset, array, 0, n);
+            array[n] = element;
+            ImmutableList<T> updated = ImmutableList.listOf((T[])array);
+            if (updater.compareAndSet(this, current, updated))
+                return updated;
+            AtomicImmutableMap.backoff(attempt);
+        }
+    }
+
+    /**
+     * Remove the first occurrence of an element from the list.
+     *
+     * @param   element the element
+     * @return          {@code true} if the element was present
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object element) {
+        for (int attempt = 0; ; attempt++) {
+            ImmutableList<T> current = list;
+            int index = current.indexOf(element);
+            if (index < 0)
+                return false;
+            int n = current.length - 1;
+            ImmutableList<T> updated;
+            if (n == 0)
+                updated = ImmutableList.emptyList();
+            else {
+                Object[] array = new Object[n];
+                System.arraycopy(current.array, current.offset, array, 0, index);
+                System.arraycopy(current.array, current.offset + index + 1, array, index, n - index);
+                updated = ImmutableList.listOf((T[])array);
+            }
+            if (updater.compareAndSet(this, current, updated))
+                return true;
+            AtomicImmutableMap.backoff(attempt);
+        }
+    }
+
+    /**
+     * Returns a string representation of the current snapshot.
+     *
+     * @return          a string representation of the list
+     */
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * @(#) AtomicImmutableMap.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A holder for an immutable {@link Map}, updated atomically by compare-and-set, for use as a shared registry or
+ * similar structure that is read far more often than it is written.
+ * <br>
+ * Readers obtain a consistent snapshot of the map with a single volatile read ({@link #snapshot()}), and never block.
+ * Writers create a new map from the current snapshot and install it with a compare-and-set operation, retrying (with
+ * a randomised backoff under heavy contention) if another writer has changed the map in the meantime; writers
+ * therefore never block each other, but the update functions may be invoked more than once, so they must be free of
+ * side effects.
+ * <br>
+ * The snapshot is always the smallest representation of the map: a {@link MiniMap} for three or fewer entries,
+ * otherwise an {@link ImmutableMap}.
+ *
+ * @author  Peter Wall
+ * @param   <K>     the key type
+ * @param   <V>     the value type
+ */
+public class AtomicImmutableMap<K, V> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AtomicImmutableMap, Map> updater =
+            AtomicReferenceFieldUpdater.newUpdater(AtomicImmutableMap.class, Map.class, "map");
+
+    static final int immediateRetries = 4;
+    static final int yieldRetries = 16;
+    static final int maxBackoffShift = 20;
+
+    private volatile Map<K, V> map;
+
+    /**
+     * Construct an {@code AtomicImmutableMap} holding an empty map.
+     */
+    public AtomicImmutableMap() {
+        map = MiniMap.of();
+    }
+
+    /**
+     * Construct an {@code AtomicImmutableMap} holding a copy of the supplied {@link Map} (the map itself is used if
+     * it is a {@link MiniMap} or an {@link ImmutableMap}).
+     *
+     * @param   initial     the initial {@link Map}
+     */
+    public AtomicImmutableMap(Map<K, V> initial) {
+        map = immutable(initial);
+    }
+
+    /**
+     * Get the current snapshot of the map.  This is a single volatile read.
+     *
+     * @return          the current map (a {@link MiniMap} or an {@link ImmutableMap})
+     */
+    public Map<K, V> snapshot() {
+        return map;
+    }
+
+    /**
+     * Get the value for the specified key in the current snapshot.
+     *
+     * @param   key     the key
+     * @return          the value, or {@code null} if the key is not present
+     */
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    /**
+     * Get the number of entries in the current snapshot.
+     *
+     * @return          the number of entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Replace the map with the result of applying a function to the current snapshot.  If the result is not a
+     * {@link MiniMap} or an {@link ImmutableMap}, it is copied.  The function may be invoked more than once if other
+     * threads update the map concurrently.
+     *
+     * @param   function    the update function
+     * @return              the new map
+     * @throws  NullPointerException    if the function is {@code null}, or returns {@code null}
+     */
+    public Map<K, V> update(UnaryOperator<Map<K, V>> function) {
+        Objects.requireNonNull(function);
+        for (int attempt = 0; ; attempt++) {
+            Map<K, V> current = map;
+            Map<K, V> updated = immutable(Objects.requireNonNull(function.apply(current)));
+            if (updated == current || updater.compareAndSet(this, current, updated))
+                return updated;
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Map the specified key to the specified value.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the previous value for the key, or {@code null} if the key was not present
+     */
+    public V put(K key, V value) {
+        for (int attempt = 0; ; attempt++) {
+            Map<K, V> current = map;
+            V previous = current.get(key);
+            Map<K, V> updated = with(current, key, value);
+            if (updated == current || updater.compareAndSet(this, current, updated))
+                return previous;
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Remove the specified key.
+     *
+     * @param   key     the key
+     * @return          the previous value for the key, or {@code null} if the key was not present
+     */
+    public V remove(Object key) {
+        for (int attempt = 0; ; attempt++) {
+            Map<K, V> current = map;
+            V previous = current.get(key);
+            Map<K, V> updated = without(current, key);
+            if (updated == current || updater.compareAndSet(this, current, updated))
+                return previous;
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Compute a new value for the specified key, from the key and its current value (or {@code null} if the key is
+     * not present).  If the function returns {@code null}, the key is removed.  The function may be invoked more than
+     * once if other threads update the map concurrently.
+     *
+     * @param   key         the key
+     * @param   function    the function to compute the new value
+     * @return              the new value, or {@code null} if the key is now not present
+     * @throws  NullPointerException    if the function is {@code null}
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        for (int attempt = 0; ; attempt++) {
+            Map<K, V> current = map;
+            V value = function.apply(key, current.get(key));
+            Map<K, V> updated = value == null ? without(current, key) : with(current, key, value);
+            if (updated == current || updater.compareAndSet(this, current, updated))
+                return value;
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Returns a string representation of the current snapshot.
+     *
+     * @return          a string representation of the map
+     */
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    private static <KK, VV> Map<KK, VV> with(Map<KK, VV> map, KK key, VV value) {
+        return map instanceof MiniMap ? ((MiniMap<KK, VV>)map).with(key, value) :
+                ((ImmutableMap<KK, VV>)map).with(key, value);
+    }
+
+    private static <KK, VV> Map<KK, VV> without(Map<KK, VV> map, Object key) {
+        return map instanceof MiniMap ? ((MiniMap<KK, VV>)map).without(key) :
+                ((ImmutableMap<KK, VV>)map).without(key);
+    }
+
+    /**
+     * Get the smallest immutable representation of a map: the map itself if it is a {@link MiniMap} or an
+     * {@link ImmutableMap}, otherwise a copy.
+     */
+    private static <KK, VV> Map<KK, VV> immutable(Map<KK, VV> map) {
+        if (map instanceof MiniMap || map instanceof ImmutableMap)
+            return map;
+        ImmutableMapEntry<KK, VV>[] array = ImmutableMap.createArray(map.size());
+        int n = 0;
+        for (Map.Entry<KK, VV> entry : map.entrySet())
+            array[n++] = new ImmutableMapEntry<>(entry.getKey(), entry.getValue());
+        return MiniMap.fromEntries(array, n);
+    }
+
+    /**
+     * Back off after a failed compare-and-set: the first few retries are immediate, then the thread yields, and
+     * after that it parks for a random interval, with the upper limit doubling on each attempt.
+     *
+     * @param   attempt     the number of the attempt that failed (from zero)
+     */
+    static void backoff(int attempt) {
+        if (attempt < immediateRetries)
+            return;
+        if (attempt < yieldRetries)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1L <<
+                    Math.min(attempt - yieldRetries + 4, maxBackoffShift)) + 1);
+    }
+
+}
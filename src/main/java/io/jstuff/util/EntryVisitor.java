@@ -0,0 +1,49 @@
+/*
+ * @(#) EntryVisitor.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+/**
+ * An operation that accepts the key and value of a map entry, together with its index.  Used by the
+ * {@code forEachEntry()} functions of {@link ImmutableMap} and {@link MiniMap}, to allow iteration over the entries
+ * without exposing the {@link ImmutableMapEntry} objects.
+ *
+ * @author  Peter Wall
+ * @param   <K>     the key type
+ * @param   <V>     the value type
+ */
+@FunctionalInterface
+public interface EntryVisitor<K, V> {
+
+    /**
+     * Perform the operation on the given entry.
+     *
+     * @param   index   the index of the entry
+     * @param   key     the key
+     * @param   value   the value
+     */
+    void visit(int index, K key, V value);
+
+}
@@ -0,0 +1,276 @@
+/*
+ * @(#) ImmutableArena.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Arrays;
+
+/**
+ * A pool of scratch buffers for the high-rate construction of {@link ImmutableList} and {@link ImmutableMap} objects,
+ * for example by an unmarshaller.
+ * <br>
+ * The arena lends builders with oversized temporary arrays, and each builder returns an immutable collection with an
+ * array of exactly the required size.  When the collection has been built, the builder and its array are returned to
+ * the arena to be re-used, so that after the first few uses the only allocation is the single copy of the final array.
+ * <br>
+ * Builders are lent in a strictly nested (last-in, first-out) manner, so that, for example, a map of lists may be
+ * constructed by obtaining a list builder for each value while the map builder is active.  Each level of nesting has
+ * its own buffers, so there is no possibility of the contents of one collection contaminating another.
+ * <br>
+ * An {@code ImmutableArena} is not thread-safe; it is intended to be confined to a single thread (or a single task
+ * running in a virtual thread), typically by being held in the unmarshaller object.  No {@link ThreadLocal} or
+ * synchronisation is used, so the arena is equally suitable for use in platform or virtual threads.
+ *
+ * @author  Peter Wall
+ */
+public class ImmutableArena {
+
+    /** The initial capacity of the scratch buffer for each builder. */
+    public static final int initialCapacity = 16;
+    /** The largest scratch buffer to be retained for re-use (larger buffers are released after use). */
+    public static final int maxRetainedCapacity = 65536;
+
+    private ListBuilder<?>[] listBuilders = new ListBuilder<?>[4];
+    private MapBuilder<?, ?>[] mapBuilders = new MapBuilder<?, ?>[4];
+    private int depth;
+
+    /**
+     * Get the current nesting depth (the number of builders currently lent and not yet completed).
+     *
+     * @return          the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Borrow a builder for an {@link ImmutableList}.
+     *
+     * @param   <T>     the element type
+     * @return          the builder
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ListBuilder<T> listBuilder() {
+        int level = depth;
+        if (level >= listBuilders.length)
+            listBuilders = Arrays.copyOf(listBuilders, level * 2);
+        ListBuilder<T> builder = (ListBuilder<T>)listBuilders[level];
+        if (builder == null)
+            listBuilders[level] = builder = new ListBuilder<>(this, level);
+        builder.activate();
+        return builder;
+    }
+
+    /**
+     * Borrow a builder for an {@link ImmutableMap}.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     * @return          the builder
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> MapBuilder<K, V> mapBuilder() {
+        int level = depth;
+        if (level >= mapBuilders.length)
+            mapBuilders = Arrays.copyOf(mapBuilders, level * 2);
+        MapBuilder<K, V> builder = (MapBuilder<K, V>)mapBuilders[level];
+        if (builder == null)
+            mapBuilders[level] = builder = new MapBuilder<>(this, level);
+        builder.activate();
+        return builder;
+    }
+
+    /**
+     * Discard all builders currently lent, for example after an exception has interrupted construction.  The buffers
+     * are cleared and returned to the arena.
+     */
+    public void reset() {
+        while (depth > 0) {
+            int level = depth - 1;
+            Frame frame = level < listBuilders.length ? listBuilders[level] : null;
+            if (frame == null || !frame.active)
+                frame = mapBuilders[level];
+            frame.release();
+        }
+    }
+
+    /**
+     * Base class for the builders lent by an {@link ImmutableArena}.  Holds the scratch buffer and the nesting level.
+     */
+    public static abstract class Frame {
+
+        private final ImmutableArena arena;
+        private final int level;
+        Object[] buffer;
+        int size;
+        boolean active;
+
+        Frame(ImmutableArena arena, int level) {
+            this.arena = arena;
+            this.level = level;
+            buffer = new Object[initialCapacity];
+        }
+
+        /**
+         * Get the number of items added so far.
+         *
+         * @return          the number of items
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Discard the contents of the builder and return it to the arena without building a collection.
+         *
+         * @throws  IllegalStateException   if the builder is not active, or a nested builder has not been completed
+         */
+        public void discard() {
+            release();
+        }
+
+        void activate() {
+            active = true;
+            arena.depth = level + 1;
+        }
+
+        void checkActive() {
+            if (!active)
+                throw new IllegalStateException("Builder is not active");
+        }
+
+        void append(Object item) {
+            checkActive();
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, size * 2);
+            buffer[size++] = item;
+        }
+
+        void release() {
+            checkActive();
+            if (arena.depth != level + 1)
+                throw new IllegalStateException("Nested builder not completed");
+            if (buffer.length > maxRetainedCapacity)
+                buffer = new Object[initialCapacity];
+            else
+                Arrays.fill(buffer, 0, size, null);
+            size = 0;
+            active = false;
+            arena.depth = level;
+        }
+
+    }
+
+    /**
+     * A builder for an {@link ImmutableList}, lent by an {@link ImmutableArena}.
+     *
+     * @param   <T>     the element type
+     */
+    public static class ListBuilder<T> extends Frame {
+
+        ListBuilder(ImmutableArena arena, int level) {
+            super(arena, level);
+        }
+
+        /**
+         * Add an element to the list.
+         *
+         * @param   element     the element
+         * @return              {@code this} (for chaining)
+         * @throws  IllegalStateException   if the builder is not active
+         */
+        public ListBuilder<T> add(T element) {
+            append(element);
+            return this;
+        }
+
+        /**
+         * Create an {@link ImmutableList} with an array of exactly the required size, and return the builder to the
+         * arena.
+         *
+         * @return              the {@link ImmutableList}
+         * @throws  IllegalStateException   if the builder is not active, or a nested builder has not been completed
+         */
+        @SuppressWarnings("unchecked")
+        public ImmutableList<T> build() {
+            checkActive();
+            ImmutableList<T> result = size == 0 ? ImmutableList.emptyList() :
+                    ImmutableList.listOf((T[])Arrays.copyOf(buffer, size));
+            release();
+            return result;
+        }
+
+    }
+
+    /**
+     * A builder for an {@link ImmutableMap}, lent by an {@link ImmutableArena}.  As with
+     * {@link ImmutableMap#mapOf(ImmutableMapEntry[])}, keys are not checked for duplicates.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class MapBuilder<K, V> extends Frame {
+
+        MapBuilder(ImmutableArena arena, int level) {
+            super(arena, level);
+        }
+
+        /**
+         * Add an entry to the map.
+         *
+         * @param   key         the key
+         * @param   value       the value
+         * @return              {@code this} (for chaining)
+         * @throws  IllegalStateException   if the builder is not active
+         */
+        public MapBuilder<K, V> put(K key, V value) {
+            append(new ImmutableMapEntry<>(key, value));
+            return this;
+        }
+
+        /**
+         * Create an {@link ImmutableMap} with an array of exactly the required size, and return the builder to the
+         * arena.
+         *
+         * @return              the {@link ImmutableMap}
+         * @throws  IllegalStateException   if the builder is not active, or a nested builder has not been completed
+         */
+        public ImmutableMap<K, V> build() {
+            checkActive();
+            ImmutableMap<K, V> result;
+            if (size == 0)
+                result = ImmutableMap.emptyMap();
+            else {
+                ImmutableMapEntry<K, V>[] array = ImmutableMap.createArray(size);
+                System.arraycopy(buffer, 0, array, 0, size);
+                result = ImmutableMap.mapOf(array);
+            }
+            release();
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,1134 @@
+/*
+ * @(#) ImmutableBTreeMap.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A persistent immutable {@link SortedMap}, implemented as a B+-tree with wide nodes.  Keys and values are held in the
+ * leaves, in arrays of up to {@link #leafCapacity} entries, and the branch nodes hold up to {@link #branchCapacity}
+ * children, so that a map of millions of entries has a tree of only three or four levels, and a search touches only a
+ * few contiguous arrays.
+ * <br>
+ * The "modifying" operations {@link #with(Object, Object)} and {@link #without(Object)} return a new map, copying only
+ * the nodes on the path to the affected entry (path copying) and sharing the rest of the tree with the original map,
+ * so that successive versions of a large map may be retained cheaply.  A map may be built from sorted input in O(n)
+ * time using a {@link Builder}.
+ * <br>
+ * Range views ({@link #subMap(Object, Object)}, {@link #headMap(Object)} and {@link #tailMap(Object)}) iterate
+ * directly over the leaf arrays.  Keys may not be {@code null}.
+ *
+ * @author  Peter Wall
+ * @param   <K>     the key type
+ * @param   <V>     the value type
+ */
+public class ImmutableBTreeMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+    public static final int leafCapacity = 64;
+    public static final int branchCapacity = 64;
+
+    static final int minLeaf = leafCapacity / 2;
+    static final int minBranch = branchCapacity / 2;
+
+    @SuppressWarnings("unchecked")
+    static final Comparator<Object> naturalOrder = (a, b) -> ((Comparable<Object>)a).compareTo(b);
+
+    private static final Leaf emptyLeaf = new Leaf(ImmutableBase.emptyArray, ImmutableBase.emptyArray);
+    private static final ImmutableBTreeMap<?, ?> emptyMap = new ImmutableBTreeMap<>(null, emptyLeaf, 0, 0);
+
+    private final Comparator<? super K> comparator;
+    private final Comparator<Object> order;
+    private final Node root;
+    private final int height;
+    private final int size;
+
+    /**
+     * Internal constructor.
+     *
+     * @param   comparator  the comparator ({@code null} for natural ordering)
+     * @param   root        the root node
+     * @param   height      the number of levels of branch nodes above the leaves
+     * @param   size        the number of entries
+     */
+    @SuppressWarnings("unchecked")
+    private ImmutableBTreeMap(Comparator<? super K> comparator, Node root, int height, int size) {
+        this.comparator = comparator;
+        order = comparator == null ? naturalOrder : (Comparator<Object>)comparator;
+        this.root = root;
+        this.height = height;
+        this.size = size;
+    }
+
+    /**
+     * Get the number of entries in the map.
+     *
+     * @return          the number of entries
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the map is empty.
+     *
+     * @return          {@code true} if the map is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of levels of branch nodes above the leaves (zero if all entries are in a single leaf).
+     *
+     * @return          the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the {@link Comparator} used to order the keys.
+     *
+     * @return          the {@link Comparator}, or {@code null} if the keys are in natural order
+     */
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Get the value for the specified key.
+     *
+     * @param   key     the key
+     * @return          the value, or {@code null} if the key is not present
+     * @throws  NullPointerException    if the key is {@code null}
+     */
+    @Override
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Get the value for the specified key, or the supplied default if the key is not present.
+     *
+     * @param   key             the key
+     * @param   defaultValue    the default value
+     * @return                  the value, or the default value if the key is not present
+     * @throws  NullPointerException    if the key is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        Leaf leaf = findLeaf(Objects.requireNonNull(key));
+        int i = Arrays.binarySearch(leaf.keys, key, order);
+        return i >= 0 ? (V)leaf.values[i] : defaultValue;
+    }
+
+    /**
+     * Test whether the map contains the specified key.
+     *
+     * @param   key     the key
+     * @return          {@code true} if the map contains the key
+     * @throws  NullPointerException    if the key is {@code null}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return Arrays.binarySearch(findLeaf(Objects.requireNonNull(key)).keys, key, order) >= 0;
+    }
+
+    /**
+     * Get the first (lowest) key in the map.
+     *
+     * @return          the first key
+     * @throws  NoSuchElementException  if the map is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public K firstKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        Node node = root;
+        for (int h = height; h > 0; h--)
+            node = ((Branch)node).children[0];
+        return (K)node.keys[0];
+    }
+
+    /**
+     * Get the last (highest) key in the map.
+     *
+     * @return          the last key
+     * @throws  NoSuchElementException  if the map is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public K lastKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        Node node = root;
+        for (int h = height; h > 0; h--) {
+            Node[] children = ((Branch)node).children;
+            node = children[children.length - 1];
+        }
+        return (K)node.keys[node.keys.length - 1];
+    }
+
+    /**
+     * Create a new map with the specified key mapped to the specified value.  If the map already maps the key to an
+     * equal value, the original map is returned.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new map
+     * @throws  NullPointerException    if the key is {@code null}
+     */
+    public ImmutableBTreeMap<K, V> with(K key, V value) {
+        Change change = new Change();
+        Object result = insert(root, height, Objects.requireNonNull(key), value, change);
+        if (!change.modified)
+            return this;
+        int newSize = change.added ? size + 1 : size;
+        if (result instanceof Split) {
+            Split split = (Split)result;
+            return new ImmutableBTreeMap<>(comparator, new Branch(new Object[] { split.separator },
+                    new Node[] { split.left, split.right }), height + 1, newSize);
+        }
+        return new ImmutableBTreeMap<>(comparator, (Node)result, height, newSize);
+    }
+
+    /**
+     * Create a new map with the specified key removed.  If the map does not contain the key, the original map is
+     * returned.
+     *
+     * @param   key     the key
+     * @return          the new map
+     * @throws  NullPointerException    if the key is {@code null}
+     */
+    public ImmutableBTreeMap<K, V> without(Object key) {
+        Change change = new Change();
+        Node newRoot = remove(root, height, Objects.requireNonNull(key), change);
+        if (!change.modified)
+            return this;
+        int newHeight = height;
+        if (newHeight > 0 && newRoot.count() == 1) {
+            newRoot = ((Branch)newRoot).children[0];
+            newHeight--;
+        }
+        return new ImmutableBTreeMap<>(comparator, newRoot, newHeight, size - 1);
+    }
+
+    /**
+     * Perform the given action on each entry of the map, in key order, traversing the leaf arrays directly.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        forEachEntry(root, height, action);
+    }
+
+    /**
+     * Get a {@link Set} of the entries in the map, in key order.
+     *
+     * @return          the entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet<>(this, null, null);
+    }
+
+    /**
+     * Get a view of the portion of the map with keys from {@code fromKey} (inclusive) to {@code toKey} (exclusive).
+     *
+     * @param   fromKey     the low end of the range (inclusive)
+     * @param   toKey       the high end of the range (exclusive)
+     * @return              the view
+     * @throws  IllegalArgumentException    if {@code fromKey} is greater than {@code toKey}
+     * @throws  NullPointerException        if either key is {@code null}
+     */
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        if (order.compare(Objects.requireNonNull(fromKey), Objects.requireNonNull(toKey)) > 0)
+            throw new IllegalArgumentException("fromKey > toKey");
+        return new RangeView<>(this, fromKey, toKey);
+    }
+
+    /**
+     * Get a view of the portion of the map with keys less than {@code toKey}.
+     *
+     * @param   toKey       the high end of the range (exclusive)
+     * @return              the view
+     * @throws  NullPointerException        if the key is {@code null}
+     */
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return new RangeView<>(this, null, Objects.requireNonNull(toKey));
+    }
+
+    /**
+     * Get a view of the portion of the map with keys greater than or equal to {@code fromKey}.
+     *
+     * @param   fromKey     the low end of the range (inclusive)
+     * @return              the view
+     * @throws  NullPointerException        if the key is {@code null}
+     */
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return new RangeView<>(this, Objects.requireNonNull(fromKey), null);
+    }
+
+    /**
+     * Get an empty {@code ImmutableBTreeMap} using the natural ordering of the keys.  This returns a shared instance,
+     * so it avoids a memory allocation.
+     *
+     * @param   <KK>    the key type
+     * @param   <VV>    the value type
+     * @return          an empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <KK, VV> ImmutableBTreeMap<KK, VV> emptyMap() {
+        return (ImmutableBTreeMap<KK, VV>)emptyMap;
+    }
+
+    /**
+     * Get an empty {@code ImmutableBTreeMap} using the specified {@link Comparator}.
+     *
+     * @param   comparator  the {@link Comparator} ({@code null} for natural ordering)
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              an empty map
+     */
+    public static <KK, VV> ImmutableBTreeMap<KK, VV> emptyMap(Comparator<? super KK> comparator) {
+        return comparator == null ? emptyMap() : new ImmutableBTreeMap<>(comparator, emptyLeaf, 0, 0);
+    }
+
+    /**
+     * Create an {@code ImmutableBTreeMap} containing the entries of a {@link SortedMap}, using the same ordering.  The
+     * map is built in O(n) time.
+     *
+     * @param   map     the {@link SortedMap}
+     * @param   <KK>    the key type
+     * @param   <VV>    the value type
+     * @return          the new map
+     */
+    public static <KK, VV> ImmutableBTreeMap<KK, VV> from(SortedMap<KK, ? extends VV> map) {
+        if (map instanceof ImmutableBTreeMap) {
+            @SuppressWarnings("unchecked")
+            ImmutableBTreeMap<KK, VV> result = (ImmutableBTreeMap<KK, VV>)map;
+            return result;
+        }
+        Builder<KK, VV> builder = new Builder<>(map.comparator(), map.size());
+        for (Map.Entry<KK, ? extends VV> entry : map.entrySet())
+            builder.put(entry.getKey(), entry.getValue());
+        return builder.build();
+    }
+
+    /**
+     * Create an {@code ImmutableBTreeMap} containing the entries of a {@link Map}, ordered by the specified
+     * {@link Comparator}.  The entries are sorted, and the map is then built in O(n) time.
+     *
+     * @param   map         the {@link Map}
+     * @param   comparator  the {@link Comparator} ({@code null} for natural ordering)
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the new map
+     * @throws  IllegalArgumentException    if the {@link Comparator} considers two keys equal
+     */
+    @SuppressWarnings("unchecked")
+    public static <KK, VV> ImmutableBTreeMap<KK, VV> from(Map<? extends KK, ? extends VV> map,
+            Comparator<? super KK> comparator) {
+        Map.Entry<KK, VV>[] entries = (Map.Entry<KK, VV>[])map.entrySet().toArray(new Map.Entry<?, ?>[0]);
+        Comparator<Object> order = comparator == null ? naturalOrder : (Comparator<Object>)comparator;
+        Arrays.sort(entries, (a, b) -> order.compare(a.getKey(), b.getKey()));
+        Builder<KK, VV> builder = new Builder<>(comparator, entries.length);
+        for (Map.Entry<KK, VV> entry : entries)
+            builder.put(entry.getKey(), entry.getValue());
+        return builder.build();
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableBTreeMap} using the natural ordering of the keys.
+     *
+     * @param   <KK>    the key type
+     * @param   <VV>    the value type
+     * @return          the {@link Builder}
+     */
+    public static <KK, VV> Builder<KK, VV> builder() {
+        return new Builder<>(null, Builder.defaultCapacity);
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableBTreeMap} using the specified {@link Comparator}.
+     *
+     * @param   comparator  the {@link Comparator} ({@code null} for natural ordering)
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the {@link Builder}
+     */
+    public static <KK, VV> Builder<KK, VV> builder(Comparator<? super KK> comparator) {
+        return new Builder<>(comparator, Builder.defaultCapacity);
+    }
+
+    private Leaf findLeaf(Object key) {
+        Node node = root;
+        for (int h = height; h > 0; h--) {
+            Branch branch = (Branch)node;
+            node = branch.children[childIndex(branch.keys, key, order)];
+        }
+        return (Leaf)node;
+    }
+
+    /**
+     * Find the child of a branch to be searched for a key: the number of separator keys less than or equal to the key.
+     */
+    static int childIndex(Object[] keys, Object key, Comparator<Object> order) {
+        int i = Arrays.binarySearch(keys, key, order);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    /**
+     * Insert or replace an entry, returning the new node, or a {@link Split} if the node overflowed.
+     */
+    private Object insert(Node node, int h, Object key, Object value, Change change) {
+        if (h == 0) {
+            Leaf leaf = (Leaf)node;
+            int i = Arrays.binarySearch(leaf.keys, key, order);
+            if (i >= 0) {
+                if (Objects.equals(leaf.values[i], value))
+                    return leaf;
+                change.modified = true;
+                Object[] values = leaf.values.clone();
+                values[i] = value;
+                return new Leaf(leaf.keys, values);
+            }
+            change.modified = true;
+            change.added = true;
+            i = -(i + 1);
+            Object[] keys = insertAt(leaf.keys, i, key);
+            Object[] values = insertAt(leaf.values, i, value);
+            int n = keys.length;
+            if (n <= leafCapacity)
+                return new Leaf(keys, values);
+            int half = n >> 1;
+            return new Split(new Leaf(Arrays.copyOf(keys, half), Arrays.copyOf(values, half)),
+                    new Leaf(Arrays.copyOfRange(keys, half, n), Arrays.copyOfRange(values, half, n)), keys[half]);
+        }
+        Branch branch = (Branch)node;
+        int i = childIndex(branch.keys, key, order);
+        Object result = insert(branch.children[i], h - 1, key, value, change);
+        if (!change.modified)
+            return branch;
+        if (result instanceof Node) {
+            Node[] children = branch.children.clone();
+            children[i] = (Node)result;
+            return new Branch(branch.keys, children);
+        }
+        Split split = (Split)result;
+        Object[] keys = insertAt(branch.keys, i, split.separator);
+        Node[] children = insertAt(branch.children, i + 1, split.right);
+        children[i] = split.left;
+        return splitBranch(keys, children);
+    }
+
+    /**
+     * Remove an entry, returning the new node (which may be below the minimum size, for the caller to rebalance).
+     */
+    private Node remove(Node node, int h, Object key, Change change) {
+        if (h == 0) {
+            Leaf leaf = (Leaf)node;
+            int i = Arrays.binarySearch(leaf.keys, key, order);
+            if (i < 0)
+                return leaf;
+            change.modified = true;
+            return new Leaf(removeAt(leaf.keys, i), removeAt(leaf.values, i));
+        }
+        Branch branch = (Branch)node;
+        int i = childIndex(branch.keys, key, order);
+        Node child = remove(branch.children[i], h - 1, key, change);
+        if (!change.modified)
+            return branch;
+        if (child.count() >= (h == 1 ? minLeaf : minBranch)) {
+            Node[] children = branch.children.clone();
+            children[i] = child;
+            return new Branch(branch.keys, children);
+        }
+        // merge with, or redistribute with, a sibling (the left sibling if there is one)
+        int s = i > 0 ? i - 1 : i;
+        Node left = i > 0 ? branch.children[s] : child;
+        Node right = i > 0 ? child : branch.children[s + 1];
+        Object result = h == 1 ? mergeLeaves((Leaf)left, (Leaf)right) :
+                mergeBranches((Branch)left, (Branch)right, branch.keys[s]);
+        if (result instanceof Split) {
+            Split split = (Split)result;
+            Object[] keys = branch.keys.clone();
+            keys[s] = split.separator;
+            Node[] children = branch.children.clone();
+            children[s] = split.left;
+            children[s + 1] = split.right;
+            return new Branch(keys, children);
+        }
+        Node[] children = removeAt(branch.children, s + 1);
+        children[s] = (Node)result;
+        return new Branch(removeAt(branch.keys, s), children);
+    }
+
+    private static Object mergeLeaves(Leaf left, Leaf right) {
+        Object[] keys = concat(left.keys, right.keys);
+        Object[] values = concat(left.values, right.values);
+        int n = keys.length;
+        if (n <= leafCapacity)
+            return new Leaf(keys, values);
+        int half = n >> 1;
+        return new Split(new Leaf(Arrays.copyOf(keys, half), Arrays.copyOf(values, half)),
+                new Leaf(Arrays.copyOfRange(keys, half, n), Arrays.copyOfRange(values, half, n)), keys[half]);
+    }
+
+    private static Object mergeBranches(Branch left, Branch right, Object separator) {
+        Object[] keys = concat(insertAt(left.keys, left.keys.length, separator), right.keys);
+        Node[] children = concat(left.children, right.children);
+        return splitBranch(keys, children);
+    }
+
+    /**
+     * Create a branch from the given keys and children, or a {@link Split} of two branches if there are too many
+     * children.
+     */
+    private static Object splitBranch(Object[] keys, Node[] children) {
+        int n = children.length;
+        if (n <= branchCapacity)
+            return new Branch(keys, children);
+        int half = n >> 1;
+        return new Split(new Branch(Arrays.copyOf(keys, half - 1), Arrays.copyOf(children, half)),
+                new Branch(Arrays.copyOfRange(keys, half, n - 1), Arrays.copyOfRange(children, half, n)),
+                keys[half - 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KK, VV> void forEachEntry(Node node, int h, BiConsumer<? super KK, ? super VV> action) {
+        if (h == 0) {
+            Object[] keys = node.keys;
+            Object[] values = ((Leaf)node).values;
+            for (int i = 0, n = keys.length; i < n; i++)
+                action.accept((KK)keys[i], (VV)values[i]);
+        }
+        else {
+            for (Node child : ((Branch)node).children)
+                forEachEntry(child, h - 1, action);
+        }
+    }
+
+    private static <TT> TT[] insertAt(TT[] array, int index, TT item) {
+        TT[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        result[index] = item;
+        return result;
+    }
+
+    private static <TT> TT[] removeAt(TT[] array, int index) {
+        TT[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static <TT> TT[] concat(TT[] a, TT[] b) {
+        TT[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * Records the effect of an update.
+     */
+    static class Change {
+        boolean modified;
+        boolean added;
+    }
+
+    /**
+     * A node of the tree.  For a leaf, the keys are the keys of the entries; for a branch, they are the separator
+     * keys, where separator {@code i} is a lower bound for the keys in child {@code i + 1}.
+     */
+    abstract static class Node {
+
+        final Object[] keys;
+
+        Node(Object[] keys) {
+            this.keys = keys;
+        }
+
+        abstract int count();
+
+    }
+
+    static final class Leaf extends Node {
+
+        final Object[] values;
+
+        Leaf(Object[] keys, Object[] values) {
+            super(keys);
+            this.values = values;
+        }
+
+        @Override
+        int count() {
+            return keys.length;
+        }
+
+    }
+
+    static final class Branch extends Node {
+
+        final Node[] children;
+
+        Branch(Object[] keys, Node[] children) {
+            super(keys);
+            this.children = children;
+        }
+
+        @Override
+        int count() {
+            return children.length;
+        }
+
+    }
+
+    /**
+     * The result of splitting (or redistributing) a node: two nodes and the separator key between them.
+     */
+    static final class Split {
+
+        final Node left;
+        final Node right;
+        final Object separator;
+
+        Split(Node left, Node right, Object separator) {
+            this.left = left;
+            this.right = right;
+            this.separator = separator;
+        }
+
+    }
+
+    /**
+     * A cursor over the entries of the tree, holding the path from the root to the current leaf, so that it can step
+     * forwards or backwards between leaves.
+     */
+    static final class Cursor {
+
+        private final Node root;
+        private final int height;
+        private final Branch[] path;
+        private final int[] indices;
+        Leaf leaf;
+        int position;
+
+        Cursor(Node root, int height) {
+            this.root = root;
+            this.height = height;
+            path = new Branch[height];
+            indices = new int[height];
+        }
+
+        boolean isValid() {
+            return position >= 0 && position < leaf.keys.length;
+        }
+
+        /**
+         * Position the cursor at the first entry with a key greater than or equal to the given key (or at the first
+         * entry if the key is {@code null}).
+         */
+        void seek(Object key, Comparator<Object> order) {
+            Node node = root;
+            for (int d = 0; d < height; d++) {
+                Branch branch = (Branch)node;
+                int i = key == null ? 0 : childIndex(branch.keys, key, order);
+                path[d] = branch;
+                indices[d] = i;
+                node = branch.children[i];
+            }
+            leaf = (Leaf)node;
+            if (key == null)
+                position = 0;
+            else {
+                int i = Arrays.binarySearch(leaf.keys, key, order);
+                position = i >= 0 ? i : -(i + 1);
+                if (position == leaf.keys.length)
+                    nextLeaf();
+            }
+        }
+
+        void next() {
+            if (++position >= leaf.keys.length)
+                nextLeaf();
+        }
+
+        void previous() {
+            if (--position < 0)
+                previousLeaf();
+        }
+
+        private void nextLeaf() {
+            int d = height - 1;
+            while (d >= 0 && indices[d] == path[d].children.length - 1)
+                d--;
+            if (d < 0) {
+                position = leaf.keys.length; // at end
+                return;
+            }
+            Node node = path[d].children[++indices[d]];
+            for (d++; d < height; d++) {
+                path[d] = (Branch)node;
+                indices[d] = 0;
+                node = path[d].children[0];
+            }
+            leaf = (Leaf)node;
+            position = 0;
+        }
+
+        private void previousLeaf() {
+            int d = height - 1;
+            while (d >= 0 && indices[d] == 0)
+                d--;
+            if (d < 0) {
+                position = -1; // before start
+                return;
+            }
+            Node node = path[d].children[--indices[d]];
+            for (d++; d < height; d++) {
+                Branch branch = (Branch)node;
+                path[d] = branch;
+                indices[d] = branch.children.length - 1;
+                node = branch.children[indices[d]];
+            }
+            leaf = (Leaf)node;
+            position = leaf.keys.length - 1;
+        }
+
+    }
+
+    /**
+     * The entry set of a map or a range view, iterating over the leaf arrays.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    static final class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+
+        private final ImmutableBTreeMap<K, V> map;
+        private final Object lo;
+        private final Object hi;
+
+        EntrySet(ImmutableBTreeMap<K, V> map, Object lo, Object hi) {
+            this.map = map;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator<>(map, lo, hi);
+        }
+
+        @Override
+        public int size() {
+            if (lo == null && hi == null)
+                return map.size;
+            int count = 0;
+            for (Iterator<Map.Entry<K, V>> i = iterator(); i.hasNext(); i.next())
+                count++;
+            return count;
+        }
+
+    }
+
+    /**
+     * An {@link Iterator} over the entries of a map or a range view.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        private final Cursor cursor;
+        private final Object hi;
+        private final Comparator<Object> order;
+
+        EntryIterator(ImmutableBTreeMap<K, V> map, Object lo, Object hi) {
+            cursor = new Cursor(map.root, map.height);
+            order = map.order;
+            this.hi = hi;
+            cursor.seek(lo, order);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.isValid() && (hi == null || order.compare(cursor.leaf.keys[cursor.position], hi) < 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            int i = cursor.position;
+            Leaf leaf = cursor.leaf;
+            cursor.next();
+            return new ImmutableMapEntry<>((K)leaf.keys[i], (V)leaf.values[i]);
+        }
+
+    }
+
+    /**
+     * A view of a range of keys of an {@code ImmutableBTreeMap}.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class RangeView<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+        private final ImmutableBTreeMap<K, V> map;
+        private final K lo;
+        private final K hi;
+
+        RangeView(ImmutableBTreeMap<K, V> map, K lo, K hi) {
+            this.map = map;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(Object key) {
+            return (lo == null || map.order.compare(key, lo) >= 0) && (hi == null || map.order.compare(key, hi) < 0);
+        }
+
+        /**
+         * Get the {@link Comparator} used to order the keys.
+         *
+         * @return          the {@link Comparator}, or {@code null} if the keys are in natural order
+         */
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator;
+        }
+
+        /**
+         * Get the value for the specified key, if the key is within the range of the view.
+         *
+         * @param   key     the key
+         * @return          the value, or {@code null} if the key is not present or not within the range
+         * @throws  NullPointerException    if the key is {@code null}
+         */
+        @Override
+        public V get(Object key) {
+            return inRange(Objects.requireNonNull(key)) ? map.get(key) : null;
+        }
+
+        /**
+         * Test whether the view contains the specified key.
+         *
+         * @param   key     the key
+         * @return          {@code true} if the key is within the range of the view and present in the map
+         * @throws  NullPointerException    if the key is {@code null}
+         */
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(Objects.requireNonNull(key)) && map.containsKey(key);
+        }
+
+        /**
+         * Test whether the view is empty.  This requires only a single search of the tree.
+         *
+         * @return          {@code true} if the view is empty
+         */
+        @Override
+        public boolean isEmpty() {
+            return !new EntryIterator<>(map, lo, hi).hasNext();
+        }
+
+        /**
+         * Get a {@link Set} of the entries in the view, in key order.  The {@code size()} of the set is found by
+         * iterating over the range.
+         *
+         * @return          the entry set
+         */
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new EntrySet<>(map, lo, hi);
+        }
+
+        /**
+         * Perform the given action on each entry of the view, in key order, traversing the leaf arrays directly.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            Objects.requireNonNull(action);
+            Cursor cursor = new Cursor(map.root, map.height);
+            cursor.seek(lo, map.order);
+            while (cursor.isValid()) {
+                Object[] keys = cursor.leaf.keys;
+                Object[] values = cursor.leaf.values;
+                for (int i = cursor.position, n = keys.length; i < n; i++) {
+                    if (hi != null && map.order.compare(keys[i], hi) >= 0)
+                        return;
+                    action.accept((K)keys[i], (V)values[i]);
+                }
+                cursor.position = keys.length - 1;
+                cursor.next();
+            }
+        }
+
+        /**
+         * Get the first (lowest) key in the view.
+         *
+         * @return          the first key
+         * @throws  NoSuchElementException  if the view is empty
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public K firstKey() {
+            Cursor cursor = new Cursor(map.root, map.height);
+            cursor.seek(lo, map.order);
+            if (!cursor.isValid() || !inRange(cursor.leaf.keys[cursor.position]))
+                throw new NoSuchElementException();
+            return (K)cursor.leaf.keys[cursor.position];
+        }
+
+        /**
+         * Get the last (highest) key in the view.
+         *
+         * @return          the last key
+         * @throws  NoSuchElementException  if the view is empty
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public K lastKey() {
+            if (hi == null)
+                return lastInRange(map.lastKey());
+            Cursor cursor = new Cursor(map.root, map.height);
+            cursor.seek(hi, map.order);
+            cursor.previous();
+            if (!cursor.isValid())
+                throw new NoSuchElementException();
+            return lastInRange((K)cursor.leaf.keys[cursor.position]);
+        }
+
+        private K lastInRange(K key) {
+            if (!inRange(key))
+                throw new NoSuchElementException();
+            return key;
+        }
+
+        /**
+         * Get a view of the portion of this view with keys from {@code fromKey} (inclusive) to {@code toKey}
+         * (exclusive).
+         *
+         * @param   fromKey     the low end of the range (inclusive)
+         * @param   toKey       the high end of the range (exclusive)
+         * @return              the view
+         * @throws  IllegalArgumentException    if {@code fromKey} is greater than {@code toKey}, or either key is
+         *                                      outside the range of this view
+         * @throws  NullPointerException        if either key is {@code null}
+         */
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            if (map.order.compare(Objects.requireNonNull(fromKey), Objects.requireNonNull(toKey)) > 0)
+                throw new IllegalArgumentException("fromKey > toKey");
+            return new RangeView<>(map, checkBound(fromKey), checkBound(toKey));
+        }
+
+        /**
+         * Get a view of the portion of this view with keys less than {@code toKey}.
+         *
+         * @param   toKey       the high end of the range (exclusive)
+         * @return              the view
+         * @throws  IllegalArgumentException    if the key is outside the range of this view
+         * @throws  NullPointerException        if the key is {@code null}
+         */
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return new RangeView<>(map, lo, checkBound(Objects.requireNonNull(toKey)));
+        }
+
+        /**
+         * Get a view of the portion of this view with keys greater than or equal to {@code fromKey}.
+         *
+         * @param   fromKey     the low end of the range (inclusive)
+         * @return              the view
+         * @throws  IllegalArgumentException    if the key is outside the range of this view
+         * @throws  NullPointerException        if the key is {@code null}
+         */
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return new RangeView<>(map, checkBound(Objects.requireNonNull(fromKey)), hi);
+        }
+
+        private K checkBound(K key) {
+            if ((lo != null && map.order.compare(key, lo) < 0) || (hi != null && map.order.compare(key, hi) > 0))
+                throw new IllegalArgumentException("Key out of range");
+            return key;
+        }
+
+    }
+
+    /**
+     * A builder to create an {@code ImmutableBTreeMap} from entries supplied in ascending key order, in O(n) time.
+     * The leaves and branches are filled to capacity (apart from the last two at each level, which share the
+     * remainder), so the resulting tree is as compact as possible.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class Builder<K, V> {
+
+        public static final int defaultCapacity = 64;
+
+        private final Comparator<? super K> comparator;
+        private final Comparator<Object> order;
+        private Object[] keys;
+        private Object[] values;
+        private int size;
+
+        /**
+         * Construct a {@code Builder}.
+         *
+         * @param   comparator      the {@link Comparator} ({@code null} for natural ordering)
+         * @param   expectedSize    the expected number of entries
+         */
+        @SuppressWarnings("unchecked")
+        public Builder(Comparator<? super K> comparator, int expectedSize) {
+            if (expectedSize < 0)
+                throw new IllegalArgumentException("Expected size must not be negative");
+            this.comparator = comparator;
+            order = comparator == null ? naturalOrder : (Comparator<Object>)comparator;
+            keys = new Object[Math.max(expectedSize, 1)];
+            values = new Object[keys.length];
+        }
+
+        /**
+         * Get the number of entries added so far.
+         *
+         * @return          the number of entries
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Add an entry.  The key must be greater than the key of the previous entry.
+         *
+         * @param   key     the key
+         * @param   value   the value
+         * @return          {@code this} (for chaining)
+         * @throws  IllegalArgumentException    if the key is not greater than the previous key
+         * @throws  NullPointerException        if the key is {@code null}
+         */
+        public Builder<K, V> put(K key, V value) {
+            Objects.requireNonNull(key);
+            if (size > 0 && order.compare(keys[size - 1], key) >= 0)
+                throw new IllegalArgumentException("Keys must be in ascending order: " + key);
+            if (size == keys.length) {
+                int newLength = size + (size >> 1) + 1;
+                keys = Arrays.copyOf(keys, newLength);
+                values = Arrays.copyOf(values, newLength);
+            }
+            keys[size] = key;
+            values[size++] = value;
+            return this;
+        }
+
+        /**
+         * Build the map.
+         *
+         * @return          the {@code ImmutableBTreeMap}
+         */
+        public ImmutableBTreeMap<K, V> build() {
+            int n = size;
+            if (n == 0)
+                return emptyMap(comparator);
+            int[] bounds = groupBounds(n, leafCapacity, minLeaf);
+            int count = bounds.length - 1;
+            Node[] nodes = new Node[count];
+            Object[] lowKeys = new Object[count];
+            for (int i = 0; i < count; i++) {
+                nodes[i] = new Leaf(Arrays.copyOfRange(keys, bounds[i], bounds[i + 1]),
+                        Arrays.copyOfRange(values, bounds[i], bounds[i + 1]));
+                lowKeys[i] = keys[bounds[i]];
+            }
+            int h = 0;
+            while (count > 1) {
+                h++;
+                bounds = groupBounds(count, branchCapacity, minBranch);
+                int parentCount = bounds.length - 1;
+                Node[] parents = new Node[parentCount];
+                Object[] parentLowKeys = new Object[parentCount];
+                for (int i = 0; i < parentCount; i++) {
+                    int from = bounds[i];
+                    int to = bounds[i + 1];
+                    parents[i] = new Branch(Arrays.copyOfRange(lowKeys, from + 1, to),
+                            Arrays.copyOfRange(nodes, from, to));
+                    parentLowKeys[i] = lowKeys[from];
+                }
+                nodes = parents;
+                lowKeys = parentLowKeys;
+                count = parentCount;
+            }
+            return new ImmutableBTreeMap<>(comparator, nodes[0], h, n);
+        }
+
+        /**
+         * Divide {@code n} items into groups of the given capacity, sharing the remainder between the last two groups
+         * if the last group would otherwise be below the minimum.
+         */
+        static int[] groupBounds(int n, int capacity, int minimum) {
+            int groups = (n + capacity - 1) / capacity;
+            int[] bounds = new int[groups + 1];
+            for (int i = 0; i < groups; i++)
+                bounds[i] = i * capacity;
+            bounds[groups] = n;
+            if (groups > 1 && n - bounds[groups - 1] < minimum)
+                bounds[groups - 1] = (bounds[groups - 2] + n) >>> 1;
+            return bounds;
+        }
+
+    }
+
+}
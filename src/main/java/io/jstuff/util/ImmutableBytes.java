@@ -0,0 +1,436 @@
+/*
+ * @(#) ImmutableBytes.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable sequence of bytes, backed by a portion of either a byte array or a {@link ByteBuffer} (which may be a
+ * direct buffer).  Slices share the same backing storage, so no copying takes place until the bytes are explicitly
+ * copied out.
+ * <br>
+ * **IMPORTANT &ndash; the sequence is immutable only if the array or buffer is not subsequently modified.**
+ *
+ * @author  Peter Wall
+ */
+public class ImmutableBytes implements Comparable<ImmutableBytes> {
+
+    private static final byte[] emptyByteArray = new byte[0];
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+    private static final ImmutableBytes emptyBytes = new ImmutableBytes(ByteBuffer.wrap(emptyByteArray), 0, 0);
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private int hash;
+
+    /**
+     * Construct an {@code ImmutableBytes} with the given array, offset and length.
+     * <br>
+     * **IMPORTANT &ndash; the sequence is immutable only if the array is not subsequently modified.**
+     *
+     * @param   array       the array
+     * @param   offset      the offset of the first byte in the array
+     * @param   length      the number of bytes
+     * @throws  IndexOutOfBoundsException if the offset or length is outside the bounds of the array
+     */
+    public ImmutableBytes(byte[] array, int offset, int length) {
+        this(ByteBuffer.wrap(array), checkRange(array.length, offset, length), length);
+    }
+
+    /**
+     * Construct an {@code ImmutableBytes} with the given array (using the entire array).
+     * <br>
+     * **IMPORTANT &ndash; the sequence is immutable only if the array is not subsequently modified.**
+     *
+     * @param   array       the array
+     */
+    public ImmutableBytes(byte[] array) {
+        this(ByteBuffer.wrap(array), 0, array.length);
+    }
+
+    /**
+     * Construct an {@code ImmutableBytes} from the remaining bytes (between the position and the limit) of a
+     * {@link ByteBuffer}.  The position, limit and byte order of the supplied buffer are not affected, and later
+     * changes to them will not affect the {@code ImmutableBytes}.
+     * <br>
+     * **IMPORTANT &ndash; the sequence is immutable only if the buffer contents are not subsequently modified.**
+     *
+     * @param   buffer      the {@link ByteBuffer}
+     */
+    public ImmutableBytes(ByteBuffer buffer) {
+        this(buffer.duplicate(), buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Internal constructor to prevent repeating range check.
+     *
+     * @param   buffer      the {@link ByteBuffer} (not shared outside this class, and always big-endian, which is the
+     *                      default for a new, duplicated or wrapped buffer)
+     * @param   offset      the absolute offset within the buffer
+     * @param   length      the number of bytes
+     */
+    private ImmutableBytes(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Get the number of bytes in the sequence.
+     *
+     * @return      the number of bytes
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Return {@code true} if the sequence is empty.
+     *
+     * @return      {@code true} if the sequence is empty
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Get the byte at the specified index.
+     *
+     * @param   index       the index
+     * @return              the byte at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the sequence
+     */
+    public byte get(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return buffer.get(offset + index);
+    }
+
+    /**
+     * Test whether the bytes are backed by a direct {@link ByteBuffer}.
+     *
+     * @return      {@code true} if the backing storage is a direct buffer
+     */
+    public boolean isDirect() {
+        return buffer.isDirect();
+    }
+
+    /**
+     * Get a slice of this sequence.  The slice shares the backing storage of this sequence; no bytes are copied.
+     *
+     * @param   fromIndex   the starting index of the slice
+     * @param   toIndex     the ending index of the slice
+     * @return              the slice
+     * @throws  IndexOutOfBoundsException   if the index range is not valid
+     */
+    public ImmutableBytes slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || toIndex < fromIndex)
+            throw new IndexOutOfBoundsException();
+        if (fromIndex == 0 && toIndex == length)
+            return this;
+        return new ImmutableBytes(buffer, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Get a read-only {@link ByteBuffer} view of the bytes, with position zero and limit equal to the size of the
+     * sequence.  The buffer shares the backing storage of this sequence; no bytes are copied.  The returned buffer is
+     * independent of any other, so it may be handed directly to an NIO channel.
+     *
+     * @return              the {@link ByteBuffer}
+     */
+    public ByteBuffer asReadOnlyByteBuffer() {
+        ByteBuffer result = buffer.asReadOnlyBuffer();
+        ((Buffer)result).limit(offset + length);
+        ((Buffer)result).position(offset);
+        return result.slice();
+    }
+
+    /**
+     * Get a {@link List} view of the bytes.  The list shares the backing storage of this sequence, and all modifying
+     * operations will cause an {@link UnsupportedOperationException}.
+     *
+     * @return              the {@link List}
+     */
+    public List<Byte> asList() {
+        return new ByteList(this);
+    }
+
+    /**
+     * Create a copy of the bytes in a new array.
+     *
+     * @return              a new array containing the bytes
+     */
+    public byte[] toByteArray() {
+        if (length == 0)
+            return emptyByteArray;
+        byte[] result = new byte[length];
+        copyTo(0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Copy a portion of the bytes into the supplied array.
+     *
+     * @param   index       the index of the first byte to be copied
+     * @param   dest        the destination array
+     * @param   destOffset  the offset in the destination array
+     * @param   count       the number of bytes to copy
+     * @throws  IndexOutOfBoundsException   if the source or destination range is not valid
+     */
+    public void copyTo(int index, byte[] dest, int destOffset, int count) {
+        if (index < 0 || count < 0 || index > length - count)
+            throw new IndexOutOfBoundsException();
+        checkRange(dest.length, destOffset, count);
+        if (buffer.hasArray())
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + offset + index, dest, destOffset, count);
+        else {
+            ByteBuffer source = buffer.duplicate();
+            ((Buffer)source).position(offset + index);
+            source.get(dest, destOffset, count);
+        }
+    }
+
+    /**
+     * Compare this sequence with another {@code ImmutableBytes} for equality.  The sequences are equal if they have the
+     * same length and the same bytes in the same order, regardless of the form of backing storage.  The comparison
+     * reads eight bytes at a time where possible.
+     *
+     * @param   other       the other object
+     * @return              {@code true} if the objects are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof ImmutableBytes))
+            return false;
+        ImmutableBytes otherBytes = (ImmutableBytes)other;
+        if (length != otherBytes.length)
+            return false;
+        int h1 = hash;
+        int h2 = otherBytes.hash;
+        if (h1 != 0 && h2 != 0 && h1 != h2)
+            return false;
+        return mismatch(otherBytes) < 0;
+    }
+
+    /**
+     * Returns the hash code for this sequence.  The hash code is calculated from the bytes taken eight at a time, so it
+     * is not the same as the hash code of the equivalent {@link List}.  The result is cached.
+     *
+     * @return      the hash code
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            int i = 0;
+            int limit = length - 7;
+            for (; i < limit; i += 8)
+                h = 31 * h + Long.hashCode(buffer.getLong(offset + i));
+            for (; i < length; i++)
+                h = 31 * h + buffer.get(offset + i);
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Compare this sequence with another {@code ImmutableBytes} lexicographically, treating each byte as unsigned.  If
+     * one sequence is a prefix of the other, the shorter sequence is considered the lesser.
+     *
+     * @param   other       the other {@code ImmutableBytes}
+     * @return              a negative number, zero or a positive number as this sequence is less than, equal to or
+     *                      greater than the other
+     */
+    @Override
+    public int compareTo(ImmutableBytes other) {
+        int n = Math.min(length, other.length);
+        int i = 0;
+        int limit = n - 7;
+        for (; i < limit; i += 8) {
+            long a = buffer.getLong(offset + i);
+            long b = other.buffer.getLong(other.offset + i);
+            if (a != b)
+                return Long.compareUnsigned(a, b);
+        }
+        for (; i < n; i++) {
+            int a = buffer.get(offset + i) & 0xFF;
+            int b = other.buffer.get(other.offset + i) & 0xFF;
+            if (a != b)
+                return a - b;
+        }
+        return length - other.length;
+    }
+
+    /**
+     * Find the index of the first byte that differs between this sequence and another of the same length.
+     *
+     * @param   other       the other {@code ImmutableBytes}
+     * @return              the index of the first mismatch, or -1 if there is none
+     */
+    private int mismatch(ImmutableBytes other) {
+        int i = 0;
+        int limit = length - 7;
+        for (; i < limit; i += 8)
+            if (buffer.getLong(offset + i) != other.buffer.getLong(other.offset + i))
+                return i;
+        for (; i < length; i++)
+            if (buffer.get(offset + i) != other.buffer.get(other.offset + i))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns a string representation of this sequence, as pairs of hexadecimal digits.
+     *
+     * @return      the string representation
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = buffer.get(offset + i);
+            chars[i * 2] = hexDigits[(b >> 4) & 0xF];
+            chars[i * 2 + 1] = hexDigits[b & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Get an empty {@code ImmutableBytes}.  This avoids a memory allocation if the sequence is empty.
+     *
+     * @return              an empty sequence
+     */
+    public static ImmutableBytes emptyBytes() {
+        return emptyBytes;
+    }
+
+    /**
+     * Get an {@code ImmutableBytes} using the supplied array.  If the array length is zero, the empty sequence is
+     * returned.
+     * <br>
+     * **IMPORTANT &ndash; the sequence is immutable only if the array is not subsequently modified.**
+     *
+     * @param   array       the array
+     * @return              the sequence
+     */
+    public static ImmutableBytes bytesOf(byte[] array) {
+        return array.length == 0 ? emptyBytes() : new ImmutableBytes(array);
+    }
+
+    /**
+     * Get an {@code ImmutableBytes} using the supplied portion of an array.  If the length is zero, the empty sequence
+     * is returned.
+     * <br>
+     * **IMPORTANT &ndash; the sequence is immutable only if the array is not subsequently modified.**
+     *
+     * @param   array       the array
+     * @param   offset      the offset of the first byte in the array
+     * @param   length      the number of bytes
+     * @return              the sequence
+     * @throws  IndexOutOfBoundsException if the offset or length is outside the bounds of the array
+     */
+    public static ImmutableBytes bytesOf(byte[] array, int offset, int length) {
+        return length == 0 ? emptyBytes() : new ImmutableBytes(array, offset, length);
+    }
+
+    /**
+     * Check that an offset and length fall within an array or buffer of the given size.
+     *
+     * @param   size        the size of the array or buffer
+     * @param   offset      the offset
+     * @param   length      the length
+     * @return              the offset
+     * @throws  IndexOutOfBoundsException if the offset or length is outside the bounds
+     */
+    static int checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length)
+            throw new IndexOutOfBoundsException(offset + ", " + length);
+        return offset;
+    }
+
+    /**
+     * A {@link List} view of the bytes in an {@link ImmutableBytes}.
+     */
+    public static class ByteList extends AbstractList<Byte> implements RandomAccess {
+
+        private final ImmutableBytes bytes;
+
+        /**
+         * Construct a {@code ByteList} over the given {@link ImmutableBytes}.
+         *
+         * @param   bytes       the {@link ImmutableBytes}
+         */
+        ByteList(ImmutableBytes bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Get the number of elements in the list.
+         *
+         * @return      the number of elements
+         */
+        @Override
+        public int size() {
+            return bytes.length;
+        }
+
+        /**
+         * Get the element at the specified index (the boxed {@link Byte} values are cached by the JRE, so this does not
+         * allocate).
+         *
+         * @param   index       the index
+         * @return              the element at that index
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+         */
+        @Override
+        public Byte get(int index) {
+            return bytes.get(index);
+        }
+
+        /**
+         * Get a sub-list of this list, as a view over a slice of the bytes.
+         *
+         * @param   fromIndex   the starting index of the sub-list
+         * @param   toIndex     the ending index of the sub-list
+         * @return              the sub-list
+         * @throws  IndexOutOfBoundsException   if the index range is not valid
+         */
+        @Override
+        public List<Byte> subList(int fromIndex, int toIndex) {
+            return new ByteList(bytes.slice(fromIndex, toIndex));
+        }
+
+    }
+
+}
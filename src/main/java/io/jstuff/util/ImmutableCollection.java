@@ -2,7 +2,7 @@
  * @(#) ImmutableCollection.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2022, 2023, 2024 Peter Wall
+ * Copyright (c) 2021, 2022, 2023, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -28,6 +28,11 @@ package io.jstuff.util;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * Immutable implementation of {@link Collection}.
@@ -81,6 +86,17 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
         super(array, length);
     }
 
+    /**
+     * Internal constructor to create a view of a portion of an array (no range checks are performed).
+     *
+     * @param   offset  the offset of the first array item to be considered part of the collection
+     * @param   length  the length
+     * @param   array   the array
+     */
+    protected ImmutableCollection(int offset, int length, T[] array) {
+        super(array, offset, length);
+    }
+
     /**
      * Test whether the collection contains an object equal to the specified value (which may be {@code null}).
      *
@@ -89,7 +105,7 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
      */
     @Override
     public boolean contains(Object o) {
-        return contains(array, length, o);
+        return indexOf(array, offset, offset + length, o) >= 0;
     }
 
     /**
@@ -99,7 +115,80 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
      */
     @Override
     public Iterator<T> iterator() {
-        return new ImmutableIterator<>(array, length, 0);
+        return new ImmutableIterator<>(array, offset + length, offset);
+    }
+
+    /**
+     * Return a {@link Spliterator} over the collection.  The {@link Spliterator} traverses the underlying array
+     * directly, and splits it into balanced halves for parallel processing.
+     *
+     * @return          the {@link Spliterator}
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ImmutableSpliterator<>(spliteratorCharacteristics(), array, offset, offset + length);
+    }
+
+    /**
+     * Get the characteristics to be reported by the {@link Spliterator} for this collection.
+     *
+     * @return          the characteristics
+     */
+    int spliteratorCharacteristics() {
+        return ImmutableSpliteratorBase.baseCharacteristics;
+    }
+
+    /**
+     * Perform the given action on each element of the collection, iterating over the array directly (without creating
+     * an {@link Iterator}).
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        for (int i = offset, end = offset + length; i < end; i++)
+            action.accept(array[i]);
+    }
+
+    /**
+     * Perform the given action on each element of the collection, supplying the index of the element along with the
+     * element itself.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < length; i++)
+            action.accept(i, array[offset + i]);
+    }
+
+    /**
+     * Test whether any element of the collection matches the given predicate.  The scan stops at the first match.
+     *
+     * @param   predicate   the predicate
+     * @return              {@code true} if any element matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        return findIndex(predicate) >= 0;
+    }
+
+    /**
+     * Find the index of the first element of the collection that matches the given predicate.
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching element, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public int findIndex(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        for (int i = 0; i < length; i++)
+            if (predicate.test(array[offset + i]))
+                return i;
+        return -1;
     }
 
     /**
@@ -113,7 +202,7 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
      */
     @Override
     public Object[] toArray() {
-        return length == 0 ? emptyArray : Arrays.copyOf(array, length);
+        return length == 0 ? emptyArray : Arrays.copyOfRange(array, offset, offset + length);
     }
 
     /**
@@ -135,14 +224,30 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
         if (length == 0)
             return (TT[])emptyArray;
         if (a.length < length)
-            return (TT[])Arrays.copyOf(array, length, a.getClass());
+            return (TT[])Arrays.copyOfRange(array, offset, offset + length, a.getClass());
         T[] target = (T[])a;
-        System.arraycopy(array, 0, target, 0, length);
+        System.arraycopy(array, offset, target, 0, length);
         if (target.length > length)
             target[length] = null;
         return a;
     }
 
+    /**
+     * Copy the underlying array to a new array, allocated using the supplied generator function.  This overrides the
+     * default method added to {@link Collection} in Java 11 (which allocates a zero-length array and then a second
+     * array by reflection), but it may also be called from earlier versions.
+     *
+     * @param   generator   a function to create a new array of the requested size
+     * @param   <TT>        the type of the destination array items
+     * @return              a copy of the active portion of the array
+     * @throws  ArrayStoreException if the values in the collection can't be stored in the destination array
+     */
+    public <TT> TT[] toArray(IntFunction<TT[]> generator) {
+        TT[] target = generator.apply(length);
+        System.arraycopy(array, offset, target, 0, length);
+        return target;
+    }
+
     /**
      * Get the element at the specified index.  This is not part of the standard {@link Collection} interface, but it
      * allows iteration over the members of a collection without needing to instantiate an {@link Iterator}.
@@ -152,7 +257,9 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
      * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the collection
      */
     public T get(int index) {
-        return get(array, length, index);
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return array[offset + index];
     }
 
     /**
@@ -182,17 +289,32 @@ public class ImmutableCollection<T> extends ImmutableCollectionBase<T, T> implem
      * @return          {@code true} if the collection contains the object
      */
     public static <TT> boolean contains(TT[] array, int length, Object o) {
+        return indexOf(array, 0, length, o) >= 0;
+    }
+
+    /**
+     * Find the index in a range of an array of the first item equal to the specified value (which may be
+     * {@code null}).
+     *
+     * @param   array   the array
+     * @param   from    the index of the first item to be examined
+     * @param   to      the index after the last item to be examined
+     * @param   o       the object
+     * @param   <TT>    the type of the array items
+     * @return          the index in the array, or -1 if not found
+     */
+    static <TT> int indexOf(TT[] array, int from, int to, Object o) {
         if (o == null) {
-            for (int i = 0; i < length; i++)
+            for (int i = from; i < to; i++)
                 if (array[i] == null)
-                    return true;
+                    return i;
         }
         else {
-            for (int i = 0; i < length; i++)
+            for (int i = from; i < to; i++)
                 if (o.equals(array[i]))
-                    return true;
+                    return i;
         }
-        return false;
+        return -1;
     }
 
 }
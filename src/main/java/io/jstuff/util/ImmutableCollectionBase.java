@@ -2,7 +2,7 @@
  * @(#) ImmutableCollectionBase.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021 Peter Wall
+ * Copyright (c) 2021, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -36,6 +36,8 @@ import java.util.Collection;
  */
 public abstract class ImmutableCollectionBase<A, E> extends ImmutableBase<A> implements Collection<E> {
 
+    final int offset;
+
     /**
      * Construct an {@code ImmutableCollectionBase} with the supplied array and length.
      *
@@ -43,7 +45,20 @@ public abstract class ImmutableCollectionBase<A, E> extends ImmutableBase<A> imp
      * @param   length  the length (the number of array items to be considered part of the collection)
      */
     ImmutableCollectionBase(A[] array, int length) {
+        this(array, 0, length);
+    }
+
+    /**
+     * Construct an {@code ImmutableCollectionBase} with the supplied array, offset and length.  This allows a
+     * collection to be a view of a portion of an array shared with another collection.
+     *
+     * @param   array   the array
+     * @param   offset  the offset of the first array item to be considered part of the collection
+     * @param   length  the length (the number of array items to be considered part of the collection)
+     */
+    ImmutableCollectionBase(A[] array, int offset, int length) {
         super(array, length);
+        this.offset = offset;
     }
 
     /**
@@ -125,7 +140,7 @@ public abstract class ImmutableCollectionBase<A, E> extends ImmutableBase<A> imp
         sb.append('[');
         int i = 0;
         while (true) {
-            A item = array[i];
+            A item = array[offset + i];
             sb.append(item == this ? "(this Collection)" : item);
             if (++i >= length)
                 break;
@@ -0,0 +1,268 @@
+/*
+ * @(#) ImmutableCollectors.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector} implementations to create {@link ImmutableList}, {@link ImmutableSet} and {@link ImmutableMap}
+ * objects from streams.
+ * <br>
+ * The elements are accumulated in a chain of array chunks, so that adding an element never requires the existing
+ * elements to be copied.  When parallel streams are used, the partial results are combined by linking the chains of
+ * chunks together, again without copying.  The finishing operation copies the elements into a single array of exactly
+ * the required size, which then becomes the backing array of the resulting collection.
+ *
+ * @author  Peter Wall
+ */
+public class ImmutableCollectors {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ImmutableCollectors() {
+    }
+
+    /**
+     * Get a {@link Collector} that accumulates the input elements into an {@link ImmutableList}.
+     *
+     * @param   <T>     the element type
+     * @return          the {@link Collector}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Collector<T, ?, ImmutableList<T>> toImmutableList() {
+        return Collector.of(ChunkedBuffer<T>::new, ChunkedBuffer::add, ChunkedBuffer::append, buffer -> {
+            int n = buffer.size;
+            return n == 0 ? ImmutableList.emptyList() : ImmutableList.listOf((T[])buffer.toArray(new Object[n]));
+        });
+    }
+
+    /**
+     * Get a {@link Collector} that accumulates the input elements into an {@link ImmutableSet}.  Duplicate elements
+     * (according to {@link Object#equals}) are removed, retaining the first occurrence in encounter order.
+     *
+     * @param   <T>     the element type
+     * @return          the {@link Collector}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Collector<T, ?, ImmutableSet<T>> toImmutableSet() {
+        return Collector.of(ChunkedBuffer<T>::new, ChunkedBuffer::add, ChunkedBuffer::append, buffer -> {
+            int n = buffer.size;
+            if (n == 0)
+                return ImmutableSet.emptySet();
+            T[] array = (T[])buffer.toArray(new Object[n]);
+            int[] table = new int[tableSize(n)];
+            int mask = table.length - 1;
+            int count = 0;
+            outer: for (int i = 0; i < n; i++) {
+                T element = array[i];
+                int slot = spread(Objects.hashCode(element)) & mask;
+                int j;
+                while ((j = table[slot] - 1) >= 0) {
+                    if (Objects.equals(element, array[j]))
+                        continue outer;
+                    slot = (slot + 1) & mask;
+                }
+                array[count] = element;
+                table[slot] = ++count;
+            }
+            return ImmutableSet.setOf(count == n ? array : Arrays.copyOf(array, count));
+        });
+    }
+
+    /**
+     * Get a {@link Collector} that accumulates the input elements into an {@link ImmutableMap}, using the supplied
+     * functions to derive the keys and values.  The entries retain the encounter order of the elements.
+     *
+     * @param   keyMapper       the function to derive the key from an element
+     * @param   valueMapper     the function to derive the value from an element
+     * @param   <T>             the element type
+     * @param   <K>             the key type
+     * @param   <V>             the value type
+     * @return                  the {@link Collector}
+     * @throws  IllegalStateException   (when the collector is used) if there are duplicate keys
+     */
+    public static <T, K, V> Collector<T, ?, ImmutableMap<K, V>> toImmutableMap(
+            Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper) {
+        return toImmutableMap(keyMapper, valueMapper, null);
+    }
+
+    /**
+     * Get a {@link Collector} that accumulates the input elements into an {@link ImmutableMap}, using the supplied
+     * functions to derive the keys and values, and the supplied merge function to combine the values for duplicate
+     * keys.  The entries retain the encounter order of the first occurrence of each key.
+     *
+     * @param   keyMapper       the function to derive the key from an element
+     * @param   valueMapper     the function to derive the value from an element
+     * @param   mergeFunction   the function to combine the values for duplicate keys (if {@code null}, duplicate
+     *                          keys will cause an {@link IllegalStateException})
+     * @param   <T>             the element type
+     * @param   <K>             the key type
+     * @param   <V>             the value type
+     * @return                  the {@link Collector}
+     */
+    public static <T, K, V> Collector<T, ?, ImmutableMap<K, V>> toImmutableMap(
+            Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper,
+            BinaryOperator<V> mergeFunction) {
+        return Collector.<T, ChunkedBuffer<ImmutableMapEntry<K, V>>, ImmutableMap<K, V>>of(ChunkedBuffer::new,
+                (buffer, element) -> buffer.add(new ImmutableMapEntry<>(keyMapper.apply(element),
+                        valueMapper.apply(element))),
+                ChunkedBuffer::append,
+                buffer -> finishMap(buffer, mergeFunction));
+    }
+
+    private static <K, V> ImmutableMap<K, V> finishMap(ChunkedBuffer<ImmutableMapEntry<K, V>> buffer,
+            BinaryOperator<V> mergeFunction) {
+        int n = buffer.size;
+        if (n == 0)
+            return ImmutableMap.emptyMap();
+        ImmutableMapEntry<K, V>[] array = buffer.toArray(ImmutableMap.createArray(n));
+        int[] table = new int[tableSize(n)];
+        int mask = table.length - 1;
+        int count = 0;
+        outer: for (int i = 0; i < n; i++) {
+            ImmutableMapEntry<K, V> entry = array[i];
+            K key = entry.getKey();
+            int slot = spread(Objects.hashCode(key)) & mask;
+            int j;
+            while ((j = table[slot] - 1) >= 0) {
+                ImmutableMapEntry<K, V> existing = array[j];
+                if (Objects.equals(key, existing.getKey())) {
+                    if (mergeFunction == null)
+                        throw new IllegalStateException("Duplicate key: " + key);
+                    array[j] = new ImmutableMapEntry<>(existing.getKey(),
+                            mergeFunction.apply(existing.getValue(), entry.getValue()));
+                    continue outer;
+                }
+                slot = (slot + 1) & mask;
+            }
+            array[count] = entry;
+            table[slot] = ++count;
+        }
+        return ImmutableMap.mapOf(count == n ? array : Arrays.copyOf(array, count));
+    }
+
+    /**
+     * Get the size of a hash table (a power of two) with a load factor of no more than 0.5 for the given number of
+     * entries.
+     *
+     * @param   n       the number of entries
+     * @return          the table size
+     */
+    private static int tableSize(int n) {
+        return Integer.highestOneBit(Math.max(n, 2) * 2 - 1) << 1;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A buffer consisting of a chain of array chunks.  New chunks are allocated with increasing size as the buffer
+     * grows, up to a maximum of {@value #maxChunkSize} elements.
+     *
+     * @param   <T>     the element type
+     */
+    static class ChunkedBuffer<T> {
+
+        static final int initialChunkSize = 16;
+        static final int maxChunkSize = 4096;
+
+        private Chunk head;
+        private Chunk tail;
+        private int size;
+
+        /**
+         * Add an element to the buffer.
+         *
+         * @param   element     the element
+         */
+        void add(T element) {
+            Chunk chunk = tail;
+            if (chunk == null)
+                head = tail = chunk = new Chunk(initialChunkSize);
+            else if (chunk.count == chunk.array.length)
+                tail = chunk = chunk.next = new Chunk(Math.min(chunk.array.length * 2, maxChunkSize));
+            chunk.array[chunk.count++] = element;
+            size++;
+        }
+
+        /**
+         * Append the contents of another buffer to this buffer, by linking the other buffer's chain of chunks to the
+         * end of this buffer's chain.  The other buffer must not be used subsequently.
+         *
+         * @param   other       the other buffer
+         * @return              this buffer
+         */
+        ChunkedBuffer<T> append(ChunkedBuffer<T> other) {
+            if (other.head == null)
+                return this;
+            if (head == null)
+                return other;
+            tail.next = other.head;
+            tail = other.tail;
+            size += other.size;
+            return this;
+        }
+
+        /**
+         * Copy the contents of the buffer into an array, which must be of at least the size of the buffer.
+         *
+         * @param   target      the target array
+         * @param   <A>         the target array item type
+         * @return              the target array
+         */
+        <A> A[] toArray(A[] target) {
+            int i = 0;
+            for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+                System.arraycopy(chunk.array, 0, target, i, chunk.count);
+                i += chunk.count;
+            }
+            return target;
+        }
+
+        /**
+         * A single chunk in the chain.
+         */
+        static class Chunk {
+
+            final Object[] array;
+            int count;
+            Chunk next;
+
+            Chunk(int size) {
+                array = new Object[size];
+            }
+
+        }
+
+    }
+
+}
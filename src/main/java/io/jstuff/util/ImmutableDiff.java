@@ -0,0 +1,547 @@
+/*
+ * @(#) ImmutableDiff.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Structural differences between two immutable maps or two immutable lists, and the means of applying such a
+ * difference (a "patch") to produce the new collection.
+ * <br>
+ * {@link #of(Map, Map)} compares two maps in linear time: entries are first compared position by position for as
+ * long as the keys are in the same order (the usual case for successive versions of a map created by
+ * {@code with()}), and the remaining entries are then matched using a hash index of the old map.
+ * <br>
+ * {@link #of(List, List)} compares two lists using the Myers difference algorithm (in its linear-space form), which
+ * finds a shortest edit script in O((N + M) D) time, where D is the number of elements inserted or deleted.
+ *
+ * @author  Peter Wall
+ */
+public final class ImmutableDiff {
+
+    private ImmutableDiff() {
+    }
+
+    /**
+     * Compare two maps.
+     *
+     * @param   oldMap  the old map
+     * @param   newMap  the new map
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     * @return          the {@link MapDiff}
+     * @throws  NullPointerException    if either map is {@code null}
+     */
+    public static <K, V> MapDiff<K, V> of(Map<K, V> oldMap, Map<K, V> newMap) {
+        ImmutableMapEntry<K, V>[] a = ImmutableMap.entryArray(oldMap);
+        ImmutableMapEntry<K, V>[] b = ImmutableMap.entryArray(newMap);
+        int n = oldMap.size();
+        int m = newMap.size();
+        ImmutableMapEntry<K, V>[] added = ImmutableMap.createArray(m);
+        ImmutableMapEntry<K, V>[] removed = ImmutableMap.createArray(n);
+        ImmutableMapEntry<K, V>[] changed = ImmutableMap.createArray(Math.min(n, m));
+        ImmutableMapEntry<K, V>[] replaced = ImmutableMap.createArray(changed.length);
+        int addedCount = 0;
+        int removedCount = 0;
+        int changedCount = 0;
+        int p = 0;
+        while (p < n && p < m && Objects.equals(a[p].getKey(), b[p].getKey())) {
+            if (!Objects.equals(a[p].getValue(), b[p].getValue())) {
+                replaced[changedCount] = a[p];
+                changed[changedCount++] = b[p];
+            }
+            p++;
+        }
+        if (p < n || p < m) {
+            // keys before p have been matched, so only the remaining entries need to be considered
+            int[] index = p < n ? ImmutableMap.createIndex(a, n, n) : null;
+            boolean[] matched = new boolean[n];
+            for (int j = p; j < m; j++) {
+                Object key = b[j].getKey();
+                int i = index == null ? -1 :
+                        ImmutableMap.findIndexed(a, index, key, ImmutableMap.spread(Objects.hashCode(key)));
+                if (i < 0)
+                    added[addedCount++] = b[j];
+                else {
+                    matched[i] = true;
+                    if (!Objects.equals(a[i].getValue(), b[j].getValue())) {
+                        replaced[changedCount] = a[i];
+                        changed[changedCount++] = b[j];
+                    }
+                }
+            }
+            for (int i = p; i < n; i++)
+                if (!matched[i])
+                    removed[removedCount++] = a[i];
+        }
+        return new MapDiff<>(toMap(added, addedCount), toMap(removed, removedCount), toMap(changed, changedCount),
+                toMap(replaced, changedCount));
+    }
+
+    /**
+     * Compare two lists.
+     *
+     * @param   oldList the old list
+     * @param   newList the new list
+     * @param   <T>     the element type
+     * @return          the {@link ListDiff}
+     * @throws  NullPointerException    if either list is {@code null}
+     */
+    public static <T> ListDiff<T> of(List<T> oldList, List<T> newList) {
+        Object[] a = oldList.toArray();
+        Object[] b = newList.toArray();
+        HunkCollector<T> collector = new HunkCollector<>(a, b);
+        if (a.length + b.length > 0) {
+            int max = (a.length + b.length + 1) / 2 + 1;
+            int[] forward = new int[2 * max + 1];
+            int[] backward = new int[2 * max + 1];
+            diff(a, 0, a.length, b, 0, b.length, forward, backward, collector);
+        }
+        return new ListDiff<>(a.length, b.length, collector.finish());
+    }
+
+    /**
+     * Find the edits between {@code a[aFrom, aTo)} and {@code b[bFrom, bTo)}, by finding the "middle snake" of an
+     * optimal edit path and recursing on either side of it.
+     */
+    private static void diff(Object[] a, int aFrom, int aTo, Object[] b, int bFrom, int bTo, int[] forward,
+            int[] backward, HunkCollector<?> collector) {
+        while (aFrom < aTo && bFrom < bTo && Objects.equals(a[aFrom], b[bFrom])) {
+            aFrom++;
+            bFrom++;
+        }
+        while (aTo > aFrom && bTo > bFrom && Objects.equals(a[aTo - 1], b[bTo - 1])) {
+            aTo--;
+            bTo--;
+        }
+        int n = aTo - aFrom;
+        int m = bTo - bFrom;
+        if (n == 0 || m == 0) {
+            collector.edit(aFrom, aTo, bFrom, bTo);
+            return;
+        }
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int offset = (n + m + 1) / 2 + 1;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        for (int d = 0; ; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1]) ?
+                        forward[offset + k + 1] : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int xStart = x;
+                int yStart = y;
+                while (x < n && y < m && Objects.equals(a[aFrom + x], b[bFrom + y])) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                int kb = delta - k;
+                if (odd && kb >= -(d - 1) && kb <= d - 1 && x + backward[offset + kb] >= n) {
+                    diff(a, aFrom, aFrom + xStart, b, bFrom, bFrom + yStart, forward, backward, collector);
+                    diff(a, aFrom + x, aTo, b, bFrom + y, bTo, forward, backward, collector);
+                    return;
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1]) ?
+                        backward[offset + k + 1] : backward[offset + k - 1] + 1;
+                int y = x - k;
+                int xStart = x;
+                int yStart = y;
+                while (x < n && y < m && Objects.equals(a[aTo - 1 - x], b[bTo - 1 - y])) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                int kf = delta - k;
+                if (!odd && kf >= -d && kf <= d && x + forward[offset + kf] >= n) {
+                    diff(a, aFrom, aTo - x, b, bFrom, bTo - y, forward, backward, collector);
+                    diff(a, aTo - xStart, aTo, b, bTo - yStart, bTo, forward, backward, collector);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static <K, V> Map<K, V> toMap(ImmutableMapEntry<K, V>[] array, int count) {
+        return MiniMap.fromEntries(count > 3 && count < array.length ? Arrays.copyOf(array, count) : array, count);
+    }
+
+    /**
+     * The differences between two maps.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class MapDiff<K, V> {
+
+        private final Map<K, V> added;
+        private final Map<K, V> removed;
+        private final Map<K, V> changed;
+        private final Map<K, V> replaced;
+
+        MapDiff(Map<K, V> added, Map<K, V> removed, Map<K, V> changed, Map<K, V> replaced) {
+            this.added = added;
+            this.removed = removed;
+            this.changed = changed;
+            this.replaced = replaced;
+        }
+
+        /**
+         * Get the entries present in the new map but not in the old.
+         *
+         * @return          the added entries
+         */
+        public Map<K, V> getAdded() {
+            return added;
+        }
+
+        /**
+         * Get the entries present in the old map but not in the new.
+         *
+         * @return          the removed entries
+         */
+        public Map<K, V> getRemoved() {
+            return removed;
+        }
+
+        /**
+         * Get the entries whose keys are present in both maps with different values, with the new values.
+         *
+         * @return          the changed entries
+         */
+        public Map<K, V> getChanged() {
+            return changed;
+        }
+
+        /**
+         * Get the entries whose keys are present in both maps with different values, with the old values.
+         *
+         * @return          the replaced entries
+         */
+        public Map<K, V> getReplaced() {
+            return replaced;
+        }
+
+        /**
+         * Test whether the maps were equal.
+         *
+         * @return          {@code true} if there are no differences
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        /**
+         * Apply the differences to a map (normally the old map), to create the new map.  The entries of the map that
+         * are not removed are copied to a new array in a single pass (using a hash index of the removed keys), and the
+         * changed and added entries are then applied to that array; the unchanged {@link ImmutableMapEntry} objects
+         * are shared.  If there are no differences, the map is returned unchanged if it is already a {@link MiniMap}
+         * or an {@link ImmutableMap}, otherwise it is copied.
+         *
+         * @param   map     the map
+         * @return          the new map (a {@link MiniMap} if it has three or fewer entries, otherwise an
+         *                  {@link ImmutableMap})
+         */
+        public Map<K, V> patch(Map<K, V> map) {
+            if (isEmpty() && (map instanceof MiniMap || map instanceof ImmutableMap))
+                return map;
+            ImmutableMapEntry<K, V>[] entries = ImmutableMap.entryArray(map);
+            int n = map.size();
+            ImmutableMapEntry<K, V>[] array = ImmutableMap.createArray(Math.max(n - removed.size(), 0) +
+                    added.size());
+            int count = 0;
+            if (removed.isEmpty()) {
+                System.arraycopy(entries, 0, array, 0, n);
+                count = n;
+            }
+            else {
+                ImmutableMapEntry<K, V>[] removedEntries = ImmutableMap.entryArray(removed);
+                int[] index = ImmutableMap.createIndex(removedEntries, removed.size(), removed.size());
+                for (int i = 0; i < n; i++) {
+                    ImmutableMapEntry<K, V> entry = entries[i];
+                    Object key = entry.getKey();
+                    if (ImmutableMap.findIndexed(removedEntries, index, key,
+                            ImmutableMap.spread(Objects.hashCode(key))) < 0) {
+                        if (count == array.length) // the map did not contain all of the removed keys
+                            array = Arrays.copyOf(array, n + added.size());
+                        array[count++] = entry;
+                    }
+                }
+            }
+            ImmutableMap.Transient<K, V> editor = new ImmutableMap.Transient<>(array, count, false);
+            changed.forEach(editor::put);
+            added.forEach(editor::put);
+            ImmutableMap<K, V> result = editor.persistent();
+            return result.length <= 3 ? MiniMap.fromEntries(result.array, result.length) : result;
+        }
+
+        /**
+         * Create a string representation of this {@code MapDiff}, showing the added, removed and changed entries.
+         *
+         * @return          the string representation
+         */
+        @Override
+        public String toString() {
+            return "MapDiff(added=" + added + ", removed=" + removed + ", changed=" + changed + ')';
+        }
+
+    }
+
+    /**
+     * The differences between two lists, as a sequence of {@link Hunk}s in ascending order of position.
+     *
+     * @param   <T>     the element type
+     */
+    public static class ListDiff<T> {
+
+        private final int oldSize;
+        private final int newSize;
+        private final List<Hunk<T>> hunks;
+
+        ListDiff(int oldSize, int newSize, List<Hunk<T>> hunks) {
+            this.oldSize = oldSize;
+            this.newSize = newSize;
+            this.hunks = hunks;
+        }
+
+        /**
+         * Get the size of the old list.
+         *
+         * @return          the size of the old list
+         */
+        public int getOldSize() {
+            return oldSize;
+        }
+
+        /**
+         * Get the size of the new list.
+         *
+         * @return          the size of the new list
+         */
+        public int getNewSize() {
+            return newSize;
+        }
+
+        /**
+         * Get the {@link Hunk}s.
+         *
+         * @return          the {@link List} of {@link Hunk}s
+         */
+        public List<Hunk<T>> getHunks() {
+            return hunks;
+        }
+
+        /**
+         * Test whether the lists were equal.
+         *
+         * @return          {@code true} if there are no differences
+         */
+        public boolean isEmpty() {
+            return hunks.isEmpty();
+        }
+
+        /**
+         * Apply the differences to a list (normally the old list), to create the new list.  The unchanged ranges of
+         * the list are copied in bulk to a single new array.
+         *
+         * @param   list    the list
+         * @return          the new list
+         * @throws  IllegalArgumentException    if the size of the list is not the size of the old list
+         */
+        @SuppressWarnings("unchecked")
+        public ImmutableList<T> patch(List<T> list) {
+            if (list.size() != oldSize)
+                throw new IllegalArgumentException("List size " + list.size() + " does not match diff, expected " +
+                        oldSize);
+            if (hunks.isEmpty() && list instanceof ImmutableList)
+                return (ImmutableList<T>)list;
+            Object[] source;
+            int offset;
+            if (list instanceof ImmutableList) {
+                ImmutableList<T> immutableList = (ImmutableList<T>)list;
+                source = immutableList.array;
+                offset = immutableList.offset;
+            }
+            else {
+                source = list.toArray();
+                offset = 0;
+            }
+            Object[] result = new Object[newSize];
+            int from = 0;
+            int to = 0;
+            for (Hunk<T> hunk : hunks) {
+                int unchanged = hunk.oldIndex - from;
+                System.arraycopy(source, offset + from, result, to, unchanged);
+                to += unchanged;
+                for (T element : hunk.inserted)
+                    result[to++] = element;
+                from = hunk.oldIndex + hunk.deleted.size();
+            }
+            System.arraycopy(source, offset + from, result, to, oldSize - from);
+            return newSize == 0 ? ImmutableList.emptyList() : ImmutableList.listOf((T[])result);
+        }
+
+        /**
+         * Create a string representation of this {@code ListDiff}, showing the {@link Hunk}s.
+         *
+         * @return          the string representation
+         */
+        @Override
+        public String toString() {
+            return "ListDiff" + hunks;
+        }
+
+    }
+
+    /**
+     * A single change in a {@link ListDiff}: a (possibly empty) range of elements deleted from the old list, replaced
+     * by a (possibly empty) range of elements inserted from the new list.
+     *
+     * @param   <T>     the element type
+     */
+    public static class Hunk<T> {
+
+        private final int oldIndex;
+        private final int newIndex;
+        private final ImmutableList<T> deleted;
+        private final ImmutableList<T> inserted;
+
+        Hunk(int oldIndex, int newIndex, ImmutableList<T> deleted, ImmutableList<T> inserted) {
+            this.oldIndex = oldIndex;
+            this.newIndex = newIndex;
+            this.deleted = deleted;
+            this.inserted = inserted;
+        }
+
+        /**
+         * Get the index in the old list of the first deleted element (or of the insertion point).
+         *
+         * @return          the index in the old list
+         */
+        public int getOldIndex() {
+            return oldIndex;
+        }
+
+        /**
+         * Get the index in the new list of the first inserted element (or of the deletion point).
+         *
+         * @return          the index in the new list
+         */
+        public int getNewIndex() {
+            return newIndex;
+        }
+
+        /**
+         * Get the elements deleted from the old list.
+         *
+         * @return          the deleted elements
+         */
+        public ImmutableList<T> getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Get the elements inserted in the new list.
+         *
+         * @return          the inserted elements
+         */
+        public ImmutableList<T> getInserted() {
+            return inserted;
+        }
+
+        /**
+         * Create a string representation of this {@code Hunk}, in the form "@oldIndex,+newIndex -deleted +inserted".
+         *
+         * @return          the string representation
+         */
+        @Override
+        public String toString() {
+            return "@" + oldIndex + ",+" + newIndex + " -" + deleted + " +" + inserted;
+        }
+
+    }
+
+    /**
+     * Collects the edits found by the diff (which are reported in order) into {@link Hunk}s, merging adjacent edits.
+     */
+    static final class HunkCollector<T> {
+
+        private final Object[] a;
+        private final Object[] b;
+        private final List<Hunk<T>> hunks = new ArrayList<>();
+        private int aFrom = -1;
+        private int aTo;
+        private int bFrom;
+        private int bTo;
+
+        HunkCollector(Object[] a, Object[] b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        void edit(int aFrom, int aTo, int bFrom, int bTo) {
+            if (aFrom == aTo && bFrom == bTo)
+                return;
+            if (this.aFrom >= 0 && aFrom == this.aTo && bFrom == this.bTo) {
+                this.aTo = aTo;
+                this.bTo = bTo;
+                return;
+            }
+            flush();
+            this.aFrom = aFrom;
+            this.aTo = aTo;
+            this.bFrom = bFrom;
+            this.bTo = bTo;
+        }
+
+        List<Hunk<T>> finish() {
+            flush();
+            return hunks.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(hunks);
+        }
+
+        private void flush() {
+            if (aFrom >= 0)
+                hunks.add(new Hunk<>(aFrom, bFrom, slice(a, aFrom, aTo), slice(b, bFrom, bTo)));
+            aFrom = -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <TT> ImmutableList<TT> slice(Object[] array, int from, int to) {
+            return from == to ? ImmutableList.emptyList() :
+                    ImmutableList.listOf((TT[])Arrays.copyOfRange(array, from, to));
+        }
+
+    }
+
+}
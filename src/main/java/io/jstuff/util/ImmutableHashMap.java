@@ -0,0 +1,914 @@
+/*
+ * @(#) ImmutableHashMap.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A persistent immutable {@link Map}, implemented as a Compressed Hash-Array Mapped Prefix-tree (CHAMP).  The
+ * "modifying" operations {@link #with(Object, Object)} and {@link #without(Object)} return a new
+ * {@code ImmutableHashMap}, sharing all but the nodes on the path to the affected entry with the original, so each such
+ * operation takes O(log<sub>32</sub> n) time rather than the O(n) cost of copying the array of an
+ * {@link ImmutableMap}.
+ * <br>
+ * Each node holds its key-value pairs and its sub-nodes in a single array, selected by two 32-bit bitmaps.  Nodes are
+ * always kept in a canonical form (a sub-node holding a single entry is inlined into its parent), so two maps with the
+ * same contents have the same structure, and {@link #equals(Object)} may compare them node by node, skipping shared
+ * sub-trees.
+ *
+ * @author  Peter Wall
+ * @param   <K>     the key type
+ * @param   <V>     the value type
+ */
+public class ImmutableHashMap<K, V> extends AbstractMap<K, V> {
+
+    static final int bits = 5;
+    static final int mask = (1 << bits) - 1;
+    static final int hashBits = 32;
+    static final int maxDepth = (hashBits + bits - 1) / bits + 1;
+
+    static final Object notFound = new Object();
+
+    private static final ImmutableHashMap<?, ?> emptyMap =
+            new ImmutableHashMap<>(new BitmapNode(null, 0, 0, ImmutableBase.emptyArray), 0);
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * Internal constructor.
+     *
+     * @param   root    the root node
+     * @param   size    the number of entries
+     */
+    private ImmutableHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Get the number of entries in the map.
+     *
+     * @return          the number of entries
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the map is empty.
+     *
+     * @return          {@code true} if the map is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the value for the specified key.
+     *
+     * @param   key     the key
+     * @return          the value, or {@code null} if the key is not present
+     */
+    @Override
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Get the value for the specified key, or the supplied default if the key is not present.
+     *
+     * @param   key             the key
+     * @param   defaultValue    the default value
+     * @return                  the value, or the default value if the key is not present
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        Object value = root.find(key, hash(key), 0);
+        return value == notFound ? defaultValue : (V)value;
+    }
+
+    /**
+     * Test whether the map contains the specified key.
+     *
+     * @param   key     the key
+     * @return          {@code true} if the map contains the key
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return root.find(key, hash(key), 0) != notFound;
+    }
+
+    /**
+     * Create a new {@code ImmutableHashMap} with the specified key mapped to the specified value.  If the map already
+     * maps the key to an equal value, the original map is returned.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new {@code ImmutableHashMap}
+     */
+    public ImmutableHashMap<K, V> with(K key, V value) {
+        Change change = new Change();
+        Node newRoot = root.updated(null, key, value, hash(key), 0, change);
+        if (!change.modified)
+            return this;
+        return new ImmutableHashMap<>(newRoot, change.added ? size + 1 : size);
+    }
+
+    /**
+     * Create a new {@code ImmutableHashMap} with the specified key removed.  If the map does not contain the key, the
+     * original map is returned.
+     *
+     * @param   key     the key
+     * @return          the new {@code ImmutableHashMap}
+     */
+    public ImmutableHashMap<K, V> without(Object key) {
+        Change change = new Change();
+        Node newRoot = root.removed(null, key, hash(key), 0, change);
+        if (!change.modified)
+            return this;
+        return size == 1 ? emptyMap() : new ImmutableHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Create a {@link Transient} editor initialised with the entries of this map, for applying a batch of changes
+     * without creating an intermediate map for each change.  This is an O(1) operation; nodes are copied only when
+     * they are first modified by the editor.
+     *
+     * @return          the {@link Transient}
+     */
+    public Transient<K, V> toTransient() {
+        return new Transient<>(root, size);
+    }
+
+    /**
+     * Perform the given action on each entry of the map, without creating {@link Map.Entry} objects.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        NodeCursor cursor = new NodeCursor(root);
+        while (cursor.hasNext()) {
+            int i = cursor.index;
+            cursor.index = i + 2;
+            action.accept((K)cursor.content[i], (V)cursor.content[i + 1]);
+        }
+    }
+
+    /**
+     * Get a {@link Set} of the entries in the map.
+     *
+     * @return          the entry set
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new CursorIterator<Map.Entry<K, V>>(root) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Map.Entry<K, V> element(Object[] content, int index) {
+                        return new ImmutableMapEntry<>((K)content[index], (V)content[index + 1]);
+                    }
+                };
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get a {@link Set} of the keys in the map.
+     *
+     * @return          the key set
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new CursorIterator<K>(root) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    K element(Object[] content, int index) {
+                        return (K)content[index];
+                    }
+                };
+            }
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get a {@link Collection} of the values in the map.
+     *
+     * @return          the values
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new CursorIterator<V>(root) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V element(Object[] content, int index) {
+                        return (V)content[index + 1];
+                    }
+                };
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Create an {@link ImmutableMap} containing the entries of this map.
+     *
+     * @return          the {@link ImmutableMap}
+     */
+    public ImmutableMap<K, V> toImmutableMap() {
+        ImmutableMapEntry<K, V>[] array = ImmutableMap.createArray(size);
+        int[] n = new int[1];
+        forEach((k, v) -> array[n[0]++] = new ImmutableMapEntry<>(k, v));
+        return ImmutableMap.mapOf(array);
+    }
+
+    /**
+     * Compare this map with another object for equality.  If the other object is also an {@code ImmutableHashMap},
+     * the comparison is performed node by node, skipping any sub-trees shared between the two maps.
+     *
+     * @param   other   the other object
+     * @return          {@code true} if the other object is a {@link Map} with the same entries
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (other instanceof ImmutableHashMap) {
+            ImmutableHashMap<?, ?> otherMap = (ImmutableHashMap<?, ?>)other;
+            return size == otherMap.size && root.structurallyEquals(otherMap.root);
+        }
+        return super.equals(other);
+    }
+
+    /**
+     * Get the hash code for this map, as specified for {@link Map#hashCode()}.
+     *
+     * @return          the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        NodeCursor cursor = new NodeCursor(root);
+        while (cursor.hasNext()) {
+            int i = cursor.index;
+            cursor.index = i + 2;
+            result += Objects.hashCode(cursor.content[i]) ^ Objects.hashCode(cursor.content[i + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * Get an empty {@code ImmutableHashMap}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @param   <KK>    the key type
+     * @param   <VV>    the value type
+     * @return          an empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <KK, VV> ImmutableHashMap<KK, VV> emptyMap() {
+        return (ImmutableHashMap<KK, VV>)emptyMap;
+    }
+
+    /**
+     * Create an {@code ImmutableHashMap} containing the entries of another {@link Map}.
+     *
+     * @param   map     the other {@link Map}
+     * @param   <KK>    the key type
+     * @param   <VV>    the value type
+     * @return          the new map
+     */
+    public static <KK, VV> ImmutableHashMap<KK, VV> from(Map<? extends KK, ? extends VV> map) {
+        if (map instanceof ImmutableHashMap) {
+            @SuppressWarnings("unchecked")
+            ImmutableHashMap<KK, VV> result = (ImmutableHashMap<KK, VV>)map;
+            return result;
+        }
+        Transient<KK, VV> editor = new Transient<>(emptyMap.root, 0);
+        for (Map.Entry<? extends KK, ? extends VV> entry : map.entrySet())
+            editor.put(entry.getKey(), entry.getValue());
+        return editor.persistent();
+    }
+
+    static int hash(Object key) {
+        return Objects.hashCode(key);
+    }
+
+    static int bitPosition(int hash, int shift) {
+        return 1 << ((hash >>> shift) & mask);
+    }
+
+    /**
+     * Records the effect of an update: whether anything was modified, and whether a new entry was added (as opposed to
+     * a value being replaced).
+     */
+    static class Change {
+        boolean modified;
+        boolean added;
+
+        Change reset() {
+            modified = false;
+            added = false;
+            return this;
+        }
+    }
+
+    /**
+     * A single-owner mutable editor for an {@code ImmutableHashMap}, created by {@link ImmutableHashMap#toTransient()}.
+     * Each node created or copied by the editor holds an ownership token unique to the editor, and nodes holding that
+     * token are modified in place; other nodes (shared with the original map) are copied on first modification.
+     * {@link #persistent()} creates an {@code ImmutableHashMap} from the editor's trie in O(1) time, after which the
+     * editor may no longer be used.
+     * <br>
+     * A {@code Transient} is not thread-safe; it should be confined to a single thread or task.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class Transient<K, V> {
+
+        private final Object edit = new Object();
+        private final Change change = new Change();
+        private Node root;
+        private int size;
+        private boolean active;
+
+        /**
+         * Construct a {@code Transient} from the internal structure of a map.
+         *
+         * @param   root    the root node
+         * @param   size    the number of entries
+         */
+        Transient(Node root, int size) {
+            this.root = root;
+            this.size = size;
+            active = true;
+        }
+
+        /**
+         * Get the number of entries.
+         *
+         * @return          the number of entries
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public int size() {
+            checkActive();
+            return size;
+        }
+
+        /**
+         * Get the value for the specified key.
+         *
+         * @param   key     the key
+         * @return          the value, or {@code null} if the key is not present
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            checkActive();
+            Object value = root.find(key, hash(key), 0);
+            return value == notFound ? null : (V)value;
+        }
+
+        /**
+         * Test whether the specified key is present.
+         *
+         * @param   key     the key
+         * @return          {@code true} if the key is present
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public boolean containsKey(Object key) {
+            checkActive();
+            return root.find(key, hash(key), 0) != notFound;
+        }
+
+        /**
+         * Map the specified key to the specified value, replacing the value if the key is already present.
+         *
+         * @param   key     the key
+         * @param   value   the value
+         * @return          {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<K, V> put(K key, V value) {
+            checkActive();
+            root = root.updated(edit, key, value, hash(key), 0, change.reset());
+            if (change.added)
+                size++;
+            return this;
+        }
+
+        /**
+         * Remove the specified key, if present.
+         *
+         * @param   key     the key
+         * @return          {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<K, V> remove(Object key) {
+            checkActive();
+            root = root.removed(edit, key, hash(key), 0, change.reset());
+            if (change.modified)
+                size--;
+            return this;
+        }
+
+        /**
+         * Create an {@code ImmutableHashMap} from the trie of this editor, and deactivate the editor.
+         *
+         * @return          the {@code ImmutableHashMap}
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public ImmutableHashMap<K, V> persistent() {
+            checkActive();
+            active = false;
+            return size == 0 ? emptyMap() : new ImmutableHashMap<>(root, size);
+        }
+
+        private void checkActive() {
+            if (!active)
+                throw new IllegalStateException("Transient used after persistent()");
+        }
+
+    }
+
+    /**
+     * A node of the trie.  The content array holds the key-value pairs (two slots per entry) followed by the
+     * sub-nodes.  A node created by a {@link Transient} holds the ownership token of that editor, and may be modified
+     * in place by operations supplying the same token; all other operations (including all operations on the
+     * persistent map, which supply a {@code null} token) create new nodes.
+     */
+    abstract static class Node {
+
+        final Object edit;
+        Object[] content;
+
+        Node(Object edit, Object[] content) {
+            this.edit = edit;
+            this.content = content;
+        }
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        Node getNode(int index) {
+            return (Node)content[2 * payloadArity() + index];
+        }
+
+        boolean isOwned(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+
+        /**
+         * Find the key, returning the corresponding value, or {@link #notFound} if the key is not present.
+         */
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node updated(Object edit, Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node removed(Object edit, Object key, int hash, int shift, Change change);
+
+        abstract boolean structurallyEquals(Node other);
+
+        boolean hasSingleEntry() {
+            return payloadArity() == 1 && nodeArity() == 0;
+        }
+
+    }
+
+    /**
+     * A node selecting its entries and sub-nodes by bitmaps of the hash bits at the node's level.
+     */
+    static class BitmapNode extends Node {
+
+        int dataMap;
+        int nodeMap;
+
+        BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+            super(edit, content);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        int nodeIndex(int bit) {
+            return 2 * payloadArity() + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        /**
+         * Get a node with the same content that may be modified by the owner of the token (this node if it is owned,
+         * otherwise a copy).
+         */
+        BitmapNode editable(Object edit) {
+            return isOwned(edit) ? this : new BitmapNode(edit, dataMap, nodeMap, content.clone());
+        }
+
+        /**
+         * Get a node with the specified bitmaps and content (this node, modified, if it is owned, otherwise a new
+         * node).
+         */
+        BitmapNode with(Object edit, int dataMap, int nodeMap, Object[] content) {
+            if (!isOwned(edit))
+                return new BitmapNode(edit, dataMap, nodeMap, content);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+            return this;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bitPosition(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                return Objects.equals(content[i], key) ? content[i + 1] : notFound;
+            }
+            if ((nodeMap & bit) != 0)
+                return ((Node)content[nodeIndex(bit)]).find(key, hash, shift + bits);
+            return notFound;
+        }
+
+        @Override
+        Node updated(Object edit, Object key, Object value, int hash, int shift, Change change) {
+            int bit = bitPosition(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                Object currentKey = content[i];
+                if (Objects.equals(currentKey, key)) {
+                    if (Objects.equals(content[i + 1], value))
+                        return this;
+                    change.modified = true;
+                    BitmapNode node = editable(edit);
+                    node.content[i + 1] = value;
+                    return node;
+                }
+                change.modified = true;
+                change.added = true;
+                Node subNode = mergeTwo(edit, currentKey, content[i + 1], hash(currentKey), key, value, hash,
+                        shift + bits);
+                // remove the pair at i, insert the sub-node at its position among the nodes
+                int n = nodeIndex(bit) - 2;
+                Object[] newContent = new Object[content.length - 1];
+                System.arraycopy(content, 0, newContent, 0, i);
+                System.arraycopy(content, i + 2, newContent, i, n - i);
+                newContent[n] = subNode;
+                System.arraycopy(content, n + 2, newContent, n + 1, content.length - n - 2);
+                return with(edit, dataMap ^ bit, nodeMap | bit, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                int n = nodeIndex(bit);
+                Node subNode = (Node)content[n];
+                Node newSubNode = subNode.updated(edit, key, value, hash, shift + bits, change);
+                if (newSubNode == subNode)
+                    return this;
+                BitmapNode node = editable(edit);
+                node.content[n] = newSubNode;
+                return node;
+            }
+            change.modified = true;
+            change.added = true;
+            int i = 2 * dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, i);
+            newContent[i] = key;
+            newContent[i + 1] = value;
+            System.arraycopy(content, i, newContent, i + 2, content.length - i);
+            return with(edit, dataMap | bit, nodeMap, newContent);
+        }
+
+        @Override
+        Node removed(Object edit, Object key, int hash, int shift, Change change) {
+            int bit = bitPosition(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                if (!Objects.equals(content[i], key))
+                    return this;
+                change.modified = true;
+                if (shift > 0 && payloadArity() == 2 && nodeArity() == 0) {
+                    // the remaining entry will be inlined into the parent, so its position here is immaterial
+                    Object[] newContent = i == 0 ? new Object[] { content[2], content[3] } :
+                            new Object[] { content[0], content[1] };
+                    return new BitmapNode(edit, bitPosition(hash, 0), 0, newContent);
+                }
+                Object[] newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, i);
+                System.arraycopy(content, i + 2, newContent, i, content.length - i - 2);
+                return with(edit, dataMap ^ bit, nodeMap, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                int n = nodeIndex(bit);
+                Node subNode = (Node)content[n];
+                Node newSubNode = subNode.removed(edit, key, hash, shift + bits, change);
+                if (!change.modified)
+                    return this;
+                if (!newSubNode.hasSingleEntry()) {
+                    if (newSubNode == subNode)
+                        return this;
+                    BitmapNode node = editable(edit);
+                    node.content[n] = newSubNode;
+                    return node;
+                }
+                if (shift > 0 && payloadArity() == 0 && nodeArity() == 1)
+                    return newSubNode; // propagate the single entry further up
+                // remove the sub-node and inline its entry among the pairs
+                int i = 2 * dataIndex(bit);
+                Object[] newContent = new Object[content.length + 1];
+                System.arraycopy(content, 0, newContent, 0, i);
+                newContent[i] = newSubNode.content[0];
+                newContent[i + 1] = newSubNode.content[1];
+                System.arraycopy(content, i, newContent, i + 2, n - i);
+                System.arraycopy(content, n + 1, newContent, n + 2, content.length - n - 1);
+                return with(edit, dataMap | bit, nodeMap ^ bit, newContent);
+            }
+            return this;
+        }
+
+        @Override
+        boolean structurallyEquals(Node other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof BitmapNode))
+                return false;
+            BitmapNode otherNode = (BitmapNode)other;
+            if (dataMap != otherNode.dataMap || nodeMap != otherNode.nodeMap)
+                return false;
+            int nodeStart = 2 * payloadArity();
+            for (int i = 0; i < nodeStart; i++)
+                if (!Objects.equals(content[i], otherNode.content[i]))
+                    return false;
+            for (int i = nodeStart, n = content.length; i < n; i++)
+                if (!((Node)content[i]).structurallyEquals((Node)otherNode.content[i]))
+                    return false;
+            return true;
+        }
+
+    }
+
+    /**
+     * A node holding entries whose keys have identical hash codes, used when the hash bits are exhausted.
+     */
+    static class CollisionNode extends Node {
+
+        final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] content) {
+            super(edit, content);
+            this.hash = hash;
+        }
+
+        @Override
+        int payloadArity() {
+            return content.length >> 1;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        int keyIndex(Object key) {
+            for (int i = 0, n = content.length; i < n; i += 2)
+                if (Objects.equals(content[i], key))
+                    return i;
+            return -1;
+        }
+
+        CollisionNode with(Object edit, Object[] content) {
+            if (!isOwned(edit))
+                return new CollisionNode(edit, hash, content);
+            this.content = content;
+            return this;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int i = keyIndex(key);
+            return i >= 0 ? content[i + 1] : notFound;
+        }
+
+        @Override
+        Node updated(Object edit, Object key, Object value, int hash, int shift, Change change) {
+            int i = keyIndex(key);
+            if (i >= 0) {
+                if (Objects.equals(content[i + 1], value))
+                    return this;
+                change.modified = true;
+                Object[] newContent = isOwned(edit) ? content : content.clone();
+                newContent[i + 1] = value;
+                return with(edit, newContent);
+            }
+            change.modified = true;
+            change.added = true;
+            Object[] newContent = Arrays.copyOf(content, content.length + 2);
+            newContent[content.length] = key;
+            newContent[content.length + 1] = value;
+            return with(edit, newContent);
+        }
+
+        @Override
+        Node removed(Object edit, Object key, int hash, int shift, Change change) {
+            int i = keyIndex(key);
+            if (i < 0)
+                return this;
+            change.modified = true;
+            if (content.length == 4)
+                return new BitmapNode(edit, bitPosition(hash, 0), 0, i == 0 ? new Object[] { content[2], content[3] } :
+                        new Object[] { content[0], content[1] });
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, i);
+            System.arraycopy(content, i + 2, newContent, i, content.length - i - 2);
+            return with(edit, newContent);
+        }
+
+        @Override
+        boolean structurallyEquals(Node other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof CollisionNode))
+                return false;
+            CollisionNode otherNode = (CollisionNode)other;
+            if (hash != otherNode.hash || content.length != otherNode.content.length)
+                return false;
+            for (int i = 0, n = content.length; i < n; i += 2) {
+                int j = otherNode.keyIndex(content[i]);
+                if (j < 0 || !Objects.equals(content[i + 1], otherNode.content[j + 1]))
+                    return false;
+            }
+            return true;
+        }
+
+    }
+
+    static Node mergeTwo(Object edit, Object key0, Object value0, int hash0, Object key1, Object value1, int hash1,
+            int shift) {
+        if (shift >= hashBits)
+            return new CollisionNode(edit, hash0, new Object[] { key0, value0, key1, value1 });
+        int bit0 = bitPosition(hash0, shift);
+        int bit1 = bitPosition(hash1, shift);
+        if (bit0 != bit1) {
+            Object[] content = Integer.compareUnsigned(bit0, bit1) < 0 ?
+                    new Object[] { key0, value0, key1, value1 } : new Object[] { key1, value1, key0, value0 };
+            return new BitmapNode(edit, bit0 | bit1, 0, content);
+        }
+        Node subNode = mergeTwo(edit, key0, value0, hash0, key1, value1, hash1, shift + bits);
+        return new BitmapNode(edit, 0, bit0, new Object[] { subNode });
+    }
+
+    /**
+     * A depth-first cursor over the nodes of the trie, exposing the content array and index of the next key-value
+     * pair.
+     */
+    static class NodeCursor {
+
+        private final Node[] stack = new Node[maxDepth];
+        private final int[] position = new int[maxDepth];
+        private int depth;
+        Object[] content;
+        int index;
+        private int end;
+
+        NodeCursor(Node root) {
+            push(root);
+        }
+
+        private void push(Node node) {
+            stack[depth] = node;
+            position[depth++] = 0;
+            content = node.content;
+            index = 0;
+            end = 2 * node.payloadArity();
+        }
+
+        boolean hasNext() {
+            while (index >= end) {
+                if (!advance())
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean advance() {
+            while (depth > 0) {
+                Node node = stack[depth - 1];
+                int p = position[depth - 1];
+                if (p < node.nodeArity()) {
+                    position[depth - 1] = p + 1;
+                    push(node.getNode(p));
+                    return true;
+                }
+                stack[--depth] = null;
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * An {@link Iterator} over the entries of the trie, returning an element derived from each key-value pair.
+     *
+     * @param   <E>     the element type
+     */
+    abstract static class CursorIterator<E> implements Iterator<E> {
+
+        private final NodeCursor cursor;
+
+        CursorIterator(Node root) {
+            cursor = new NodeCursor(root);
+        }
+
+        abstract E element(Object[] content, int index);
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
+        }
+
+        @Override
+        public E next() {
+            if (!cursor.hasNext())
+                throw new NoSuchElementException();
+            int i = cursor.index;
+            cursor.index = i + 2;
+            return element(cursor.content, i);
+        }
+
+    }
+
+}
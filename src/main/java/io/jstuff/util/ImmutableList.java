@@ -2,7 +2,7 @@
  * @(#) ImmutableList.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2022, 2023 Peter Wall
+ * Copyright (c) 2021, 2022, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -25,13 +25,18 @@
 
 package io.jstuff.util;
 
-import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Immutable implementation of {@link List}.
@@ -41,6 +46,15 @@ import java.util.RandomAccess;
  */
 public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>, RandomAccess {
 
+    /**
+     * The ratio of array size to sub-list size above which {@link #subList(int, int)} will copy the elements rather
+     * than create a view of the array.
+     */
+    public static final int subListCopyRatio = 16;
+
+    @SuppressWarnings("unchecked")
+    private static final ImmutableList<?> emptyList = new ImmutableList<>(0, emptyArray);
+
     /**
      * Construct an {@code ImmutableList} with the given array and length.
      * <br>
@@ -85,6 +99,17 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
         super(length, array);
     }
 
+    /**
+     * Internal constructor to create a view of a portion of an array.
+     *
+     * @param   offset  the offset of the first array item to be considered part of the list
+     * @param   length  the length
+     * @param   array   the array
+     */
+    private ImmutableList(int offset, int length, T[] array) {
+        super(offset, length, array);
+    }
+
     /**
      * Find the index in the list of the first item equal to the given object (either both {@code null}, or equal
      * according to {@link Object#equals}).
@@ -94,17 +119,8 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
      */
     @Override
     public int indexOf(Object o) {
-        if (o == null) {
-            for (int i = 0; i < length; i++)
-                if (array[i] == null)
-                    return i;
-        }
-        else {
-            for (int i = 0; i < length; i++)
-                if (o.equals(array[i]))
-                    return i;
-        }
-        return -1;
+        int i = indexOf(array, offset, offset + length, o);
+        return i < 0 ? -1 : i - offset;
     }
 
     /**
@@ -118,12 +134,12 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
     public int lastIndexOf(Object o) {
         if (o == null) {
             for (int i = length - 1; i >= 0; i--)
-                if (array[i] == null)
+                if (array[offset + i] == null)
                     return i;
         }
         else {
             for (int i = length - 1; i >= 0; i--)
-                if (o.equals(array[i]))
+                if (o.equals(array[offset + i]))
                     return i;
         }
         return -1;
@@ -136,7 +152,7 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
      */
     @Override
     public ListIterator<T> listIterator() {
-        return new ImmutableListIterator<>(array, length, 0);
+        return new ImmutableListIterator<>(array, offset, length, 0);
     }
 
     /**
@@ -147,11 +163,14 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
      */
     @Override
     public ListIterator<T> listIterator(int index) {
-        return new ImmutableListIterator<>(array, length, index);
+        return new ImmutableListIterator<>(array, offset, length, index);
     }
 
     /**
-     * Get a sub-list of this list.
+     * Get a sub-list of this list.  The sub-list is normally a view sharing the array of this list (sub-lists of
+     * sub-lists also share the original array), but if the sub-list would use less than
+     * 1/{@value #subListCopyRatio} of the array, the elements are copied to a new array, to avoid a small list holding
+     * a reference to a large array.
      *
      * @param   fromIndex   the starting index of the sub-list
      * @param   toIndex     the ending index of the sub-list
@@ -160,21 +179,17 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
      */
     @Override
     public ImmutableList<T> subList(int fromIndex, int toIndex) {
-        if (fromIndex == 0) {
-            if (toIndex == length)
-                return this;
-            if (toIndex >= 0 && toIndex < length)
-                return new ImmutableList<>(toIndex, array);
-        }
         if (fromIndex < 0 || toIndex > length || toIndex < fromIndex)
             throw new IndexOutOfBoundsException();
         int newLength = toIndex - fromIndex;
+        if (newLength == length)
+            return this;
         if (newLength == 0)
             return emptyList();
-        @SuppressWarnings("unchecked")
-        T[] newArray = (T[])Array.newInstance(array.getClass().getComponentType(), newLength);
-        System.arraycopy(array, fromIndex, newArray, 0, newLength);
-        return new ImmutableList<>(newArray);
+        int from = offset + fromIndex;
+        if (newLength < array.length / subListCopyRatio)
+            return new ImmutableList<>(Arrays.copyOfRange(array, from, from + newLength));
+        return new ImmutableList<>(from, newLength, array);
     }
 
     /**
@@ -238,13 +253,13 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
             return false;
         if (otherList instanceof RandomAccess) {
             for (int i = 0; i < length; i++)
-                if (!Objects.equals(array[i], otherList.get(i)))
+                if (!Objects.equals(array[offset + i], otherList.get(i)))
                     return false;
         }
         else {
             Iterator<?> iterator = otherList.iterator();
             for (int i = 0; i < length; i++)
-                if (!Objects.equals(array[i], iterator.next()))
+                if (!Objects.equals(array[offset + i], iterator.next()))
                     return false;
         }
         return true;
@@ -261,20 +276,59 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
     @Override
     public int hashCode() {
         int result = 1;
-        for (int i = 0; i < length; i++)
+        for (int i = offset, end = offset + length; i < end; i++)
             result = 31 * result + Objects.hashCode(array[i]);
         return result;
     }
 
     /**
-     * Get an empty {@code ImmutableList}.  This avoids a memory allocation if the list is empty.
+     * Create a {@link Transient} editor initialised with the elements of this list, for applying a batch of changes
+     * without creating an intermediate list for each change.  This is an O(1) operation; the elements are copied
+     * (once) to a growable array only when the first change is made.
+     *
+     * @return              the {@link Transient}
+     */
+    public Transient<T> toTransient() {
+        return new Transient<>(array, offset, length);
+    }
+
+    /**
+     * Get a view of this list in which each element is transformed by the supplied function.  The elements are
+     * computed on access (every time they are accessed), so this is appropriate when only a few elements are likely
+     * to be read; no array is allocated.
+     *
+     * @param   mapper      the mapping function
+     * @param   <R>         the element type of the view
+     * @return              the view (an immutable {@link List} with indexed access)
+     */
+    public <R> MappedView<T, R> mapView(Function<? super T, ? extends R> mapper) {
+        return new MappedView<>(array, offset, length, mapper, false);
+    }
+
+    /**
+     * Get a view of this list in which each element is transformed by the supplied function, optionally memoising the
+     * results.  When memoising, a cache array is allocated on first access, and each result is stored in the cache
+     * using a racy single-check: under concurrent access an element may (rarely) be computed more than once, so the
+     * function should be free of side-effects and the results should be safely publishable (e.g. immutable objects).
+     *
+     * @param   mapper      the mapping function
+     * @param   memoise     if {@code true}, each element is computed at most (approximately) once
+     * @param   <R>         the element type of the view
+     * @return              the view (an immutable {@link List} with indexed access)
+     */
+    public <R> MappedView<T, R> mapView(Function<? super T, ? extends R> mapper, boolean memoise) {
+        return new MappedView<>(array, offset, length, mapper, memoise);
+    }
+
+    /**
+     * Get an empty {@code ImmutableList}.  This returns a shared instance, so it avoids a memory allocation.
      *
      * @param   <TT>        the element type
      * @return              an empty list
      */
     @SuppressWarnings("unchecked")
     public static <TT> ImmutableList<TT> emptyList() {
-        return new ImmutableList<>(0, (TT[])emptyArray);
+        return (ImmutableList<TT>)emptyList;
     }
 
     /**
@@ -305,4 +359,746 @@ public class ImmutableList<T> extends ImmutableCollection<T> implements List<T>,
         return length == 0 ? emptyList() : new ImmutableList<>(array, length);
     }
 
+    /**
+     * Concatenate a number of {@code ImmutableList}s.  The result is normally an immutable view of the lists (see
+     * {@link ConcatView}), so no array copying is required.  Empty lists are ignored; if only one non-empty list remains,
+     * it is returned unchanged, and if the number of lists is large relative to the total number of elements (more than
+     * {@value ConcatView#maxSegments} lists, averaging fewer than {@value ConcatView#minAverageSegmentLength} elements
+     * each), the elements are copied into a single new {@code ImmutableList}.
+     *
+     * @param   lists       the lists
+     * @param   <TT>        the element type
+     * @return              a {@link List} containing all the elements of the lists, in order
+     */
+    public static <TT> List<TT> concat(List<? extends ImmutableList<TT>> lists) {
+        int n = lists.size();
+        @SuppressWarnings("unchecked")
+        ImmutableList<TT>[] segments = (ImmutableList<TT>[])new ImmutableList<?>[n];
+        int count = 0;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            ImmutableList<TT> list = lists.get(i);
+            if (list.length > 0) {
+                segments[count++] = list;
+                total += list.length;
+                if (total < 0)
+                    throw new IllegalArgumentException("Combined size too large");
+            }
+        }
+        if (count == 0)
+            return emptyList();
+        if (count == 1)
+            return segments[0];
+        if (count > ConcatView.maxSegments && total / count < ConcatView.minAverageSegmentLength) {
+            @SuppressWarnings("unchecked")
+            TT[] array = (TT[])new Object[total];
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                ImmutableList<TT> segment = segments[i];
+                System.arraycopy(segment.array, segment.offset, array, offset, segment.length);
+                offset += segment.length;
+            }
+            return new ImmutableList<>(array);
+        }
+        return new ConcatView<>(count == n ? segments : Arrays.copyOf(segments, count));
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableList}.
+     *
+     * @param   <TT>        the element type
+     * @return              the {@link Builder}
+     */
+    public static <TT> Builder<TT> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableList}, with an initial capacity for the expected number of
+     * elements.
+     *
+     * @param   expectedSize    the expected number of elements
+     * @param   <TT>            the element type
+     * @return                  the {@link Builder}
+     */
+    public static <TT> Builder<TT> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
+    /**
+     * A builder for {@code ImmutableList}, for use when the number of elements is not known in advance.  The array
+     * grows by 50% each time it is full, and the {@link #build()} function hands the array over to the list without
+     * copying it unless the unused portion of the array is more than 1/8 of the size of the list (or the list has
+     * fewer than three elements), in which case the array is trimmed to the exact size.
+     * <br>
+     * The builder may continue to be used after {@link #build()} has been called; if the array has been handed over to
+     * a list, it will be copied before any further elements are added.
+     *
+     * @param   <T>     the element type
+     */
+    public static class Builder<T> {
+
+        /** The default initial capacity. */
+        public static final int defaultCapacity = 10;
+
+        private T[] array;
+        private int size;
+        private boolean shared;
+
+        /**
+         * Construct a {@code Builder} with the default initial capacity.
+         */
+        public Builder() {
+            this(defaultCapacity);
+        }
+
+        /**
+         * Construct a {@code Builder} with an initial capacity for the expected number of elements.
+         *
+         * @param   expectedSize    the expected number of elements
+         * @throws  IllegalArgumentException if the expected size is negative
+         */
+        @SuppressWarnings("unchecked")
+        public Builder(int expectedSize) {
+            if (expectedSize < 0)
+                throw new IllegalArgumentException("Expected size must not be negative");
+            array = (T[])(expectedSize == 0 ? emptyArray : new Object[expectedSize]);
+        }
+
+        /**
+         * Get the number of elements added so far.
+         *
+         * @return      the number of elements
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Add an element.
+         *
+         * @param   element     the element
+         * @return              this {@code Builder}
+         */
+        public Builder<T> add(T element) {
+            ensureCapacity(size + 1);
+            array[size++] = element;
+            return this;
+        }
+
+        /**
+         * Add a portion of an array of elements.
+         *
+         * @param   source      the source array
+         * @param   offset      the offset of the first element in the source array
+         * @param   length      the number of elements
+         * @return              this {@code Builder}
+         * @throws  IndexOutOfBoundsException   if the offset or length is outside the bounds of the array
+         */
+        public Builder<T> addAll(T[] source, int offset, int length) {
+            if (offset < 0 || length < 0 || offset > source.length - length)
+                throw new IndexOutOfBoundsException(offset + ", " + length);
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, array, size, length);
+            size += length;
+            return this;
+        }
+
+        /**
+         * Add all the elements of an array.
+         *
+         * @param   source      the source array
+         * @return              this {@code Builder}
+         */
+        public Builder<T> addAll(T[] source) {
+            return addAll(source, 0, source.length);
+        }
+
+        /**
+         * Add all the elements of a {@link Collection}.  If the collection is an {@link ImmutableCollection}, its array
+         * is copied directly.
+         *
+         * @param   collection  the {@link Collection}
+         * @return              this {@code Builder}
+         */
+        public Builder<T> addAll(Collection<? extends T> collection) {
+            if (collection instanceof ImmutableCollection) {
+                ImmutableCollection<? extends T> immutable = (ImmutableCollection<? extends T>)collection;
+                return addAll(immutable.array, immutable.offset, immutable.length);
+            }
+            ensureCapacity(size + collection.size());
+            for (T element : collection)
+                add(element);
+            return this;
+        }
+
+        /**
+         * Build the {@code ImmutableList}.  If the list is empty, the shared empty list is returned.
+         *
+         * @return              the {@code ImmutableList}
+         */
+        public ImmutableList<T> build() {
+            int n = size;
+            if (n == 0)
+                return emptyList();
+            if (n < 3 || array.length - n > n >> 3)
+                return new ImmutableList<>(n, Arrays.copyOf(array, n));
+            shared = true;
+            return new ImmutableList<>(n, array);
+        }
+
+        /**
+         * Ensure that the array has at least the specified capacity, growing it by at least 50% if necessary.  If the
+         * array has been handed over to a list, it is copied.
+         *
+         * @param   capacity    the required capacity
+         */
+        private void ensureCapacity(int capacity) {
+            if (capacity < 0)
+                throw new OutOfMemoryError("Required array size too large");
+            int length = array.length;
+            if (capacity > length) {
+                int newLength = length + (length >> 1) + 1;
+                if (newLength < capacity || newLength < 0)
+                    newLength = capacity;
+                array = Arrays.copyOf(array, newLength);
+                shared = false;
+            }
+            else if (shared) {
+                array = Arrays.copyOf(array, length);
+                shared = false;
+            }
+        }
+
+    }
+
+    /**
+     * A single-owner mutable editor for an {@code ImmutableList}, created by {@link ImmutableList#toTransient()}.  The
+     * elements are held in a single growable array, and {@link #persistent()} creates an {@code ImmutableList} using
+     * that array in O(1) time, after which the editor may no longer be used.
+     * <br>
+     * A {@code Transient} is not thread-safe; it should be confined to a single thread or task.
+     *
+     * @param   <T>     the element type
+     */
+    public static class Transient<T> {
+
+        private T[] array;
+        private int offset;
+        private int size;
+        private boolean shared;
+        private boolean active;
+
+        /**
+         * Construct a {@code Transient} sharing the array of an existing list.
+         *
+         * @param   array       the array
+         * @param   offset      the offset of the first element
+         * @param   size        the number of elements
+         */
+        Transient(T[] array, int offset, int size) {
+            this.array = array;
+            this.offset = offset;
+            this.size = size;
+            shared = true;
+            active = true;
+        }
+
+        /**
+         * Get the number of elements.
+         *
+         * @return              the number of elements
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public int size() {
+            checkActive();
+            return size;
+        }
+
+        /**
+         * Get the element at the specified index.
+         *
+         * @param   index       the index
+         * @return              the element
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or not less than the size
+         * @throws  IllegalStateException       if {@link #persistent()} has already been called
+         */
+        public T get(int index) {
+            checkIndex(index);
+            return array[offset + index];
+        }
+
+        /**
+         * Replace the element at the specified index.
+         *
+         * @param   index       the index
+         * @param   element     the new element
+         * @return              {@code this} (for chaining)
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or not less than the size
+         * @throws  IllegalStateException       if {@link #persistent()} has already been called
+         */
+        public Transient<T> set(int index, T element) {
+            checkIndex(index);
+            ensureCapacity(size);
+            array[index] = element;
+            return this;
+        }
+
+        /**
+         * Add an element at the end.
+         *
+         * @param   element     the element
+         * @return              {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<T> add(T element) {
+            checkActive();
+            ensureCapacity(size + 1);
+            array[size++] = element;
+            return this;
+        }
+
+        /**
+         * Remove the last element.
+         *
+         * @return              {@code this} (for chaining)
+         * @throws  NoSuchElementException  if there are no elements
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<T> removeLast() {
+            checkActive();
+            if (size == 0)
+                throw new NoSuchElementException();
+            ensureCapacity(size);
+            array[--size] = null;
+            return this;
+        }
+
+        /**
+         * Create an {@code ImmutableList} using the array of this editor, and deactivate the editor.
+         *
+         * @return              the {@code ImmutableList}
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public ImmutableList<T> persistent() {
+            checkActive();
+            active = false;
+            int n = size;
+            return n == 0 ? emptyList() : new ImmutableList<>(offset, n, array);
+        }
+
+        private void checkActive() {
+            if (!active)
+                throw new IllegalStateException("Transient used after persistent()");
+        }
+
+        private void checkIndex(int index) {
+            checkActive();
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+
+        /**
+         * Ensure that the array is owned by this editor (with an offset of zero) and has at least the specified
+         * capacity.
+         *
+         * @param   capacity    the required capacity
+         */
+        @SuppressWarnings("unchecked")
+        private void ensureCapacity(int capacity) {
+            if (capacity < 0)
+                throw new OutOfMemoryError("Required array size too large");
+            int length = shared ? size : array.length;
+            if (capacity > length || shared) {
+                int newLength = length;
+                if (capacity > length) {
+                    newLength = length + (length >> 1) + 1;
+                    if (newLength < capacity || newLength < 0)
+                        newLength = capacity;
+                }
+                T[] newArray = (T[])new Object[newLength];
+                System.arraycopy(array, offset, newArray, 0, size);
+                array = newArray;
+            }
+            offset = 0;
+            shared = false;
+        }
+
+    }
+
+    /**
+     * A view of an array in which each element is transformed by a mapping function when it is accessed, optionally
+     * memoising the results.  Returned by {@link #mapView(Function)}, and also used for the values of
+     * {@link ImmutableMap#mapValuesView(Function)}.
+     *
+     * @param   <T>     the source element type
+     * @param   <R>     the element type of the view
+     */
+    public static class MappedView<T, R> extends AbstractList<R> implements RandomAccess {
+
+        /** Marker stored in the cache to represent a computed {@code null}. */
+        static final Object nullMarker = new Object();
+
+        private final T[] array;
+        private final int offset;
+        private final int length;
+        private final Function<? super T, ? extends R> mapper;
+        private final boolean memoise;
+        private Object[] cache;
+
+        /**
+         * Construct a {@code MappedView}.
+         *
+         * @param   array       the source array
+         * @param   offset      the offset of the first array item to be considered part of the view
+         * @param   length      the number of array items to be considered part of the view
+         * @param   mapper      the mapping function
+         * @param   memoise     if {@code true}, memoise the results
+         */
+        MappedView(T[] array, int offset, int length, Function<? super T, ? extends R> mapper, boolean memoise) {
+            this.array = array;
+            this.offset = offset;
+            this.length = length;
+            this.mapper = Objects.requireNonNull(mapper);
+            this.memoise = memoise;
+        }
+
+        /**
+         * Get the number of elements in the view.
+         *
+         * @return          the number of elements
+         */
+        @Override
+        public int size() {
+            return length;
+        }
+
+        /**
+         * Get the element at the specified index, applying the mapping function (or taking the memoised result).
+         *
+         * @param   index   the index
+         * @return          the element
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the view
+         */
+        @Override
+        public R get(int index) {
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            return compute(index);
+        }
+
+        /**
+         * Perform the given action on each element of the view.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(compute(i));
+        }
+
+        /**
+         * Test whether the view memoises the results of the mapping function.
+         *
+         * @return          {@code true} if the results are memoised
+         */
+        public boolean isMemoised() {
+            return memoise;
+        }
+
+        @SuppressWarnings("unchecked")
+        R compute(int index) {
+            if (!memoise)
+                return mapper.apply(array[offset + index]);
+            Object[] c = cache;
+            if (c == null)
+                cache = c = new Object[length];
+            Object result = c[index];
+            if (result == null) {
+                R mapped = mapper.apply(array[offset + index]);
+                c[index] = mapped == null ? nullMarker : mapped;
+                return mapped;
+            }
+            return result == nullMarker ? null : (R)result;
+        }
+
+    }
+
+    /**
+     * An immutable view of the concatenation of a number of {@code ImmutableList}s (segments), returned by
+     * {@link #concat(List)}.  Indexed access uses a binary search of an array of the starting offsets of the segments;
+     * iteration and spliteration proceed segment by segment, directly over the segment arrays.
+     *
+     * @param   <T>     the element type
+     */
+    public static class ConcatView<T> extends AbstractList<T> implements RandomAccess {
+
+        /** The number of segments above which a concatenation of short lists will be copied to a single array. */
+        public static final int maxSegments = 16;
+        /** The average segment length below which a concatenation of many lists will be copied to a single array. */
+        public static final int minAverageSegmentLength = 16;
+
+        private final ImmutableList<T>[] segments;
+        private final int[] offsets;
+
+        /**
+         * Construct a {@code ConcatView} from an array of non-empty {@code ImmutableList}s.
+         *
+         * @param   segments    the segments
+         */
+        ConcatView(ImmutableList<T>[] segments) {
+            this.segments = segments;
+            int n = segments.length;
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++)
+                offsets[i + 1] = offsets[i] + segments[i].length;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Get the number of elements in the view.
+         *
+         * @return          the number of elements
+         */
+        @Override
+        public int size() {
+            return offsets[segments.length];
+        }
+
+        /**
+         * Get the number of segments in the view.
+         *
+         * @return          the number of segments
+         */
+        public int getSegmentCount() {
+            return segments.length;
+        }
+
+        /**
+         * Get the element at the specified index.
+         *
+         * @param   index   the index
+         * @return          the element
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the view
+         */
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= offsets[segments.length])
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            int segment = segmentIndex(index);
+            ImmutableList<T> list = segments[segment];
+            return list.array[list.offset + index - offsets[segment]];
+        }
+
+        /**
+         * Return an {@link Iterator} over the view.
+         *
+         * @return          the {@link Iterator}
+         */
+        @Override
+        public Iterator<T> iterator() {
+            return new ConcatIterator();
+        }
+
+        /**
+         * Return a {@link Spliterator} over the view.  The {@link Spliterator} splits at segment boundaries where
+         * possible.
+         *
+         * @return          the {@link Spliterator}
+         */
+        @Override
+        public Spliterator<T> spliterator() {
+            return new ConcatSpliterator(0, offsets[segments.length]);
+        }
+
+        /**
+         * Perform the given action on each element of the view.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            for (ImmutableList<T> segment : segments) {
+                T[] array = segment.array;
+                for (int i = segment.offset, end = i + segment.length; i < end; i++)
+                    action.accept(array[i]);
+            }
+        }
+
+        /**
+         * Copy the elements of the view into a single array.
+         *
+         * @return          an array containing all the elements
+         */
+        @Override
+        public Object[] toArray() {
+            Object[] result = new Object[offsets[segments.length]];
+            for (int i = 0; i < segments.length; i++)
+                System.arraycopy(segments[i].array, segments[i].offset, result, offsets[i], segments[i].length);
+            return result;
+        }
+
+        /**
+         * Get the index of the segment containing the element at the specified index.
+         *
+         * @param   index   the index (must be within range)
+         * @return          the segment index
+         */
+        int segmentIndex(int index) {
+            int lo = 0;
+            int hi = segments.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (offsets[mid] <= index)
+                    lo = mid;
+                else
+                    hi = mid - 1;
+            }
+            return lo;
+        }
+
+        /**
+         * An {@link Iterator} that proceeds segment by segment.
+         */
+        public class ConcatIterator implements Iterator<T> {
+
+            private int segment = 0;
+            private int index = 0;
+
+            /**
+             * Test whether the iterator has any more elements.
+             *
+             * @return          {@code true} if there is at least one element available
+             */
+            @Override
+            public boolean hasNext() {
+                return segment < segments.length;
+            }
+
+            /**
+             * Get the next element, moving to the next segment when the current one is exhausted.
+             *
+             * @return          the next element
+             * @throws  NoSuchElementException  if there is no "next" element
+             */
+            @Override
+            public T next() {
+                if (segment >= segments.length)
+                    throw new NoSuchElementException();
+                ImmutableList<T> list = segments[segment];
+                T result = list.array[list.offset + index++];
+                if (index >= list.length) {
+                    segment++;
+                    index = 0;
+                }
+                return result;
+            }
+
+        }
+
+        /**
+         * A {@link Spliterator} over a range of the view, which traverses each segment array directly.
+         */
+        public class ConcatSpliterator implements Spliterator<T> {
+
+            private int index;
+            private final int fence;
+
+            ConcatSpliterator(int index, int fence) {
+                this.index = index;
+                this.fence = fence;
+            }
+
+            /**
+             * If a remaining element exists, perform the given action on it and return {@code true}; otherwise return
+             * {@code false}.
+             *
+             * @param   action  the action
+             * @return          {@code false} if no remaining elements existed
+             * @throws  NullPointerException    if the action is {@code null}
+             */
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                Objects.requireNonNull(action);
+                if (index >= fence)
+                    return false;
+                action.accept(get(index++));
+                return true;
+            }
+
+            /**
+             * Perform the given action on each remaining element, traversing each segment array directly.
+             *
+             * @param   action  the action
+             * @throws  NullPointerException    if the action is {@code null}
+             */
+            @Override
+            public void forEachRemaining(Consumer<? super T> action) {
+                Objects.requireNonNull(action);
+                int i = index;
+                int n = fence;
+                index = n;
+                if (i >= n)
+                    return;
+                int segment = segmentIndex(i);
+                while (i < n) {
+                    ImmutableList<T> list = segments[segment];
+                    int base = offsets[segment] - list.offset;
+                    int end = Math.min(offsets[segment + 1], n);
+                    T[] array = list.array;
+                    for (; i < end; i++)
+                        action.accept(array[i - base]);
+                    segment++;
+                }
+            }
+
+            /**
+             * Split off the first part of the remaining elements into a new {@code Spliterator}, at the start of the
+             * segment containing the middle of the range if that lies within the range, otherwise at the middle.
+             *
+             * @return          a {@code Spliterator} covering the first part of the remaining elements, or
+             *                  {@code null} if there are too few elements to split
+             */
+            @Override
+            public Spliterator<T> trySplit() {
+                int lo = index;
+                int mid = (lo + fence) >>> 1;
+                if (lo >= mid)
+                    return null;
+                int boundary = offsets[segmentIndex(mid)];
+                if (boundary > lo)
+                    mid = boundary;
+                index = mid;
+                return new ConcatSpliterator(lo, mid);
+            }
+
+            /**
+             * Get the number of elements remaining to be traversed (always exact).
+             *
+             * @return          the number of elements
+             */
+            @Override
+            public long estimateSize() {
+                return fence - index;
+            }
+
+            /**
+             * Get the characteristics of this {@code Spliterator}.
+             *
+             * @return          the characteristics
+             */
+            @Override
+            public int characteristics() {
+                return ImmutableSpliteratorBase.baseCharacteristics;
+            }
+
+        }
+
+    }
+
 }
@@ -2,7 +2,7 @@
  * @(#) ImmutableListIterator.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2023 Peter Wall
+ * Copyright (c) 2021, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -36,6 +36,8 @@ import java.util.NoSuchElementException;
  */
 public class ImmutableListIterator<T> extends ImmutableIterator<T> implements ListIterator<T> {
 
+    private final int offset;
+
     /**
      * Construct an {@code ImmutableListIterator} with the given array and length, and with the given starting index.
      *
@@ -44,7 +46,21 @@ public class ImmutableListIterator<T> extends ImmutableIterator<T> implements Li
      * @param   index   the starting index
      */
     public ImmutableListIterator(T[] array, int length, int index) {
-        super(array, length, index);
+        this(array, 0, length, index);
+    }
+
+    /**
+     * Construct an {@code ImmutableListIterator} over a portion of the given array, starting at the given offset and
+     * including the given number of items, and with the given starting index (relative to the offset).
+     *
+     * @param   array   the array
+     * @param   offset  the offset of the first array item to be considered part of the collection
+     * @param   length  the length (the number of array items to be considered part of the collection)
+     * @param   index   the starting index
+     */
+    public ImmutableListIterator(T[] array, int offset, int length, int index) {
+        super(array, offset + length, offset + index);
+        this.offset = offset;
     }
 
     /**
@@ -54,7 +70,7 @@ public class ImmutableListIterator<T> extends ImmutableIterator<T> implements Li
      */
     @Override
     public boolean hasPrevious() {
-        return index > 0;
+        return index > offset;
     }
 
     /**
@@ -77,7 +93,7 @@ public class ImmutableListIterator<T> extends ImmutableIterator<T> implements Li
      */
     @Override
     public int nextIndex() {
-        return index;
+        return index - offset;
     }
 
     /**
@@ -87,7 +103,7 @@ public class ImmutableListIterator<T> extends ImmutableIterator<T> implements Li
      */
     @Override
     public int previousIndex() {
-        return index - 1;
+        return index - offset - 1;
     }
 
     /**
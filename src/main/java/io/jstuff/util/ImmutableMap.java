@@ -2,7 +2,7 @@
  * @(#) ImmutableMap.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2022, 2023 Peter Wall
+ * Copyright (c) 2021, 2022, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -26,6 +26,9 @@
 package io.jstuff.util;
 
 import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -33,6 +36,14 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * Immutable implementation of {@link Map}.
@@ -100,6 +111,20 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         return (ImmutableMapEntry<KK, VV>[])result;
     }
 
+    /**
+     * Get the entries of any {@link Map} as an array of {@link ImmutableMapEntry}: the array of an
+     * {@code ImmutableMap} is returned directly (only the first {@code size()} elements are significant), otherwise
+     * the entries are copied to a new array.
+     *
+     * @param   map         the {@link Map}
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the array
+     */
+    static <KK, VV> ImmutableMapEntry<KK, VV>[] entryArray(Map<KK, VV> map) {
+        return map instanceof ImmutableMap ? ((ImmutableMap<KK, VV>)map).array : createArrayFromMap(map);
+    }
+
     /**
      * Test whether the map contains a key equal to the specified key (which may be {@code null}).
      *
@@ -144,6 +169,80 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         return i >= 0 ? array[i].getValue() : null;
     }
 
+    /**
+     * Get the value corresponding to the supplied key, or the supplied default value if the key is not found.  Unlike
+     * the default implementation, this requires only a single scan of the array.
+     *
+     * @param   key             the key
+     * @param   defaultValue    the default value
+     * @return                  the value
+     */
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        int i = findKey(array, length, key);
+        return i >= 0 ? array[i].getValue() : defaultValue;
+    }
+
+    /**
+     * Perform the given action on each entry in the map, iterating over the array directly (without creating an entry
+     * set or an {@link Iterator}).
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < length; i++) {
+            ImmutableMapEntry<K, V> entry = array[i];
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Perform the given operation on each entry in the map, supplying the index, key and value of the entry (the
+     * {@link ImmutableMapEntry} objects are not exposed).
+     *
+     * @param   visitor     the operation
+     * @throws  NullPointerException    if the visitor is {@code null}
+     */
+    public void forEachEntry(EntryVisitor<? super K, ? super V> visitor) {
+        Objects.requireNonNull(visitor);
+        for (int i = 0; i < length; i++) {
+            ImmutableMapEntry<K, V> entry = array[i];
+            visitor.visit(i, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Test whether any entry in the map matches the given predicate (applied to the key and value).  The scan stops at
+     * the first match.
+     *
+     * @param   predicate   the predicate
+     * @return              {@code true} if any entry matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public boolean anyMatch(BiPredicate<? super K, ? super V> predicate) {
+        return findIndex(predicate) >= 0;
+    }
+
+    /**
+     * Find the index of the first entry in the map that matches the given predicate (applied to the key and value).
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching entry, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public int findIndex(BiPredicate<? super K, ? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        for (int i = 0; i < length; i++) {
+            ImmutableMapEntry<K, V> entry = array[i];
+            if (predicate.test(entry.getKey(), entry.getValue()))
+                return i;
+        }
+        return -1;
+    }
+
     /**
      * Get a {@link Set} of the keys in use in this map.  The set is backed by the original array, and retains the
      * original order.
@@ -325,6 +424,104 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         return array[index].getValue();
     }
 
+    /**
+     * Get a view of this map in which each value is transformed by the supplied function.  The values are computed on
+     * access (every time they are accessed); the keys and their order are those of this map.
+     *
+     * @param   mapper      the mapping function
+     * @param   <R>         the value type of the view
+     * @return              the view (an immutable {@link Map})
+     */
+    public <R> MappedValuesView<K, V, R> mapValuesView(Function<? super V, ? extends R> mapper) {
+        return new MappedValuesView<>(array, length, mapper, false);
+    }
+
+    /**
+     * Get a view of this map in which each value is transformed by the supplied function, optionally memoising the
+     * results (see {@link ImmutableList#mapView(Function, boolean)} for the details of memoisation).
+     *
+     * @param   mapper      the mapping function
+     * @param   memoise     if {@code true}, each value is computed at most (approximately) once
+     * @param   <R>         the value type of the view
+     * @return              the view (an immutable {@link Map})
+     */
+    public <R> MappedValuesView<K, V, R> mapValuesView(Function<? super V, ? extends R> mapper, boolean memoise) {
+        return new MappedValuesView<>(array, length, mapper, memoise);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key mapped to the specified value.  If
+     * the map already maps the key to an equal value, this map is returned.
+     * <br>
+     * The entries are copied to a new array once, sharing the unchanged {@link ImmutableMapEntry} objects, and the
+     * result is a {@link MiniMap} if it has three or fewer entries.
+     *
+     * @param   key         the key
+     * @param   value       the value
+     * @return              the new {@link Map}
+     */
+    public Map<K, V> with(K key, V value) {
+        int index = findKey(array, length, key);
+        ImmutableMapEntry<K, V>[] newArray;
+        if (index >= 0) {
+            ImmutableMapEntry<K, V> entry = array[index];
+            if (Objects.equals(entry.getValue(), value))
+                return this;
+            newArray = Arrays.copyOf(array, length);
+            newArray[index] = new ImmutableMapEntry<>(entry.getKey(), value);
+            return MiniMap.fromEntries(newArray, length);
+        }
+        newArray = Arrays.copyOf(array, length + 1);
+        newArray[length] = new ImmutableMapEntry<>(key, value);
+        return MiniMap.fromEntries(newArray, length + 1);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key removed.  If the map does not
+     * contain the key, this map is returned.
+     * <br>
+     * The remaining entries are copied to a new array once, and the result is a {@link MiniMap} if it has three or
+     * fewer entries.
+     *
+     * @param   key         the key
+     * @return              the new {@link Map}
+     */
+    public Map<K, V> without(Object key) {
+        int index = findKey(array, length, key);
+        if (index < 0)
+            return this;
+        ImmutableMapEntry<K, V>[] newArray = createArray(length - 1);
+        System.arraycopy(array, 0, newArray, 0, index);
+        System.arraycopy(array, index + 1, newArray, index, length - index - 1);
+        return MiniMap.fromEntries(newArray, length - 1);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the entries of another {@link Map} added (replacing
+     * the values of any existing keys).  If no entry is added or changed, this map is returned.
+     *
+     * @param   map         the other {@link Map}
+     * @return              the new {@link Map}
+     */
+    public Map<K, V> withAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty())
+            return this;
+        ImmutableMapEntry<K, V>[] newArray = createArray(length + map.size());
+        System.arraycopy(array, 0, newArray, 0, length);
+        return mergeEntries(this, newArray, length, map);
+    }
+
+    /**
+     * Create a {@link Transient} editor initialised with the entries of this map, for applying a batch of changes
+     * without creating an intermediate map for each change.  This is an O(1) operation; the array of this map is
+     * copied (once) only when the first change is made.
+     *
+     * @return              the {@link Transient}
+     */
+    public Transient<K, V> toTransient() {
+        return new Transient<>(array, length);
+    }
+
     /**
      * Create an {@code ImmutableMap} from the supplied {@link List} of {@link ImmutableMapEntry}.
      *
@@ -466,6 +663,129 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         return -1;
     }
 
+    /**
+     * Merge the entries of a {@link Map} into an array of {@link ImmutableMapEntry} (used by the {@code withAll()}
+     * functions).  The array must contain the entries of the original map, and must have room for all the entries of
+     * the other map.  Entries of the other map that are already {@link ImmutableMapEntry} objects are shared.
+     *
+     * @param   original    the original map (returned if nothing changes)
+     * @param   array       the array
+     * @param   length      the number of entries of the original map in the array
+     * @param   map         the other {@link Map}
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the resulting map
+     */
+    @SuppressWarnings("unchecked")
+    static <KK, VV> Map<KK, VV> mergeEntries(Map<KK, VV> original, ImmutableMapEntry<KK, VV>[] array, int length,
+            Map<? extends KK, ? extends VV> map) {
+        boolean changed = false;
+        int n = length;
+        for (Map.Entry<? extends KK, ? extends VV> entry : map.entrySet()) {
+            KK key = entry.getKey();
+            VV value = entry.getValue();
+            int index = findKey(array, n, key);
+            if (index >= 0 && Objects.equals(array[index].getValue(), value))
+                continue;
+            ImmutableMapEntry<KK, VV> newEntry = entry instanceof ImmutableMapEntry ?
+                    (ImmutableMapEntry<KK, VV>)entry : new ImmutableMapEntry<>(key, value);
+            array[index >= 0 ? index : n++] = newEntry;
+            changed = true;
+        }
+        return changed ? MiniMap.fromEntries(array, n) : original;
+    }
+
+    /**
+     * Locate a key in an array of {@link ImmutableMapEntry} using a hash index (as created by
+     * {@link #createIndex(ImmutableMapEntry[], int, int)}).  Empty slots in the array (left by
+     * {@link Transient#remove(Object)}) are skipped.
+     *
+     * @param   array       the array of {@link ImmutableMapEntry}
+     * @param   index       the hash index
+     * @param   key         the key
+     * @param   hash        the spread hash of the key
+     * @return              the index of the entry, or -1 if not found
+     */
+    static int findIndexed(ImmutableMapEntry<?, ?>[] array, int[] index, Object key, int hash) {
+        int mask = index.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int i = index[slot] - 1;
+            if (i < 0)
+                return -1;
+            ImmutableMapEntry<?, ?> entry = array[i];
+            if (entry != null && Objects.equals(key, entry.getKey()))
+                return i;
+        }
+    }
+
+    /**
+     * Create a hash index (an open-addressing table of entry index + 1) for an array of {@link ImmutableMapEntry},
+     * sized for the given capacity.
+     *
+     * @param   array       the array of {@link ImmutableMapEntry}
+     * @param   length      the number of entries in the array
+     * @param   capacity    the capacity of the entry array
+     * @return              the hash index
+     */
+    static int[] createIndex(ImmutableMapEntry<?, ?>[] array, int length, int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(capacity, Builder.hashThreshold) * 2 - 1) << 1;
+        int[] index = new int[tableSize];
+        for (int i = 0; i < length; i++)
+            addToIndex(index, i, spread(Objects.hashCode(array[i].getKey())));
+        return index;
+    }
+
+    /**
+     * Add an entry to a hash index.
+     *
+     * @param   index       the hash index
+     * @param   i           the index of the entry
+     * @param   hash        the spread hash of the key
+     */
+    static void addToIndex(int[] index, int i, int hash) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0)
+            slot = (slot + 1) & mask;
+        index[slot] = i + 1;
+    }
+
+    /**
+     * Spread the bits of a hash code, so that the low-order bits used to select a slot are influenced by the
+     * high-order bits.
+     *
+     * @param   h           the hash code
+     * @return              the spread hash
+     */
+    static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableMap}.  Duplicate keys will cause an
+     * {@link IllegalArgumentException}.
+     *
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the {@link Builder}
+     */
+    public static <KK, VV> Builder<KK, VV> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Create a {@link Builder} for an {@code ImmutableMap}, with an initial capacity for the expected number of
+     * entries.  Duplicate keys will cause an {@link IllegalArgumentException}.
+     *
+     * @param   expectedSize    the expected number of entries
+     * @param   <KK>            the key type
+     * @param   <VV>            the value type
+     * @return                  the {@link Builder}
+     */
+    public static <KK, VV> Builder<KK, VV> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
     /**
      * Implementation of the {@link Set} interface to provide a view of the keys in the {@code ImmutableMap}.  It makes
      * use of the same underlying array, but returns only the key portion of the {@link ImmutableMapEntry}.
@@ -485,6 +805,17 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
             super(array, length);
         }
 
+        /**
+         * Construct a {@code KeySet} as a view of a portion of the given array of {@link ImmutableMapEntry}.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   offset      the offset of the first array item to be considered part of the set
+         * @param   length      the length (the number of array items to be considered part of the set)
+         */
+        KeySet(ImmutableMapEntry<K, V>[] array, int offset, int length) {
+            super(array, offset, length);
+        }
+
         /**
          * Test whether the set contains an element equal to the specified object (which may be {@code null}).
          *
@@ -495,12 +826,12 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         public boolean contains(Object o) {
             if (o == null) {
                 for (int i = 0; i < length; i++)
-                    if (array[i].getKey() == null)
+                    if (array[offset + i].getKey() == null)
                         return true;
             }
             else {
                 for (int i = 0; i < length; i++)
-                    if (o.equals(array[i].getKey()))
+                    if (o.equals(array[offset + i].getKey()))
                         return true;
             }
             return false;
@@ -513,7 +844,86 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
          */
         @Override
         public Iterator<K> iterator() {
-            return new KeyIterator<>(array, length);
+            return new KeyIterator<>(array, offset + length, offset);
+        }
+
+        /**
+         * Return a {@link Spliterator} over the set.
+         *
+         * @return          the {@link Spliterator}
+         */
+        @Override
+        public Spliterator<K> spliterator() {
+            return new KeySpliterator<>(array, offset, offset + length);
+        }
+
+        /**
+         * Perform the given action on each element of the set, iterating over the array directly.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        public void forEach(Consumer<? super K> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(array[offset + i].getKey());
+        }
+
+        /**
+         * Perform the given action on each element of the set, supplying the index of the element along with the
+         * element itself.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        public void forEachIndexed(IndexedConsumer<? super K> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(i, array[offset + i].getKey());
+        }
+
+        /**
+         * Test whether any element of the set matches the given predicate.  The scan stops at the first match.
+         *
+         * @param   predicate   the predicate
+         * @return              {@code true} if any element matches
+         * @throws  NullPointerException    if the predicate is {@code null}
+         */
+        public boolean anyMatch(Predicate<? super K> predicate) {
+            return findIndex(predicate) >= 0;
+        }
+
+        /**
+         * Find the index of the first element of the set that matches the given predicate.
+         *
+         * @param   predicate   the predicate
+         * @return              the index of the first matching element, or -1 if none matches
+         * @throws  NullPointerException    if the predicate is {@code null}
+         */
+        public int findIndex(Predicate<? super K> predicate) {
+            Objects.requireNonNull(predicate);
+            for (int i = 0; i < length; i++)
+                if (predicate.test(array[offset + i].getKey()))
+                    return i;
+            return -1;
+        }
+
+        /**
+         * Copy the set to a new array, allocated using the supplied generator function.  This overrides the default
+         * method added to {@link Collection} in Java 11, but it may also be called from earlier versions.
+         *
+         * @param   generator   a function to create a new array of the requested size
+         * @param   <T>         the type of the destination array items
+         * @return              an array containing the elements of the set
+         * @throws  ArrayStoreException if the elements can't be stored in the destination array
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(IntFunction<T[]> generator) {
+            T[] target = generator.apply(length);
+            for (int i = 0; i < length; i++)
+                target[i] = (T)array[offset + i].getKey();
+            return target;
         }
 
         /**
@@ -525,7 +935,7 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         public Object[] toArray() {
             Object[] newArray = new Object[length];
             for (int i = 0; i < length; i++)
-                newArray[i] = array[i].getKey();
+                newArray[i] = array[offset + i].getKey();
             return newArray;
         }
 
@@ -560,7 +970,7 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         @SuppressWarnings("unchecked")
         private <T> void copyKeys(T[] target) {
             for (int i = 0; i < length; i++)
-                target[i] = (T)array[i].getKey();
+                target[i] = (T)array[offset + i].getKey();
         }
 
         /**
@@ -582,7 +992,7 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
             if (length != otherSet.size())
                 return false;
             for (int i = 0; i < length; i++)
-                if (!otherSet.contains(array[i].getKey()))
+                if (!otherSet.contains(array[offset + i].getKey()))
                     return false;
             return true;
         }
@@ -599,7 +1009,7 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         public int hashCode() {
             int result = 0;
             for (int i = 0; i < length; i++)
-                result += Objects.hashCode(array[i].getKey());
+                result += Objects.hashCode(array[offset + i].getKey());
             return result;
         }
 
@@ -607,14 +1017,37 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
          * Get the key at the specified index.  This is not part of the standard {@link Set} interface, but it allows
          * iteration over the entries of a map without needing to instantiate an {@link Iterator}.
          * <br>
-         * The function does not check the array index because the indexing operation on the array will do that anyway.
          *
          * @param   index       the index
          * @return              the element at that index
-         * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the length of the list
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the length of the set
          */
         public K get(int index) {
-            return array[index].getKey();
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            return array[offset + index].getKey();
+        }
+
+        /**
+         * Get a view of a portion of the set, sharing the map's array.  As with {@link ImmutableList#subList(int, int)},
+         * if the view would use less than 1/{@value ImmutableList#subListCopyRatio} of the array, the entries are
+         * copied to a new array instead.
+         *
+         * @param   fromIndex   the starting index of the portion
+         * @param   toIndex     the ending index of the portion
+         * @return              the view
+         * @throws  IndexOutOfBoundsException   if the index range is not valid
+         */
+        public KeySet<K, V> slice(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > length || toIndex < fromIndex)
+                throw new IndexOutOfBoundsException();
+            int newLength = toIndex - fromIndex;
+            if (newLength == length)
+                return this;
+            int from = offset + fromIndex;
+            if (newLength < array.length / ImmutableList.subListCopyRatio)
+                return new KeySet<>(Arrays.copyOfRange(array, from, from + newLength), newLength);
+            return new KeySet<>(array, from, newLength);
         }
 
     }
@@ -638,6 +1071,17 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
             super(array, length, 0);
         }
 
+        /**
+         * Construct a {@code KeyIterator} with the given array (of {@link ImmutableMapEntry}), length and starting index.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   length      the index after the last array item to be iterated over
+         * @param   index       the starting index
+         */
+        KeyIterator(ImmutableMapEntry<K, V>[] array, int length, int index) {
+            super(array, length, index);
+        }
+
         /**
          * Get the next key referenced by this {@code KeyIterator}.
          *
@@ -651,6 +1095,37 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
 
     }
 
+    /**
+     * Implementation of {@link Spliterator} to traverse the contents of a {@link KeySet}.
+     *
+     * @param   <K>         the key type
+     * @param   <V>         the value type
+     */
+    public static class KeySpliterator<K, V> extends ImmutableSpliteratorBase<ImmutableMapEntry<K, V>, K> {
+
+        /**
+         * Construct a {@code KeySpliterator} with the given array (of {@link ImmutableMapEntry}) and index range.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   index       the starting index
+         * @param   fence       the index after the last item to be traversed
+         */
+        KeySpliterator(ImmutableMapEntry<K, V>[] array, int index, int fence) {
+            super(array, index, fence, baseCharacteristics | DISTINCT);
+        }
+
+        @Override
+        K element(ImmutableMapEntry<K, V> item) {
+            return item.getKey();
+        }
+
+        @Override
+        KeySpliterator<K, V> create(int from, int to) {
+            return new KeySpliterator<>(array, from, to);
+        }
+
+    }
+
     /**
      * Implementation of the {@link Collection} interface to provide a view of the values in the {@code ImmutableMap}.
      * It makes use of the same underlying array, but returns only the value portion of the {@link ImmutableMapEntry}.
@@ -672,6 +1147,17 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
             super(array, length);
         }
 
+        /**
+         * Construct a {@code ValueCollection} as a view of a portion of the given array of {@link ImmutableMapEntry}.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   offset      the offset of the first array item to be considered part of the collection
+         * @param   length      the length (the number of array items to be considered part of the collection)
+         */
+        ValueCollection(ImmutableMapEntry<K, V>[] array, int offset, int length) {
+            super(array, offset, length);
+        }
+
         /**
          * Test whether the collection contains an element equal to the specified object (which may be {@code null}).
          *
@@ -682,12 +1168,12 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         public boolean contains(Object o) {
             if (o == null) {
                 for (int i = 0; i < length; i++)
-                    if (array[i].getValue() == null)
+                    if (array[offset + i].getValue() == null)
                         return true;
             }
             else {
                 for (int i = 0; i < length; i++)
-                    if (o.equals(array[i].getValue()))
+                    if (o.equals(array[offset + i].getValue()))
                         return true;
             }
             return false;
@@ -700,7 +1186,86 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
          */
         @Override
         public Iterator<V> iterator() {
-            return new ValueIterator<>(array, length);
+            return new ValueIterator<>(array, offset + length, offset);
+        }
+
+        /**
+         * Return a {@link Spliterator} over the collection.
+         *
+         * @return          the {@link Spliterator}
+         */
+        @Override
+        public Spliterator<V> spliterator() {
+            return new ValueSpliterator<>(array, offset, offset + length);
+        }
+
+        /**
+         * Perform the given action on each element of the collection, iterating over the array directly.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        public void forEach(Consumer<? super V> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(array[offset + i].getValue());
+        }
+
+        /**
+         * Perform the given action on each element of the collection, supplying the index of the element along with the
+         * element itself.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        public void forEachIndexed(IndexedConsumer<? super V> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(i, array[offset + i].getValue());
+        }
+
+        /**
+         * Test whether any element of the collection matches the given predicate.  The scan stops at the first match.
+         *
+         * @param   predicate   the predicate
+         * @return              {@code true} if any element matches
+         * @throws  NullPointerException    if the predicate is {@code null}
+         */
+        public boolean anyMatch(Predicate<? super V> predicate) {
+            return findIndex(predicate) >= 0;
+        }
+
+        /**
+         * Find the index of the first element of the collection that matches the given predicate.
+         *
+         * @param   predicate   the predicate
+         * @return              the index of the first matching element, or -1 if none matches
+         * @throws  NullPointerException    if the predicate is {@code null}
+         */
+        public int findIndex(Predicate<? super V> predicate) {
+            Objects.requireNonNull(predicate);
+            for (int i = 0; i < length; i++)
+                if (predicate.test(array[offset + i].getValue()))
+                    return i;
+            return -1;
+        }
+
+        /**
+         * Copy the collection to a new array, allocated using the supplied generator function.  This overrides the default
+         * method added to {@link Collection} in Java 11, but it may also be called from earlier versions.
+         *
+         * @param   generator   a function to create a new array of the requested size
+         * @param   <T>         the type of the destination array items
+         * @return              an array containing the elements of the collection
+         * @throws  ArrayStoreException if the elements can't be stored in the destination array
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(IntFunction<T[]> generator) {
+            T[] target = generator.apply(length);
+            for (int i = 0; i < length; i++)
+                target[i] = (T)array[offset + i].getValue();
+            return target;
         }
 
         /**
@@ -712,7 +1277,7 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         public Object[] toArray() {
             Object[] newArray = new Object[length];
             for (int i = 0; i < length; i++)
-                newArray[i] = array[i].getValue();
+                newArray[i] = array[offset + i].getValue();
             return newArray;
         }
 
@@ -748,21 +1313,44 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
         @SuppressWarnings("unchecked")
         private <T> void copyValues(T[] target) {
             for (int i = 0; i < length; i++)
-                target[i] = (T)array[i].getValue();
+                target[i] = (T)array[offset + i].getValue();
         }
 
         /**
          * Get the value at the specified index.  This is not part of the standard {@link Collection} interface, but it
          * allows iteration over the entries of a map without needing to instantiate an {@link Iterator}.
          * <br>
-         * The function does not check the array index because the indexing operation on the array will do that anyway.
          *
          * @param   index       the index
          * @return              the element at that index
-         * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the length of the list
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the length of the collection
          */
         public V get(int index) {
-            return array[index].getValue();
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            return array[offset + index].getValue();
+        }
+
+        /**
+         * Get a view of a portion of the collection, sharing the map's array.  As with {@link ImmutableList#subList(int, int)},
+         * if the view would use less than 1/{@value ImmutableList#subListCopyRatio} of the array, the entries are
+         * copied to a new array instead.
+         *
+         * @param   fromIndex   the starting index of the portion
+         * @param   toIndex     the ending index of the portion
+         * @return              the view
+         * @throws  IndexOutOfBoundsException   if the index range is not valid
+         */
+        public ValueCollection<K, V> slice(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > length || toIndex < fromIndex)
+                throw new IndexOutOfBoundsException();
+            int newLength = toIndex - fromIndex;
+            if (newLength == length)
+                return this;
+            int from = offset + fromIndex;
+            if (newLength < array.length / ImmutableList.subListCopyRatio)
+                return new ValueCollection<>(Arrays.copyOfRange(array, from, from + newLength), newLength);
+            return new ValueCollection<>(array, from, newLength);
         }
 
     }
@@ -786,6 +1374,17 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
             super(array, length, 0);
         }
 
+        /**
+         * Construct a {@code ValueIterator} with the given array (of {@link ImmutableMapEntry}), length and starting index.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   length      the index after the last array item to be iterated over
+         * @param   index       the starting index
+         */
+        ValueIterator(ImmutableMapEntry<K, V>[] array, int length, int index) {
+            super(array, length, index);
+        }
+
         /**
          * Get the next value referenced by this {@code ValueIterator}.
          *
@@ -799,4 +1398,658 @@ public class ImmutableMap<K, V> extends ImmutableBase<ImmutableMapEntry<K, V>> i
 
     }
 
+    /**
+     * Implementation of {@link Spliterator} to traverse the contents of a {@link ValueCollection}.
+     *
+     * @param   <K>         the key type
+     * @param   <V>         the value type
+     */
+    public static class ValueSpliterator<K, V> extends ImmutableSpliteratorBase<ImmutableMapEntry<K, V>, V> {
+
+        /**
+         * Construct a {@code ValueSpliterator} with the given array (of {@link ImmutableMapEntry}) and index range.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   index       the starting index
+         * @param   fence       the index after the last item to be traversed
+         */
+        ValueSpliterator(ImmutableMapEntry<K, V>[] array, int index, int fence) {
+            super(array, index, fence, baseCharacteristics);
+        }
+
+        @Override
+        V element(ImmutableMapEntry<K, V> item) {
+            return item.getValue();
+        }
+
+        @Override
+        ValueSpliterator<K, V> create(int from, int to) {
+            return new ValueSpliterator<>(array, from, to);
+        }
+
+    }
+
+    /**
+     * A view of the entries of an {@code ImmutableMap} in which each value is transformed by a mapping function when it
+     * is accessed, optionally memoising the results.  Returned by {@link ImmutableMap#mapValuesView(Function)}.
+     *
+     * @param   <K>         the key type
+     * @param   <V>         the value type of the source map
+     * @param   <R>         the value type of the view
+     */
+    public static class MappedValuesView<K, V, R> extends AbstractMap<K, R> {
+
+        private final ImmutableMapEntry<K, V>[] array;
+        private final int length;
+        private final ImmutableList.MappedView<ImmutableMapEntry<K, V>, R> values;
+
+        /**
+         * Construct a {@code MappedValuesView}.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   length      the length (the number of array items to be considered part of the map)
+         * @param   mapper      the mapping function
+         * @param   memoise     if {@code true}, memoise the results
+         */
+        MappedValuesView(ImmutableMapEntry<K, V>[] array, int length, Function<? super V, ? extends R> mapper,
+                boolean memoise) {
+            Objects.requireNonNull(mapper);
+            this.array = array;
+            this.length = length;
+            values = new ImmutableList.MappedView<>(array, 0, length, e -> mapper.apply(e.getValue()), memoise);
+        }
+
+        /**
+         * Get the number of entries in the map.
+         *
+         * @return          the number of entries
+         */
+        @Override
+        public int size() {
+            return length;
+        }
+
+        /**
+         * Test whether the map contains the specified key.
+         *
+         * @param   key     the key
+         * @return          {@code true} if the map contains the key
+         */
+        @Override
+        public boolean containsKey(Object key) {
+            return findKey(array, length, key) >= 0;
+        }
+
+        /**
+         * Get the (transformed) value corresponding to the supplied key.  If the key is not found, {@code null} is
+         * returned.
+         *
+         * @param   key     the key
+         * @return          the value
+         */
+        @Override
+        public R get(Object key) {
+            int i = findKey(array, length, key);
+            return i >= 0 ? values.compute(i) : null;
+        }
+
+        /**
+         * Get the (transformed) value corresponding to the supplied key, or the supplied default value if the key is
+         * not found.
+         *
+         * @param   key             the key
+         * @param   defaultValue    the default value
+         * @return                  the value
+         */
+        @Override
+        public R getOrDefault(Object key, R defaultValue) {
+            int i = findKey(array, length, key);
+            return i >= 0 ? values.compute(i) : defaultValue;
+        }
+
+        /**
+         * Get the key at the specified index.
+         *
+         * @param   index   the index
+         * @return          the key
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the map
+         */
+        public K getKey(int index) {
+            return ImmutableCollection.get(array, length, index).getKey();
+        }
+
+        /**
+         * Get the (transformed) value at the specified index.
+         *
+         * @param   index   the index
+         * @return          the value
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the map
+         */
+        public R getValue(int index) {
+            return values.get(index);
+        }
+
+        /**
+         * Get a {@link Set} of the keys in the map (the same as the {@link KeySet} of the source map).
+         *
+         * @return          the {@link Set}
+         */
+        @Override
+        public KeySet<K, V> keySet() {
+            return new KeySet<>(array, length);
+        }
+
+        /**
+         * Get the (transformed) values in the map, as a {@link List} with indexed access.
+         *
+         * @return          the values
+         */
+        @Override
+        public ImmutableList.MappedView<ImmutableMapEntry<K, V>, R> values() {
+            return values;
+        }
+
+        /**
+         * Get a {@link Set} of the entries in the map.  The entries are created as they are accessed.
+         *
+         * @return          the {@link Set}
+         */
+        @Override
+        public Set<Entry<K, R>> entrySet() {
+            return new AbstractSet<Entry<K, R>>() {
+                @Override
+                public Iterator<Entry<K, R>> iterator() {
+                    return new Iterator<Entry<K, R>>() {
+                        private int index = 0;
+                        @Override
+                        public boolean hasNext() {
+                            return index < length;
+                        }
+                        @Override
+                        public Entry<K, R> next() {
+                            if (index >= length)
+                                throw new NoSuchElementException(String.valueOf(index));
+                            int i = index++;
+                            return new ImmutableMapEntry<>(array[i].getKey(), values.compute(i));
+                        }
+                    };
+                }
+                @Override
+                public int size() {
+                    return length;
+                }
+            };
+        }
+
+        /**
+         * Perform the given action on each entry in the map.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        public void forEach(BiConsumer<? super K, ? super R> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < length; i++)
+                action.accept(array[i].getKey(), values.compute(i));
+        }
+
+    }
+
+    /**
+     * The policy to be applied by a {@link Builder} when a key is added that is already present.
+     */
+    public enum DuplicateKeyPolicy {
+        /** Throw an {@link IllegalArgumentException}. */
+        THROW,
+        /** Keep the value first added for the key. */
+        FIRST_WINS,
+        /** Replace the value with the one most recently added (the entry retains its original position). */
+        LAST_WINS,
+        /** Combine the existing and new values using a merge function. */
+        MERGE
+    }
+
+    /**
+     * A builder for {@code ImmutableMap}.  Keys are checked for duplicates as they are added, using a linear search
+     * while the number of entries is small, and a transient hash index once it exceeds {@value #hashThreshold}.  The
+     * handling of duplicates is determined by a {@link DuplicateKeyPolicy}.
+     * <br>
+     * The {@link #build()} function returns a {@link MiniMap} for up to three entries, or an {@code ImmutableMap} with
+     * an array of exactly the required size.  The builder may continue to be used after {@link #build()} has been
+     * called.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class Builder<K, V> {
+
+        /** The default initial capacity. */
+        public static final int defaultCapacity = 8;
+
+        /** The number of entries above which a hash index is used to check for duplicates. */
+        public static final int hashThreshold = 8;
+
+        private ImmutableMapEntry<K, V>[] array;
+        private int size;
+        private boolean shared;
+        private int[] index;
+        private DuplicateKeyPolicy policy = DuplicateKeyPolicy.THROW;
+        private BinaryOperator<V> mergeFunction;
+
+        /**
+         * Construct a {@code Builder} with the default initial capacity.
+         */
+        public Builder() {
+            this(defaultCapacity);
+        }
+
+        /**
+         * Construct a {@code Builder} with an initial capacity for the expected number of entries.
+         *
+         * @param   expectedSize    the expected number of entries
+         * @throws  IllegalArgumentException if the expected size is negative
+         */
+        @SuppressWarnings("unchecked")
+        public Builder(int expectedSize) {
+            if (expectedSize < 0)
+                throw new IllegalArgumentException("Expected size must not be negative");
+            array = (ImmutableMapEntry<K, V>[])(expectedSize == 0 ? emptyEntryArray : createArray(expectedSize));
+        }
+
+        /**
+         * Set the policy for handling duplicate keys.  To use {@link DuplicateKeyPolicy#MERGE}, call
+         * {@link #merging(BinaryOperator)} instead.
+         *
+         * @param   policy      the {@link DuplicateKeyPolicy}
+         * @return              this {@code Builder}
+         * @throws  IllegalArgumentException if the policy is {@link DuplicateKeyPolicy#MERGE}
+         */
+        public Builder<K, V> onDuplicate(DuplicateKeyPolicy policy) {
+            if (policy == DuplicateKeyPolicy.MERGE)
+                throw new IllegalArgumentException("MERGE policy requires a merge function");
+            this.policy = Objects.requireNonNull(policy);
+            mergeFunction = null;
+            return this;
+        }
+
+        /**
+         * Set the policy for handling duplicate keys to {@link DuplicateKeyPolicy#MERGE}, using the given function to
+         * combine the existing value (the first argument) with the new value (the second argument).
+         *
+         * @param   mergeFunction   the merge function
+         * @return                  this {@code Builder}
+         */
+        public Builder<K, V> merging(BinaryOperator<V> mergeFunction) {
+            this.mergeFunction = Objects.requireNonNull(mergeFunction);
+            policy = DuplicateKeyPolicy.MERGE;
+            return this;
+        }
+
+        /**
+         * Get the number of entries added so far.
+         *
+         * @return      the number of entries
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Add an entry, applying the {@link DuplicateKeyPolicy} if the key is already present.
+         *
+         * @param   key         the key
+         * @param   value       the value
+         * @return              this {@code Builder}
+         * @throws  IllegalArgumentException if the key is already present and the policy is
+         *                      {@link DuplicateKeyPolicy#THROW}
+         */
+        public Builder<K, V> put(K key, V value) {
+            int hash = spread(Objects.hashCode(key));
+            int i = find(key, hash);
+            if (i < 0) {
+                ensureCapacity(size + 1);
+                array[size] = new ImmutableMapEntry<>(key, value);
+                if (index != null)
+                    addToIndex(index, size, hash);
+                if (++size > hashThreshold && index == null)
+                    index = createIndex(array, size, array.length);
+            }
+            else {
+                switch (policy) {
+                    case THROW:
+                        throw new IllegalArgumentException("Duplicate key: " + key);
+                    case FIRST_WINS:
+                        break;
+                    case LAST_WINS:
+                        replace(i, value);
+                        break;
+                    case MERGE:
+                        replace(i, mergeFunction.apply(array[i].getValue(), value));
+                        break;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Add all the entries of a {@link Map}, applying the {@link DuplicateKeyPolicy} to any keys already present.
+         *
+         * @param   map         the {@link Map}
+         * @return              this {@code Builder}
+         * @throws  IllegalArgumentException if a key is already present and the policy is
+         *                      {@link DuplicateKeyPolicy#THROW}
+         */
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            ensureCapacity(size + map.size());
+            if (map instanceof ImmutableMap) {
+                ImmutableMap<? extends K, ? extends V> immutableMap = (ImmutableMap<? extends K, ? extends V>)map;
+                for (int i = 0, n = immutableMap.length; i < n; i++) {
+                    ImmutableMapEntry<? extends K, ? extends V> entry = immutableMap.array[i];
+                    put(entry.getKey(), entry.getValue());
+                }
+            }
+            else {
+                for (Entry<? extends K, ? extends V> entry : map.entrySet())
+                    put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * Build the {@link Map}.  For up to three entries, a {@link MiniMap} is returned; otherwise the result is an
+         * {@code ImmutableMap}.
+         *
+         * @return              the {@link Map}
+         */
+        public Map<K, V> build() {
+            switch (size) {
+                case 0:
+                    return MiniMap.of();
+                case 1:
+                    return new MiniMap1<>(array[0].getKey(), array[0].getValue());
+                case 2:
+                    return new MiniMap2<>(array[0].getKey(), array[0].getValue(), array[1].getKey(),
+                            array[1].getValue());
+                case 3:
+                    return new MiniMap3<>(array[0].getKey(), array[0].getValue(), array[1].getKey(),
+                            array[1].getValue(), array[2].getKey(), array[2].getValue());
+            }
+            return buildImmutableMap();
+        }
+
+        /**
+         * Build an {@code ImmutableMap}, with an array of exactly the required size.  If the builder's array is already
+         * of that size, it is handed over to the map without copying.
+         *
+         * @return              the {@code ImmutableMap}
+         */
+        public ImmutableMap<K, V> buildImmutableMap() {
+            int n = size;
+            if (n == 0)
+                return emptyMap();
+            if (array.length == n) {
+                shared = true;
+                return new ImmutableMap<>(n, array);
+            }
+            return new ImmutableMap<>(n, Arrays.copyOf(array, n));
+        }
+
+        /**
+         * Locate a key, using the hash index if one has been created.
+         *
+         * @param   key         the key
+         * @param   hash        the hash of the key
+         * @return              the index of the entry, or -1 if not found
+         */
+        private int find(Object key, int hash) {
+            return index == null ? findKey(array, size, key) : findIndexed(array, index, key, hash);
+        }
+
+        /**
+         * Replace the entry at the given index (copying the array first if it has been handed over to a map).
+         *
+         * @param   i           the index
+         * @param   value       the new value
+         */
+        private void replace(int i, V value) {
+            ensureCapacity(size);
+            array[i] = new ImmutableMapEntry<>(array[i].getKey(), value);
+        }
+
+        /**
+         * Ensure that the array has at least the specified capacity, growing it by at least 50% if necessary (and
+         * rebuilding the hash index if there is one).  If the array has been handed over to a map, it is copied.
+         *
+         * @param   capacity    the required capacity
+         */
+        private void ensureCapacity(int capacity) {
+            if (capacity < 0)
+                throw new OutOfMemoryError("Required array size too large");
+            int length = array.length;
+            if (capacity > length) {
+                int newLength = length + (length >> 1) + 1;
+                if (newLength < capacity || newLength < 0)
+                    newLength = capacity;
+                array = Arrays.copyOf(array, newLength);
+                shared = false;
+                if (index != null)
+                    index = createIndex(array, size, newLength);
+            }
+            else if (shared) {
+                array = Arrays.copyOf(array, length);
+                shared = false;
+            }
+        }
+
+    }
+
+    /**
+     * A single-owner mutable editor for an {@code ImmutableMap}, created by {@link ImmutableMap#toTransient()}.  The
+     * entries are held in a single growable array (with a hash index once the number of entries exceeds
+     * {@link Builder#hashThreshold}), and {@link #persistent()} creates an {@code ImmutableMap} using that array in
+     * O(1) time, after which the editor may no longer be used.
+     * <br>
+     * A {@code Transient} is not thread-safe; it should be confined to a single thread or task.
+     *
+     * @param   <K>     the key type
+     * @param   <V>     the value type
+     */
+    public static class Transient<K, V> {
+
+        private ImmutableMapEntry<K, V>[] array;
+        private int used;
+        private int size;
+        private boolean shared;
+        private int[] index;
+        private boolean active;
+
+        /**
+         * Construct a {@code Transient} sharing the array of an existing map.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   size        the number of entries
+         */
+        Transient(ImmutableMapEntry<K, V>[] array, int size) {
+            this(array, size, true);
+        }
+
+        /**
+         * Construct a {@code Transient} using an array that may be either shared (in which case it will be copied
+         * before the first change) or owned by the editor.
+         *
+         * @param   array       the array of {@link ImmutableMapEntry}
+         * @param   size        the number of entries
+         * @param   shared      {@code true} if the array is shared
+         */
+        Transient(ImmutableMapEntry<K, V>[] array, int size, boolean shared) {
+            this.array = array;
+            used = size;
+            this.size = size;
+            this.shared = shared;
+            active = true;
+        }
+
+        /**
+         * Get the number of entries.
+         *
+         * @return              the number of entries
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public int size() {
+            checkActive();
+            return size;
+        }
+
+        /**
+         * Get the value for the specified key.
+         *
+         * @param   key         the key
+         * @return              the value, or {@code null} if the key is not present
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public V get(Object key) {
+            int i = find(key);
+            return i < 0 ? null : array[i].getValue();
+        }
+
+        /**
+         * Test whether the specified key is present.
+         *
+         * @param   key         the key
+         * @return              {@code true} if the key is present
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public boolean containsKey(Object key) {
+            return find(key) >= 0;
+        }
+
+        /**
+         * Map the specified key to the specified value, replacing the value if the key is already present.
+         *
+         * @param   key         the key
+         * @param   value       the value
+         * @return              {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<K, V> put(K key, V value) {
+            int i = find(key);
+            if (i >= 0) {
+                ImmutableMapEntry<K, V> entry = array[i];
+                if (!Objects.equals(entry.getValue(), value)) {
+                    ensureCapacity(0);
+                    array[i] = new ImmutableMapEntry<>(entry.getKey(), value);
+                }
+            }
+            else {
+                ensureCapacity(1);
+                array[used] = new ImmutableMapEntry<>(key, value);
+                if (index != null)
+                    addToIndex(index, used, spread(Objects.hashCode(key)));
+                used++;
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Remove the specified key, if present.  The slot of the removed entry is left empty (so that the hash index
+         * remains valid), and the remaining entries are moved down, preserving their order, only when the array is
+         * next compacted (when it grows, or when {@link #persistent()} is called).  A batch of removals therefore
+         * costs O(1) each, plus a single O(n) compaction.
+         *
+         * @param   key         the key
+         * @return              {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<K, V> remove(Object key) {
+            int i = find(key);
+            if (i >= 0) {
+                ensureCapacity(0);
+                array[i] = null;
+                size--;
+            }
+            return this;
+        }
+
+        /**
+         * Create an {@code ImmutableMap} using the array of this editor, and deactivate the editor.
+         *
+         * @return              the {@code ImmutableMap}
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public ImmutableMap<K, V> persistent() {
+            checkActive();
+            active = false;
+            compact();
+            int n = size;
+            return n == 0 ? emptyMap() : new ImmutableMap<>(n, array);
+        }
+
+        private int find(Object key) {
+            checkActive();
+            if (size <= Builder.hashThreshold && index == null) {
+                for (int i = 0; i < used; i++) {
+                    ImmutableMapEntry<K, V> entry = array[i];
+                    if (entry != null && Objects.equals(key, entry.getKey()))
+                        return i;
+                }
+                return -1;
+            }
+            if (index == null) {
+                compact();
+                index = createIndex(array, used, array.length);
+            }
+            return findIndexed(array, index, key, spread(Objects.hashCode(key)));
+        }
+
+        /**
+         * Move the remaining entries down over the empty slots left by {@link #remove(Object)}.  The array is never
+         * shared when there are empty slots, because it is copied before the first removal.
+         */
+        private void compact() {
+            if (used == size)
+                return;
+            int j = 0;
+            for (int i = 0; i < used; i++) {
+                ImmutableMapEntry<K, V> entry = array[i];
+                if (entry != null)
+                    array[j++] = entry;
+            }
+            Arrays.fill(array, j, used, null);
+            used = j;
+            index = null;
+        }
+
+        private void checkActive() {
+            if (!active)
+                throw new IllegalStateException("Transient used after persistent()");
+        }
+
+        private void ensureCapacity(int extra) {
+            int capacity = used + extra;
+            if (capacity < 0)
+                throw new OutOfMemoryError("Required array size too large");
+            int length = array.length;
+            if (capacity > length) {
+                compact();
+                capacity = used + extra;
+                if (capacity > length) {
+                    int newLength = length + (length >> 1) + 1;
+                    if (newLength < capacity || newLength < 0)
+                        newLength = capacity;
+                    array = Arrays.copyOf(array, newLength);
+                    shared = false;
+                }
+                if (index != null || size > Builder.hashThreshold)
+                    index = createIndex(array, used, array.length);
+            }
+            else if (shared) {
+                array = Arrays.copyOf(array, length);
+                shared = false;
+            }
+        }
+
+    }
+
 }
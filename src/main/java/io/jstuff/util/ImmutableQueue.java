@@ -0,0 +1,351 @@
+/*
+ * @(#) ImmutableQueue.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * A persistent immutable first-in-first-out queue, implemented as a pair of {@link ImmutableStack}s: elements are
+ * removed from the front stack and added to the back stack, and when the front stack is exhausted the back stack is
+ * reversed to become the new front.  Each element is moved from the back to the front at most once, so
+ * {@link #enqueue(Object)} and {@link #dequeue()} take amortised O(1) time (the bound is amortised over a sequence of
+ * versions each derived from the previous one; repeatedly dequeuing from the same old version may repeat a
+ * reversal).
+ * <br>
+ * Like {@link ImmutableStack}, a queue may be published to other threads through an
+ * {@link java.util.concurrent.atomic.AtomicReference} and updated with a compare-and-set loop, without locks.  The
+ * modifying methods of the {@link Queue} interface ({@code offer}, {@code poll} and {@code remove}) throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+public class ImmutableQueue<T> extends AbstractCollection<T> implements Queue<T> {
+
+    private static final ImmutableQueue<?> emptyQueue = new ImmutableQueue<>(ImmutableStack.emptyStack(),
+            ImmutableStack.emptyStack());
+
+    private final ImmutableStack<T> front;
+    private final ImmutableStack<T> back;
+
+    /**
+     * Internal constructor.  The front stack is empty only if the whole queue is empty.
+     *
+     * @param   front   the front of the queue (head first)
+     * @param   back    the back of the queue (most recently added first)
+     */
+    private ImmutableQueue(ImmutableStack<T> front, ImmutableStack<T> back) {
+        this.front = front;
+        this.back = back;
+    }
+
+    /**
+     * Get the number of elements in the queue.
+     *
+     * @return          the number of elements
+     */
+    @Override
+    public int size() {
+        return front.size() + back.size();
+    }
+
+    /**
+     * Test whether the queue is empty.
+     *
+     * @return          {@code true} if the queue is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return front.isEmpty();
+    }
+
+    /**
+     * Get the element at the head of the queue.
+     *
+     * @return          the head element, or {@code null} if the queue is empty
+     */
+    @Override
+    public T peek() {
+        return front.peek();
+    }
+
+    /**
+     * Get the element at the head of the queue.
+     *
+     * @return          the head element
+     * @throws  NoSuchElementException  if the queue is empty
+     */
+    @Override
+    public T element() {
+        if (front.isEmpty())
+            throw new NoSuchElementException();
+        return front.peek();
+    }
+
+    /**
+     * Create a new queue with the specified element added at the tail.  This is an O(1) operation.
+     *
+     * @param   element the element
+     * @return          the new queue
+     */
+    public ImmutableQueue<T> enqueue(T element) {
+        return front.isEmpty() ? new ImmutableQueue<>(front.push(element), back) :
+                new ImmutableQueue<>(front, back.push(element));
+    }
+
+    /**
+     * Get the queue with the head element removed.  This is an amortised O(1) operation.
+     *
+     * @return          the remainder of the queue
+     * @throws  IllegalStateException   if the queue is empty
+     */
+    public ImmutableQueue<T> dequeue() {
+        if (front.isEmpty())
+            throw new IllegalStateException("Can't dequeue empty queue");
+        ImmutableStack<T> newFront = front.pop();
+        if (!newFront.isEmpty())
+            return new ImmutableQueue<>(newFront, back);
+        return back.isEmpty() ? emptyQueue() : new ImmutableQueue<>(back.reverse(), ImmutableStack.emptyStack());
+    }
+
+    /**
+     * Not supported (the queue is immutable; use {@link #enqueue(Object)}).
+     *
+     * @param   element the element
+     * @return          never returns
+     * @throws  UnsupportedOperationException   always
+     */
+    @Override
+    public boolean offer(T element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported (the queue is immutable; use {@link #dequeue()}).
+     *
+     * @return          never returns
+     * @throws  UnsupportedOperationException   always
+     */
+    @Override
+    public T poll() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported (the queue is immutable; use {@link #dequeue()}).
+     *
+     * @return          never returns
+     * @throws  UnsupportedOperationException   always
+     */
+    @Override
+    public T remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return an {@link Iterator} over the queue, from the head to the tail.
+     *
+     * @return          the {@link Iterator}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new QueueIterator<>(this);
+    }
+
+    /**
+     * Perform the given action on each element of the queue, from the head to the tail.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        front.forEach(action);
+        Object[] array = back.toArray();
+        for (int i = array.length; i > 0; )
+            action.accept((T)array[--i]);
+    }
+
+    /**
+     * Copy the elements of the queue to a new array, from the head to the tail.
+     *
+     * @return          an array containing the elements
+     */
+    @Override
+    public Object[] toArray() {
+        int frontSize = front.size();
+        Object[] result = new Object[frontSize + back.size()];
+        int i = 0;
+        for (T element : front)
+            result[i++] = element;
+        i = result.length;
+        for (T element : back)
+            result[--i] = element;
+        return result;
+    }
+
+    /**
+     * Create an {@link ImmutableList} containing the elements of the queue, from the head to the tail.
+     *
+     * @return          the {@link ImmutableList}
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<T> toImmutableList() {
+        return isEmpty() ? ImmutableList.emptyList() : ImmutableList.listOf((T[])toArray());
+    }
+
+    /**
+     * Compare this queue with another object for equality.  The other object is equal if it is an
+     * {@code ImmutableQueue} containing equal elements in the same order.
+     *
+     * @param   other   the other object
+     * @return          {@code true} if the other object is equal to this queue
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof ImmutableQueue))
+            return false;
+        ImmutableQueue<?> otherQueue = (ImmutableQueue<?>)other;
+        if (size() != otherQueue.size())
+            return false;
+        Iterator<?> i = otherQueue.iterator();
+        for (T element : this)
+            if (!Objects.equals(element, i.next()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Get the hash code for the queue, calculated in the same way as for a {@link java.util.List}.
+     *
+     * @return          the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (T element : this)
+            result = 31 * result + Objects.hashCode(element);
+        return result;
+    }
+
+    /**
+     * Get an empty {@code ImmutableQueue}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @param   <TT>        the element type
+     * @return              an empty queue
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableQueue<TT> emptyQueue() {
+        return (ImmutableQueue<TT>)emptyQueue;
+    }
+
+    /**
+     * Create an {@code ImmutableQueue} containing the supplied elements, the first element being the head of the
+     * queue.
+     *
+     * @param   elements    the elements
+     * @param   <TT>        the element type
+     * @return              the queue
+     */
+    @SafeVarargs
+    public static <TT> ImmutableQueue<TT> queueOf(TT ... elements) {
+        if (elements.length == 0)
+            return emptyQueue();
+        ImmutableStack<TT> front = ImmutableStack.emptyStack();
+        for (int i = elements.length; i > 0; )
+            front = front.push(elements[--i]);
+        return new ImmutableQueue<>(front, ImmutableStack.emptyStack());
+    }
+
+    /**
+     * Create an {@code ImmutableQueue} containing the elements of a {@link Collection}, the first element in
+     * iteration order being the head of the queue.
+     *
+     * @param   collection  the {@link Collection}
+     * @param   <TT>        the element type
+     * @return              the queue
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableQueue<TT> from(Collection<? extends TT> collection) {
+        if (collection instanceof ImmutableQueue)
+            return (ImmutableQueue<TT>)collection;
+        return queueOf((TT[])collection.toArray());
+    }
+
+    /**
+     * An {@link Iterator} over an {@code ImmutableQueue}.  The back stack is copied to an array (to reverse it) only
+     * when the iteration reaches it.
+     *
+     * @param   <T>     the element type
+     */
+    static final class QueueIterator<T> implements Iterator<T> {
+
+        private ImmutableStack<T> stack;
+        private ImmutableStack<T> back;
+        private Object[] array;
+        private int index;
+
+        QueueIterator(ImmutableQueue<T> queue) {
+            stack = queue.front;
+            back = queue.back;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() || !back.isEmpty() || index > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!stack.isEmpty()) {
+                T result = stack.peek();
+                stack = stack.pop();
+                return result;
+            }
+            if (!back.isEmpty()) {
+                array = back.toArray();
+                index = array.length;
+                back = ImmutableStack.emptyStack();
+            }
+            if (index == 0)
+                throw new NoSuchElementException();
+            return (T)array[--index];
+        }
+
+    }
+
+}
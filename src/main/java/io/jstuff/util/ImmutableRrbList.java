@@ -0,0 +1,757 @@
+/*
+ * @(#) ImmutableRrbList.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A persistent immutable {@link List}, implemented as a Relaxed Radix Balanced (RRB) tree.  Elements are held in leaf
+ * arrays of up to 32 elements, and each internal node holds up to 32 children along with a table of the cumulative
+ * sizes of its children, so that (unlike a strict radix tree such as {@link ImmutableVector}) nodes need not be full.
+ * This allows {@link #concat(ImmutableRrbList)}, {@link #subList(int, int)} and {@link #insertAt(int, Object)} to be
+ * performed in O(log n) time, copying only the nodes along the boundaries and sharing the rest of the structure, while
+ * {@link #get(int)} remains effectively constant-time (one short scan of a size table per level of the tree).
+ * <br>
+ * All leaves are at the same depth.  Concatenation rebalances the leaves and nodes along the join, redistributing
+ * their contents where necessary so that each group of siblings uses no more than {@value #extraNodes} nodes more
+ * than the minimum needed to hold them (the search step invariant of an RRB tree).  Repeated concatenation of small
+ * lists or slices therefore does not leave the tree sparse, and the scan of each size table stays short.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+public class ImmutableRrbList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int bits = 5;
+    static final int width = 1 << bits;
+    static final int extraNodes = 2;
+
+    private static final ImmutableRrbList<?> emptyList = new ImmutableRrbList<>(ImmutableBase.emptyArray, 0, 0);
+
+    private final Object root;
+    private final int height;
+    private final int size;
+
+    /**
+     * Internal constructor.
+     *
+     * @param   root    the root node (a leaf array if the height is zero)
+     * @param   height  the height of the tree
+     * @param   size    the number of elements
+     */
+    private ImmutableRrbList(Object root, int height, int size) {
+        this.root = root;
+        this.height = height;
+        this.size = size;
+    }
+
+    /**
+     * Get the number of elements in the list.
+     *
+     * @return          the number of elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the height of the tree (zero if all the elements are in a single leaf).
+     *
+     * @return          the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the element at the specified index.
+     *
+     * @param   index   the index
+     * @return          the element
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        Object node = root;
+        for (int h = height; h > 0; h--) {
+            Node n = (Node)node;
+            int j = n.childIndex(index, h);
+            if (j > 0)
+                index -= n.sizes[j - 1];
+            node = n.children[j];
+        }
+        return (T)((Object[])node)[index];
+    }
+
+    /**
+     * Create a new list with the element at the specified index replaced.
+     *
+     * @param   index   the index
+     * @param   element the new element
+     * @return          the new list
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    public ImmutableRrbList<T> with(int index, T element) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return new ImmutableRrbList<>(assoc(root, height, index, element), height, size);
+    }
+
+    /**
+     * Create a new list consisting of the elements of this list followed by the elements of another.  This takes
+     * O(log n) time; only the nodes along the right edge of this list and the left edge of the other are copied.
+     *
+     * @param   other   the other list
+     * @return          the concatenated list
+     */
+    public ImmutableRrbList<T> concat(ImmutableRrbList<T> other) {
+        if (other.size == 0)
+            return this;
+        if (size == 0)
+            return other;
+        Object[] nodes = join(root, height, other.root, other.height);
+        int h = Math.max(height, other.height);
+        if (nodes.length == 1)
+            return create(nodes[0], h, size + other.size);
+        return create(new Node(nodes, h + 1), h + 1, size + other.size);
+    }
+
+    /**
+     * Create a new list with the specified element added at the end.
+     *
+     * @param   element the element
+     * @return          the new list
+     */
+    public ImmutableRrbList<T> append(T element) {
+        return concat(new ImmutableRrbList<>(new Object[] { element }, 0, 1));
+    }
+
+    /**
+     * Create a new list with the specified element inserted at the specified index.  This takes O(log n) time.
+     *
+     * @param   index   the index
+     * @param   element the element
+     * @return          the new list
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the size of the list
+     */
+    public ImmutableRrbList<T> insertAt(int index, T element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        ImmutableRrbList<T> single = new ImmutableRrbList<>(new Object[] { element }, 0, 1);
+        return subList(0, index).concat(single).concat(subList(index, size));
+    }
+
+    /**
+     * Create a list containing a portion of this list.  This takes O(log n) time; only the nodes along the edges of
+     * the portion are copied, and the rest of the structure is shared with this list.
+     *
+     * @param   fromIndex   the start index (inclusive)
+     * @param   toIndex     the end index (exclusive)
+     * @return              the new list
+     * @throws  IndexOutOfBoundsException   if the indices are out of range
+     * @throws  IllegalArgumentException    if the start index is greater than the end index
+     */
+    @Override
+    public ImmutableRrbList<T> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        if (toIndex > size)
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        if (fromIndex == toIndex)
+            return emptyList();
+        if (fromIndex == 0 && toIndex == size)
+            return this;
+        return create(slice(root, height, fromIndex, toIndex), height, toIndex - fromIndex);
+    }
+
+    /**
+     * Return an {@link Iterator} over the list.  The iterator traverses each leaf array in turn.
+     *
+     * @return          the {@link Iterator}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new RrbIterator();
+    }
+
+    /**
+     * Perform the given action on each element of the list.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        forEachLeafElement(root, height, action);
+    }
+
+    /**
+     * Return a {@link Spliterator} over the list.  The {@link Spliterator} splits at the node boundary nearest to
+     * the middle of its range, so that each part of a parallel stream traverses whole sub-trees.
+     *
+     * @return          the {@link Spliterator}
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RrbSpliterator<>(root, height, 0, size);
+    }
+
+    /**
+     * Copy the elements of the list to a new array.
+     *
+     * @return          an array containing the elements
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        copyLeaves(root, height, result, 0);
+        return result;
+    }
+
+    /**
+     * Create an {@link ImmutableList} containing the elements of this list.
+     *
+     * @return          the {@link ImmutableList}
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<T> toImmutableList() {
+        return size == 0 ? ImmutableList.emptyList() : ImmutableList.listOf((T[])toArray());
+    }
+
+    /**
+     * Get an empty {@code ImmutableRrbList}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @param   <TT>        the element type
+     * @return              an empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableRrbList<TT> emptyList() {
+        return (ImmutableRrbList<TT>)emptyList;
+    }
+
+    /**
+     * Create an {@code ImmutableRrbList} containing the supplied elements.
+     *
+     * @param   elements    the elements
+     * @param   <TT>        the element type
+     * @return              the list
+     */
+    @SafeVarargs
+    public static <TT> ImmutableRrbList<TT> listOf(TT ... elements) {
+        int n = elements.length;
+        Object[] array = new Object[n];
+        for (int i = 0; i < n; i++)
+            array[i] = elements[i];
+        return build(array, 0, n);
+    }
+
+    /**
+     * Create an {@code ImmutableRrbList} containing the elements of a {@link Collection}.  The tree is built with full
+     * leaves and nodes; if the collection is an {@link ImmutableCollection}, the elements are copied directly from
+     * its array.
+     *
+     * @param   collection  the {@link Collection}
+     * @param   <TT>        the element type
+     * @return              the list
+     */
+    public static <TT> ImmutableRrbList<TT> from(Collection<? extends TT> collection) {
+        if (collection instanceof ImmutableRrbList) {
+            @SuppressWarnings("unchecked")
+            ImmutableRrbList<TT> list = (ImmutableRrbList<TT>)collection;
+            return list;
+        }
+        if (collection instanceof ImmutableCollection) {
+            ImmutableCollection<? extends TT> immutable = (ImmutableCollection<? extends TT>)collection;
+            return build(immutable.array, immutable.offset, immutable.length);
+        }
+        Object[] array = collection.toArray();
+        return build(array, 0, array.length);
+    }
+
+    private static <TT> ImmutableRrbList<TT> build(Object[] array, int offset, int length) {
+        if (length == 0)
+            return emptyList();
+        int n = (length + width - 1) >>> bits;
+        Object[] nodes = new Object[n];
+        for (int i = 0; i < n; i++) {
+            int start = offset + (i << bits);
+            nodes[i] = Arrays.copyOfRange(array, start, Math.min(start + width, offset + length), Object[].class);
+        }
+        int h = 0;
+        while (n > 1) {
+            h++;
+            int m = (n + width - 1) >>> bits;
+            Object[] parents = new Object[m];
+            for (int i = 0; i < m; i++) {
+                int start = i << bits;
+                parents[i] = new Node(Arrays.copyOfRange(nodes, start, Math.min(start + width, n)), h);
+            }
+            nodes = parents;
+            n = m;
+        }
+        return new ImmutableRrbList<>(nodes[0], h, length);
+    }
+
+    /**
+     * Create a list from a root node, first removing any chain of single-child nodes at the top of the tree.
+     */
+    private static <TT> ImmutableRrbList<TT> create(Object root, int height, int size) {
+        while (height > 0 && ((Node)root).children.length == 1) {
+            root = ((Node)root).children[0];
+            height--;
+        }
+        return new ImmutableRrbList<>(root, height, size);
+    }
+
+    static int sizeOf(Object node, int height) {
+        return height == 0 ? ((Object[])node).length : ((Node)node).size();
+    }
+
+    private static Object assoc(Object node, int height, int index, Object element) {
+        if (height == 0) {
+            Object[] leaf = ((Object[])node).clone();
+            leaf[index] = element;
+            return leaf;
+        }
+        Node n = (Node)node;
+        int j = n.childIndex(index, height);
+        Object[] children = n.children.clone();
+        children[j] = assoc(children[j], height - 1, j == 0 ? index : index - n.sizes[j - 1], element);
+        return new Node(children, n.sizes);
+    }
+
+    /**
+     * Join two trees, returning one or two nodes of the height of the taller tree.
+     */
+    private static Object[] join(Object left, int leftHeight, Object right, int rightHeight) {
+        if (leftHeight > rightHeight) {
+            Object[] children = ((Node)left).children;
+            int last = children.length - 1;
+            Object[] mid = join(children[last], leftHeight - 1, right, rightHeight);
+            return pack(children, last, mid, ImmutableBase.emptyArray, 0, leftHeight);
+        }
+        if (leftHeight < rightHeight) {
+            Object[] children = ((Node)right).children;
+            Object[] mid = join(left, leftHeight, children[0], rightHeight - 1);
+            return pack(ImmutableBase.emptyArray, 0, mid, children, 1, rightHeight);
+        }
+        if (leftHeight == 0) {
+            Object[] leftLeaf = (Object[])left;
+            Object[] rightLeaf = (Object[])right;
+            int n = leftLeaf.length;
+            if (n + rightLeaf.length > width)
+                return new Object[] { leftLeaf, rightLeaf };
+            Object[] merged = Arrays.copyOf(leftLeaf, n + rightLeaf.length);
+            System.arraycopy(rightLeaf, 0, merged, n, rightLeaf.length);
+            return new Object[] { merged };
+        }
+        Object[] leftChildren = ((Node)left).children;
+        Object[] rightChildren = ((Node)right).children;
+        int last = leftChildren.length - 1;
+        Object[] mid = join(leftChildren[last], leftHeight - 1, rightChildren[0], rightHeight - 1);
+        return pack(leftChildren, last, mid, rightChildren, 1, leftHeight);
+    }
+
+    /**
+     * Combine the first {@code leftCount} of the left children, the middle nodes, and the right children from
+     * {@code rightFrom}, rebalance them, and return them as one node (or two, if there are more than 32 children).
+     */
+    private static Object[] pack(Object[] left, int leftCount, Object[] mid, Object[] right, int rightFrom,
+            int height) {
+        int rightCount = right.length - rightFrom;
+        Object[] all = new Object[leftCount + mid.length + rightCount];
+        System.arraycopy(left, 0, all, 0, leftCount);
+        System.arraycopy(mid, 0, all, leftCount, mid.length);
+        System.arraycopy(right, rightFrom, all, leftCount + mid.length, rightCount);
+        all = rebalance(all, height - 1);
+        int n = all.length;
+        if (n <= width)
+            return new Object[] { new Node(all, height) };
+        int half = (n + 1) >> 1;
+        return new Object[] { new Node(Arrays.copyOfRange(all, 0, half), height),
+                new Node(Arrays.copyOfRange(all, half, n), height) };
+    }
+
+    /**
+     * Redistribute the contents of a sequence of sibling nodes (or leaves) of the given height, if there are more than
+     * {@value #extraNodes} nodes more than the minimum needed to hold their contents.  Following the RRB concatenation
+     * algorithm, nodes with 31 or 32 slots are skipped, and the contents of each smaller node are shifted into the
+     * nodes after it, until the number of nodes is within the limit.  Nodes that are not changed are reused.
+     */
+    private static Object[] rebalance(Object[] nodes, int height) {
+        int n = nodes.length;
+        int[] counts = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            counts[i] = slots(nodes[i], height).length;
+            total += counts[i];
+        }
+        int limit = ((total + width - 1) >>> bits) + extraNodes;
+        if (n <= limit)
+            return nodes;
+        int count = n;
+        int i = 0;
+        while (count > limit) {
+            while (counts[i] >= width - 1)
+                i++;
+            int remaining = counts[i];
+            do {
+                int m = Math.min(remaining + counts[i + 1], width);
+                remaining += counts[i + 1] - m;
+                counts[i++] = m;
+            } while (remaining > 0);
+            System.arraycopy(counts, i + 1, counts, i, count - i - 1);
+            count--;
+            i--;
+        }
+        Object[] result = new Object[count];
+        int source = 0;
+        int offset = 0;
+        for (int j = 0; j < count; j++) {
+            int size = counts[j];
+            Object[] sourceSlots = slots(nodes[source], height);
+            if (offset == 0 && sourceSlots.length == size) {
+                result[j] = nodes[source++];
+                continue;
+            }
+            Object[] items = new Object[size];
+            int filled = 0;
+            while (filled < size) {
+                sourceSlots = slots(nodes[source], height);
+                int k = Math.min(sourceSlots.length - offset, size - filled);
+                System.arraycopy(sourceSlots, offset, items, filled, k);
+                filled += k;
+                offset += k;
+                if (offset == sourceSlots.length) {
+                    source++;
+                    offset = 0;
+                }
+            }
+            result[j] = height == 0 ? items : new Node(items, height);
+        }
+        return result;
+    }
+
+    private static Object[] slots(Object node, int height) {
+        return height == 0 ? (Object[])node : ((Node)node).children;
+    }
+
+    /**
+     * Take a slice of a node, preserving its height (the result may have a single child).
+     */
+    private static Object slice(Object node, int height, int from, int to) {
+        if (height == 0) {
+            Object[] leaf = (Object[])node;
+            return from == 0 && to == leaf.length ? leaf : Arrays.copyOfRange(leaf, from, to);
+        }
+        Node n = (Node)node;
+        if (from == 0 && to == n.size())
+            return n;
+        int first = n.childIndex(from, height);
+        int last = n.childIndex(to - 1, height);
+        Object[] children = new Object[last - first + 1];
+        for (int j = first; j <= last; j++) {
+            int start = j == 0 ? 0 : n.sizes[j - 1];
+            int childFrom = Math.max(from, start) - start;
+            int childTo = Math.min(to, n.sizes[j]) - start;
+            children[j - first] = slice(n.children[j], height - 1, childFrom, childTo);
+        }
+        return new Node(children, height);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <TT> void forEachLeafElement(Object node, int height, Consumer<? super TT> action) {
+        if (height == 0) {
+            for (Object element : (Object[])node)
+                action.accept((TT)element);
+        }
+        else {
+            for (Object child : ((Node)node).children)
+                forEachLeafElement(child, height - 1, action);
+        }
+    }
+
+    private static int copyLeaves(Object node, int height, Object[] target, int offset) {
+        if (height == 0) {
+            Object[] leaf = (Object[])node;
+            System.arraycopy(leaf, 0, target, offset, leaf.length);
+            return offset + leaf.length;
+        }
+        for (Object child : ((Node)node).children)
+            offset = copyLeaves(child, height - 1, target, offset);
+        return offset;
+    }
+
+    /**
+     * An internal node of the tree: up to 32 children (leaf arrays or nodes), with the cumulative sizes of the
+     * children.
+     */
+    static final class Node {
+
+        final Object[] children;
+        final int[] sizes;
+
+        Node(Object[] children, int[] sizes) {
+            this.children = children;
+            this.sizes = sizes;
+        }
+
+        Node(Object[] children, int height) {
+            this.children = children;
+            int n = children.length;
+            sizes = new int[n];
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                total += sizeOf(children[i], height - 1);
+                sizes[i] = total;
+            }
+        }
+
+        int size() {
+            return sizes[sizes.length - 1];
+        }
+
+        /**
+         * Find the child containing the element at the specified index (relative to this node).  A child at height
+         * {@code h - 1} can hold no more than 32<sup>h</sup> elements, so the radix index is a lower bound for the
+         * child index, and the scan forward from there is short.
+         */
+        int childIndex(int index, int height) {
+            int shift = bits * height;
+            int j = shift < Integer.SIZE ? index >>> shift : 0;
+            while (sizes[j] <= index)
+                j++;
+            return j;
+        }
+
+    }
+
+    /**
+     * A cursor locating the leaf array holding a given index.
+     */
+    static final class LeafCursor {
+
+        private final Object root;
+        private final int height;
+        Object[] leaf;
+        int start;
+        int end;
+
+        LeafCursor(Object root, int height) {
+            this.root = root;
+            this.height = height;
+        }
+
+        void seek(int index) {
+            Object node = root;
+            int base = 0;
+            for (int h = height; h > 0; h--) {
+                Node n = (Node)node;
+                int j = n.childIndex(index - base, h);
+                if (j > 0)
+                    base += n.sizes[j - 1];
+                node = n.children[j];
+            }
+            leaf = (Object[])node;
+            start = base;
+            end = base + leaf.length;
+        }
+
+    }
+
+    /**
+     * An {@link Iterator} over an {@code ImmutableRrbList}, traversing each leaf array in turn.
+     */
+    public class RrbIterator implements Iterator<T> {
+
+        private final LeafCursor cursor = new LeafCursor(root, height);
+        private int index;
+
+        /**
+         * Test whether the iterator has any more elements.
+         *
+         * @return          {@code true} if there is at least one element available
+         */
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Get the next element, moving to the next leaf array when the current one is exhausted.
+         *
+         * @return          the next element
+         * @throws  NoSuchElementException  if there is no "next" element
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (index >= size)
+                throw new NoSuchElementException(String.valueOf(index));
+            if (cursor.leaf == null || index >= cursor.end)
+                cursor.seek(index);
+            return (T)cursor.leaf[index++ - cursor.start];
+        }
+
+    }
+
+    /**
+     * A {@link Spliterator} over an {@code ImmutableRrbList}, splitting at node boundaries.
+     *
+     * @param   <T>     the element type
+     */
+    public static class RrbSpliterator<T> implements Spliterator<T> {
+
+        private final Object root;
+        private final int height;
+        private final LeafCursor cursor;
+        private int index;
+        private final int fence;
+
+        RrbSpliterator(Object root, int height, int index, int fence) {
+            this.root = root;
+            this.height = height;
+            cursor = new LeafCursor(root, height);
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /**
+         * If a remaining element exists, perform the given action on it and return {@code true}; otherwise return
+         * {@code false}.
+         *
+         * @param   action  the action
+         * @return          {@code false} if no remaining elements existed
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (index >= fence)
+                return false;
+            if (cursor.leaf == null || index < cursor.start || index >= cursor.end)
+                cursor.seek(index);
+            action.accept((T)cursor.leaf[index++ - cursor.start]);
+            return true;
+        }
+
+        /**
+         * Perform the given action on each remaining element, traversing each leaf array in turn.
+         *
+         * @param   action  the action
+         * @throws  NullPointerException    if the action is {@code null}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            while (index < fence) {
+                cursor.seek(index);
+                Object[] leaf = cursor.leaf;
+                int end = Math.min(cursor.end, fence);
+                for (int i = index - cursor.start, n = end - cursor.start; i < n; i++)
+                    action.accept((T)leaf[i]);
+                index = end;
+            }
+        }
+
+        /**
+         * Split off the first part of the range, at the node boundary nearest to the middle of the range (or at the
+         * middle, if the range lies within a single leaf).
+         *
+         * @return  a {@link Spliterator} covering the first part of the range, or {@code null} if the range is too
+         *          small to split
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            int lo = index;
+            if (fence - lo < 2)
+                return null;
+            int mid = (lo + fence) >>> 1;
+            int split = mid;
+            Object node = root;
+            int base = 0;
+            for (int h = height; h > 0; h--) {
+                Node n = (Node)node;
+                int j = n.childIndex(mid - base, h);
+                int childStart = base + (j == 0 ? 0 : n.sizes[j - 1]);
+                int childEnd = base + n.sizes[j];
+                int boundary = -1;
+                if (childStart > lo)
+                    boundary = childStart;
+                if (childEnd < fence && (boundary < 0 || childEnd - mid < mid - boundary))
+                    boundary = childEnd;
+                if (boundary >= 0) {
+                    split = boundary;
+                    break;
+                }
+                node = n.children[j];
+                base = childStart;
+            }
+            index = split;
+            return new RrbSpliterator<>(root, height, lo, split);
+        }
+
+        /**
+         * Get the number of elements remaining to be traversed (always exact).
+         *
+         * @return          the number of elements
+         */
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        /**
+         * Get the characteristics of this {@code Spliterator}.
+         *
+         * @return          the characteristics
+         */
+        @Override
+        public int characteristics() {
+            return ImmutableSpliteratorBase.baseCharacteristics;
+        }
+
+    }
+
+}
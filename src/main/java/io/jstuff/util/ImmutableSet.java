@@ -2,7 +2,7 @@
  * @(#) ImmutableSet.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2023 Peter Wall
+ * Copyright (c) 2021, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -25,8 +25,11 @@
 
 package io.jstuff.util;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
 
 /**
  * Immutable implementation of {@link Set}.
@@ -80,6 +83,16 @@ public class ImmutableSet<T> extends ImmutableCollection<T> implements Set<T> {
         super(length, array);
     }
 
+    /**
+     * Get the characteristics to be reported by the {@link Spliterator} for this set (includes {@code DISTINCT}).
+     *
+     * @return          the characteristics
+     */
+    @Override
+    int spliteratorCharacteristics() {
+        return ImmutableSpliteratorBase.baseCharacteristics | Spliterator.DISTINCT;
+    }
+
     /**
      * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
      * set, the two sets have the same size, and every member of the specified set is contained in this set (or
@@ -98,7 +111,7 @@ public class ImmutableSet<T> extends ImmutableCollection<T> implements Set<T> {
         Set<?> otherSet = (Set<?>)other;
         if (length != otherSet.size())
             return false;
-        for (int i = 0; i < length; i++)
+        for (int i = offset, end = offset + length; i < end; i++)
             if (!otherSet.contains(array[i]))
                 return false;
         return true;
@@ -115,11 +128,66 @@ public class ImmutableSet<T> extends ImmutableCollection<T> implements Set<T> {
     @Override
     public int hashCode() {
         int result = 0;
-        for (int i = 0; i < length; i++)
+        for (int i = offset, end = offset + length; i < end; i++)
             result += Objects.hashCode(array[i]);
         return result;
     }
 
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value added.  If the set already
+     * contains the value, this set is returned.
+     * <br>
+     * The values are copied to a new array once, and the result is a {@link MiniSet} if it has five or fewer values.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @SuppressWarnings("unchecked")
+    public Set<T> with(T value) {
+        int end = offset + length;
+        if (indexOf(array, offset, end, value) >= 0)
+            return this;
+        T[] newArray = (T[])Arrays.copyOfRange(array, offset, end + 1, Object[].class);
+        newArray[length] = value;
+        return MiniSet.fromArray(newArray, length + 1);
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value removed.  If the set does not
+     * contain the value, this set is returned.
+     * <br>
+     * The remaining values are copied to a new array once, and the result is a {@link MiniSet} if it has five or fewer
+     * values.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @SuppressWarnings("unchecked")
+    public Set<T> without(Object value) {
+        int end = offset + length;
+        int index = indexOf(array, offset, end, value);
+        if (index < 0)
+            return this;
+        T[] newArray = (T[])Arrays.copyOfRange(array, offset, end - 1, Object[].class);
+        System.arraycopy(array, index + 1, newArray, index - offset, end - index - 1);
+        return MiniSet.fromArray(newArray, length - 1);
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the values of a {@link Collection} added.  If no
+     * value is added, this set is returned.
+     *
+     * @param   values  the {@link Collection} of values
+     * @return          the new {@link Set}
+     */
+    @SuppressWarnings("unchecked")
+    public Set<T> withAll(Collection<? extends T> values) {
+        if (values.isEmpty())
+            return this;
+        T[] newArray = (T[])Arrays.copyOfRange(array, offset, offset + length + values.size(), Object[].class);
+        return MiniSet.mergeValues(this, newArray, length, values);
+    }
+
     /**
      * Get an empty {@code ImmutableSet}.  This avoids a memory allocation if the set is empty.
      *
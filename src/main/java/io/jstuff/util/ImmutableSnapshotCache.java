@@ -0,0 +1,218 @@
+/*
+ * @(#) ImmutableSnapshotCache.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A concurrent cache (or registry) that publishes its contents as immutable snapshots, and applies writes in batches
+ * using flat combining.
+ * <br>
+ * Updating a copy-on-write immutable map costs a copy of the whole map for each write.  In this class, a writer
+ * instead pushes a record of its change onto a lock-free pending list, and then either becomes the combiner (if no
+ * other thread is combining) or waits for the current combiner to apply its change.  The combiner takes the entire
+ * pending list, applies all of the changes to a single {@link ImmutableMap.Transient} (one copy of the map for the
+ * whole batch), and publishes the result; under a burst of writes the cost of copying is shared across the batch.
+ * <br>
+ * When a write method returns, its change is visible in the current snapshot.  Readers never block: the snapshot is
+ * obtained with a single volatile read, and is a {@link MiniMap} for three or fewer entries, otherwise an
+ * {@link ImmutableMap}.
+ *
+ * @author  Peter Wall
+ * @param   <K>     the key type
+ * @param   <V>     the value type
+ */
+public class ImmutableSnapshotCache<K, V> {
+
+    private final AtomicReference<Change<K, V>> pending = new AtomicReference<>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+    private volatile Map<K, V> snapshot;
+
+    /**
+     * Construct an empty {@code ImmutableSnapshotCache}.
+     */
+    public ImmutableSnapshotCache() {
+        snapshot = MiniMap.of();
+    }
+
+    /**
+     * Get the current snapshot of the cache.  This is a single volatile read.
+     *
+     * @return          the current map (a {@link MiniMap} or an {@link ImmutableMap})
+     */
+    public Map<K, V> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the value for the specified key in the current snapshot.
+     *
+     * @param   key     the key
+     * @return          the value, or {@code null} if the key is not present
+     */
+    public V get(Object key) {
+        return snapshot.get(key);
+    }
+
+    /**
+     * Get the number of entries in the current snapshot.
+     *
+     * @return          the number of entries
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Map the specified key to the specified value.  The change is applied (possibly by another thread, as part of a
+     * batch) before this method returns.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the previous value for the key, or {@code null} if the key was not present
+     */
+    public V put(K key, V value) {
+        return apply(new Change<>(key, value, false));
+    }
+
+    /**
+     * Remove the specified key.  The change is applied (possibly by another thread, as part of a batch) before this
+     * method returns.
+     *
+     * @param   key     the key
+     * @return          the previous value for the key, or {@code null} if the key was not present
+     */
+    public V remove(K key) {
+        return apply(new Change<>(key, null, true));
+    }
+
+    /**
+     * Add a change to the pending list, and then either combine the pending changes, or wait for another thread to
+     * do so.
+     */
+    private V apply(Change<K, V> change) {
+        Change<K, V> head;
+        do {
+            head = pending.get();
+            change.next = head;
+        } while (!pending.compareAndSet(head, change));
+        for (int attempt = 0; !change.done; attempt++) {
+            if (!combining.get() && combining.compareAndSet(false, true)) {
+                try {
+                    combine();
+                }
+                finally {
+                    combining.set(false);
+                }
+            }
+            else
+                AtomicImmutableMap.backoff(attempt);
+        }
+        Throwable failure = change.failure;
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException)failure;
+        if (failure instanceof Error)
+            throw (Error)failure;
+        if (failure != null)
+            throw new IllegalStateException("Update failed", failure);
+        return change.previous;
+    }
+
+    /**
+     * Take the entire pending list and apply the changes, in the order in which they were added, to a single
+     * {@link ImmutableMap.Transient}; then publish the result and mark the changes as done.  If a change fails (for
+     * example, because its key throws an exception or an error from {@code hashCode()} or {@code equals()}), the
+     * failure is recorded against that change alone, and the remaining changes in the batch are still applied and
+     * published.  Only a failure in publishing the result is reported to every writer in the batch.
+     */
+    private void combine() {
+        Change<K, V> batch = pending.getAndSet(null);
+        if (batch == null)
+            return;
+        Change<K, V> first = null;
+        while (batch != null) { // reverse the list
+            Change<K, V> next = batch.next;
+            batch.next = first;
+            first = batch;
+            batch = next;
+        }
+        Throwable failure = null;
+        try {
+            Map<K, V> map = snapshot;
+            ImmutableMap.Transient<K, V> editor = new ImmutableMap.Transient<>(ImmutableMap.entryArray(map),
+                    map.size());
+            for (Change<K, V> change = first; change != null; change = change.next) {
+                try {
+                    Objects.hashCode(change.key); // fail now, not when the editor later builds its hash index
+                    change.previous = editor.get(change.key);
+                    if (change.remove)
+                        editor.remove(change.key);
+                    else
+                        editor.put(change.key, change.value);
+                }
+                catch (Throwable e) {
+                    change.failure = e;
+                }
+            }
+            ImmutableMap<K, V> result = editor.persistent();
+            snapshot = result.length <= 3 ? MiniMap.fromEntries(result.array, result.length) : result;
+        }
+        catch (Throwable e) {
+            failure = e;
+        }
+        for (Change<K, V> change = first; change != null; change = change.next) {
+            if (change.failure == null)
+                change.failure = failure;
+            change.done = true;
+        }
+    }
+
+    /**
+     * A pending change.  The fields set by the combiner are published to the writer by the volatile write of
+     * {@code done}.
+     */
+    static final class Change<K, V> {
+
+        final K key;
+        final V value;
+        final boolean remove;
+        Change<K, V> next;
+        V previous;
+        Throwable failure;
+        volatile boolean done;
+
+        Change(K key, V value, boolean remove) {
+            this.key = key;
+            this.value = value;
+            this.remove = remove;
+        }
+
+    }
+
+}
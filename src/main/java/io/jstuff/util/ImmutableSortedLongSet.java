@@ -0,0 +1,435 @@
+/*
+ * @(#) ImmutableSortedLongSet.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * An immutable sorted {@link Set} of {@code long} values, stored in compressed form.  The values are divided into
+ * blocks of {@value #blockSize}; the first value of each block (the block head) is held in an array which acts as a
+ * skip index, and the remaining values in the block are stored as the differences between successive values, encoded
+ * as variable-length integers (7 bits per byte).
+ * <br>
+ * This is particularly effective for sequences such as timestamps or generated IDs, where the differences between
+ * successive values are small in comparison to the values themselves.  Lookup operations ({@link #contains(long)},
+ * {@link #floorIndex(long)} and {@link #ceilingIndex(long)}) use a binary search on the block heads followed by a scan
+ * of a single block, and iteration (using {@link #longIterator()}) decodes the values sequentially without boxing.
+ *
+ * @author  Peter Wall
+ */
+public class ImmutableSortedLongSet extends AbstractSet<Long> implements Set<Long> {
+
+    /** The number of values in each block. */
+    public static final int blockSize = 32;
+
+    private static final long[] emptyLongArray = new long[0];
+    private static final int[] emptyIntArray = new int[0];
+    private static final byte[] emptyByteArray = new byte[0];
+
+    private final long[] heads;
+    private final int[] offsets;
+    private final byte[] data;
+    private final int length;
+
+    /**
+     * Construct an {@code ImmutableSortedLongSet} from an array of values in strictly ascending order.  The values are
+     * copied, so the array may be re-used or modified afterwards.
+     *
+     * @param   values      the values
+     * @param   length      the number of array items to be included in the set
+     * @throws  IndexOutOfBoundsException if the length is less than 0 or greater than the array length
+     * @throws  IllegalArgumentException if the values are not in strictly ascending order
+     */
+    public ImmutableSortedLongSet(long[] values, int length) {
+        if (length < 0 || length > values.length)
+            throw new IndexOutOfBoundsException(String.valueOf(length));
+        for (int i = 1; i < length; i++)
+            if (values[i] <= values[i - 1])
+                throw new IllegalArgumentException("Values not in ascending order at index " + i);
+        int numBlocks = (length + blockSize - 1) / blockSize;
+        long[] heads = numBlocks == 0 ? emptyLongArray : new long[numBlocks];
+        int[] offsets = numBlocks == 0 ? emptyIntArray : new int[numBlocks + 1];
+        int size = 0;
+        for (int i = 0; i < length; i++)
+            if (i % blockSize != 0)
+                size += varIntLength(values[i] - values[i - 1]);
+        byte[] data = size == 0 ? emptyByteArray : new byte[size];
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            if (i % blockSize == 0) {
+                heads[i / blockSize] = values[i];
+                offsets[i / blockSize] = pos;
+            }
+            else
+                pos = writeVarInt(data, pos, values[i] - values[i - 1]);
+        }
+        if (numBlocks > 0)
+            offsets[numBlocks] = pos;
+        this.heads = heads;
+        this.offsets = offsets;
+        this.data = data;
+        this.length = length;
+    }
+
+    /**
+     * Construct an {@code ImmutableSortedLongSet} from an array of values in strictly ascending order (using the entire
+     * array).
+     *
+     * @param   values      the values
+     * @throws  IllegalArgumentException if the values are not in strictly ascending order
+     */
+    public ImmutableSortedLongSet(long[] values) {
+        this(values, values.length);
+    }
+
+    /**
+     * Get the number of values in the set.
+     *
+     * @return      the number of values
+     */
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Return {@code true} if the set is empty.
+     *
+     * @return      {@code true} if the set is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Test whether the set contains the specified value, without boxing.
+     *
+     * @param   value   the value
+     * @return          {@code true} if the set contains the value
+     */
+    public boolean contains(long value) {
+        int block = findBlock(value);
+        if (block < 0)
+            return false;
+        if (heads[block] == value)
+            return true;
+        Cursor cursor = new Cursor(data, offsets[block], heads[block]);
+        int end = offsets[block + 1];
+        while (cursor.pos < end) {
+            long current = cursor.next();
+            if (current >= value)
+                return current == value;
+        }
+        return false;
+    }
+
+    /**
+     * Test whether the set contains an object equal to the specified value.
+     *
+     * @param   o       the object
+     * @return          {@code true} if the set contains the object
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && contains(((Long)o).longValue());
+    }
+
+    /**
+     * Get the value at the specified index (in ascending order).
+     *
+     * @param   index   the index
+     * @return          the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+     */
+    public long getLong(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        int block = index / blockSize;
+        Cursor cursor = new Cursor(data, offsets[block], heads[block]);
+        for (int n = index % blockSize; n > 0; n--)
+            cursor.next();
+        return cursor.value;
+    }
+
+    /**
+     * Get the lowest value in the set.
+     *
+     * @return          the lowest value
+     * @throws  NoSuchElementException  if the set is empty
+     */
+    public long firstLong() {
+        if (length == 0)
+            throw new NoSuchElementException();
+        return heads[0];
+    }
+
+    /**
+     * Get the highest value in the set.
+     *
+     * @return          the highest value
+     * @throws  NoSuchElementException  if the set is empty
+     */
+    public long lastLong() {
+        if (length == 0)
+            throw new NoSuchElementException();
+        return getLong(length - 1);
+    }
+
+    /**
+     * Find the index of the greatest value in the set less than or equal to the specified value.
+     *
+     * @param   value   the value
+     * @return          the index, or -1 if there is no such value
+     */
+    public int floorIndex(long value) {
+        int block = findBlock(value);
+        if (block < 0)
+            return -1;
+        int index = block * blockSize;
+        Cursor cursor = new Cursor(data, offsets[block], heads[block]);
+        int end = offsets[block + 1];
+        while (cursor.pos < end) {
+            if (cursor.next() > value)
+                break;
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Find the index of the least value in the set greater than or equal to the specified value.
+     *
+     * @param   value   the value
+     * @return          the index, or -1 if there is no such value
+     */
+    public int ceilingIndex(long value) {
+        int index = floorIndex(value);
+        if (index >= 0 && getLong(index) == value)
+            return index;
+        return index + 1 < length ? index + 1 : -1;
+    }
+
+    /**
+     * Find the block whose range may contain the specified value, using a binary search on the block heads.
+     *
+     * @param   value   the value
+     * @return          the block number, or -1 if the value is less than the first value in the set
+     */
+    private int findBlock(long value) {
+        int lo = 0;
+        int hi = heads.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long head = heads[mid];
+            if (head < value)
+                lo = mid + 1;
+            else if (head > value)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return hi;
+    }
+
+    /**
+     * Return an iterator over the values in ascending order, without boxing.
+     *
+     * @return          the {@link PrimitiveIterator.OfLong}
+     */
+    public LongIterator longIterator() {
+        return new LongIterator();
+    }
+
+    /**
+     * Return an {@link java.util.Iterator} over the values in ascending order.
+     *
+     * @return          the {@link java.util.Iterator}
+     */
+    @Override
+    public LongIterator iterator() {
+        return new LongIterator();
+    }
+
+    /**
+     * Create a new array containing the values in ascending order.
+     *
+     * @return          the array
+     */
+    public long[] toLongArray() {
+        long[] result = new long[length];
+        LongIterator iterator = new LongIterator();
+        for (int i = 0; i < length; i++)
+            result[i] = iterator.nextLong();
+        return result;
+    }
+
+    /**
+     * Returns the hash code value for this set, as defined for {@link Set#hashCode}.
+     *
+     * @return  the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        LongIterator iterator = new LongIterator();
+        while (iterator.hasNext())
+            result += Long.hashCode(iterator.nextLong());
+        return result;
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap memory occupied by the set, assuming a 64-bit JVM with compressed
+     * object pointers.
+     *
+     * @return      the estimated footprint in bytes
+     */
+    public long footprintBytes() {
+        return 32 + (16 + 8L * heads.length) + (16 + 4L * offsets.length) + (16 + data.length);
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get an {@code ImmutableSortedLongSet} containing the supplied values, which may be in any order and may contain
+     * duplicates.
+     *
+     * @param   values      the values
+     * @return              the set
+     */
+    public static ImmutableSortedLongSet setOf(long ... values) {
+        long[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (n == 0 || sorted[i] != sorted[n - 1])
+                sorted[n++] = sorted[i];
+        return new ImmutableSortedLongSet(sorted, n);
+    }
+
+    private static int varIntLength(long value) {
+        int result = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            result++;
+        }
+        return result;
+    }
+
+    private static int writeVarInt(byte[] data, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[pos++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[pos++] = (byte)value;
+        return pos;
+    }
+
+    /**
+     * A position in the encoded deltas of a block, along with the value reached at that position.  Each call to
+     * {@link #next()} decodes one delta in a single pass over its bytes.
+     */
+    private static final class Cursor {
+
+        private final byte[] data;
+        private int pos;
+        private long value;
+
+        Cursor(byte[] data, int pos, long value) {
+            this.data = data;
+            this.pos = pos;
+            this.value = value;
+        }
+
+        long next() {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (long)(b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value += delta;
+        }
+
+    }
+
+    /**
+     * An iterator over the values of an {@link ImmutableSortedLongSet}, in ascending order.  The values may be
+     * retrieved without boxing using {@link #nextLong()}.
+     */
+    public class LongIterator implements PrimitiveIterator.OfLong {
+
+        private final Cursor cursor = new Cursor(data, 0, 0);
+        private int index;
+
+        /**
+         * Test whether the iterator has any more elements.
+         *
+         * @return          {@code true} if there is at least one element available
+         */
+        @Override
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        /**
+         * Get the next value, without boxing.
+         *
+         * @return          the next value
+         * @throws  NoSuchElementException  if there is no "next" value
+         */
+        @Override
+        public long nextLong() {
+            if (index >= length)
+                throw new NoSuchElementException(String.valueOf(index));
+            if (index % blockSize == 0) {
+                int block = index / blockSize;
+                cursor.pos = offsets[block];
+                cursor.value = heads[block];
+            }
+            else
+                cursor.next();
+            index++;
+            return cursor.value;
+        }
+
+    }
+
+}
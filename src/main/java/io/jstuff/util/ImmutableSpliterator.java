@@ -0,0 +1,87 @@
+/*
+ * @(#) ImmutableSpliterator.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Spliterator;
+
+/**
+ * Implementation of {@link Spliterator} to provide functionality for the immutable classes.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the collection element type
+ */
+public class ImmutableSpliterator<T> extends ImmutableSpliteratorBase<T, T> {
+
+    /**
+     * Construct an {@code ImmutableSpliterator} with the given array, index range and characteristics.
+     *
+     * @param   array           the array
+     * @param   index           the starting index
+     * @param   fence           the index after the last item to be traversed
+     * @param   characteristics the characteristics
+     * @throws  IndexOutOfBoundsException   if the index range is not valid for the array
+     */
+    public ImmutableSpliterator(T[] array, int index, int fence, int characteristics) {
+        super(array, index, fence, characteristics);
+        if (index < 0 || fence > array.length || index > fence)
+            throw new IndexOutOfBoundsException(index + ".." + fence);
+    }
+
+    /**
+     * Construct an {@code ImmutableSpliterator} over the first {@code length} items of the given array, with the
+     * default characteristics ({@code ORDERED}, {@code SIZED}, {@code SUBSIZED} and {@code IMMUTABLE}).
+     *
+     * @param   array           the array
+     * @param   length          the length (the number of array items to be considered part of the collection)
+     * @throws  IndexOutOfBoundsException   if the length is not valid for the array
+     */
+    public ImmutableSpliterator(T[] array, int length) {
+        this(array, 0, length, baseCharacteristics);
+    }
+
+    /**
+     * Internal constructor to prevent repeating range check.
+     *
+     * @param   characteristics the characteristics
+     * @param   array           the array
+     * @param   index           the starting index
+     * @param   fence           the index after the last item to be traversed
+     */
+    ImmutableSpliterator(int characteristics, T[] array, int index, int fence) {
+        super(array, index, fence, characteristics);
+    }
+
+    @Override
+    T element(T item) {
+        return item;
+    }
+
+    @Override
+    ImmutableSpliterator<T> create(int from, int to) {
+        return new ImmutableSpliterator<>(characteristics, array, from, to);
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * @(#) ImmutableSpliteratorBase.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Base class for implementations of {@link Spliterator} for the immutable classes.  Holds a reference to the
+ * collection array, and the range of indices still to be traversed.
+ *
+ * @author  Peter Wall
+ * @param   <A>     the array item type
+ * @param   <E>     the collection element type
+ */
+public abstract class ImmutableSpliteratorBase<A, E> implements Spliterator<E> {
+
+    /** The characteristics common to all spliterators over immutable arrays. */
+    public static final int baseCharacteristics = ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+
+    final A[] array;
+    int index;
+    final int fence;
+    final int characteristics;
+
+    /**
+     * Construct an {@code ImmutableSpliteratorBase} with the given array, index range and characteristics.
+     *
+     * @param   array           the array
+     * @param   index           the starting index
+     * @param   fence           the index after the last item to be traversed
+     * @param   characteristics the characteristics
+     */
+    ImmutableSpliteratorBase(A[] array, int index, int fence, int characteristics) {
+        this.array = array;
+        this.index = index;
+        this.fence = fence;
+        this.characteristics = characteristics;
+    }
+
+    /**
+     * Get the collection element corresponding to an array item.
+     *
+     * @param   item    the array item
+     * @return          the collection element
+     */
+    abstract E element(A item);
+
+    /**
+     * Create a new {@code Spliterator} of the same type, over a portion of the same array.
+     *
+     * @param   from    the starting index
+     * @param   to      the index after the last item to be traversed
+     * @return          the new {@code Spliterator}
+     */
+    abstract ImmutableSpliteratorBase<A, E> create(int from, int to);
+
+    /**
+     * If a remaining element exists, perform the given action on it and return {@code true}; otherwise return
+     * {@code false}.
+     *
+     * @param   action  the action
+     * @return          {@code false} if no remaining elements existed
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        if (index >= fence)
+            return false;
+        action.accept(element(array[index++]));
+        return true;
+    }
+
+    /**
+     * Perform the given action on each remaining element.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        A[] a = array;
+        int i = index;
+        int n = fence;
+        index = n;
+        while (i < n)
+            action.accept(element(a[i++]));
+    }
+
+    /**
+     * Split off the first half of the remaining elements into a new {@code Spliterator}, leaving the second half to be
+     * traversed by this {@code Spliterator}.
+     *
+     * @return          a {@code Spliterator} covering the first half of the remaining elements, or {@code null} if
+     *                  there are too few elements to split
+     */
+    @Override
+    public Spliterator<E> trySplit() {
+        int from = index;
+        int mid = (from + fence) >>> 1;
+        if (from >= mid)
+            return null;
+        index = mid;
+        return create(from, mid);
+    }
+
+    /**
+     * Get the number of elements remaining to be traversed (always exact).
+     *
+     * @return          the number of elements
+     */
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    /**
+     * Get the characteristics of this {@code Spliterator}.
+     *
+     * @return          the characteristics
+     */
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+}
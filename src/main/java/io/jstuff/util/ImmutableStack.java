@@ -0,0 +1,290 @@
+/*
+ * @(#) ImmutableStack.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A persistent immutable stack, implemented as a singly linked list.  {@link #push(Object)} and {@link #pop()} take
+ * O(1) time, and a pushed stack shares all of its elements with the original, so a stack may be published to other
+ * threads (for example, through an {@link java.util.concurrent.atomic.AtomicReference}) and updated with a
+ * compare-and-set loop, without locks.  All fields are {@code final}, so a stack is safely published by any means.
+ * <br>
+ * The elements are iterated from the top of the stack to the bottom.  Two stacks are equal if they contain equal
+ * elements in the same order.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+public class ImmutableStack<T> extends AbstractCollection<T> {
+
+    private static final ImmutableStack<?> emptyStack = new ImmutableStack<>(null, null, 0);
+
+    private final T head;
+    private final ImmutableStack<T> tail;
+    private final int size;
+
+    /**
+     * Internal constructor.
+     *
+     * @param   head    the top element
+     * @param   tail    the remainder of the stack
+     * @param   size    the number of elements
+     */
+    private ImmutableStack(T head, ImmutableStack<T> tail, int size) {
+        this.head = head;
+        this.tail = tail;
+        this.size = size;
+    }
+
+    /**
+     * Get the number of elements in the stack.
+     *
+     * @return          the number of elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the stack is empty.
+     *
+     * @return          {@code true} if the stack is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the top element of the stack.
+     *
+     * @return          the top element, or {@code null} if the stack is empty
+     */
+    public T peek() {
+        return head;
+    }
+
+    /**
+     * Create a new stack with the specified element pushed on top of this stack.  This is an O(1) operation.
+     *
+     * @param   element the element
+     * @return          the new stack
+     */
+    public ImmutableStack<T> push(T element) {
+        return new ImmutableStack<>(element, this, size + 1);
+    }
+
+    /**
+     * Get the stack with the top element removed.  This is an O(1) operation.
+     *
+     * @return          the remainder of the stack
+     * @throws  IllegalStateException   if the stack is empty
+     */
+    public ImmutableStack<T> pop() {
+        if (size == 0)
+            throw new IllegalStateException("Can't pop empty stack");
+        return tail;
+    }
+
+    /**
+     * Create a new stack with the elements in reverse order.
+     *
+     * @return          the reversed stack
+     */
+    public ImmutableStack<T> reverse() {
+        if (size < 2)
+            return this;
+        ImmutableStack<T> result = emptyStack();
+        for (ImmutableStack<T> stack = this; stack.size > 0; stack = stack.tail)
+            result = result.push(stack.head);
+        return result;
+    }
+
+    /**
+     * Return an {@link Iterator} over the stack, from the top to the bottom.
+     *
+     * @return          the {@link Iterator}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new StackIterator<>(this);
+    }
+
+    /**
+     * Perform the given action on each element of the stack, from the top to the bottom.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        for (ImmutableStack<T> stack = this; stack.size > 0; stack = stack.tail)
+            action.accept(stack.head);
+    }
+
+    /**
+     * Copy the elements of the stack to a new array, from the top to the bottom.
+     *
+     * @return          an array containing the elements
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        int i = 0;
+        for (ImmutableStack<T> stack = this; stack.size > 0; stack = stack.tail)
+            result[i++] = stack.head;
+        return result;
+    }
+
+    /**
+     * Create an {@link ImmutableList} containing the elements of the stack, from the top to the bottom.
+     *
+     * @return          the {@link ImmutableList}
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<T> toImmutableList() {
+        return size == 0 ? ImmutableList.emptyList() : ImmutableList.listOf((T[])toArray());
+    }
+
+    /**
+     * Compare this stack with another object for equality.  The other object is equal if it is an
+     * {@code ImmutableStack} containing equal elements in the same order.
+     *
+     * @param   other   the other object
+     * @return          {@code true} if the other object is equal to this stack
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof ImmutableStack))
+            return false;
+        ImmutableStack<?> a = this;
+        ImmutableStack<?> b = (ImmutableStack<?>)other;
+        if (a.size != b.size)
+            return false;
+        while (a.size > 0 && a != b) {
+            if (!Objects.equals(a.head, b.head))
+                return false;
+            a = a.tail;
+            b = b.tail;
+        }
+        return true;
+    }
+
+    /**
+     * Get the hash code for the stack, calculated in the same way as for a {@link java.util.List}.
+     *
+     * @return          the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (ImmutableStack<T> stack = this; stack.size > 0; stack = stack.tail)
+            result = 31 * result + Objects.hashCode(stack.head);
+        return result;
+    }
+
+    /**
+     * Get an empty {@code ImmutableStack}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @param   <TT>        the element type
+     * @return              an empty stack
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableStack<TT> emptyStack() {
+        return (ImmutableStack<TT>)emptyStack;
+    }
+
+    /**
+     * Create an {@code ImmutableStack} containing the supplied elements, the first element being the top of the
+     * stack.
+     *
+     * @param   elements    the elements
+     * @param   <TT>        the element type
+     * @return              the stack
+     */
+    @SafeVarargs
+    public static <TT> ImmutableStack<TT> stackOf(TT ... elements) {
+        ImmutableStack<TT> result = emptyStack();
+        for (int i = elements.length; i > 0; )
+            result = result.push(elements[--i]);
+        return result;
+    }
+
+    /**
+     * Create an {@code ImmutableStack} containing the elements of a {@link Collection}, the first element in
+     * iteration order being the top of the stack.
+     *
+     * @param   collection  the {@link Collection}
+     * @param   <TT>        the element type
+     * @return              the stack
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableStack<TT> from(Collection<? extends TT> collection) {
+        if (collection instanceof ImmutableStack)
+            return (ImmutableStack<TT>)collection;
+        return stackOf((TT[])collection.toArray());
+    }
+
+    /**
+     * An {@link Iterator} over an {@code ImmutableStack}.
+     *
+     * @param   <T>     the element type
+     */
+    static final class StackIterator<T> implements Iterator<T> {
+
+        private ImmutableStack<T> stack;
+
+        StackIterator(ImmutableStack<T> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return stack.size > 0;
+        }
+
+        @Override
+        public T next() {
+            if (stack.size == 0)
+                throw new NoSuchElementException();
+            T result = stack.head;
+            stack = stack.tail;
+            return result;
+        }
+
+    }
+
+}
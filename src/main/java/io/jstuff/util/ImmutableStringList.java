@@ -0,0 +1,403 @@
+/*
+ * @(#) ImmutableStringList.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable {@link List} of {@link String}, storing the characters of all the strings in a single array, with an
+ * {@code int} array of offsets marking the start of each string.  If all the characters are in the Latin-1 range
+ * (0 &ndash; 255) they are stored one per byte, otherwise they are stored in a {@code char} array.
+ * <br>
+ * This avoids the overhead of a separate {@link String} object and its own array for each element, at the cost of
+ * creating a {@link String} whenever an element is retrieved by {@link #get(int)}.  If the list is created with
+ * memoisation enabled, each {@link String} is retained after it is first created.  The {@link #indexOfContent} and
+ * {@link #containsContent} functions compare a {@link CharSequence} directly against the stored characters, without
+ * creating a {@link String}.
+ * <br>
+ * The list may not contain {@code null} elements.
+ *
+ * @author  Peter Wall
+ */
+public class ImmutableStringList extends AbstractList<String> implements List<String>, RandomAccess {
+
+    private static final byte[] emptyByteArray = new byte[0];
+    private static final int[] emptyOffsets = new int[1];
+    private static final ImmutableStringList emptyList = new ImmutableStringList();
+
+    private final byte[] latin1;
+    private final char[] chars;
+    private final int[] offsets;
+    private final int length;
+    private final boolean memoise;
+    private String[] cache;
+
+    /**
+     * Construct an {@code ImmutableStringList} containing the given strings, without memoisation.
+     *
+     * @param   strings     the strings
+     * @throws  NullPointerException if any of the strings is {@code null}
+     */
+    public ImmutableStringList(String[] strings) {
+        this(strings, strings.length, false);
+    }
+
+    /**
+     * Construct an {@code ImmutableStringList} containing the contents of the given array of {@link CharSequence},
+     * with or without memoisation.
+     *
+     * @param   strings     the strings (or other {@link CharSequence} objects)
+     * @param   length      the number of array items to be included in the list
+     * @param   memoise     if {@code true}, each {@link String} will be retained after it is first created
+     * @throws  IndexOutOfBoundsException if the length is less than 0 or greater than the array length
+     * @throws  NullPointerException if any of the strings is {@code null}
+     */
+    public ImmutableStringList(CharSequence[] strings, int length, boolean memoise) {
+        ImmutableBase.checkLength(strings, length);
+        int[] offsets = new int[length + 1];
+        int total = 0;
+        boolean wide = false;
+        for (int i = 0; i < length; i++) {
+            CharSequence cs = strings[i];
+            int n = cs.length();
+            if (!wide) {
+                for (int j = 0; j < n; j++) {
+                    if (cs.charAt(j) > 0xFF) {
+                        wide = true;
+                        break;
+                    }
+                }
+            }
+            total += n;
+            offsets[i + 1] = total;
+        }
+        if (wide) {
+            char[] chars = new char[total];
+            for (int i = 0; i < length; i++) {
+                CharSequence cs = strings[i];
+                int offset = offsets[i];
+                if (cs instanceof String)
+                    ((String)cs).getChars(0, cs.length(), chars, offset);
+                else
+                    for (int j = 0, n = cs.length(); j < n; j++)
+                        chars[offset + j] = cs.charAt(j);
+            }
+            this.latin1 = null;
+            this.chars = chars;
+        }
+        else {
+            byte[] latin1 = new byte[total];
+            for (int i = 0; i < length; i++) {
+                CharSequence cs = strings[i];
+                int offset = offsets[i];
+                for (int j = 0, n = cs.length(); j < n; j++)
+                    latin1[offset + j] = (byte)cs.charAt(j);
+            }
+            this.latin1 = latin1;
+            this.chars = null;
+        }
+        this.offsets = offsets;
+        this.length = length;
+        this.memoise = memoise;
+    }
+
+    /**
+     * Construct an {@code ImmutableStringList} from another {@link Collection} (helps with deserializing).
+     *
+     * @param   collection  the other {@link Collection}
+     * @throws  NullPointerException if any of the strings is {@code null}
+     */
+    public ImmutableStringList(Collection<? extends CharSequence> collection) {
+        this(collection.toArray(new CharSequence[0]), collection.size(), false);
+    }
+
+    /**
+     * Internal constructor for the empty list.
+     */
+    private ImmutableStringList() {
+        latin1 = emptyByteArray;
+        chars = null;
+        offsets = emptyOffsets;
+        length = 0;
+        memoise = false;
+    }
+
+    /**
+     * Get the number of elements in the list.
+     *
+     * @return      the number of elements
+     */
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Return {@code true} if the list is empty.
+     *
+     * @return      {@code true} if the list is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Get the element at the specified index.  Unless memoisation is enabled, this will create a new {@link String}.
+     *
+     * @param   index       the index
+     * @return              the element at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        if (!memoise)
+            return createString(index);
+        String[] cache = this.cache;
+        if (cache == null)
+            this.cache = cache = new String[length];
+        String result = cache[index];
+        if (result == null)
+            cache[index] = result = createString(index);
+        return result;
+    }
+
+    /**
+     * Get the length of the string at the specified index, without creating the {@link String}.
+     *
+     * @param   index       the index
+     * @return              the length of the string at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    public int stringLength(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Get a single character of the string at the specified index, without creating the {@link String}.
+     *
+     * @param   index       the index of the string
+     * @param   charIndex   the index of the character within the string
+     * @return              the character
+     * @throws  IndexOutOfBoundsException   if either index is out of range
+     */
+    public char charAt(int index, int charIndex) {
+        int len = stringLength(index);
+        if (charIndex < 0 || charIndex >= len)
+            throw new IndexOutOfBoundsException(String.valueOf(charIndex));
+        int i = offsets[index] + charIndex;
+        return latin1 != null ? (char)(latin1[i] & 0xFF) : chars[i];
+    }
+
+    /**
+     * Test whether the list contains an element equal to the specified object.  If the object is a {@link String}, the
+     * comparison is performed against the stored characters directly.
+     *
+     * @param   o       the object
+     * @return          {@code true} if the list contains the object
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Find the index in the list of the first element equal to the given object.  If the object is a {@link String},
+     * the comparison is performed against the stored characters directly.
+     *
+     * @param   o       the object to be located
+     * @return          the index, or -1 if not found
+     */
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof String ? indexOfContent((String)o) : -1;
+    }
+
+    /**
+     * Find the index in the list of the last element equal to the given object.  If the object is a {@link String},
+     * the comparison is performed against the stored characters directly.
+     *
+     * @param   o       the object to be located
+     * @return          the index, or -1 if not found
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o instanceof String) {
+            String s = (String)o;
+            for (int i = length - 1; i >= 0; i--)
+                if (contentEquals(i, s))
+                    return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the index in the list of the first element with the same characters as the given {@link CharSequence}
+     * (following the pattern of {@link String#contentEquals(CharSequence)}).
+     *
+     * @param   cs      the {@link CharSequence}
+     * @return          the index, or -1 if not found
+     */
+    public int indexOfContent(CharSequence cs) {
+        for (int i = 0; i < length; i++)
+            if (contentEquals(i, cs))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Test whether the list contains an element with the same characters as the given {@link CharSequence}.
+     *
+     * @param   cs      the {@link CharSequence}
+     * @return          {@code true} if the list contains a matching element
+     */
+    public boolean containsContent(CharSequence cs) {
+        return indexOfContent(cs) >= 0;
+    }
+
+    /**
+     * Compare the string at the specified index with a {@link CharSequence}.
+     *
+     * @param   index   the index
+     * @param   cs      the {@link CharSequence}
+     * @return          {@code true} if the characters are the same
+     */
+    private boolean contentEquals(int index, CharSequence cs) {
+        int start = offsets[index];
+        int n = offsets[index + 1] - start;
+        if (cs.length() != n)
+            return false;
+        if (latin1 != null) {
+            for (int j = 0; j < n; j++)
+                if ((latin1[start + j] & 0xFF) != cs.charAt(j))
+                    return false;
+        }
+        else {
+            for (int j = 0; j < n; j++)
+                if (chars[start + j] != cs.charAt(j))
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Create the {@link String} for the specified index.
+     *
+     * @param   index   the index
+     * @return          the {@link String}
+     */
+    private String createString(int index) {
+        int start = offsets[index];
+        int n = offsets[index + 1] - start;
+        return latin1 != null ? new String(latin1, start, n, StandardCharsets.ISO_8859_1) : new String(chars, start, n);
+    }
+
+    /**
+     * Returns the hash code value for this list, as defined for {@link List#hashCode}.  The hash codes of the
+     * individual strings are calculated from the stored characters, without creating the {@link String} objects.
+     *
+     * @return  the hash code value for this list
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            int h = 0;
+            int end = offsets[i + 1];
+            if (latin1 != null) {
+                for (int j = offsets[i]; j < end; j++)
+                    h = 31 * h + (latin1[j] & 0xFF);
+            }
+            else {
+                for (int j = offsets[i]; j < end; j++)
+                    h = 31 * h + chars[j];
+            }
+            result = 31 * result + h;
+        }
+        return result;
+    }
+
+    /**
+     * Get the total number of characters stored in the list.
+     *
+     * @return      the number of characters
+     */
+    public int totalChars() {
+        return offsets[length];
+    }
+
+    /**
+     * Return {@code true} if the characters are stored one per byte (all characters are in the Latin-1 range).
+     *
+     * @return      {@code true} if the characters are stored as Latin-1
+     */
+    public boolean isLatin1() {
+        return latin1 != null;
+    }
+
+    /**
+     * Get an empty {@code ImmutableStringList}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @return              an empty list
+     */
+    public static ImmutableStringList emptyList() {
+        return emptyList;
+    }
+
+    /**
+     * Get an {@code ImmutableStringList} containing the supplied strings.  If there are no strings, the empty list is
+     * returned.  Unlike the other classes in this library, the array is copied, so it may be re-used or modified
+     * afterwards.
+     *
+     * @param   strings     the strings
+     * @return              the list
+     * @throws  NullPointerException if any of the strings is {@code null}
+     */
+    public static ImmutableStringList listOf(String ... strings) {
+        return strings.length == 0 ? emptyList() : new ImmutableStringList(strings, strings.length, false);
+    }
+
+    /**
+     * Get an {@code ImmutableStringList} containing the supplied strings, with memoisation enabled.  If there are no
+     * strings, the empty list is returned.
+     *
+     * @param   strings     the strings
+     * @return              the list
+     * @throws  NullPointerException if any of the strings is {@code null}
+     */
+    public static ImmutableStringList memoisedListOf(String ... strings) {
+        return strings.length == 0 ? emptyList() : new ImmutableStringList(strings, strings.length, true);
+    }
+
+}
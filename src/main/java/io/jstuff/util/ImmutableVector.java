@@ -0,0 +1,699 @@
+/*
+ * @(#) ImmutableVector.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * A persistent immutable {@link List}, implemented as a 32-way trie with a tail buffer.  The "modifying" operations
+ * {@link #with(int, Object)}, {@link #append(Object)} and {@link #pop()} return a new {@code ImmutableVector}, sharing
+ * all but the nodes on the path to the affected element with the original.  This makes each such operation
+ * effectively constant-time (O(log<sub>32</sub> n)), rather than the O(n) cost of copying the array of an
+ * {@link ImmutableList}.
+ * <br>
+ * The last (up to) 32 elements are held in a separate tail array, so that {@link #append(Object)} usually requires
+ * only the copying of that array.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+public class ImmutableVector<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int bits = 5;
+    static final int width = 1 << bits;
+    static final int mask = width - 1;
+
+    private static final Object[] emptyNode = new Object[width];
+    private static final ImmutableVector<?> emptyVector = new ImmutableVector<>(0, bits, emptyNode,
+            ImmutableBase.emptyArray);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    /**
+     * Internal constructor.
+     *
+     * @param   size    the number of elements
+     * @param   shift   the shift for the root level of the trie
+     * @param   root    the root node
+     * @param   tail    the tail array
+     */
+    private ImmutableVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Get the number of elements in the vector.
+     *
+     * @return          the number of elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the element at the specified index.
+     *
+     * @param   index   the index
+     * @return          the element
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the vector
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return (T)leafFor(index)[index & mask];
+    }
+
+    /**
+     * Create a new {@code ImmutableVector} with the element at the specified index replaced.  If the index is equal
+     * to the size of the vector, the element is appended.
+     *
+     * @param   index   the index
+     * @param   element the new element
+     * @return          the new {@code ImmutableVector}
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than the size of the vector
+     */
+    public ImmutableVector<T> with(int index, T element) {
+        if (index == size)
+            return append(element);
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & mask] = element;
+            return new ImmutableVector<>(size, shift, root, newTail);
+        }
+        return new ImmutableVector<>(size, shift, assoc(shift, root, index, element), tail);
+    }
+
+    /**
+     * Create a new {@code ImmutableVector} with the specified element appended.
+     *
+     * @param   element the new element
+     * @return          the new {@code ImmutableVector}
+     */
+    public ImmutableVector<T> append(T element) {
+        int tailLength = size - tailOffset();
+        if (tailLength < width) {
+            Object[] newTail = Arrays.copyOf(tail, tailLength + 1);
+            newTail[tailLength] = element;
+            return new ImmutableVector<>(size + 1, shift, root, newTail);
+        }
+        return pushTail(new Object[] { element }, 1);
+    }
+
+    /**
+     * Create a new {@code ImmutableVector} with the last element removed.
+     *
+     * @return          the new {@code ImmutableVector}
+     * @throws  IllegalStateException   if the vector is empty
+     */
+    public ImmutableVector<T> pop() {
+        if (size == 0)
+            throw new IllegalStateException("Can't pop empty vector");
+        if (size == 1)
+            return emptyVector();
+        int tailLength = size - tailOffset();
+        if (tailLength > 1)
+            return new ImmutableVector<>(size - 1, shift, root, Arrays.copyOf(tail, tailLength - 1));
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null)
+            newRoot = emptyNode;
+        if (shift > bits && newRoot[1] == null) {
+            newRoot = (Object[])newRoot[0];
+            newShift -= bits;
+        }
+        return new ImmutableVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Get the last element of the vector.
+     *
+     * @return          the last element
+     * @throws  NoSuchElementException  if the vector is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T last() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return (T)tail[size - tailOffset() - 1];
+    }
+
+    /**
+     * Return an {@link Iterator} over the vector.  The iterator traverses each leaf array of the trie in turn.
+     *
+     * @return          the {@link Iterator}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new VectorIterator();
+    }
+
+    /**
+     * Perform the given action on each element of the vector.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < size; i += width) {
+            Object[] leaf = leafFor(i);
+            for (int j = 0, n = Math.min(width, size - i); j < n; j++)
+                action.accept((T)leaf[j]);
+        }
+    }
+
+    /**
+     * Copy the elements of the vector to a new array.
+     *
+     * @return          an array containing the elements
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i += width)
+            System.arraycopy(leafFor(i), 0, result, i, Math.min(width, size - i));
+        return result;
+    }
+
+    /**
+     * Create an {@link ImmutableList} containing the elements of the vector.  This copies each leaf array of the trie
+     * into a single array.
+     *
+     * @return          the {@link ImmutableList}
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<T> toImmutableList() {
+        return size == 0 ? ImmutableList.emptyList() : ImmutableList.listOf((T[])toArray());
+    }
+
+    /**
+     * Create a {@link Transient} editor initialised with the elements of this vector, for applying a batch of changes
+     * without creating an intermediate vector for each change.  This is an O(1) operation (only the tail array is
+     * copied); the nodes of the trie are copied only when they are first modified by the editor.
+     *
+     * @return          the {@link Transient}
+     */
+    public Transient<T> toTransient() {
+        return new Transient<>(size, shift, root, tail);
+    }
+
+    /**
+     * Get the index of the first element held in the tail array.
+     *
+     * @return          the tail offset
+     */
+    private int tailOffset() {
+        return tailOffset(size);
+    }
+
+    /**
+     * Get the index of the first element held in the tail array, for a vector of the specified size.
+     *
+     * @param   size    the size
+     * @return          the tail offset
+     */
+    static int tailOffset(int size) {
+        return size < width ? 0 : ((size - 1) >>> bits) << bits;
+    }
+
+    /**
+     * Get the leaf array holding the element at the specified index (which must be in range).
+     *
+     * @param   index   the index
+     * @return          the leaf array
+     */
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset())
+            return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= bits)
+            node = (Object[])node[(index >>> level) & mask];
+        return node;
+    }
+
+    /**
+     * Push the current (full) tail into the trie, and create a new vector with the supplied array as tail.
+     *
+     * @param   newTail     the new tail array
+     * @param   count       the number of elements in the new tail
+     * @return              the new vector
+     */
+    private ImmutableVector<T> pushTail(Object[] newTail, int count) {
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> bits) > (1 << shift)) {
+            newRoot = new Object[width];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += bits;
+        }
+        else
+            newRoot = pushTail(shift, root, tail);
+        return new ImmutableVector<>(size + count, newShift, newRoot, newTail);
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int index = ((size - 1) >>> level) & mask;
+        Object[] result = parent.clone();
+        Object[] nodeToInsert;
+        if (level == bits)
+            nodeToInsert = tailNode;
+        else {
+            Object[] child = (Object[])parent[index];
+            nodeToInsert = child != null ? pushTail(level - bits, child, tailNode) : newPath(level - bits, tailNode);
+        }
+        result[index] = nodeToInsert;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0)
+            return node;
+        Object[] result = new Object[width];
+        result[0] = newPath(level - bits, node);
+        return result;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object element) {
+        Object[] result = node.clone();
+        if (level == 0)
+            result[index & mask] = element;
+        else {
+            int subIndex = (index >>> level) & mask;
+            result[subIndex] = assoc(level - bits, (Object[])node[subIndex], index, element);
+        }
+        return result;
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int index = ((size - 2) >>> level) & mask;
+        if (level > bits) {
+            Object[] newChild = popTail(level - bits, (Object[])node[index]);
+            if (newChild == null && index == 0)
+                return null;
+            Object[] result = node.clone();
+            result[index] = newChild;
+            return result;
+        }
+        if (index == 0)
+            return null;
+        Object[] result = node.clone();
+        result[index] = null;
+        return result;
+    }
+
+    /**
+     * Get an empty {@code ImmutableVector}.  This returns a shared instance, so it avoids a memory allocation.
+     *
+     * @param   <TT>        the element type
+     * @return              an empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <TT> ImmutableVector<TT> emptyVector() {
+        return (ImmutableVector<TT>)emptyVector;
+    }
+
+    /**
+     * Create an {@code ImmutableVector} containing the supplied elements.
+     *
+     * @param   elements    the elements
+     * @param   <TT>        the element type
+     * @return              the vector
+     */
+    @SafeVarargs
+    public static <TT> ImmutableVector<TT> vectorOf(TT ... elements) {
+        int n = elements.length;
+        Object[] array = new Object[n];
+        for (int i = 0; i < n; i++)
+            array[i] = elements[i];
+        return build(array, 0, n);
+    }
+
+    /**
+     * Create an {@code ImmutableVector} containing the elements of a {@link Collection}.  If the collection is an
+     * {@link ImmutableCollection} (for example, an {@link ImmutableList}), the elements are copied directly from its
+     * array, 32 at a time.
+     *
+     * @param   collection  the {@link Collection}
+     * @param   <TT>        the element type
+     * @return              the vector
+     */
+    public static <TT> ImmutableVector<TT> from(Collection<? extends TT> collection) {
+        if (collection instanceof ImmutableVector) {
+            @SuppressWarnings("unchecked")
+            ImmutableVector<TT> vector = (ImmutableVector<TT>)collection;
+            return vector;
+        }
+        if (collection instanceof ImmutableCollection) {
+            ImmutableCollection<? extends TT> immutable = (ImmutableCollection<? extends TT>)collection;
+            return build(immutable.array, immutable.offset, immutable.length);
+        }
+        Object[] array = collection.toArray();
+        return build(array, 0, array.length);
+    }
+
+    /**
+     * Build a vector from a portion of an array, by copying the array in leaf-sized chunks.
+     *
+     * @param   array   the array
+     * @param   offset  the offset of the first element
+     * @param   length  the number of elements
+     * @param   <TT>    the element type
+     * @return          the vector
+     */
+    private static <TT> ImmutableVector<TT> build(Object[] array, int offset, int length) {
+        if (length == 0)
+            return emptyVector();
+        int n = Math.min(length, width);
+        ImmutableVector<TT> vector = new ImmutableVector<>(n, bits, emptyNode,
+                Arrays.copyOfRange(array, offset, offset + n, Object[].class));
+        for (int i = n; i < length; i += width) {
+            n = Math.min(length - i, width);
+            vector = vector.pushTail(Arrays.copyOfRange(array, offset + i, offset + i + n, Object[].class), n);
+        }
+        return vector;
+    }
+
+    /**
+     * A single-owner mutable editor for an {@code ImmutableVector}, created by {@link ImmutableVector#toTransient()}.
+     * Each node created or copied by the editor has an extra slot (after the 32 element slots) holding an ownership
+     * token unique to the editor, and nodes holding that token are modified in place; other nodes (shared with the
+     * original vector) are copied on first modification.  {@link #persistent()} creates an {@code ImmutableVector}
+     * from the editor's trie in O(1) time, after which the editor may no longer be used.
+     * <br>
+     * A {@code Transient} is not thread-safe; it should be confined to a single thread or task.
+     *
+     * @param   <T>     the element type
+     */
+    public static class Transient<T> {
+
+        private final Object edit = new Object();
+        private int size;
+        private int shift;
+        private Object[] root;
+        private Object[] tail;
+        private boolean active;
+
+        /**
+         * Construct a {@code Transient} from the internal structure of a vector.
+         *
+         * @param   size    the number of elements
+         * @param   shift   the shift for the root level of the trie
+         * @param   root    the root node
+         * @param   tail    the tail array
+         */
+        Transient(int size, int shift, Object[] root, Object[] tail) {
+            this.size = size;
+            this.shift = shift;
+            this.root = root;
+            this.tail = newNode();
+            System.arraycopy(tail, 0, this.tail, 0, size - tailOffset(size));
+            active = true;
+        }
+
+        /**
+         * Get the number of elements.
+         *
+         * @return          the number of elements
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public int size() {
+            checkActive();
+            return size;
+        }
+
+        /**
+         * Get the element at the specified index.
+         *
+         * @param   index   the index
+         * @return          the element
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or not less than the size
+         * @throws  IllegalStateException       if {@link #persistent()} has already been called
+         */
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            checkIndex(index);
+            return (T)leafFor(index)[index & mask];
+        }
+
+        /**
+         * Replace the element at the specified index.
+         *
+         * @param   index   the index
+         * @param   element the new element
+         * @return          {@code this} (for chaining)
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or not less than the size
+         * @throws  IllegalStateException       if {@link #persistent()} has already been called
+         */
+        public Transient<T> set(int index, T element) {
+            checkIndex(index);
+            if (index >= tailOffset(size))
+                tail[index & mask] = element;
+            else
+                root = assoc(shift, root, index, element);
+            return this;
+        }
+
+        /**
+         * Add an element at the end.
+         *
+         * @param   element the element
+         * @return          {@code this} (for chaining)
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public Transient<T> append(T element) {
+            checkActive();
+            int tailLength = size - tailOffset(size);
+            if (tailLength < width) {
+                tail[tailLength] = element;
+                size++;
+                return this;
+            }
+            Object[] tailNode = tail;
+            tail = newNode();
+            tail[0] = element;
+            if ((size >>> bits) > (1 << shift)) {
+                Object[] newRoot = newNode();
+                newRoot[0] = root;
+                newRoot[1] = newPath(shift, tailNode);
+                root = newRoot;
+                shift += bits;
+            }
+            else
+                root = pushTail(shift, root, tailNode);
+            size++;
+            return this;
+        }
+
+        /**
+         * Remove the last element.
+         *
+         * @return          {@code this} (for chaining)
+         * @throws  IllegalStateException   if there are no elements, or if {@link #persistent()} has already been
+         *                                  called
+         */
+        public Transient<T> pop() {
+            checkActive();
+            if (size == 0)
+                throw new IllegalStateException("Can't pop empty vector");
+            int last = size - 1;
+            if (size == 1 || (last & mask) > 0) {
+                tail[last & mask] = null;
+                size = last;
+                return this;
+            }
+            Object[] newTail = editable(leafFor(size - 2));
+            Object[] newRoot = popTail(shift, root);
+            if (newRoot == null)
+                newRoot = newNode();
+            if (shift > bits && newRoot[1] == null) {
+                newRoot = editable((Object[])newRoot[0]);
+                shift -= bits;
+            }
+            root = newRoot;
+            tail = newTail;
+            size = last;
+            return this;
+        }
+
+        /**
+         * Create an {@code ImmutableVector} from the trie of this editor, and deactivate the editor.
+         *
+         * @return          the {@code ImmutableVector}
+         * @throws  IllegalStateException   if {@link #persistent()} has already been called
+         */
+        public ImmutableVector<T> persistent() {
+            checkActive();
+            active = false;
+            if (size == 0)
+                return emptyVector();
+            return new ImmutableVector<>(size, shift, root, Arrays.copyOf(tail, size - tailOffset(size)));
+        }
+
+        private void checkActive() {
+            if (!active)
+                throw new IllegalStateException("Transient used after persistent()");
+        }
+
+        private void checkIndex(int index) {
+            checkActive();
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+
+        private Object[] newNode() {
+            Object[] node = new Object[width + 1];
+            node[width] = edit;
+            return node;
+        }
+
+        private Object[] editable(Object[] node) {
+            if (node.length > width && node[width] == edit)
+                return node;
+            Object[] copy = Arrays.copyOf(node, width + 1);
+            copy[width] = edit;
+            return copy;
+        }
+
+        private Object[] leafFor(int index) {
+            if (index >= tailOffset(size))
+                return tail;
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= bits)
+                node = (Object[])node[(index >>> level) & mask];
+            return node;
+        }
+
+        private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+            int index = ((size - 1) >>> level) & mask;
+            Object[] result = editable(parent);
+            if (level == bits)
+                result[index] = tailNode;
+            else {
+                Object[] child = (Object[])result[index];
+                result[index] = child != null ? pushTail(level - bits, child, tailNode) :
+                        newPath(level - bits, tailNode);
+            }
+            return result;
+        }
+
+        private Object[] newPath(int level, Object[] node) {
+            if (level == 0)
+                return node;
+            Object[] result = newNode();
+            result[0] = newPath(level - bits, node);
+            return result;
+        }
+
+        private Object[] assoc(int level, Object[] node, int index, Object element) {
+            Object[] result = editable(node);
+            if (level == 0)
+                result[index & mask] = element;
+            else {
+                int subIndex = (index >>> level) & mask;
+                result[subIndex] = assoc(level - bits, (Object[])result[subIndex], index, element);
+            }
+            return result;
+        }
+
+        private Object[] popTail(int level, Object[] node) {
+            int index = ((size - 2) >>> level) & mask;
+            if (level > bits) {
+                Object[] newChild = popTail(level - bits, (Object[])node[index]);
+                if (newChild == null && index == 0)
+                    return null;
+                Object[] result = editable(node);
+                result[index] = newChild;
+                return result;
+            }
+            if (index == 0)
+                return null;
+            Object[] result = editable(node);
+            result[index] = null;
+            return result;
+        }
+
+    }
+
+    /**
+     * An {@link Iterator} over an {@code ImmutableVector}, traversing each leaf array in turn.
+     */
+    public class VectorIterator implements Iterator<T> {
+
+        private int index;
+        private Object[] leaf;
+
+        /**
+         * Test whether the iterator has any more elements.
+         *
+         * @return          {@code true} if there is at least one element available
+         */
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Get the next element, locating the next leaf array of the trie when the current one is exhausted.
+         *
+         * @return          the next element
+         * @throws  NoSuchElementException  if there is no "next" element
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (index >= size)
+                throw new NoSuchElementException(String.valueOf(index));
+            if ((index & mask) == 0 || leaf == null)
+                leaf = leafFor(index);
+            return (T)leaf[index++ & mask];
+        }
+
+    }
+
+}
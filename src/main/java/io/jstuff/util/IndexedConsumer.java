@@ -0,0 +1,47 @@
+/*
+ * @(#) IndexedConsumer.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+/**
+ * An operation that accepts an element of a collection together with its index.  Used by the
+ * {@code forEachIndexed()} functions of the immutable classes, to allow iteration without an
+ * {@link java.util.Iterator Iterator} and without the need for a lambda to capture a counter.
+ *
+ * @author  Peter Wall
+ * @param   <T>     the element type
+ */
+@FunctionalInterface
+public interface IndexedConsumer<T> {
+
+    /**
+     * Perform the operation on the given element.
+     *
+     * @param   index   the index of the element
+     * @param   item    the element
+     */
+    void accept(int index, T item);
+
+}
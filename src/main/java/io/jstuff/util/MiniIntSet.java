@@ -0,0 +1,541 @@
+/*
+ * @(#) MiniIntSet.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * An implementation of {@link Set} of {@link Integer} to provide a simple "contains" mechanism for small numbers of
+ * {@code int} values, without boxing either the stored values or the values being tested.
+ * <br>
+ * Sets of up to five values are held in individual fields; larger sets are held either in a sorted array (tested by
+ * binary search) or, if the values are closely grouped, in a bitmap.
+ *
+ * @author  Peter Wall
+ */
+public abstract class MiniIntSet implements Set<Integer> {
+
+    private static final int[] emptyIntArray = new int[0];
+
+    /**
+     * Test whether the set contains the specified value, without boxing.
+     *
+     * @param   value   the value
+     * @return          {@code true} if the set contains the value
+     */
+    public abstract boolean contains(int value);
+
+    /**
+     * Get the value at the specified index.  This is not part of the standard {@link Set} interface, but it allows
+     * iteration over the values without boxing and without needing to instantiate an iterator.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+     */
+    public abstract int getInt(int index);
+
+    /**
+     * Return {@code true} if the set is empty.
+     *
+     * @return      {@code true} if the set is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Test whether the set contains an object equal to the specified value.
+     *
+     * @param   o       the object
+     * @return          {@code true} if the set contains the object
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer)o).intValue());
+    }
+
+    /**
+     * Test whether the set contains all of the objects in a supplied {@link Collection}.
+     *
+     * @param   c       the other {@link Collection}
+     * @return          {@code true} if the set contains all of the objects in the other {@link Collection}
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object item : c)
+            if (!contains(item))
+                return false;
+        return true;
+    }
+
+    /**
+     * Return an iterator over the set.  The values may be retrieved without boxing using
+     * {@link PrimitiveIterator.OfInt#nextInt()}.
+     *
+     * @return          the iterator
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new IntIterator();
+    }
+
+    /**
+     * Create a new array containing the values.
+     *
+     * @return          the array
+     */
+    public int[] toIntArray() {
+        int n = size();
+        if (n == 0)
+            return emptyIntArray;
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++)
+            result[i] = getInt(i);
+        return result;
+    }
+
+    /**
+     * Copy the set to an array.
+     *
+     * @return          an array containing the values
+     */
+    @Override
+    public Object[] toArray() {
+        int n = size();
+        Object[] result = new Object[n];
+        for (int i = 0; i < n; i++)
+            result[i] = getInt(i);
+        return result;
+    }
+
+    /**
+     * Copy the set to an array, either the supplied array (if it fits) or a new array of the specified type.
+     *
+     * @param   a       the destination array
+     * @param   <T>     the type of the destination array items
+     * @return          a copy of the set, in a new array if necessary
+     * @throws  ArrayStoreException if the values in the set can't be stored in the destination array
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        int n = size();
+        T[] target = a.length >= n ? a : (T[])Array.newInstance(a.getClass().getComponentType(), n);
+        for (int i = 0; i < n; i++)
+            target[i] = (T)(Integer)getInt(i);
+        if (target.length > n)
+            target[n] = null;
+        return target;
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean add(Integer e) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean addAll(Collection<? extends Integer> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
+     * set, the two sets have the same size, and every member of the specified set is contained in this set.
+     *
+     * @param   other   object to be compared for equality with this set
+     * @return  {@code true} if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Set))
+            return false;
+        Set<?> otherSet = (Set<?>)other;
+        int n = size();
+        if (n != otherSet.size())
+            return false;
+        if (otherSet instanceof MiniIntSet) {
+            MiniIntSet otherMiniSet = (MiniIntSet)otherSet;
+            for (int i = 0; i < n; i++)
+                if (!otherMiniSet.contains(getInt(i)))
+                    return false;
+            return true;
+        }
+        for (int i = 0; i < n; i++)
+            if (!otherSet.contains(getInt(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set.  The hash code of a set is defined to be the sum of the hash codes of
+     * the elements in the set.
+     *
+     * @return  the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0, n = size(); i < n; i++)
+            result += getInt(i);
+        return result;
+    }
+
+    /**
+     * Returns a string representation of this set.  The string representation consists of the values, enclosed in
+     * square brackets and separated by a comma and a space.
+     *
+     * @return          a string representation of this set
+     */
+    @Override
+    public String toString() {
+        int n = size();
+        if (n == 0)
+            return "[]";
+        StringBuilder sb = new StringBuilder(n * 8);
+        sb.append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                sb.append(',').append(' ');
+            sb.append(getInt(i));
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    /**
+     * Get an empty {@code MiniIntSet}.
+     *
+     * @return              an empty {@code MiniIntSet}
+     */
+    public static MiniIntSet of() {
+        return MiniIntSet0.instance;
+    }
+
+    /**
+     * Get a {@code MiniIntSet} containing a single value.
+     *
+     * @param   value       the value
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int value) {
+        return new MiniIntSet1(value);
+    }
+
+    /**
+     * Get a {@code MiniIntSet} containing two values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int value0, int value1) {
+        return new MiniIntSet2(value0, value1);
+    }
+
+    /**
+     * Get a {@code MiniIntSet} containing three values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int value0, int value1, int value2) {
+        return new MiniIntSet3(value0, value1, value2);
+    }
+
+    /**
+     * Get a {@code MiniIntSet} containing four values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @param   value3      the fourth value
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int value0, int value1, int value2, int value3) {
+        return new MiniIntSet4(value0, value1, value2, value3);
+    }
+
+    /**
+     * Get a {@code MiniIntSet} containing five values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @param   value3      the fourth value
+     * @param   value4      the fifth value
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int value0, int value1, int value2, int value3, int value4) {
+        return new MiniIntSet5(value0, value1, value2, value3, value4);
+    }
+
+    /**
+     * Get a {@code MiniIntSet} with a variable number of values.  For up to five values, the set will hold the values
+     * in individual fields (as with the fixed-length forms of this function, the values are not checked for
+     * duplicates).  For more than five values, the values will be sorted and duplicates removed, and the set will hold
+     * them either in a bitmap (if the range of values is small in relation to the number of values) or in a sorted
+     * array.
+     *
+     * @param   values      the values
+     * @return              the {@code MiniIntSet}
+     */
+    public static MiniIntSet of(int ... values) {
+        int n = values.length;
+        switch (n) {
+            case 0:
+                return MiniIntSet0.instance;
+            case 1:
+                return new MiniIntSet1(values[0]);
+            case 2:
+                return new MiniIntSet2(values[0], values[1]);
+            case 3:
+                return new MiniIntSet3(values[0], values[1], values[2]);
+            case 4:
+                return new MiniIntSet4(values[0], values[1], values[2], values[3]);
+            case 5:
+                return new MiniIntSet5(values[0], values[1], values[2], values[3], values[4]);
+        }
+        int[] sorted = Arrays.copyOf(values, n);
+        Arrays.sort(sorted);
+        int count = 1;
+        for (int i = 1; i < n; i++)
+            if (sorted[i] != sorted[count - 1])
+                sorted[count++] = sorted[i];
+        long range = (long)sorted[count - 1] - sorted[0];
+        if (range < 64L * count)
+            return new Bitmap(sorted, count);
+        return new Sorted(count == n ? sorted : Arrays.copyOf(sorted, count));
+    }
+
+    /**
+     * An iterator over the values of a {@code MiniIntSet}.
+     */
+    public class IntIterator implements PrimitiveIterator.OfInt {
+
+        private int index = 0;
+
+        /**
+         * Test whether the iterator has any more elements.
+         *
+         * @return          {@code true} if there is at least one element available
+         */
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        /**
+         * Get the next value, without boxing.
+         *
+         * @return          the next value
+         * @throws  NoSuchElementException  if there is no "next" value
+         */
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return getInt(index++);
+        }
+
+    }
+
+    /**
+     * An implementation of {@code MiniIntSet} holding the values in a sorted array, tested by binary search.
+     */
+    public static class Sorted extends MiniIntSet {
+
+        private final int[] values;
+
+        /**
+         * Construct a {@code Sorted} set with the given array, which must be sorted and must not contain duplicates.
+         *
+         * @param   values      the values
+         */
+        Sorted(int[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Get the number of values.
+         *
+         * @return      the number of values
+         */
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Test whether the set contains the specified value, without boxing.
+         *
+         * @param   value   the value
+         * @return          {@code true} if the set contains the value
+         */
+        @Override
+        public boolean contains(int value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        /**
+         * Get the value at the specified index (the values are in ascending order).
+         *
+         * @param   index       the index
+         * @return              the value at that index
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+         */
+        @Override
+        public int getInt(int index) {
+            return values[index];
+        }
+
+    }
+
+    /**
+     * An implementation of {@code MiniIntSet} holding the values in a bitmap, for use when the range of the values is
+     * small.
+     */
+    public static class Bitmap extends MiniIntSet {
+
+        private final int base;
+        private final long[] bits;
+        private final int[] values;
+
+        /**
+         * Construct a {@code Bitmap} set with the given array, which must be sorted and must not contain duplicates.
+         *
+         * @param   values      the values
+         * @param   length      the number of values
+         */
+        Bitmap(int[] values, int length) {
+            int base = values[0];
+            long[] bits = new long[(int)(((long)values[length - 1] - base) / 64 + 1)];
+            for (int i = 0; i < length; i++) {
+                long bit = (long)values[i] - base;
+                bits[(int)(bit >>> 6)] |= 1L << bit;
+            }
+            this.base = base;
+            this.bits = bits;
+            this.values = values.length == length ? values : Arrays.copyOf(values, length);
+        }
+
+        /**
+         * Get the number of values.
+         *
+         * @return      the number of values
+         */
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Test whether the set contains the specified value, without boxing.
+         *
+         * @param   value   the value
+         * @return          {@code true} if the set contains the value
+         */
+        @Override
+        public boolean contains(int value) {
+            long bit = (long)value - base;
+            return bit >= 0 && (bit >>> 6) < bits.length && (bits[(int)(bit >>> 6)] & (1L << bit)) != 0;
+        }
+
+        /**
+         * Get the value at the specified index (the values are in ascending order).
+         *
+         * @param   index       the index
+         * @return              the value at that index
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+         */
+        @Override
+        public int getInt(int index) {
+            return values[index];
+        }
+
+    }
+
+}
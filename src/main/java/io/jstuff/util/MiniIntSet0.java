@@ -0,0 +1,77 @@
+/*
+ * @(#) MiniIntSet0.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+/**
+ * An empty implementation of {@link MiniIntSet}.
+ *
+ * @author  Peter Wall
+ */
+public class MiniIntSet0 extends MiniIntSet {
+
+    /** A reusable instance. */
+    public static final MiniIntSet0 instance = new MiniIntSet0();
+
+    /**
+     * Construct a {@code MiniIntSet0}.
+     */
+    public MiniIntSet0() {
+    }
+
+    /**
+     * Get the number of values (always zero).
+     *
+     * @return      the number of values
+     */
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    /**
+     * Test whether the set contains the specified value (always {@code false}).
+     *
+     * @param   value   the value
+     * @return          {@code false}
+     */
+    @Override
+    public boolean contains(int value) {
+        return false;
+    }
+
+    /**
+     * Get the value at the specified index (always throws exception).
+     *
+     * @param   index       the index
+     * @return              never returns
+     * @throws  IndexOutOfBoundsException   in all cases
+     */
+    @Override
+    public int getInt(int index) {
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+}
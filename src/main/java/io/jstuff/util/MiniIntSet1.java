@@ -0,0 +1,81 @@
+/*
+ * @(#) MiniIntSet1.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+/**
+ * An implementation of {@link MiniIntSet} containing a single value.
+ *
+ * @author  Peter Wall
+ */
+public class MiniIntSet1 extends MiniIntSet {
+
+    private final int value;
+
+    /**
+     * Construct a {@code MiniIntSet1} with the given value.
+     *
+     * @param   value       the value
+     */
+    public MiniIntSet1(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the number of values (always one).
+     *
+     * @return      the number of values
+     */
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    /**
+     * Test whether the set contains the specified value, without boxing.
+     *
+     * @param   value   the value
+     * @return          {@code true} if the single value is equal to the specified value
+     */
+    @Override
+    public boolean contains(int value) {
+        return value == this.value;
+    }
+
+    /**
+     * Get the value at the specified index.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than 0
+     */
+    @Override
+    public int getInt(int index) {
+        if (index != 0)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return value;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * @(#) MiniIntSet3.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+/**
+ * An implementation of {@link MiniIntSet} containing three values.
+ *
+ * @author  Peter Wall
+ */
+public class MiniIntSet3 extends MiniIntSet {
+
+    private final int value0;
+    private final int value1;
+    private final int value2;
+
+    /**
+     * Construct a {@code MiniIntSet3} with the given values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     */
+    public MiniIntSet3(int value0, int value1, int value2) {
+        this.value0 = value0;
+        this.value1 = value1;
+        this.value2 = value2;
+    }
+
+    /**
+     * Get the number of values (always three).
+     *
+     * @return      the number of values
+     */
+    @Override
+    public int size() {
+        return 3;
+    }
+
+    /**
+     * Test whether the set contains the specified value, without boxing.
+     *
+     * @param   value   the value
+     * @return          {@code true} if any of the three values is equal to the specified value
+     */
+    @Override
+    public boolean contains(int value) {
+        return value == value0 || value == value1 || value == value2;
+    }
+
+    /**
+     * Get the value at the specified index.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or greater than 2
+     */
+    @Override
+    public int getInt(int index) {
+        switch (index) {
+            case 0:
+                return value0;
+            case 1:
+                return value1;
+            case 2:
+                return value2;
+        }
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+}
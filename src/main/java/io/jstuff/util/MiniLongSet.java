@@ -0,0 +1,541 @@
+/*
+ * @(#) MiniLongSet.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * An implementation of {@link Set} of {@link Long} to provide a simple "contains" mechanism for small numbers of
+ * {@code long} values, without boxing either the stored values or the values being tested.
+ * <br>
+ * Sets of up to five values are held in individual fields; larger sets are held either in a sorted array (tested by
+ * binary search) or, if the values are closely grouped, in a bitmap.
+ *
+ * @author  Peter Wall
+ */
+public abstract class MiniLongSet implements Set<Long> {
+
+    private static final long[] emptyLongArray = new long[0];
+
+    /**
+     * Test whether the set contains the specified value, without boxing.
+     *
+     * @param   value   the value
+     * @return          {@code true} if the set contains the value
+     */
+    public abstract boolean contains(long value);
+
+    /**
+     * Get the value at the specified index.  This is not part of the standard {@link Set} interface, but it allows
+     * iteration over the values without boxing and without needing to instantiate an iterator.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+     */
+    public abstract long getLong(int index);
+
+    /**
+     * Return {@code true} if the set is empty.
+     *
+     * @return      {@code true} if the set is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Test whether the set contains an object equal to the specified value.
+     *
+     * @param   o       the object
+     * @return          {@code true} if the set contains the object
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && contains(((Long)o).longValue());
+    }
+
+    /**
+     * Test whether the set contains all of the objects in a supplied {@link Collection}.
+     *
+     * @param   c       the other {@link Collection}
+     * @return          {@code true} if the set contains all of the objects in the other {@link Collection}
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object item : c)
+            if (!contains(item))
+                return false;
+        return true;
+    }
+
+    /**
+     * Return an iterator over the set.  The values may be retrieved without boxing using
+     * {@link PrimitiveIterator.OfLong#nextLong()}.
+     *
+     * @return          the iterator
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new LongIterator();
+    }
+
+    /**
+     * Create a new array containing the values.
+     *
+     * @return          the array
+     */
+    public long[] toLongArray() {
+        int n = size();
+        if (n == 0)
+            return emptyLongArray;
+        long[] result = new long[n];
+        for (int i = 0; i < n; i++)
+            result[i] = getLong(i);
+        return result;
+    }
+
+    /**
+     * Copy the set to an array.
+     *
+     * @return          an array containing the values
+     */
+    @Override
+    public Object[] toArray() {
+        int n = size();
+        Object[] result = new Object[n];
+        for (int i = 0; i < n; i++)
+            result[i] = getLong(i);
+        return result;
+    }
+
+    /**
+     * Copy the set to an array, either the supplied array (if it fits) or a new array of the specified type.
+     *
+     * @param   a       the destination array
+     * @param   <T>     the type of the destination array items
+     * @return          a copy of the set, in a new array if necessary
+     * @throws  ArrayStoreException if the values in the set can't be stored in the destination array
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        int n = size();
+        T[] target = a.length >= n ? a : (T[])Array.newInstance(a.getClass().getComponentType(), n);
+        for (int i = 0; i < n; i++)
+            target[i] = (T)(Long)getLong(i);
+        if (target.length > n)
+            target[n] = null;
+        return target;
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean add(Long e) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean addAll(Collection<? extends Long> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
+     * set, the two sets have the same size, and every member of the specified set is contained in this set.
+     *
+     * @param   other   object to be compared for equality with this set
+     * @return  {@code true} if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Set))
+            return false;
+        Set<?> otherSet = (Set<?>)other;
+        int n = size();
+        if (n != otherSet.size())
+            return false;
+        if (otherSet instanceof MiniLongSet) {
+            MiniLongSet otherMiniSet = (MiniLongSet)otherSet;
+            for (int i = 0; i < n; i++)
+                if (!otherMiniSet.contains(getLong(i)))
+                    return false;
+            return true;
+        }
+        for (int i = 0; i < n; i++)
+            if (!otherSet.contains(getLong(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set.  The hash code of a set is defined to be the sum of the hash codes of
+     * the elements in the set.
+     *
+     * @return  the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0, n = size(); i < n; i++)
+            result += Long.hashCode(getLong(i));
+        return result;
+    }
+
+    /**
+     * Returns a string representation of this set.  The string representation consists of the values, enclosed in
+     * square brackets and separated by a comma and a space.
+     *
+     * @return          a string representation of this set
+     */
+    @Override
+    public String toString() {
+        int n = size();
+        if (n == 0)
+            return "[]";
+        StringBuilder sb = new StringBuilder(n * 8);
+        sb.append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                sb.append(',').append(' ');
+            sb.append(getLong(i));
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    /**
+     * Get an empty {@code MiniLongSet}.
+     *
+     * @return              an empty {@code MiniLongSet}
+     */
+    public static MiniLongSet of() {
+        return MiniLongSet0.instance;
+    }
+
+    /**
+     * Get a {@code MiniLongSet} containing a single value.
+     *
+     * @param   value       the value
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long value) {
+        return new MiniLongSet1(value);
+    }
+
+    /**
+     * Get a {@code MiniLongSet} containing two values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long value0, long value1) {
+        return new MiniLongSet2(value0, value1);
+    }
+
+    /**
+     * Get a {@code MiniLongSet} containing three values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long value0, long value1, long value2) {
+        return new MiniLongSet3(value0, value1, value2);
+    }
+
+    /**
+     * Get a {@code MiniLongSet} containing four values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @param   value3      the fourth value
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long value0, long value1, long value2, long value3) {
+        return new MiniLongSet4(value0, value1, value2, value3);
+    }
+
+    /**
+     * Get a {@code MiniLongSet} containing five values.
+     *
+     * @param   value0      the first value
+     * @param   value1      the second value
+     * @param   value2      the third value
+     * @param   value3      the fourth value
+     * @param   value4      the fifth value
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long value0, long value1, long value2, long value3, long value4) {
+        return new MiniLongSet5(value0, value1, value2, value3, value4);
+    }
+
+    /**
+     * Get a {@code MiniLongSet} with a variable number of values.  For up to five values, the set will hold the values
+     * in individual fields (as with the fixed-length forms of this function, the values are not checked for
+     * duplicates).  For more than five values, the values will be sorted and duplicates removed, and the set will hold
+     * them either in a bitmap (if the range of values is small in relation to the number of values) or in a sorted
+     * array.
+     *
+     * @param   values      the values
+     * @return              the {@code MiniLongSet}
+     */
+    public static MiniLongSet of(long ... values) {
+        int n = values.length;
+        switch (n) {
+            case 0:
+                return MiniLongSet0.instance;
+            case 1:
+                return new MiniLongSet1(values[0]);
+            case 2:
+                return new MiniLongSet2(values[0], values[1]);
+            case 3:
+                return new MiniLongSet3(values[0], values[1], values[2]);
+            case 4:
+                return new MiniLongSet4(values[0], values[1], values[2], values[3]);
+            case 5:
+                return new MiniLongSet5(values[0], values[1], values[2], values[3], values[4]);
+        }
+        long[] sorted = Arrays.copyOf(values, n);
+        Arrays.sort(sorted);
+        int count = 1;
+        for (int i = 1; i < n; i++)
+            if (sorted[i] != sorted[count - 1])
+                sorted[count++] = sorted[i];
+        long range = sorted[count - 1] - sorted[0];
+        if (Long.compareUnsigned(range, 64L * count) < 0)
+            return new Bitmap(sorted, count);
+        return new Sorted(count == n ? sorted : Arrays.copyOf(sorted, count));
+    }
+
+    /**
+     * An iterator over the values of a {@code MiniLongSet}.
+     */
+    public class LongIterator implements PrimitiveIterator.OfLong {
+
+        private int index = 0;
+
+        /**
+         * Test whether the iterator has any more elements.
+         *
+         * @return          {@code true} if there is at least one element available
+         */
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        /**
+         * Get the next value, without boxing.
+         *
+         * @return          the next value
+         * @throws  NoSuchElementException  if there is no "next" value
+         */
+        @Override
+        public long nextLong() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return getLong(index++);
+        }
+
+    }
+
+    /**
+     * An implementation of {@code MiniLongSet} holding the values in a sorted array, tested by binary search.
+     */
+    public static class Sorted extends MiniLongSet {
+
+        private final long[] values;
+
+        /**
+         * Construct a {@code Sorted} set with the given array, which must be sorted and must not contain duplicates.
+         *
+         * @param   values      the values
+         */
+        Sorted(long[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Get the number of values.
+         *
+         * @return      the number of values
+         */
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Test whether the set contains the specified value, without boxing.
+         *
+         * @param   value   the value
+         * @return          {@code true} if the set contains the value
+         */
+        @Override
+        public boolean contains(long value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        /**
+         * Get the value at the specified index (the values are in ascending order).
+         *
+         * @param   index       the index
+         * @return              the value at that index
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+         */
+        @Override
+        public long getLong(int index) {
+            return values[index];
+        }
+
+    }
+
+    /**
+     * An implementation of {@code MiniLongSet} holding the values in a bitmap, for use when the range of the values is
+     * small.
+     */
+    public static class Bitmap extends MiniLongSet {
+
+        private final long base;
+        private final long[] bits;
+        private final long[] values;
+
+        /**
+         * Construct a {@code Bitmap} set with the given array, which must be sorted and must not contain duplicates.
+         *
+         * @param   values      the values
+         * @param   length      the number of values
+         */
+        Bitmap(long[] values, int length) {
+            long base = values[0];
+            long[] bits = new long[(int)((values[length - 1] - base) / 64 + 1)];
+            for (int i = 0; i < length; i++) {
+                long bit = values[i] - base;
+                bits[(int)(bit >>> 6)] |= 1L << bit;
+            }
+            this.base = base;
+            this.bits = bits;
+            this.values = values.length == length ? values : Arrays.copyOf(values, length);
+        }
+
+        /**
+         * Get the number of values.
+         *
+         * @return      the number of values
+         */
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Test whether the set contains the specified value, without boxing.
+         *
+         * @param   value   the value
+         * @return          {@code true} if the set contains the value
+         */
+        @Override
+        public boolean contains(long value) {
+            long bit = value - base;
+            return Long.compareUnsigned(bit >>> 6, bits.length) < 0 && (bits[(int)(bit >>> 6)] & (1L << bit)) != 0;
+        }
+
+        /**
+         * Get the value at the specified index (the values are in ascending order).
+         *
+         * @param   index       the index
+         * @return              the value at that index
+         * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the set
+         */
+        @Override
+        public long getLong(int index) {
+            return values[index];
+        }
+
+    }
+
+}
@@ -2,7 +2,7 @@
  * @(#) MiniMap.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -27,6 +27,7 @@ package io.jstuff.util;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiPredicate;
 
 /**
  * An implementation of {@link Map} to provide a simple and fast lookup mechanism for small numbers of keys.
@@ -117,6 +118,71 @@ public abstract class MiniMap<K, V> implements Map<K, V> {
         return result;
     }
 
+    /**
+     * Perform the given operation on each entry in the map, supplying the index, key and value of the entry.
+     *
+     * @param   visitor     the operation
+     * @throws  NullPointerException    if the visitor is {@code null}
+     */
+    public abstract void forEachEntry(EntryVisitor<? super K, ? super V> visitor);
+
+    /**
+     * Test whether any entry in the map matches the given predicate (applied to the key and value).  The scan stops at
+     * the first match.
+     *
+     * @param   predicate   the predicate
+     * @return              {@code true} if any entry matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public boolean anyMatch(BiPredicate<? super K, ? super V> predicate) {
+        return findIndex(predicate) >= 0;
+    }
+
+    /**
+     * Find the index of the first entry in the map that matches the given predicate (applied to the key and value).
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching entry, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public abstract int findIndex(BiPredicate<? super K, ? super V> predicate);
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key mapped to the specified value.  If
+     * the map already maps the key to an equal value, this map is returned.  The result is a {@code MiniMap} if it has
+     * three or fewer entries, otherwise an {@link ImmutableMap}.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new {@link Map}
+     */
+    public abstract Map<K, V> with(K key, V value);
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key removed.  If the map does not
+     * contain the key, this map is returned.
+     *
+     * @param   key     the key
+     * @return          the new {@link Map}
+     */
+    public abstract Map<K, V> without(Object key);
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the entries of another {@link Map} added (replacing
+     * the values of any existing keys).  If no entry is added or changed, this map is returned.  The result is a
+     * {@code MiniMap} if it has three or fewer entries, otherwise an {@link ImmutableMap}.
+     *
+     * @param   map     the other {@link Map}
+     * @return          the new {@link Map}
+     */
+    public Map<K, V> withAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty())
+            return this;
+        ImmutableMapEntry<K, V>[] array = ImmutableMap.createArray(size() + map.size());
+        forEachEntry((i, key, value) -> array[i] = new ImmutableMapEntry<>(key, value));
+        return ImmutableMap.mergeEntries(this, array, size(), map);
+    }
+
     /**
      * Returns a string representation of this map.  The string representation consists of the string representations of
      * each of the entries (as key=value), enclosed in braces and separated by a comma and a space.  Keys and values are
@@ -298,4 +364,31 @@ public abstract class MiniMap<K, V> implements Map<K, V> {
         return new ImmutableMap<>(array);
     }
 
+    /**
+     * Create a {@link Map} from the first {@code length} entries of an array of {@link ImmutableMapEntry} (which must
+     * have distinct keys), using the smallest representation: a {@code MiniMap} for three or fewer entries, otherwise
+     * an {@link ImmutableMap} using the array itself.
+     *
+     * @param   array       the array of {@link ImmutableMapEntry}
+     * @param   length      the number of entries
+     * @param   <KK>        the key type
+     * @param   <VV>        the value type
+     * @return              the {@link Map}
+     */
+    static <KK, VV> Map<KK, VV> fromEntries(ImmutableMapEntry<KK, VV>[] array, int length) {
+        switch (length) {
+            case 0:
+                return of();
+            case 1:
+                return new MiniMap1<>(array[0].getKey(), array[0].getValue());
+            case 2:
+                return new MiniMap2<>(array[0].getKey(), array[0].getValue(), array[1].getKey(), array[1].getValue());
+            case 3:
+                return new MiniMap3<>(array[0].getKey(), array[0].getValue(), array[1].getKey(), array[1].getValue(),
+                        array[2].getKey(), array[2].getValue());
+            default:
+                return new ImmutableMap<>(array, length);
+        }
+    }
+
 }
@@ -2,7 +2,7 @@
  * @(#) MiniMap0.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022, 2023 Peter Wall
+ * Copyright (c) 2022, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -27,7 +27,9 @@ package io.jstuff.util;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiPredicate;
 
 /**
  * An empty implementation of {@link MiniMap}.
@@ -111,6 +113,30 @@ public class MiniMap0<K, V> extends MiniMap<K, V> {
         return null;
     }
 
+    /**
+     * Perform the given operation on each entry in the map, supplying the index, key and value of the entry.
+     *
+     * @param   visitor     the operation
+     * @throws  NullPointerException    if the visitor is {@code null}
+     */
+    @Override
+    public void forEachEntry(EntryVisitor<? super K, ? super V> visitor) {
+        Objects.requireNonNull(visitor);
+    }
+
+    /**
+     * Find the index of the first entry in the map that matches the given predicate (applied to the key and value).
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching entry, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(BiPredicate<? super K, ? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        return -1;
+    }
+
     /**
      * Get a {@link Set} of the keys in use in this map.  Always returns an empty {@link Set}.
      *
@@ -144,6 +170,31 @@ public class MiniMap0<K, V> extends MiniMap<K, V> {
         return (Set<Entry<K, V>>)MiniSet0.instance;
     }
 
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key mapped to the specified value.  If
+     * the map already maps the key to an equal value, this map is returned.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> with(K key, V value) {
+        return new MiniMap1<>(key, value);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key removed.  If the map does not
+     * contain the key, this map is returned.
+     *
+     * @param   key     the key
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> without(Object key) {
+        return this;
+    }
+
     /**
      * Compares the specified object with this map for equality.  Returns {@code true} if the given object is also a
      * map, and it is also empty.
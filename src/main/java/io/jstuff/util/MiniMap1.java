@@ -2,7 +2,7 @@
  * @(#) MiniMap1.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -30,6 +30,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 /**
  * An implementation of {@link MiniMap} containing a single entry.
@@ -129,6 +131,56 @@ public class MiniMap1<K, V> extends MiniMap<K, V> {
         return Objects.equals(this.key, key) ? value : null;
     }
 
+    /**
+     * Get the value corresponding to the supplied key, or the supplied default value if the key is not found.  Unlike
+     * the default implementation, this does not require a separate {@link #containsKey(Object)} check.
+     *
+     * @param   key             the key
+     * @param   defaultValue    the default value
+     * @return                  the value
+     */
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return Objects.equals(this.key, key) ? value : defaultValue;
+    }
+
+    /**
+     * Perform the given action on the entry in the map, without creating an entry set.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        action.accept(key, value);
+    }
+
+    /**
+     * Perform the given operation on each entry in the map, supplying the index, key and value of the entry.
+     *
+     * @param   visitor     the operation
+     * @throws  NullPointerException    if the visitor is {@code null}
+     */
+    @Override
+    public void forEachEntry(EntryVisitor<? super K, ? super V> visitor) {
+        Objects.requireNonNull(visitor);
+        visitor.visit(0, key, value);
+    }
+
+    /**
+     * Find the index of the first entry in the map that matches the given predicate (applied to the key and value).
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching entry, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(BiPredicate<? super K, ? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        return predicate.test(key, value) ? 0 : -1;
+    }
+
     /**
      * Get a {@link Set} of the keys in use in this map.  Returns a {@link Set} containing the single key.
      *
@@ -159,6 +211,35 @@ public class MiniMap1<K, V> extends MiniMap<K, V> {
         return new MiniSet1<>(entry(key, value));
     }
 
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key mapped to the specified value.  If
+     * the map already maps the key to an equal value, this map is returned.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> with(K key, V value) {
+        if (Objects.equals(this.key, key))
+            return Objects.equals(this.value, value) ? this : new MiniMap1<>(this.key, value);
+        return new MiniMap2<>(this.key, this.value, key, value);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key removed.  If the map does not
+     * contain the key, this map is returned.
+     *
+     * @param   key     the key
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> without(Object key) {
+        if (Objects.equals(this.key, key))
+            return MiniMap.of();
+        return this;
+    }
+
     /**
      * Compares the specified object with this map for equality.  Returns {@code true} if the given object is also a
      * map containing a single entry identical to that of this map.
@@ -2,7 +2,7 @@
  * @(#) MiniMap3.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -30,6 +30,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 /**
  * An implementation of {@link MiniMap} containing three entries.
@@ -154,6 +156,68 @@ public class MiniMap3<K, V> extends MiniMap<K, V> {
                 (key.equals(key0) ? value0 : key.equals(key1) ? value1 : key.equals(key2) ? value2 : null);
     }
 
+    /**
+     * Get the value corresponding to the supplied key, or the supplied default value if the key is not found.  Unlike
+     * the default implementation, this does not require a separate {@link #containsKey(Object)} check.
+     *
+     * @param   key             the key
+     * @param   defaultValue    the default value
+     * @return                  the value
+     */
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        if (key == null)
+            return key0 == null ? value0 : key1 == null ? value1 : key2 == null ? value2 : defaultValue;
+        return key.equals(key0) ? value0 : key.equals(key1) ? value1 : key.equals(key2) ? value2 : defaultValue;
+    }
+
+    /**
+     * Perform the given action on each entry in the map, without creating an entry set.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        action.accept(key0, value0);
+        action.accept(key1, value1);
+        action.accept(key2, value2);
+    }
+
+    /**
+     * Perform the given operation on each entry in the map, supplying the index, key and value of the entry.
+     *
+     * @param   visitor     the operation
+     * @throws  NullPointerException    if the visitor is {@code null}
+     */
+    @Override
+    public void forEachEntry(EntryVisitor<? super K, ? super V> visitor) {
+        Objects.requireNonNull(visitor);
+        visitor.visit(0, key0, value0);
+        visitor.visit(1, key1, value1);
+        visitor.visit(2, key2, value2);
+    }
+
+    /**
+     * Find the index of the first entry in the map that matches the given predicate (applied to the key and value).
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching entry, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(BiPredicate<? super K, ? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        if (predicate.test(key0, value0))
+            return 0;
+        if (predicate.test(key1, value1))
+            return 1;
+        if (predicate.test(key2, value2))
+            return 2;
+        return -1;
+    }
+
     /**
      * Get a {@link Set} of the keys in use in this map.  Returns a {@link Set} containing the three keys.
      *
@@ -165,13 +229,15 @@ public class MiniMap3<K, V> extends MiniMap<K, V> {
     }
 
     /**
-     * Get a {@link Collection} of the values in this map.  Returns a {@link Collection} containing the three values.
+     * Get a {@link Collection} of the values in this map.  Returns a {@link Collection} containing the three values
+     * (not a {@link Set}, since the values need not be distinct).
      *
      * @return              the {@link Collection}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Collection<V> values() {
-        return new MiniSet3<>(value0, value1, value2);
+        return new ImmutableCollection<>((V[])new Object[] { value0, value1, value2 });
     }
 
     /**
@@ -184,6 +250,48 @@ public class MiniMap3<K, V> extends MiniMap<K, V> {
         return new MiniSet3<>(entry(key0, value0), entry(key1, value1), entry(key2, value2));
     }
 
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key mapped to the specified value.  If
+     * the map already maps the key to an equal value, this map is returned.
+     *
+     * @param   key     the key
+     * @param   value   the value
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> with(K key, V value) {
+        if (Objects.equals(key0, key))
+            return Objects.equals(value0, value) ? this : new MiniMap3<>(key0, value, key1, value1, key2, value2);
+        if (Objects.equals(key1, key))
+            return Objects.equals(value1, value) ? this : new MiniMap3<>(key0, value0, key1, value, key2, value2);
+        if (Objects.equals(key2, key))
+            return Objects.equals(value2, value) ? this : new MiniMap3<>(key0, value0, key1, value1, key2, value);
+        ImmutableMapEntry<K, V>[] array = ImmutableMap.createArray(4);
+        array[0] = new ImmutableMapEntry<>(key0, value0);
+        array[1] = new ImmutableMapEntry<>(key1, value1);
+        array[2] = new ImmutableMapEntry<>(key2, value2);
+        array[3] = new ImmutableMapEntry<>(key, value);
+        return new ImmutableMap<>(array);
+    }
+
+    /**
+     * Create a {@link Map} containing the entries of this map with the specified key removed.  If the map does not
+     * contain the key, this map is returned.
+     *
+     * @param   key     the key
+     * @return          the new {@link Map}
+     */
+    @Override
+    public Map<K, V> without(Object key) {
+        if (Objects.equals(key0, key))
+            return new MiniMap2<>(key1, value1, key2, value2);
+        if (Objects.equals(key1, key))
+            return new MiniMap2<>(key0, value0, key2, value2);
+        if (Objects.equals(key2, key))
+            return new MiniMap2<>(key0, value0, key1, value1);
+        return this;
+    }
+
     /**
      * Compares the specified object with this map for equality.  Returns {@code true} if the given object is also a
      * map containing a single entry identical to that of this map.
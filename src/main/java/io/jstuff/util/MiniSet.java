@@ -2,7 +2,7 @@
  * @(#) MiniSet.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -29,6 +29,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
 
 /**
  * An implementation of {@link Set} to provide a simple "contains" mechanism.
@@ -151,6 +153,86 @@ public abstract class MiniSet<T> implements Set<T> {
         return result;
     }
 
+    /**
+     * Perform the given action on each value in the set, supplying the index of the value (its position in iteration
+     * order) along with the value itself.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    public abstract void forEachIndexed(IndexedConsumer<? super T> action);
+
+    /**
+     * Test whether any value in the set matches the given predicate.  The scan stops at the first match.
+     *
+     * @param   predicate   the predicate
+     * @return              {@code true} if any value matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        return findIndex(predicate) >= 0;
+    }
+
+    /**
+     * Find the index (the position in iteration order) of the first value in the set that matches the given predicate.
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching value, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    public abstract int findIndex(Predicate<? super T> predicate);
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value added.  If the set already
+     * contains the value, this set is returned.  The result is a {@code MiniSet} if it has five or fewer values,
+     * otherwise an {@link ImmutableSet}.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    public abstract Set<T> with(T value);
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value removed.  If the set does not
+     * contain the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    public abstract Set<T> without(Object value);
+
+    /**
+     * Create a {@link Set} containing the values of this set with the values of a {@link Collection} added.  If no
+     * value is added, this set is returned.  The result is a {@code MiniSet} if it has five or fewer values, otherwise
+     * an {@link ImmutableSet}.
+     *
+     * @param   values  the {@link Collection} of values
+     * @return          the new {@link Set}
+     */
+    @SuppressWarnings("unchecked")
+    public Set<T> withAll(Collection<? extends T> values) {
+        if (values.isEmpty())
+            return this;
+        T[] array = (T[])new Object[size() + values.size()];
+        forEachIndexed((i, value) -> array[i] = value);
+        return mergeValues(this, array, size(), values);
+    }
+
+    /**
+     * Return a {@link Spliterator} over the set.  The values are copied to an array of at most five elements, which is
+     * then traversed by an array-index {@link Spliterator}, reporting {@code DISTINCT} in addition to the standard
+     * characteristics of the immutable classes.
+     *
+     * @return          the {@link Spliterator}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<T> spliterator() {
+        Object[] array = toArray();
+        return new ImmutableSpliterator<>(ImmutableSpliteratorBase.baseCharacteristics | Spliterator.DISTINCT,
+                (T[])array, 0, array.length);
+    }
+
     /**
      * Returns a string representation of this collection.  The string representation consists of the string
      * representations of each of the elements, enclosed in square brackets and separated by a comma and a space.
@@ -286,4 +368,52 @@ public abstract class MiniSet<T> implements Set<T> {
         return new ImmutableSet<>(Arrays.copyOf(values, n));
     }
 
+    /**
+     * Merge the values of a {@link Collection} into an array (used by the {@code withAll()} functions).  The array
+     * must contain the values of the original set, and must have room for all the values of the collection.
+     *
+     * @param   original    the original set (returned if nothing changes)
+     * @param   array       the array
+     * @param   length      the number of values of the original set in the array
+     * @param   values      the {@link Collection} of values
+     * @param   <TT>        the element type
+     * @return              the resulting set
+     */
+    static <TT> Set<TT> mergeValues(Set<TT> original, TT[] array, int length, Collection<? extends TT> values) {
+        int n = length;
+        for (TT value : values)
+            if (ImmutableCollection.indexOf(array, 0, n, value) < 0)
+                array[n++] = value;
+        return n == length ? original : fromArray(array, n);
+    }
+
+    /**
+     * Create a {@link Set} from the first {@code length} values of an array (which must be distinct), using the
+     * smallest representation: a {@code MiniSet} for five or fewer values, otherwise an {@link ImmutableSet} using
+     * the array itself.
+     *
+     * @param   array       the array
+     * @param   length      the number of values
+     * @param   <TT>        the element type
+     * @return              the {@link Set}
+     */
+    static <TT> Set<TT> fromArray(TT[] array, int length) {
+        switch (length) {
+            case 0:
+                return of();
+            case 1:
+                return new MiniSet1<>(array[0]);
+            case 2:
+                return new MiniSet2<>(array[0], array[1]);
+            case 3:
+                return new MiniSet3<>(array[0], array[1], array[2]);
+            case 4:
+                return new MiniSet4<>(array[0], array[1], array[2], array[3]);
+            case 5:
+                return new MiniSet5<>(array[0], array[1], array[2], array[3], array[4]);
+            default:
+                return new ImmutableSet<>(array, length);
+        }
+    }
+
 }
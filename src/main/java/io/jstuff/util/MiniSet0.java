@@ -2,7 +2,7 @@
  * @(#) MiniSet0.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022, 2023 Peter Wall
+ * Copyright (c) 2022, 2023, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -27,7 +27,9 @@ package io.jstuff.util;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * An empty implementation of {@link MiniSet}.
@@ -122,6 +124,54 @@ public class MiniSet0<T> extends MiniSet<T> {
         return a;
     }
 
+    /**
+     * Perform the given action on each value in the set, supplying the index of the value along with the value itself.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+    }
+
+    /**
+     * Find the index of the first value in the set that matches the given predicate.
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching value, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return -1;
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value added.  If the set already
+     * contains the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> with(T value) {
+        return new MiniSet1<>(value);
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value removed.  If the set does not
+     * contain the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> without(Object value) {
+        return this;
+    }
+
     /**
      * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
      * set, and it is also empty.
@@ -2,7 +2,7 @@
  * @(#) MiniSet1.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -30,6 +30,9 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * An implementation of {@link MiniSet} containing a single value.
@@ -138,6 +141,84 @@ public class MiniSet1<T> extends MiniSet<T> {
         return a;
     }
 
+    /**
+     * Perform the given action on each value, without creating an {@link Iterator}.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        action.accept(value);
+    }
+
+    /**
+     * Copy the set to a new array, allocated using the supplied generator function.  This overrides the default method
+     * added to {@link java.util.Collection Collection} in Java 11, but it may also be called from earlier versions.
+     *
+     * @param   generator   a function to create a new array of the requested size
+     * @param   <TT>        the type of the destination array items
+     * @return              an array containing the values
+     * @throws  ArrayStoreException if the values in the collection can't be stored in the destination array
+     */
+    public <TT> TT[] toArray(IntFunction<TT[]> generator) {
+        return toArray(generator.apply(1));
+    }
+
+    /**
+     * Perform the given action on each value in the set, supplying the index of the value along with the value itself.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        action.accept(0, value);
+    }
+
+    /**
+     * Find the index of the first value in the set that matches the given predicate.
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching value, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return predicate.test(value) ? 0 : -1;
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value added.  If the set already
+     * contains the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> with(T value) {
+        if (contains(value))
+            return this;
+        return new MiniSet2<>(this.value, value);
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value removed.  If the set does not
+     * contain the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> without(Object value) {
+        if (Objects.equals(this.value, value))
+            return MiniSet.of();
+        return this;
+    }
+
     /**
      * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
      * set containing a single value identical to that of this set.
@@ -2,7 +2,7 @@
  * @(#) MiniSet4.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022 Peter Wall
+ * Copyright (c) 2022, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -29,6 +29,9 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * An implementation of {@link MiniSet} containing four values.
@@ -158,6 +161,104 @@ public class MiniSet4<T> extends MiniSet<T> {
         return a;
     }
 
+    /**
+     * Perform the given action on each value, without creating an {@link Iterator}.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        action.accept(value0);
+        action.accept(value1);
+        action.accept(value2);
+        action.accept(value3);
+    }
+
+    /**
+     * Copy the set to a new array, allocated using the supplied generator function.  This overrides the default method
+     * added to {@link java.util.Collection Collection} in Java 11, but it may also be called from earlier versions.
+     *
+     * @param   generator   a function to create a new array of the requested size
+     * @param   <TT>        the type of the destination array items
+     * @return              an array containing the values
+     * @throws  ArrayStoreException if the values in the collection can't be stored in the destination array
+     */
+    public <TT> TT[] toArray(IntFunction<TT[]> generator) {
+        return toArray(generator.apply(4));
+    }
+
+    /**
+     * Perform the given action on each value in the set, supplying the index of the value along with the value itself.
+     *
+     * @param   action  the action
+     * @throws  NullPointerException    if the action is {@code null}
+     */
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        action.accept(0, value0);
+        action.accept(1, value1);
+        action.accept(2, value2);
+        action.accept(3, value3);
+    }
+
+    /**
+     * Find the index of the first value in the set that matches the given predicate.
+     *
+     * @param   predicate   the predicate
+     * @return              the index of the first matching value, or -1 if none matches
+     * @throws  NullPointerException    if the predicate is {@code null}
+     */
+    @Override
+    public int findIndex(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        if (predicate.test(value0))
+            return 0;
+        if (predicate.test(value1))
+            return 1;
+        if (predicate.test(value2))
+            return 2;
+        if (predicate.test(value3))
+            return 3;
+        return -1;
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value added.  If the set already
+     * contains the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> with(T value) {
+        if (contains(value))
+            return this;
+        return new MiniSet5<>(value0, value1, value2, value3, value);
+    }
+
+    /**
+     * Create a {@link Set} containing the values of this set with the specified value removed.  If the set does not
+     * contain the value, this set is returned.
+     *
+     * @param   value   the value
+     * @return          the new {@link Set}
+     */
+    @Override
+    public Set<T> without(Object value) {
+        if (Objects.equals(value0, value))
+            return new MiniSet3<>(value1, value2, value3);
+        if (Objects.equals(value1, value))
+            return new MiniSet3<>(value0, value2, value3);
+        if (Objects.equals(value2, value))
+            return new MiniSet3<>(value0, value1, value3);
+        if (Objects.equals(value3, value))
+            return new MiniSet3<>(value0, value1, value2);
+        return this;
+    }
+
     /**
      * Compares the specified object with this set for equality.  Returns {@code true} if the specified object is also a
      * set containing four values identical to those of this set.
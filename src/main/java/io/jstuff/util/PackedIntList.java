@@ -0,0 +1,312 @@
+/*
+ * @(#) PackedIntList.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable {@link List} of {@code int} values, stored using frame-of-reference encoding: each value is stored as
+ * the difference from the minimum value in the list, packed into the minimum number of bits required to hold the
+ * largest difference.  For example, a list of values in the range 1000 to 5000 requires only 12 bits per value.
+ * <br>
+ * Values may be retrieved without boxing using {@link #getInt(int)}, or in bulk using {@link #decode}.
+ *
+ * @author  Peter Wall
+ */
+public class PackedIntList extends PackedListBase<Integer> {
+
+    private final int base;
+
+    /**
+     * Construct a {@code PackedIntList} from the given array and length.  The values are copied, so the array may be
+     * re-used or modified afterwards.
+     *
+     * @param   array       the array
+     * @param   length      the number of array items to be included in the list
+     * @throws  IndexOutOfBoundsException if the length is less than 0 or greater than the array length
+     */
+    public PackedIntList(int[] array, int length) {
+        this(array, checkLength(array, length), minOf(array, length));
+    }
+
+    /**
+     * Construct a {@code PackedIntList} from the given array (using the entire array).  The values are copied, so the
+     * array may be re-used or modified afterwards.
+     *
+     * @param   array       the array
+     */
+    public PackedIntList(int[] array) {
+        this(array, array.length, minOf(array, array.length));
+    }
+
+    /**
+     * Construct a {@code PackedIntList} from another {@link Collection} (helps with deserializing).
+     *
+     * @param   collection  the other {@link Collection}
+     * @throws  NullPointerException if the collection contains {@code null}
+     */
+    public PackedIntList(Collection<Integer> collection) {
+        this(toIntArray(collection));
+    }
+
+    /**
+     * Internal constructor to calculate the bit width once the base value has been determined.
+     *
+     * @param   array       the array
+     * @param   length      the number of values
+     * @param   base        the minimum value
+     */
+    private PackedIntList(int[] array, int length, int base) {
+        this(array, length, base, widthOf(array, length, base));
+    }
+
+    /**
+     * Internal constructor to pack the values once the base value and bit width have been determined.
+     *
+     * @param   array       the array
+     * @param   length      the number of values
+     * @param   base        the minimum value
+     * @param   width       the bit width
+     */
+    private PackedIntList(int[] array, int length, int base, int width) {
+        super(pack(array, length, base, width), width, length);
+        this.base = base;
+    }
+
+    /**
+     * Get the value at the specified index, without boxing.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        return base + (int)raw(index);
+    }
+
+    /**
+     * Get the value at the specified index.
+     *
+     * @param   index       the index
+     * @return              the value at that index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Get the base value (the minimum value in the list).
+     *
+     * @return      the base value
+     */
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Decode a sequence of values into the supplied array.  This is much faster than retrieving the values
+     * individually.
+     *
+     * @param   from        the index of the first value
+     * @param   dest        the destination array
+     * @param   destOffset  the offset in the destination array
+     * @param   count       the number of values
+     * @throws  IndexOutOfBoundsException   if the source or destination range is not valid
+     */
+    public void decode(int from, int[] dest, int destOffset, int count) {
+        checkDecode(from, dest.length, destOffset, count);
+        if (width == 0) {
+            for (int i = 0; i < count; i++)
+                dest[destOffset + i] = base;
+            return;
+        }
+        long bitPos = (long)from * width;
+        int w = (int)(bitPos >>> 6);
+        int shift = (int)bitPos & 63;
+        for (int i = 0; i < count; i++) {
+            long value = words[w] >>> shift;
+            int end = shift + width;
+            if (end > 64)
+                value |= words[w + 1] << (64 - shift);
+            dest[destOffset + i] = base + (int)(value & mask);
+            shift = end;
+            if (shift >= 64) {
+                shift -= 64;
+                w++;
+            }
+        }
+    }
+
+    /**
+     * Decode values into the supplied array, starting at the specified index and continuing until either the array is
+     * full or the end of the list is reached.
+     *
+     * @param   from        the index of the first value
+     * @param   dest        the destination array
+     * @return              the number of values decoded
+     * @throws  IndexOutOfBoundsException   if the starting index is not valid
+     */
+    public int decode(int from, int[] dest) {
+        if (from < 0 || from > length)
+            throw new IndexOutOfBoundsException(String.valueOf(from));
+        int count = Math.min(dest.length, length - from);
+        decode(from, dest, 0, count);
+        return count;
+    }
+
+    /**
+     * Create a new {@code int} array containing the values in the list.
+     *
+     * @return      the array
+     */
+    public int[] toIntArray() {
+        int[] result = new int[length];
+        decode(0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Find the index in the list of the first item equal to the given object.
+     *
+     * @param   o       the object to be located
+     * @return          the index, or -1 if not found
+     */
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Integer ? indexOfInt((Integer)o) : -1;
+    }
+
+    /**
+     * Find the index in the list of the first item equal to the given value, without boxing.
+     *
+     * @param   value   the value to be located
+     * @return          the index, or -1 if not found
+     */
+    public int indexOfInt(int value) {
+        long target = (long)value - base;
+        if (target < 0 || target > mask)
+            return -1;
+        for (int i = 0; i < length; i++)
+            if (raw(i) == target)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Test whether the list contains an object equal to the specified value.
+     *
+     * @param   o       the object
+     * @return          {@code true} if the list contains the object
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the hash code value for this list, as defined for {@link List#hashCode}.
+     *
+     * @return  the hash code value for this list
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < length; i++)
+            result = 31 * result + base + (int)raw(i);
+        return result;
+    }
+
+    /**
+     * Get a {@code PackedIntList} containing the supplied values.
+     *
+     * @param   values      the values
+     * @return              the list
+     */
+    public static PackedIntList listOf(int ... values) {
+        return new PackedIntList(values);
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap memory that would be occupied by an {@link ImmutableList} of
+     * boxed {@link Integer} containing the same values, assuming a 64-bit JVM with compressed object pointers.  Values
+     * in the range -128 to 127 are assumed to use the JRE's cached {@link Integer} objects.
+     *
+     * @return      the estimated footprint in bytes
+     */
+    public long boxedFootprintBytes() {
+        long result = 24 + 16 + 4L * length;
+        for (int i = 0; i < length; i++) {
+            int value = base + (int)raw(i);
+            if (value < -128 || value > 127)
+                result += 16;
+        }
+        return result;
+    }
+
+    private static int checkLength(int[] array, int length) {
+        if (length < 0 || length > array.length)
+            throw new IndexOutOfBoundsException(String.valueOf(length));
+        return length;
+    }
+
+    private static int minOf(int[] array, int length) {
+        if (length == 0)
+            return 0;
+        int min = array[0];
+        for (int i = 1; i < length; i++)
+            if (array[i] < min)
+                min = array[i];
+        return min;
+    }
+
+    private static int widthOf(int[] array, int length, int base) {
+        long max = 0;
+        for (int i = 0; i < length; i++)
+            max = Math.max(max, (long)array[i] - base);
+        return widthOf(max);
+    }
+
+    private static long[] pack(int[] array, int length, int base, int width) {
+        long[] words = createWords(length, width);
+        if (width > 0)
+            for (int i = 0; i < length; i++)
+                store(words, width, i, (long)array[i] - base);
+        return words;
+    }
+
+    private static int[] toIntArray(Collection<Integer> collection) {
+        int[] result = new int[collection.size()];
+        int i = 0;
+        for (Integer value : collection)
+            result[i++] = value;
+        return result;
+    }
+
+}
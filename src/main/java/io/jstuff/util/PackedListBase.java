@@ -0,0 +1,203 @@
+/*
+ * @(#) PackedListBase.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Base class for immutable lists of integer values stored using frame-of-reference encoding: each value is stored as
+ * the difference from a base value (the minimum value in the list), packed into the minimum number of bits required to
+ * hold the largest difference.
+ *
+ * @author  Peter Wall
+ * @param   <E>     the boxed element type
+ */
+public abstract class PackedListBase<E> extends AbstractList<E> implements RandomAccess {
+
+    static final long[] emptyWords = new long[0];
+
+    final long[] words;
+    final int width;
+    final long mask;
+    final int length;
+
+    /**
+     * Construct a {@code PackedListBase} with the given packed words, bit width and length.
+     *
+     * @param   words       the packed words
+     * @param   width       the number of bits used for each value (0 to 64)
+     * @param   length      the number of values
+     */
+    PackedListBase(long[] words, int width, int length) {
+        this.words = words;
+        this.width = width;
+        this.mask = maskOf(width);
+        this.length = length;
+    }
+
+    /**
+     * Get the number of elements in the list.
+     *
+     * @return      the number of elements
+     */
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Return {@code true} if the list is empty.
+     *
+     * @return      {@code true} if the list is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Get the number of bits used to store each value.
+     *
+     * @return      the bit width (0 if all values are the same)
+     */
+    public int bitWidth() {
+        return width;
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap memory occupied by the list, assuming a 64-bit JVM with
+     * compressed object pointers.
+     *
+     * @return      the estimated footprint in bytes
+     */
+    public long footprintBytes() {
+        return 48 + 16 + 8L * words.length;
+    }
+
+    /**
+     * Check an index.
+     *
+     * @param   index       the index
+     * @throws  IndexOutOfBoundsException   if the index is less than 0 or beyond the end of the list
+     */
+    final void checkIndex(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    /**
+     * Check the parameters for a bulk decode operation.
+     *
+     * @param   from        the index of the first value
+     * @param   destLength  the length of the destination array
+     * @param   destOffset  the offset in the destination array
+     * @param   count       the number of values
+     * @throws  IndexOutOfBoundsException   if the source or destination range is not valid
+     */
+    final void checkDecode(int from, int destLength, int destOffset, int count) {
+        if (from < 0 || count < 0 || from > length - count || destOffset < 0 || destOffset > destLength - count)
+            throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Get the packed (unsigned) difference from the base value for the specified index.  The index is not checked.
+     *
+     * @param   index       the index
+     * @return              the packed value
+     */
+    final long raw(int index) {
+        if (width == 0)
+            return 0;
+        long bitPos = (long)index * width;
+        int w = (int)(bitPos >>> 6);
+        int shift = (int)bitPos & 63;
+        long result = words[w] >>> shift;
+        if (shift + width > 64)
+            result |= words[w + 1] << (64 - shift);
+        return result & mask;
+    }
+
+    /**
+     * Get the number of bits required to hold an unsigned value.
+     *
+     * @param   range       the value (treated as unsigned)
+     * @return              the number of bits
+     */
+    static int widthOf(long range) {
+        return 64 - Long.numberOfLeadingZeros(range);
+    }
+
+    /**
+     * Get the mask for values of a given bit width.
+     *
+     * @param   width       the bit width
+     * @return              the mask
+     */
+    static long maskOf(int width) {
+        return width == 64 ? -1L : (1L << width) - 1;
+    }
+
+    /**
+     * Create an array of words large enough to hold the specified number of values of the specified width.
+     *
+     * @param   length      the number of values
+     * @param   width       the bit width
+     * @return              the array
+     */
+    static long[] createWords(int length, int width) {
+        long bits = (long)length * width;
+        return bits == 0 ? emptyWords : new long[(int)((bits + 63) >>> 6)];
+    }
+
+    /**
+     * Store a value in an array of words.
+     *
+     * @param   words       the array
+     * @param   width       the bit width
+     * @param   index       the index of the value
+     * @param   value       the value (must fit in the bit width)
+     */
+    static void store(long[] words, int width, int index, long value) {
+        long bitPos = (long)index * width;
+        int w = (int)(bitPos >>> 6);
+        int shift = (int)bitPos & 63;
+        words[w] |= value << shift;
+        if (shift + width > 64)
+            words[w + 1] |= value >>> (64 - shift);
+    }
+
+    /**
+     * Modifying operation - not allowed.
+     *
+     * @throws      UnsupportedOperationException (in all cases)
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+}
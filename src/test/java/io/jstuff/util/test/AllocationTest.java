@@ -0,0 +1,159 @@
+/*
+ * @(#) AllocationTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.ImmutableMapEntry;
+import io.jstuff.util.MiniMap;
+import io.jstuff.util.MiniSet;
+import io.jstuff.util.MiniSet3;
+
+/**
+ * Tests that the overrides of the default methods of {@link java.util.Collection} and {@link Map} do not allocate.
+ * The number of bytes allocated by the current thread is obtained from the {@code com.sun.management} extension of
+ * {@link java.lang.management.ThreadMXBean ThreadMXBean}; the tests are skipped if that is not available.
+ */
+public class AllocationTest {
+
+    private static final int iterations = 10000;
+    private static final long tolerance = 4096;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+    private static long total;
+
+    private static final Consumer<Object> consumer = o -> total += o.hashCode();
+    private static final BiConsumer<Object, Object> biConsumer = (k, v) -> total += k.hashCode() + v.hashCode();
+
+    @BeforeClass
+    public static void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            threadMXBean = (com.sun.management.ThreadMXBean)bean;
+            if (!threadMXBean.isThreadAllocatedMemorySupported())
+                threadMXBean = null;
+            else
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private static long allocatedBytes(Runnable runnable) {
+        assumeTrue(threadMXBean != null);
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 100; i++)
+            runnable.run();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++)
+            runnable.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static ImmutableMap<String, Integer> createMap() {
+        ImmutableMapEntry<String, Integer>[] array = ImmutableMap.createArray(4);
+        array[0] = ImmutableMap.entry("alpha", 1);
+        array[1] = ImmutableMap.entry("beta", 2);
+        array[2] = ImmutableMap.entry("gamma", 3);
+        array[3] = ImmutableMap.entry("delta", 4);
+        return ImmutableMap.mapOf(array);
+    }
+
+    @Test
+    public void shouldIterateImmutableListWithoutAllocating() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "b", "c", "d" });
+        assertTrue(allocatedBytes(() -> list.forEach(consumer)) < tolerance);
+    }
+
+    @Test
+    public void shouldIterateImmutableMapWithoutAllocating() {
+        ImmutableMap<String, Integer> map = createMap();
+        assertTrue(allocatedBytes(() -> map.forEach(biConsumer)) < tolerance);
+        ImmutableMap.KeySet<String, Integer> keySet = map.keySet();
+        assertTrue(allocatedBytes(() -> keySet.forEach(consumer)) < tolerance);
+        ImmutableMap.ValueCollection<String, Integer> values = map.values();
+        assertTrue(allocatedBytes(() -> values.forEach(consumer)) < tolerance);
+    }
+
+    @Test
+    public void shouldGetOrDefaultWithoutAllocating() {
+        ImmutableMap<String, Integer> map = createMap();
+        Integer defaultValue = 99;
+        assertTrue(allocatedBytes(() -> total += map.getOrDefault("gamma", defaultValue)) < tolerance);
+        assertTrue(allocatedBytes(() -> total += map.getOrDefault("omega", defaultValue)) < tolerance);
+    }
+
+    @Test
+    public void shouldIterateMiniCollectionsWithoutAllocating() {
+        Set<String> set = MiniSet.of("a", "b", "c", "d", "e");
+        Map<String, Integer> map = MiniMap.map("a", 1, "b", 2, "c", 3);
+        assertTrue(allocatedBytes(() -> set.forEach(consumer)) < tolerance);
+        assertTrue(allocatedBytes(() -> map.forEach(biConsumer)) < tolerance);
+    }
+
+    @Test
+    public void shouldGetOrDefaultFromImmutableMap() {
+        ImmutableMap<String, Integer> map = createMap();
+        assertEquals(3, (int)map.getOrDefault("gamma", 99));
+        assertEquals(99, (int)map.getOrDefault("omega", 99));
+    }
+
+    @Test
+    public void shouldGetOrDefaultFromMiniMap() {
+        Map<String, Integer> map = MiniMap.map("a", 1, null, null);
+        assertEquals(1, (int)map.getOrDefault("a", 99));
+        assertEquals(99, (int)map.getOrDefault("z", 99));
+        assertEquals(null, map.getOrDefault(null, 99));
+        Map<String, Integer> map1 = MiniMap.map("a", 1);
+        assertEquals(99, (int)map1.getOrDefault(null, 99));
+    }
+
+    @Test
+    public void shouldCreateTypedArrays() {
+        ImmutableMap<String, Integer> map = createMap();
+        String[] keys = map.keySet().toArray(String[]::new);
+        assertArrayEquals(new String[] { "alpha", "beta", "gamma", "delta" }, keys);
+        Integer[] values = map.values().toArray(Integer[]::new);
+        assertArrayEquals(new Integer[] { 1, 2, 3, 4 }, values);
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "x", "y" });
+        assertArrayEquals(new String[] { "x", "y" }, list.toArray(String[]::new));
+        assertEquals(0, ImmutableList.<String>emptyList().toArray(String[]::new).length);
+        MiniSet3<String> set = new MiniSet3<>("p", "q", "r");
+        assertArrayEquals(new String[] { "p", "q", "r" }, set.toArray(String[]::new));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * @(#) AtomicImmutableListTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.AtomicImmutableList;
+import io.jstuff.util.ImmutableList;
+
+public class AtomicImmutableListTest {
+
+    @Test
+    public void shouldAddAndRemoveElements() {
+        AtomicImmutableList<String> listeners = new AtomicImmutableList<>();
+        listeners.add("a");
+        listeners.add("b");
+        ImmutableList<String> snapshot = listeners.add("c");
+        assertEquals(Arrays.asList("a", "b", "c"), snapshot);
+        assertTrue(listeners.remove("b"));
+        assertFalse(listeners.remove("x"));
+        assertEquals(Arrays.asList("a", "c"), listeners.snapshot());
+        assertEquals(Arrays.asList("a", "b", "c"), snapshot);
+        assertEquals("c", listeners.get(1));
+        assertTrue(listeners.remove("a"));
+        assertTrue(listeners.remove("c"));
+        assertEquals(0, listeners.size());
+    }
+
+    @Test
+    public void shouldUpdateFromSubList() {
+        ImmutableList<Integer> initial = ImmutableList.listOf(new Integer[] { 1, 2, 3, 4, 5 });
+        AtomicImmutableList<Integer> holder = new AtomicImmutableList<>(initial);
+        holder.update(list -> list.subList(1, 4));
+        holder.add(9);
+        assertTrue(holder.remove((Object)3));
+        assertEquals(Arrays.asList(2, 4, 9), holder.snapshot());
+    }
+
+    @Test
+    public void shouldApplyConcurrentAddsWithoutLoss() throws InterruptedException {
+        AtomicImmutableList<Integer> holder = new AtomicImmutableList<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 500;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++)
+                    holder.add(base + i);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        List<Integer> result = holder.snapshot();
+        assertEquals(2000, result.size());
+        for (int i = 0; i < 2000; i++)
+            assertTrue(result.contains(i));
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * @(#) AtomicImmutableMapTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.AtomicImmutableMap;
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.MiniMap;
+
+public class AtomicImmutableMapTest {
+
+    @Test
+    public void shouldPutAndRemoveUsingSmallestRepresentation() {
+        AtomicImmutableMap<String, Integer> registry = new AtomicImmutableMap<>();
+        assertEquals(0, registry.size());
+        assertNull(registry.put("a", 1));
+        assertTrue(registry.snapshot() instanceof MiniMap);
+        registry.put("b", 2);
+        registry.put("c", 3);
+        assertTrue(registry.snapshot() instanceof MiniMap);
+        registry.put("d", 4);
+        assertTrue(registry.snapshot() instanceof ImmutableMap);
+        assertEquals(Integer.valueOf(1), registry.put("a", 10));
+        assertEquals(Integer.valueOf(10), registry.get("a"));
+        assertEquals(Integer.valueOf(4), registry.remove("d"));
+        assertNull(registry.remove("d"));
+        assertTrue(registry.snapshot() instanceof MiniMap);
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    public void shouldLeaveSnapshotsUnchanged() {
+        AtomicImmutableMap<String, Integer> registry = new AtomicImmutableMap<>(MiniMap.map("a", 1, "b", 2));
+        Map<String, Integer> snapshot = registry.snapshot();
+        registry.put("c", 3);
+        registry.remove("a");
+        assertEquals(MiniMap.map("a", 1, "b", 2), snapshot);
+        assertEquals(MiniMap.map("b", 2, "c", 3), registry.snapshot());
+        Map<String, Integer> current = registry.snapshot();
+        registry.put("b", 2);
+        assertSame(current, registry.snapshot());
+    }
+
+    @Test
+    public void shouldComputeAndUpdate() {
+        AtomicImmutableMap<String, Integer> registry = new AtomicImmutableMap<>();
+        assertEquals(Integer.valueOf(1), registry.compute("a", (k, v) -> v == null ? 1 : v + 1));
+        assertEquals(Integer.valueOf(2), registry.compute("a", (k, v) -> v == null ? 1 : v + 1));
+        assertNull(registry.compute("a", (k, v) -> null));
+        assertEquals(0, registry.size());
+        Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 10; i++)
+            source.put("k" + i, i);
+        Map<String, Integer> updated = registry.update(map -> source);
+        assertTrue(updated instanceof ImmutableMap);
+        assertEquals(source, registry.snapshot());
+        assertThrows(NullPointerException.class, () -> registry.update(map -> null));
+    }
+
+    @Test
+    public void shouldApplyConcurrentUpdatesWithoutLoss() throws InterruptedException {
+        AtomicImmutableMap<Integer, Integer> counters = new AtomicImmutableMap<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++)
+                    counters.compute(i % 8, (k, v) -> v == null ? 1 : v + 1);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(8, counters.size());
+        for (int i = 0; i < 8; i++)
+            assertEquals(Integer.valueOf(1000), counters.get(i));
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * @(#) ImmutableArenaTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableArena;
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableMap;
+
+public class ImmutableArenaTest {
+
+    @Test
+    public void shouldBuildImmutableList() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.ListBuilder<String> builder = arena.listBuilder();
+        assertEquals(1, arena.getDepth());
+        builder.add("a").add("b").add("c");
+        assertEquals(3, builder.size());
+        ImmutableList<String> list = builder.build();
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+        assertEquals(0, arena.getDepth());
+    }
+
+    @Test
+    public void shouldReuseBuilderAndBuffer() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.ListBuilder<Integer> builder = arena.listBuilder();
+        for (int i = 0; i < 1000; i++)
+            builder.add(i);
+        ImmutableList<Integer> list1 = builder.build();
+        assertEquals(1000, list1.size());
+        ImmutableArena.ListBuilder<Integer> builder2 = arena.listBuilder();
+        assertSame(builder, builder2);
+        assertEquals(0, builder2.size());
+        ImmutableList<Integer> list2 = builder2.add(42).build();
+        assertEquals(1, list2.size());
+        assertEquals(42, (int)list2.get(0));
+        assertEquals(999, (int)list1.get(999));
+    }
+
+    @Test
+    public void shouldReturnEmptyList() {
+        ImmutableArena arena = new ImmutableArena();
+        assertSame(ImmutableList.emptyList(), arena.listBuilder().build());
+    }
+
+    @Test
+    public void shouldBuildImmutableMap() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableMap<String, Integer> map = arena.<String, Integer>mapBuilder().put("x", 1).put("y", 2).build();
+        assertEquals(2, map.size());
+        assertEquals(1, (int)map.get("x"));
+        assertEquals(2, (int)map.get("y"));
+    }
+
+    @Test
+    public void shouldBuildNestedMapOfLists() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.MapBuilder<String, ImmutableList<Integer>> mapBuilder = arena.mapBuilder();
+        for (int i = 0; i < 3; i++) {
+            ImmutableArena.ListBuilder<Integer> listBuilder = arena.listBuilder();
+            assertEquals(2, arena.getDepth());
+            for (int j = 0; j <= i; j++)
+                listBuilder.add(i * 10 + j);
+            mapBuilder.put("k" + i, listBuilder.build());
+        }
+        ImmutableMap<String, ImmutableList<Integer>> map = mapBuilder.build();
+        assertEquals(3, map.size());
+        assertEquals(Arrays.asList(0), map.get("k0"));
+        assertEquals(Arrays.asList(10, 11), map.get("k1"));
+        assertEquals(Arrays.asList(20, 21, 22), map.get("k2"));
+        assertEquals(0, arena.getDepth());
+    }
+
+    @Test
+    public void shouldKeepNestedListsSeparate() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.ListBuilder<Object> outer = arena.listBuilder();
+        outer.add("outer1");
+        ImmutableArena.ListBuilder<Object> inner = arena.listBuilder();
+        assertTrue(inner != outer);
+        inner.add("inner1").add("inner2");
+        outer.add(inner.build());
+        outer.add("outer2");
+        ImmutableList<Object> list = outer.build();
+        assertEquals(Arrays.asList("outer1", Arrays.asList("inner1", "inner2"), "outer2"), list);
+    }
+
+    @Test
+    public void shouldRejectOutOfOrderCompletion() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.ListBuilder<String> outer = arena.listBuilder();
+        arena.listBuilder();
+        IllegalStateException e = assertThrows(IllegalStateException.class, outer::build);
+        assertEquals("Nested builder not completed", e.getMessage());
+    }
+
+    @Test
+    public void shouldRejectUseAfterBuild() {
+        ImmutableArena arena = new ImmutableArena();
+        ImmutableArena.ListBuilder<String> builder = arena.listBuilder();
+        builder.build();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> builder.add("x"));
+        assertEquals("Builder is not active", e.getMessage());
+    }
+
+    @Test
+    public void shouldResetAfterInterruptedConstruction() {
+        ImmutableArena arena = new ImmutableArena();
+        arena.mapBuilder().put("a", 1);
+        arena.listBuilder().add("b");
+        arena.mapBuilder().put("c", 3);
+        assertEquals(3, arena.getDepth());
+        arena.reset();
+        assertEquals(0, arena.getDepth());
+        ImmutableArena.ListBuilder<String> builder = arena.listBuilder();
+        assertEquals(0, builder.size());
+        assertEquals(Arrays.asList("d"), builder.add("d").build());
+    }
+
+}
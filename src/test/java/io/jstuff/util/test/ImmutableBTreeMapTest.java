@@ -0,0 +1,203 @@
+/*
+ * @(#) ImmutableBTreeMapTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableBTreeMap;
+
+public class ImmutableBTreeMapTest {
+
+    @Test
+    public void shouldCreateEmptyMap() {
+        ImmutableBTreeMap<String, Integer> map = ImmutableBTreeMap.emptyMap();
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertNull(map.get("a"));
+        assertFalse(map.entrySet().iterator().hasNext());
+        assertThrows(NoSuchElementException.class, map::firstKey);
+        assertThrows(NoSuchElementException.class, map::lastKey);
+        assertSame(map, map.without("a"));
+        assertThrows(UnsupportedOperationException.class, () -> map.put("a", 1));
+    }
+
+    @Test
+    public void shouldCreateRangeViewsOfEmptyMap() {
+        ImmutableBTreeMap<String, Integer> map = ImmutableBTreeMap.emptyMap();
+        SortedMap<String, Integer> range = map.subMap("a", "b");
+        assertTrue(range.isEmpty());
+        assertEquals(0, range.size());
+        assertNull(range.get("a"));
+        assertFalse(map.headMap("m").containsKey("a"));
+        assertNull(map.tailMap("m").get("z"));
+        assertThrows(NoSuchElementException.class, range::firstKey);
+        assertThrows(NoSuchElementException.class, map.tailMap("m")::lastKey);
+        assertTrue(ImmutableBTreeMap.<String, Integer>builder().build().headMap("x").isEmpty());
+        assertEquals(1, map.with("a", 1).subMap("a", "b").size());
+    }
+
+    @Test
+    public void shouldAddAndRemoveEntriesWithPathCopying() {
+        Random random = new Random(12345);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        ImmutableBTreeMap<Integer, String> map = ImmutableBTreeMap.emptyMap();
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(10000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            }
+            else {
+                String value = "v" + i;
+                expected.put(key, value);
+                map = map.with(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.firstKey(), map.firstKey());
+        assertEquals(expected.lastKey(), map.lastKey());
+        for (Integer key : expected.keySet())
+            map = map.without(key);
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.getHeight());
+    }
+
+    @Test
+    public void shouldLeaveOriginalUnchanged() {
+        ImmutableBTreeMap<Integer, Integer> original = ImmutableBTreeMap.from(sortedMap(0, 5000));
+        ImmutableBTreeMap<Integer, Integer> added = original.with(5000, 10000);
+        ImmutableBTreeMap<Integer, Integer> removed = original.without(2500);
+        ImmutableBTreeMap<Integer, Integer> replaced = original.with(100, -1);
+        assertEquals(sortedMap(0, 5000), original);
+        assertEquals(sortedMap(0, 5001), added);
+        assertEquals(4999, removed.size());
+        assertFalse(removed.containsKey(2500));
+        assertEquals(Integer.valueOf(-1), replaced.get(100));
+        assertEquals(Integer.valueOf(200), original.get(100));
+        assertSame(original, original.with(100, 200));
+        assertSame(original, original.without(-1));
+    }
+
+    @Test
+    public void shouldBulkLoadSortedInput() {
+        ImmutableBTreeMap<Integer, Integer> map = ImmutableBTreeMap.from(sortedMap(0, 100000));
+        assertEquals(sortedMap(0, 100000), map);
+        assertEquals(2, map.getHeight());
+        for (int i = 0; i < 100000; i += 37)
+            assertEquals(Integer.valueOf(i * 2), map.get(i));
+        assertNull(map.get(100000));
+        for (int i = 0; i < 100000; i++)
+            if (i % 1000 != 0)
+                map = map.without(i);
+        assertEquals(100, map.size());
+        assertEquals(1, map.getHeight());
+        assertEquals(Integer.valueOf(99000), map.lastKey());
+        assertEquals(Integer.valueOf(198000), map.get(99000));
+        for (int n = 1; n < 300; n++)
+            assertEquals(sortedMap(0, n), ImmutableBTreeMap.from(sortedMap(0, n)).with(n, n * 2).without(n));
+    }
+
+    @Test
+    public void shouldRejectUnsortedBuilderInput() {
+        ImmutableBTreeMap.Builder<String, Integer> builder = ImmutableBTreeMap.builder();
+        builder.put("a", 1).put("b", 2);
+        assertThrows(IllegalArgumentException.class, () -> builder.put("b", 3));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("a", 3));
+        assertThrows(NullPointerException.class, () -> builder.put(null, 3));
+        assertEquals(2, builder.build().size());
+    }
+
+    @Test
+    public void shouldCreateMapFromUnsortedMapWithComparator() {
+        Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 1000; i++)
+            source.put("k" + i, i);
+        ImmutableBTreeMap<String, Integer> map = ImmutableBTreeMap.from(source, Comparator.reverseOrder());
+        TreeMap<String, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        expected.putAll(source);
+        assertEquals(expected, map);
+        assertEquals(expected.firstKey(), map.firstKey());
+        Iterator<String> expectedKeys = expected.keySet().iterator();
+        for (String key : map.keySet())
+            assertEquals(expectedKeys.next(), key);
+        assertSame(Comparator.reverseOrder(), map.comparator());
+    }
+
+    @Test
+    public void shouldIterateRanges() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 10000; i += 2)
+            expected.put(i, i * 2);
+        ImmutableBTreeMap<Integer, Integer> map = ImmutableBTreeMap.from(expected);
+        assertEquals(expected.subMap(101, 7777), map.subMap(101, 7777));
+        assertEquals(expected.subMap(100, 7778), map.subMap(100, 7778));
+        assertEquals(expected.headMap(5001), map.headMap(5001));
+        assertEquals(expected.tailMap(5001), map.tailMap(5001));
+        assertEquals(expected.subMap(20000, 30000), map.subMap(20000, 30000));
+        assertTrue(map.subMap(3, 4).isEmpty());
+        SortedMap<Integer, Integer> range = map.subMap(101, 7777);
+        assertEquals(Integer.valueOf(102), range.firstKey());
+        assertEquals(Integer.valueOf(7776), range.lastKey());
+        assertEquals(3838, range.size());
+        assertNull(range.get(100));
+        assertEquals(Integer.valueOf(204), range.get(102));
+        assertEquals(expected.subMap(101, 7777).subMap(500, 600), range.subMap(500, 600));
+        assertEquals(expected.headMap(7777).tailMap(6001), range.tailMap(6001));
+        assertThrows(IllegalArgumentException.class, () -> range.subMap(0, 600));
+        assertThrows(IllegalArgumentException.class, () -> map.subMap(10, 5));
+        assertThrows(NoSuchElementException.class, () -> map.subMap(3, 4).firstKey());
+        assertThrows(NoSuchElementException.class, () -> map.subMap(3, 4).lastKey());
+        Map<Integer, Integer> visited = new LinkedHashMap<>();
+        range.forEach(visited::put);
+        assertEquals(expected.subMap(101, 7777), visited);
+        assertEquals(expected.subMap(101, 7777).keySet().toString(), range.keySet().toString());
+    }
+
+    private static TreeMap<Integer, Integer> sortedMap(int from, int to) {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = from; i < to; i++)
+            map.put(i, i * 2);
+        return map;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * @(#) ImmutableBytesTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableBytes;
+
+public class ImmutableBytesTest {
+
+    @Test
+    public void shouldCreateImmutableBytes() {
+        byte[] array = new byte[] { 1, 2, 3, (byte)0xFF };
+        ImmutableBytes bytes = new ImmutableBytes(array);
+        assertEquals(4, bytes.size());
+        assertEquals(1, bytes.get(0));
+        assertEquals((byte)0xFF, bytes.get(3));
+        assertEquals("010203ff", bytes.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> bytes.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> bytes.get(-1));
+    }
+
+    @Test
+    public void shouldCreateSliceWithoutCopying() {
+        byte[] array = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19 };
+        ImmutableBytes bytes = new ImmutableBytes(array, 2, 16);
+        ImmutableBytes slice = bytes.slice(3, 13);
+        assertEquals(10, slice.size());
+        assertEquals(5, slice.get(0));
+        assertEquals(14, slice.get(9));
+        assertSame(bytes, bytes.slice(0, 16));
+        assertThrows(IndexOutOfBoundsException.class, () -> bytes.slice(3, 17));
+        assertThrows(IndexOutOfBoundsException.class, () -> new ImmutableBytes(array, 5, 16));
+        array[5] = 99; // demonstrates that the array is shared
+        assertEquals(99, slice.get(0));
+    }
+
+    @Test
+    public void shouldCompareEqualAcrossBackingTypes() {
+        byte[] array = new byte[] { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+        ImmutableBytes heap = new ImmutableBytes(array, 1, 17);
+        ByteBuffer direct = ByteBuffer.allocateDirect(20);
+        direct.put((byte)42);
+        direct.put(array, 1, 17);
+        direct.flip();
+        direct.get();
+        ImmutableBytes fromDirect = new ImmutableBytes(direct);
+        assertTrue(fromDirect.isDirect());
+        assertFalse(heap.isDirect());
+        assertEquals(1, direct.position());
+        assertEquals(heap, fromDirect);
+        assertEquals(fromDirect, heap);
+        assertEquals(heap.hashCode(), fromDirect.hashCode());
+        assertEquals(0, heap.compareTo(fromDirect));
+        assertNotEquals(heap, heap.slice(0, 16));
+    }
+
+    @Test
+    public void shouldCompareUnsigned() {
+        ImmutableBytes a = new ImmutableBytes(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 1 });
+        ImmutableBytes b = new ImmutableBytes(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, (byte)0x80 });
+        ImmutableBytes c = new ImmutableBytes(new byte[] { (byte)0x81, 2, 3, 4, 5, 6, 7, 8 });
+        assertTrue(a.compareTo(b) < 0);
+        assertTrue(b.compareTo(a) > 0);
+        assertTrue(b.compareTo(c) < 0);
+        assertTrue(a.slice(0, 8).compareTo(a) < 0);
+    }
+
+    @Test
+    public void shouldCreateReadOnlyByteBuffer() {
+        byte[] array = new byte[] { 10, 11, 12, 13, 14, 15 };
+        ImmutableBytes bytes = new ImmutableBytes(array, 1, 4);
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(0, buffer.position());
+        assertEquals(4, buffer.remaining());
+        assertEquals(11, buffer.get());
+        assertEquals(12, buffer.get());
+        assertEquals(4, bytes.asReadOnlyByteBuffer().remaining());
+    }
+
+    @Test
+    public void shouldCopyBytes() {
+        byte[] array = new byte[] { 10, 11, 12, 13, 14, 15 };
+        ImmutableBytes bytes = new ImmutableBytes(array, 1, 4);
+        assertArrayEquals(new byte[] { 11, 12, 13, 14 }, bytes.toByteArray());
+        byte[] dest = new byte[3];
+        bytes.copyTo(1, dest, 1, 2);
+        assertArrayEquals(new byte[] { 0, 12, 13 }, dest);
+        assertThrows(IndexOutOfBoundsException.class, () -> bytes.copyTo(3, dest, 0, 2));
+        assertEquals(0, ImmutableBytes.emptyBytes().toByteArray().length);
+    }
+
+    @Test
+    public void shouldCreateListView() {
+        ImmutableBytes bytes = ImmutableBytes.bytesOf(new byte[] { 10, 11, 12, 13 }, 1, 3);
+        List<Byte> list = bytes.asList();
+        assertEquals(Arrays.asList((byte)11, (byte)12, (byte)13), list);
+        assertEquals(Arrays.asList((byte)12, (byte)13), list.subList(1, 3));
+        assertThrows(UnsupportedOperationException.class, () -> list.add((byte)1));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, (byte)1));
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * @(#) ImmutableCollectorsTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import io.jstuff.util.ImmutableCollectors;
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.ImmutableSet;
+
+public class ImmutableCollectorsTest {
+
+    @Test
+    public void shouldCollectToImmutableList() {
+        ImmutableList<String> list = Stream.of("alpha", "beta", "gamma").collect(ImmutableCollectors.toImmutableList());
+        assertEquals(3, list.size());
+        assertEquals("alpha", list.get(0));
+        assertEquals("beta", list.get(1));
+        assertEquals("gamma", list.get(2));
+    }
+
+    @Test
+    public void shouldCollectEmptyStreamToSharedEmptyList() {
+        ImmutableList<String> list = Stream.<String>empty().collect(ImmutableCollectors.toImmutableList());
+        assertSame(ImmutableList.emptyList(), list);
+    }
+
+    @Test
+    public void shouldCollectLargeStreamToImmutableListAcrossChunks() {
+        ImmutableList<Integer> list = IntStream.range(0, 20000).boxed().collect(ImmutableCollectors.toImmutableList());
+        assertEquals(20000, list.size());
+        for (int i = 0; i < 20000; i++)
+            assertEquals(i, (int)list.get(i));
+    }
+
+    @Test
+    public void shouldCollectParallelStreamToImmutableListInEncounterOrder() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            expected.add(i);
+        ImmutableList<Integer> list = expected.parallelStream().collect(ImmutableCollectors.toImmutableList());
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void shouldCollectToImmutableSetRemovingDuplicates() {
+        ImmutableSet<String> set = Stream.of("b", "a", "b", "c", "a").collect(ImmutableCollectors.toImmutableSet());
+        assertEquals(3, set.size());
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(set));
+    }
+
+    @Test
+    public void shouldCollectParallelStreamToImmutableSet() {
+        ImmutableSet<Integer> set = IntStream.range(0, 50000).parallel().map(i -> i % 1000).boxed()
+                .collect(ImmutableCollectors.toImmutableSet());
+        assertEquals(1000, set.size());
+        assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toSet()), set);
+        assertEquals(0, (int)set.iterator().next());
+    }
+
+    @Test
+    public void shouldCollectToImmutableMap() {
+        ImmutableMap<String, Integer> map = Stream.of("one", "three", "five")
+                .collect(ImmutableCollectors.toImmutableMap(s -> s, String::length));
+        assertEquals(3, map.size());
+        assertEquals(3, (int)map.get("one"));
+        assertEquals(5, (int)map.get("three"));
+        assertEquals(4, (int)map.get("five"));
+        assertEquals(Arrays.asList("one", "three", "five"), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void shouldThrowOnDuplicateKeyWithoutMergeFunction() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> Stream.of("one", "two", "six").collect(ImmutableCollectors.toImmutableMap(String::length,
+                        s -> s)));
+        assertEquals("Duplicate key: 3", e.getMessage());
+    }
+
+    @Test
+    public void shouldMergeDuplicateKeys() {
+        ImmutableMap<Integer, Integer> map = IntStream.range(0, 10000).parallel().boxed()
+                .collect(ImmutableCollectors.toImmutableMap(i -> i % 10, i -> 1, Integer::sum));
+        assertEquals(10, map.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals(1000, (int)map.get(i));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), new ArrayList<>(map.keySet()));
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * @(#) ImmutableDiffTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableDiff;
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.MiniMap;
+
+public class ImmutableDiffTest {
+
+    @Test
+    public void shouldDiffMapsWithMatchingKeyOrder() {
+        ImmutableMap<String, Integer> oldMap = new ImmutableMap<>(createMap(0, 20));
+        Map<String, Integer> newMap = ((ImmutableMap<String, Integer>)oldMap.with("k5", -5)).with("k20", 20);
+        newMap = ((ImmutableMap<String, Integer>)newMap).without("k19");
+        ImmutableDiff.MapDiff<String, Integer> diff = ImmutableDiff.of(oldMap, newMap);
+        assertEquals(MiniMap.map("k20", 20), diff.getAdded());
+        assertEquals(MiniMap.map("k19", 19), diff.getRemoved());
+        assertEquals(MiniMap.map("k5", -5), diff.getChanged());
+        assertEquals(MiniMap.map("k5", 5), diff.getReplaced());
+        assertEquals(newMap, diff.patch(oldMap));
+    }
+
+    @Test
+    public void shouldDiffMapsWithDifferentKeyOrder() {
+        Map<String, Integer> source = createMap(0, 100);
+        List<String> keys = new ArrayList<>(source.keySet());
+        Collections.shuffle(keys, new Random(42));
+        Map<String, Integer> shuffled = new LinkedHashMap<>();
+        for (String key : keys)
+            if (!key.equals("k50"))
+                shuffled.put(key, key.equals("k7") ? 700 : source.get(key));
+        shuffled.put("new", 1);
+        ImmutableMap<String, Integer> oldMap = new ImmutableMap<>(source);
+        ImmutableMap<String, Integer> newMap = new ImmutableMap<>(shuffled);
+        ImmutableDiff.MapDiff<String, Integer> diff = ImmutableDiff.of(oldMap, newMap);
+        assertEquals(MiniMap.map("new", 1), diff.getAdded());
+        assertEquals(MiniMap.map("k50", 50), diff.getRemoved());
+        assertEquals(MiniMap.map("k7", 700), diff.getChanged());
+        assertEquals(newMap, diff.patch(oldMap));
+    }
+
+    @Test
+    public void shouldReturnEmptyMapDiffForEqualMaps() {
+        ImmutableMap<String, Integer> map = new ImmutableMap<>(createMap(0, 10));
+        ImmutableDiff.MapDiff<String, Integer> diff = ImmutableDiff.of(map, new ImmutableMap<>(createMap(0, 10)));
+        assertTrue(diff.isEmpty());
+        assertSame(map, diff.patch(map));
+        Map<String, Integer> small = MiniMap.map("a", 1, "b", 2);
+        assertEquals(MiniMap.map("a", 1), ImmutableDiff.of(small, MiniMap.map("a", 1)).patch(small));
+        assertEquals(createMap(0, 10), ImmutableDiff.of(MiniMap.of(), map).patch(MiniMap.of()));
+    }
+
+    @Test
+    public void shouldPatchLargeRemovalsInLinearTime() {
+        ImmutableMap<String, Integer> oldMap = new ImmutableMap<>(createMap(0, 40000));
+        Map<String, Integer> evens = new LinkedHashMap<>();
+        for (int i = 0; i < 40000; i += 2)
+            evens.put("k" + i, i);
+        ImmutableMap<String, Integer> newMap = new ImmutableMap<>(evens);
+        ImmutableDiff.MapDiff<String, Integer> diff = ImmutableDiff.of(oldMap, newMap);
+        assertEquals(20000, diff.getRemoved().size());
+        long start = System.nanoTime();
+        Map<String, Integer> patched = diff.patch(oldMap);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(new HashMap<>(newMap), new HashMap<>(patched));
+        assertEquals(new ArrayList<>(newMap.keySet()), new ArrayList<>(patched.keySet()));
+        assertTrue("patch took " + elapsed / 1000000 + "ms", elapsed < 1000000000L);
+        Map<String, Integer> partial = new HashMap<>(MiniMap.map("k1", 1, "k2", 2, "x", 0));
+        assertEquals(MiniMap.map("k2", 2, "x", 0), diff.patch(partial));
+    }
+
+    @Test
+    public void shouldReturnImmutableCopyWhenPatchingWithEmptyDiff() {
+        Map<String, Integer> mutable = new HashMap<>(createMap(0, 5));
+        ImmutableDiff.MapDiff<String, Integer> diff = ImmutableDiff.of(mutable, mutable);
+        assertTrue(diff.isEmpty());
+        Map<String, Integer> patched = diff.patch(mutable);
+        assertTrue(patched instanceof ImmutableMap);
+        assertEquals(mutable, patched);
+        assertTrue(diff.patch(new HashMap<>(MiniMap.map("a", 1))) instanceof MiniMap);
+    }
+
+    @Test
+    public void shouldDiffLists() {
+        List<Character> a = chars("ABCABBA");
+        List<Character> b = chars("CBABAC");
+        ImmutableDiff.ListDiff<Character> diff = ImmutableDiff.of(a, b);
+        assertEquals(5, editCount(diff));
+        assertEquals(b, diff.patch(a));
+        ImmutableDiff.ListDiff<Character> single = ImmutableDiff.of(chars("the cat sat"), chars("the hat sat"));
+        assertEquals(1, single.getHunks().size());
+        ImmutableDiff.Hunk<Character> hunk = single.getHunks().get(0);
+        assertEquals(4, hunk.getOldIndex());
+        assertEquals(4, hunk.getNewIndex());
+        assertEquals(chars("c"), hunk.getDeleted());
+        assertEquals(chars("h"), hunk.getInserted());
+        assertTrue(ImmutableDiff.of(a, a).isEmpty());
+        assertEquals(a, ImmutableDiff.of(chars(""), a).patch(chars("")));
+        assertEquals(chars(""), ImmutableDiff.of(a, chars("")).patch(a));
+        assertThrows(IllegalArgumentException.class, () -> diff.patch(b));
+    }
+
+    @Test
+    public void shouldFindShortestEditScriptForRandomLists() {
+        Random random = new Random(99);
+        for (int t = 0; t < 300; t++) {
+            List<Integer> a = randomList(random, random.nextInt(40));
+            List<Integer> b = new ArrayList<>(a);
+            for (int i = random.nextInt(8); i > 0; i--) {
+                if (!b.isEmpty() && random.nextBoolean())
+                    b.remove(random.nextInt(b.size()));
+                else
+                    b.add(random.nextInt(b.size() + 1), random.nextInt(5));
+            }
+            if (t % 10 == 0)
+                b = randomList(random, random.nextInt(40));
+            ImmutableList<Integer> oldList = ImmutableList.listOf(a.toArray(new Integer[0]));
+            ImmutableDiff.ListDiff<Integer> diff = ImmutableDiff.of(oldList, b);
+            assertEquals(a.size() + b.size() - 2 * lcsLength(a, b), editCount(diff));
+            assertEquals(b, diff.patch(oldList));
+            assertEquals(b, diff.patch(a));
+        }
+    }
+
+    @Test
+    public void shouldDiffLargeListsWithFewChanges() {
+        List<Integer> a = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            a.add(i);
+        List<Integer> b = new ArrayList<>(a);
+        b.remove(70000);
+        b.add(30000, -1);
+        b.set(50000, -2);
+        ImmutableDiff.ListDiff<Integer> diff = ImmutableDiff.of(a, b);
+        assertEquals(3, diff.getHunks().size());
+        assertEquals(b, diff.patch(a));
+    }
+
+    private static int editCount(ImmutableDiff.ListDiff<?> diff) {
+        int count = 0;
+        for (ImmutableDiff.Hunk<?> hunk : diff.getHunks())
+            count += hunk.getDeleted().size() + hunk.getInserted().size();
+        return count;
+    }
+
+    private static int lcsLength(List<?> a, List<?> b) {
+        int[][] table = new int[a.size() + 1][b.size() + 1];
+        for (int i = 1; i <= a.size(); i++)
+            for (int j = 1; j <= b.size(); j++)
+                table[i][j] = a.get(i - 1).equals(b.get(j - 1)) ? table[i - 1][j - 1] + 1 :
+                        Math.max(table[i - 1][j], table[i][j - 1]);
+        return table[a.size()][b.size()];
+    }
+
+    private static List<Integer> randomList(Random random, int size) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            list.add(random.nextInt(5));
+        return list;
+    }
+
+    private static List<Character> chars(String s) {
+        List<Character> list = new ArrayList<>();
+        for (char ch : s.toCharArray())
+            list.add(ch);
+        return list;
+    }
+
+    private static Map<String, Integer> createMap(int from, int to) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = from; i < to; i++)
+            map.put("k" + i, i);
+        return map;
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * @(#) ImmutableHashMapTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableHashMap;
+import io.jstuff.util.ImmutableMap;
+
+public class ImmutableHashMapTest {
+
+    @Test
+    public void shouldCreateEmptyMap() {
+        ImmutableHashMap<String, Integer> map = ImmutableHashMap.emptyMap();
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertNull(map.get("a"));
+        assertFalse(map.containsKey("a"));
+        assertSame(map, map.without("a"));
+        assertEquals(new HashMap<>(), map);
+        assertEquals(0, map.hashCode());
+    }
+
+    @Test
+    public void shouldAddReplaceAndRemoveEntries() {
+        ImmutableHashMap<String, Integer> map0 = ImmutableHashMap.emptyMap();
+        ImmutableHashMap<String, Integer> map1 = map0.with("a", 1);
+        ImmutableHashMap<String, Integer> map2 = map1.with("b", 2);
+        ImmutableHashMap<String, Integer> map3 = map2.with("a", 10);
+        assertEquals(0, map0.size());
+        assertEquals(1, map1.size());
+        assertEquals(2, map2.size());
+        assertEquals(2, map3.size());
+        assertEquals(Integer.valueOf(1), map2.get("a"));
+        assertEquals(Integer.valueOf(10), map3.get("a"));
+        assertSame(map3, map3.with("a", 10));
+        assertSame(map3, map3.without("z"));
+        ImmutableHashMap<String, Integer> map4 = map3.without("a");
+        assertEquals(1, map4.size());
+        assertNull(map4.get("a"));
+        assertEquals(Integer.valueOf(2), map4.get("b"));
+        assertEquals(Integer.valueOf(99), map4.getOrDefault("a", 99));
+        assertTrue(map4.without("b").isEmpty());
+    }
+
+    @Test
+    public void shouldMatchHashMapUnderRandomOperations() {
+        Random random = new Random(12345);
+        Map<Key, Integer> expected = new HashMap<>();
+        ImmutableHashMap<Key, Integer> map = ImmutableHashMap.emptyMap();
+        for (int i = 0; i < 20000; i++) {
+            Key key = new Key(random.nextInt(3000), random.nextInt(8) == 0);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            }
+            else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (Key key : expected.keySet())
+            assertEquals(expected.get(key), map.get(key));
+        Map<Key, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+        assertEquals(expected.keySet(), map.keySet());
+        assertEquals(new ArrayList<>(expected.values()).size(), map.values().size());
+    }
+
+    @Test
+    public void shouldBeStructurallyEqualRegardlessOfHistory() {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            keys.add(new Key(i, i % 5 == 0));
+        ImmutableHashMap<Key, Integer> map1 = ImmutableHashMap.emptyMap();
+        for (Key key : keys)
+            map1 = map1.with(key, key.id);
+        Collections.shuffle(keys, new Random(42));
+        ImmutableHashMap<Key, Integer> map2 = ImmutableHashMap.emptyMap();
+        for (Key key : keys)
+            map2 = map2.with(key, key.id).with(new Key(key.id + 100000, false), 0);
+        for (Key key : keys)
+            map2 = map2.without(new Key(key.id + 100000, false));
+        assertEquals(map1, map2);
+        assertEquals(map1.hashCode(), map2.hashCode());
+        for (Key key : keys.subList(0, 1990))
+            map2 = map2.without(key);
+        ImmutableHashMap<Key, Integer> map3 = ImmutableHashMap.emptyMap();
+        for (Key key : keys.subList(1990, 2000))
+            map3 = map3.with(key, key.id);
+        assertEquals(map3, map2);
+        assertFalse(map1.equals(map2));
+        assertFalse(map1.equals(map1.with(keys.get(0), -1)));
+    }
+
+    @Test
+    public void shouldConvertToAndFromImmutableMap() {
+        ImmutableMap<String, Integer> immutableMap = ImmutableMap.<String, Integer>builder().put("a", 1).put("b", 2)
+                .put("c", 3).buildImmutableMap();
+        ImmutableHashMap<String, Integer> map = ImmutableHashMap.from(immutableMap);
+        assertEquals(immutableMap, map);
+        assertEquals(immutableMap, map.toImmutableMap());
+        assertSame(map, ImmutableHashMap.from(map));
+    }
+
+    @Test
+    public void shouldRejectModifyingOperations() {
+        ImmutableHashMap<String, Integer> map = ImmutableHashMap.<String, Integer>emptyMap().with("a", 1);
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+        assertThrows(UnsupportedOperationException.class, map::clear);
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("a"));
+    }
+
+    /**
+     * A key class with a controllable hash code, to test hash collisions.
+     */
+    static class Key {
+
+        final int id;
+        final boolean colliding;
+
+        Key(int id, boolean colliding) {
+            this.id = id;
+            this.colliding = colliding;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key)other).id == id && ((Key)other).colliding == colliding;
+        }
+
+        @Override
+        public int hashCode() {
+            return colliding ? id % 7 * 0x40000001 : id * 0x9E3779B9;
+        }
+
+    }
+
+    @Test
+    public void shouldApplyBatchChangesUsingTransient() {
+        ImmutableHashMap<Key, Integer> original = ImmutableHashMap.emptyMap();
+        for (int i = 0; i < 500; i++)
+            original = original.with(new Key(i, i % 9 == 0), i);
+        Map<Key, Integer> expected = new HashMap<>(original);
+        ImmutableHashMap.Transient<Key, Integer> editor = original.toTransient();
+        Random random = new Random(999);
+        for (int i = 0; i < 20000; i++) {
+            Key key = new Key(random.nextInt(3000), random.nextInt(8) == 0);
+            if (random.nextInt(3) == 0) {
+                editor.remove(key);
+                expected.remove(key);
+            }
+            else {
+                editor.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), editor.size());
+        ImmutableHashMap<Key, Integer> map = editor.persistent();
+        assertEquals(expected, map);
+        assertEquals(ImmutableHashMap.from(expected), map);
+        assertEquals(500, original.size());
+        for (int i = 0; i < 500; i++)
+            assertEquals(Integer.valueOf(i), original.get(new Key(i, i % 9 == 0)));
+        assertThrows(IllegalStateException.class, () -> editor.put(new Key(1, false), 1));
+        ImmutableHashMap.Transient<Key, Integer> editor2 = map.toTransient();
+        for (Key key : expected.keySet())
+            editor2.remove(key);
+        assertSame(ImmutableHashMap.emptyMap(), editor2.persistent());
+        assertEquals(expected, map);
+    }
+
+}
@@ -2,7 +2,7 @@
  * @(#) ImmutableListTest.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2023, 2024 Peter Wall
+ * Copyright (c) 2021, 2023, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -26,12 +26,20 @@
 package io.jstuff.util.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -199,4 +207,273 @@ public class ImmutableListTest {
         assertEquals(-1, list.indexOf("six"));
     }
 
+    @Test
+    public void shouldBuildListUsingBuilder() {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (int i = 0; i < 25; i++)
+            builder.add("item" + i);
+        assertEquals(25, builder.size());
+        ImmutableList<String> list = builder.build();
+        assertEquals(25, list.size());
+        assertEquals("item0", list.get(0));
+        assertEquals("item24", list.get(24));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(25));
+    }
+
+    @Test
+    public void shouldContinueUsingBuilderAfterBuild() {
+        ImmutableList.Builder<String> builder = ImmutableList.builder(3);
+        builder.add("one").add("two").add("three");
+        ImmutableList<String> list1 = builder.build();
+        builder.add("four");
+        ImmutableList<String> list2 = builder.build();
+        assertEquals(Arrays.asList("one", "two", "three"), list1);
+        assertEquals(Arrays.asList("one", "two", "three", "four"), list2);
+    }
+
+    @Test
+    public void shouldAddArraysAndCollectionsUsingBuilder() {
+        String[] array = new String[] { "a", "b", "c", "d", "e" };
+        ImmutableList<String> list = ImmutableList.<String>builder(0)
+                .addAll(array, 1, 3)
+                .addAll(new ImmutableList<>(array, 2))
+                .addAll(Arrays.asList("x", "y"))
+                .build();
+        assertEquals(Arrays.asList("b", "c", "d", "a", "b", "x", "y"), list);
+        assertThrows(IndexOutOfBoundsException.class, () -> ImmutableList.<String>builder().addAll(array, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> ImmutableList.builder(-1));
+    }
+
+    @Test
+    public void shouldReturnSharedEmptyListFromBuilder() {
+        ImmutableList<String> list = ImmutableList.<String>builder().build();
+        assertTrue(list.isEmpty());
+        assertSame(ImmutableList.emptyList(), list);
+        ImmutableList<String> single = ImmutableList.<String>builder(100).add("only").build();
+        assertEquals(1, single.size());
+        assertEquals("[only]", single.toString());
+    }
+
+    @Test
+    public void shouldIterateWithIndex() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "b", "c" });
+        StringBuilder sb = new StringBuilder();
+        list.forEachIndexed((i, s) -> sb.append(i).append(s));
+        assertEquals("0a1b2c", sb.toString());
+    }
+
+    @Test
+    public void shouldFindIndexOfMatchingElement() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "alpha", "beta", "gamma", "delta" });
+        assertEquals(1, list.findIndex(s -> s.startsWith("b")));
+        assertEquals(-1, list.findIndex(s -> s.startsWith("z")));
+        assertTrue(list.anyMatch(s -> s.length() == 5));
+        assertFalse(list.anyMatch(String::isEmpty));
+        assertFalse(ImmutableList.<String>emptyList().anyMatch(s -> true));
+    }
+
+    @Test
+    public void shouldCreateMappedView() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "bb", "ccc" });
+        int[] calls = new int[1];
+        List<Integer> view = list.mapView(s -> {
+            calls[0]++;
+            return s.length();
+        });
+        assertEquals(3, view.size());
+        assertEquals(0, calls[0]);
+        assertEquals(2, (int)view.get(1));
+        assertEquals(2, (int)view.get(1));
+        assertEquals(2, calls[0]);
+        assertEquals(Arrays.asList(1, 2, 3), view);
+        assertTrue(view instanceof RandomAccess);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(3));
+    }
+
+    @Test
+    public void shouldCreateMemoisedMappedView() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "bb", null });
+        int[] calls = new int[1];
+        ImmutableList.MappedView<String, Integer> view = list.mapView(s -> {
+            calls[0]++;
+            return s == null ? null : s.length();
+        }, true);
+        assertTrue(view.isMemoised());
+        assertEquals(2, (int)view.get(1));
+        assertEquals(2, (int)view.get(1));
+        assertNull(view.get(2));
+        assertNull(view.get(2));
+        assertEquals(2, calls[0]);
+        assertEquals(Arrays.asList(1, 2, null), view);
+        assertEquals(3, calls[0]);
+    }
+
+    @Test
+    public void shouldConcatenateLists() {
+        ImmutableList<String> list1 = ImmutableList.listOf(new String[] { "a", "b" });
+        ImmutableList<String> list2 = ImmutableList.emptyList();
+        ImmutableList<String> list3 = ImmutableList.listOf(new String[] { "c" });
+        ImmutableList<String> list4 = ImmutableList.listOf(new String[] { "d", "e", "f" });
+        List<String> concat = ImmutableList.concat(Arrays.asList(list1, list2, list3, list4));
+        assertTrue(concat instanceof ImmutableList.ConcatView);
+        assertEquals(3, ((ImmutableList.ConcatView<String>)concat).getSegmentCount());
+        assertEquals(6, concat.size());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), concat);
+        for (int i = 0; i < 6; i++)
+            assertEquals(String.valueOf((char)('a' + i)), concat.get(i));
+        assertThrows(IndexOutOfBoundsException.class, () -> concat.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> concat.get(-1));
+        assertThrows(UnsupportedOperationException.class, () -> concat.add("g"));
+        assertEquals("[a, b, c, d, e, f]", Arrays.toString(concat.toArray()));
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), concat.stream().collect(Collectors.toList()));
+        StringBuilder sb = new StringBuilder();
+        concat.forEach(sb::append);
+        assertEquals("abcdef", sb.toString());
+    }
+
+    @Test
+    public void shouldReturnSingleListOrEmptyListFromConcat() {
+        ImmutableList<String> list1 = ImmutableList.listOf(new String[] { "a", "b" });
+        ImmutableList<String> empty = ImmutableList.emptyList();
+        assertSame(list1, ImmutableList.concat(Arrays.asList(empty, list1, empty)));
+        assertSame(empty, ImmutableList.concat(Arrays.asList(empty, empty)));
+    }
+
+    @Test
+    public void shouldFlattenConcatenationOfManyShortLists() {
+        List<ImmutableList<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            lists.add(ImmutableList.listOf(new Integer[] { i * 2, i * 2 + 1 }));
+        List<Integer> concat = ImmutableList.concat(lists);
+        assertTrue(concat instanceof ImmutableList);
+        assertEquals(200, concat.size());
+        assertEquals(151, (int)concat.get(151));
+    }
+
+    @Test
+    public void shouldSplitConcatenationAtSegmentBoundaries() {
+        List<ImmutableList<Integer>> lists = new ArrayList<>();
+        int n = 0;
+        for (int i = 0; i < 10; i++) {
+            Integer[] array = new Integer[1000 + i * 100];
+            for (int j = 0; j < array.length; j++)
+                array[j] = n++;
+            lists.add(ImmutableList.listOf(array));
+        }
+        List<Integer> concat = ImmutableList.concat(lists);
+        assertEquals(n, concat.size());
+        Spliterator<Integer> second = concat.spliterator();
+        Spliterator<Integer> first = second.trySplit();
+        assertEquals(6000, first.estimateSize());
+        assertEquals(n - 6000, second.estimateSize());
+        long expected = (long)n * (n - 1) / 2;
+        assertEquals(expected, concat.parallelStream().mapToLong(i -> i).sum());
+        List<Integer> collected = concat.parallelStream().collect(Collectors.toList());
+        for (int i = 0; i < n; i++)
+            assertEquals(i, (int)collected.get(i));
+    }
+
+    @Test
+    public void shouldCreateSubListAsViewOfSharedArray() {
+        String[] array = { "a", "b", "c", "d", "e", "f" };
+        ImmutableList<String> list = ImmutableList.listOf(array);
+        ImmutableList<String> sublist = list.subList(1, 5);
+        assertEquals(Arrays.asList("b", "c", "d", "e"), sublist);
+        ImmutableList<String> nested = sublist.subList(1, 3);
+        assertEquals(Arrays.asList("c", "d"), nested);
+        array[2] = "X"; // demonstrates that the array is shared (not to be done in normal use!)
+        assertEquals("X", sublist.get(1));
+        assertEquals("X", nested.get(0));
+    }
+
+    @Test
+    public void shouldOperateCorrectlyOnOffsetSubList() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "b", "c", "b", "e", "f" });
+        ImmutableList<String> sublist = list.subList(1, 5);
+        assertEquals(4, sublist.size());
+        assertEquals("b", sublist.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> sublist.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> sublist.get(-1));
+        assertEquals(0, sublist.indexOf("b"));
+        assertEquals(2, sublist.lastIndexOf("b"));
+        assertEquals(-1, sublist.indexOf("a"));
+        assertEquals(-1, sublist.lastIndexOf("f"));
+        assertTrue(sublist.contains("e"));
+        assertFalse(sublist.contains("f"));
+        assertEquals("[b, c, b, e]", sublist.toString());
+        assertEquals("[b, c, b, e]", Arrays.toString(sublist.toArray()));
+        assertEquals("[b, c, b, e]", Arrays.toString(sublist.toArray(new String[0])));
+        assertEquals(Arrays.asList("b", "c", "b", "e").hashCode(), sublist.hashCode());
+        assertEquals(Arrays.asList("b", "c", "b", "e"), sublist.stream().collect(Collectors.toList()));
+        assertEquals(3, sublist.findIndex("e"::equals));
+        StringBuilder sb = new StringBuilder();
+        for (String s : sublist)
+            sb.append(s);
+        assertEquals("bcbe", sb.toString());
+        ListIterator<String> iterator = sublist.listIterator(4);
+        assertEquals(4, iterator.nextIndex());
+        assertEquals("e", iterator.previous());
+        assertEquals("b", iterator.previous());
+        assertEquals(1, iterator.previousIndex());
+        assertEquals("c", iterator.previous());
+        assertEquals("b", iterator.previous());
+        assertFalse(iterator.hasPrevious());
+        assertEquals(Arrays.asList("c", "b"), sublist.mapView(s -> s).subList(1, 3));
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        assertEquals(Arrays.asList("b", "c", "b", "e"), builder.addAll(sublist).build());
+        assertEquals(Arrays.asList("b", "c", "b", "e", "a"),
+                ImmutableList.concat(Arrays.asList(sublist, list.subList(0, 1))));
+    }
+
+    @Test
+    public void shouldCopyTinySubListOfLargeArray() {
+        Integer[] array = new Integer[1000];
+        for (int i = 0; i < array.length; i++)
+            array[i] = i;
+        ImmutableList<Integer> list = ImmutableList.listOf(array);
+        ImmutableList<Integer> tiny = list.subList(500, 510);
+        ImmutableList<Integer> large = list.subList(100, 900);
+        array[505] = -1; // demonstrates whether the array is shared (not to be done in normal use!)
+        assertEquals(505, (int)tiny.get(5));
+        assertEquals(-1, (int)large.get(405));
+    }
+
+    @Test
+    public void shouldApplyBatchChangesUsingTransient() {
+        ImmutableList<String> original = ImmutableList.listOf(new String[] { "a", "b", "c", "d", "e" });
+        ImmutableList<String> subList = original.subList(1, 4);
+        ImmutableList.Transient<String> editor = subList.toTransient();
+        assertEquals(3, editor.size());
+        assertEquals("b", editor.get(0));
+        editor.set(0, "x").add("y").add("z").removeLast();
+        assertEquals(Arrays.asList("x", "c", "d", "y"), editor.persistent());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), original);
+        assertEquals(Arrays.asList("b", "c", "d"), subList);
+        assertThrows(IllegalStateException.class, () -> editor.add("q"));
+        assertThrows(IllegalStateException.class, editor::persistent);
+        ImmutableList.Transient<String> editor2 = original.toTransient();
+        assertThrows(IndexOutOfBoundsException.class, () -> editor2.get(5));
+        assertSame(original.get(0), editor2.persistent().get(0));
+        ImmutableList.Transient<String> editor3 = ImmutableList.<String>emptyList().toTransient();
+        assertThrows(NoSuchElementException.class, editor3::removeLast);
+        for (int i = 0; i < 1000; i++)
+            editor3.add(String.valueOf(i));
+        ImmutableList<String> list = editor3.persistent();
+        assertEquals(1000, list.size());
+        assertEquals("999", list.get(999));
+    }
+
+
+    @Test
+    public void shouldAcceptAnyElementTypeInTransientOfCovariantArray() {
+        ImmutableList<Object> list = ImmutableList.listOf(new String[] { "a", "b", "c" });
+        assertEquals(Arrays.asList("a", "b", "c", 1), list.toTransient().add(1).persistent());
+        assertEquals(Arrays.asList(2, "b", "c"), list.toTransient().set(0, 2).persistent());
+        ImmutableList<Object> subList = ImmutableList.<Object>listOf(new String[] { "a", "b", "c", "d", "e" })
+                .subList(1, 3);
+        assertEquals(Arrays.asList("b", "c", 3, 4), subList.toTransient().add(3).add(4).persistent());
+        assertEquals(Arrays.asList("b", "c"), subList);
+    }
+
 }
@@ -2,7 +2,7 @@
  * @(#) ImmutableMapTest.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2022, 2023, 2024 Peter Wall
+ * Copyright (c) 2021, 2022, 2023, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -26,23 +26,32 @@
 package io.jstuff.util.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import io.jstuff.util.ImmutableMap;
 import io.jstuff.util.ImmutableMapEntry;
+import io.jstuff.util.MiniMap;
+import io.jstuff.util.MiniMap0;
+import io.jstuff.util.MiniMap2;
+import io.jstuff.util.MiniMap3;
 
 public class ImmutableMapTest {
 
@@ -321,4 +330,245 @@ public class ImmutableMapTest {
         assertEquals(new Integer(789), map.getValue(2));
     }
 
+    @Test
+    public void shouldBuildMapUsingBuilder() {
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < 50; i++)
+            builder.put("key" + i, i);
+        Map<String, Integer> map = builder.build();
+        assertTrue(map instanceof ImmutableMap);
+        assertEquals(50, map.size());
+        assertEquals(Integer.valueOf(0), map.get("key0"));
+        assertEquals(Integer.valueOf(49), map.get("key49"));
+        assertEquals("key17", ((ImmutableMap<String, Integer>)map).getKey(17));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("key20", 99));
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMap.<String, Integer>builder().put("a", 1)
+                .put("a", 2));
+    }
+
+    @Test
+    public void shouldReturnMiniMapFromBuilderForSmallSizes() {
+        assertTrue(ImmutableMap.builder().build() instanceof MiniMap0);
+        Map<String, Integer> map = ImmutableMap.<String, Integer>builder().put("a", 1).put("b", 2).build();
+        assertTrue(map instanceof MiniMap2);
+        assertEquals("{a=1, b=2}", map.toString());
+        ImmutableMap<String, Integer> immutableMap = ImmutableMap.<String, Integer>builder().put("a", 1)
+                .buildImmutableMap();
+        assertEquals(1, immutableMap.size());
+    }
+
+    @Test
+    public void shouldApplyDuplicateKeyPolicies() {
+        for (int n : new int[] { 4, 40 }) {
+            ImmutableMap.Builder<String, Integer> first = ImmutableMap.<String, Integer>builder()
+                    .onDuplicate(ImmutableMap.DuplicateKeyPolicy.FIRST_WINS);
+            ImmutableMap.Builder<String, Integer> last = ImmutableMap.<String, Integer>builder()
+                    .onDuplicate(ImmutableMap.DuplicateKeyPolicy.LAST_WINS);
+            ImmutableMap.Builder<String, Integer> merge = ImmutableMap.<String, Integer>builder()
+                    .merging(Integer::sum);
+            for (int i = 0; i < n * 2; i++) {
+                first.put("k" + (i % n), i);
+                last.put("k" + (i % n), i);
+                merge.put("k" + (i % n), i);
+            }
+            Map<String, Integer> firstMap = first.build();
+            Map<String, Integer> lastMap = last.build();
+            Map<String, Integer> mergeMap = merge.build();
+            assertEquals(n, firstMap.size());
+            assertEquals(Integer.valueOf(1), firstMap.get("k1"));
+            assertEquals(Integer.valueOf(n + 1), lastMap.get("k1"));
+            assertEquals(Integer.valueOf(n + 2), mergeMap.get("k1"));
+            assertEquals("k0", lastMap.keySet().iterator().next());
+        }
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMap.builder()
+                .onDuplicate(ImmutableMap.DuplicateKeyPolicy.MERGE));
+    }
+
+    @Test
+    public void shouldContinueUsingMapBuilderAfterBuild() {
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.<String, Integer>builder(4)
+                .onDuplicate(ImmutableMap.DuplicateKeyPolicy.LAST_WINS);
+        builder.put("a", 1).put("b", 2).put("c", 3).put("d", 4);
+        ImmutableMap<String, Integer> map1 = builder.buildImmutableMap();
+        builder.put("a", 10).put(null, 0);
+        ImmutableMap<String, Integer> map2 = builder.buildImmutableMap();
+        assertEquals("{a=1, b=2, c=3, d=4}", map1.toString());
+        assertEquals("{a=10, b=2, c=3, d=4, null=0}", map2.toString());
+    }
+
+    @Test
+    public void shouldPutAllUsingBuilder() {
+        Map<String, Integer> source = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++)
+            source.put("key" + i, i);
+        ImmutableMap<String, Integer> immutable = new ImmutableMap<>(source);
+        Map<String, Integer> map = ImmutableMap.<String, Integer>builder()
+                .onDuplicate(ImmutableMap.DuplicateKeyPolicy.FIRST_WINS)
+                .putAll(immutable)
+                .putAll(source)
+                .build();
+        assertEquals(source, map);
+    }
+
+    @Test
+    public void shouldVisitEntriesWithIndex() {
+        ImmutableMapEntry<String, Integer>[] array = ImmutableMap.createArray(3);
+        array[0] = ImmutableMap.entry("a", 10);
+        array[1] = ImmutableMap.entry("b", 20);
+        array[2] = ImmutableMap.entry("c", 30);
+        ImmutableMap<String, Integer> map = ImmutableMap.mapOf(array);
+        StringBuilder sb = new StringBuilder();
+        map.forEachEntry((i, k, v) -> sb.append(i).append(k).append(v));
+        assertEquals("0a101b202c30", sb.toString());
+        assertEquals(2, map.findIndex((k, v) -> v > 25));
+        assertEquals(-1, map.findIndex((k, v) -> k.equals("z")));
+        assertTrue(map.anyMatch((k, v) -> k.equals("b") && v == 20));
+        sb.setLength(0);
+        map.keySet().forEachIndexed((i, k) -> sb.append(i).append(k));
+        assertEquals("0a1b2c", sb.toString());
+        assertEquals(1, map.keySet().findIndex("b"::equals));
+        assertEquals(2, map.values().findIndex(v -> v == 30));
+        assertFalse(map.values().anyMatch(v -> v == 40));
+    }
+
+    @Test
+    public void shouldCreateMappedValuesView() {
+        ImmutableMapEntry<String, Integer>[] array = ImmutableMap.createArray(3);
+        array[0] = ImmutableMap.entry("a", 1);
+        array[1] = ImmutableMap.entry("b", 2);
+        array[2] = ImmutableMap.entry("c", 3);
+        ImmutableMap<String, Integer> map = ImmutableMap.mapOf(array);
+        int[] calls = new int[1];
+        ImmutableMap.MappedValuesView<String, Integer, String> view = map.mapValuesView(v -> {
+            calls[0]++;
+            return "#" + v;
+        }, true);
+        assertEquals(3, view.size());
+        assertEquals(0, calls[0]);
+        assertEquals("#2", view.get("b"));
+        assertEquals("#2", view.getValue(1));
+        assertEquals(1, calls[0]);
+        assertNull(view.get("z"));
+        assertEquals("none", view.getOrDefault("z", "none"));
+        assertTrue(view.containsKey("c"));
+        assertEquals("c", view.getKey(2));
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "#1");
+        expected.put("b", "#2");
+        expected.put("c", "#3");
+        assertEquals(expected, view);
+        assertEquals(new ArrayList<>(expected.values()), view.values());
+        assertEquals(3, calls[0]);
+        assertThrows(UnsupportedOperationException.class, () -> view.put("d", "#4"));
+        assertEquals("#3", map.mapValuesView(v -> "#" + v).get("c"));
+    }
+
+    @Test
+    public void shouldCreateSlicesOfKeySetAndValues() {
+        ImmutableMapEntry<String, Integer>[] array = ImmutableMap.createArray(5);
+        for (int i = 0; i < 5; i++)
+            array[i] = ImmutableMap.entry("k" + i, i * 10);
+        ImmutableMap<String, Integer> map = ImmutableMap.mapOf(array);
+        ImmutableMap.KeySet<String, Integer> keys = map.keySet().slice(1, 4);
+        assertEquals(3, keys.size());
+        assertEquals("k1", keys.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> keys.get(3));
+        assertTrue(keys.contains("k3"));
+        assertFalse(keys.contains("k4"));
+        assertEquals(new ArrayList<>(Arrays.asList("k1", "k2", "k3")), new ArrayList<>(keys));
+        assertEquals(Arrays.asList("k2", "k3"), keys.slice(1, 3).stream().collect(Collectors.toList()));
+        ImmutableMap.ValueCollection<String, Integer> values = map.values().slice(2, 5);
+        assertEquals(3, values.size());
+        assertEquals(20, (int)values.get(0));
+        assertEquals("[20, 30, 40]", Arrays.toString(values.toArray()));
+        assertEquals(2, values.findIndex(v -> v == 40));
+        assertSame(values, values.slice(0, 3));
+    }
+
+    @Test
+    public void shouldAddReplaceAndRemoveEntriesUsingWith() {
+        ImmutableMap<String, Integer> map = ImmutableMap.<String, Integer>builder().put("a", 1).put("b", 2).put("c", 3)
+                .put("d", 4).buildImmutableMap();
+        Map<String, Integer> added = map.with("e", 5);
+        assertTrue(added instanceof ImmutableMap);
+        assertEquals(5, added.size());
+        assertEquals(Integer.valueOf(5), added.get("e"));
+        assertSame(map.getEntry(0), ((ImmutableMap<String, Integer>)added).getEntry(0));
+        Map<String, Integer> replaced = map.with("b", 20);
+        assertEquals(Integer.valueOf(20), replaced.get("b"));
+        assertEquals(4, replaced.size());
+        assertSame(map, map.with("b", 2));
+        assertEquals(4, map.size());
+        assertEquals(Integer.valueOf(2), map.get("b"));
+        Map<String, Integer> removed = map.without("a");
+        assertTrue(removed instanceof MiniMap3);
+        assertEquals(MiniMap.map("b", 2, "c", 3, "d", 4), removed);
+        assertSame(map, map.without("z"));
+    }
+
+    @Test
+    public void shouldAddAllEntriesUsingWithAll() {
+        ImmutableMap<String, Integer> map = ImmutableMap.<String, Integer>builder().put("a", 1).put("b", 2).put("c", 3)
+                .put("d", 4).buildImmutableMap();
+        assertSame(map, map.withAll(new HashMap<>()));
+        assertSame(map, map.withAll(MiniMap.map("a", 1, "d", 4)));
+        ImmutableMap<String, Integer> other = ImmutableMap.<String, Integer>builder().put("b", 22).put("x", 99)
+                .buildImmutableMap();
+        Map<String, Integer> result = map.withAll(other);
+        Map<String, Integer> expected = new LinkedHashMap<>(map);
+        expected.putAll(other);
+        assertEquals(expected, result);
+        assertSame(other.getEntry(1), ((ImmutableMap<String, Integer>)result).getEntry(4));
+    }
+
+    @Test
+    public void shouldApplyBatchChangesUsingTransient() {
+        ImmutableMap<String, Integer> original = ImmutableMap.<String, Integer>builder().put("a", 1).put("b", 2)
+                .buildImmutableMap();
+        ImmutableMap.Transient<String, Integer> editor = original.toTransient();
+        Map<String, Integer> expected = new LinkedHashMap<>(original);
+        for (int i = 0; i < 100; i++) {
+            editor.put("k" + i, i);
+            expected.put("k" + i, i);
+        }
+        editor.put("a", 10).remove("b").remove("k50").put("k60", -60);
+        expected.put("a", 10);
+        expected.remove("b");
+        expected.remove("k50");
+        expected.put("k60", -60);
+        assertEquals(expected.size(), editor.size());
+        assertEquals(Integer.valueOf(-60), editor.get("k60"));
+        assertTrue(editor.containsKey("k99"));
+        assertFalse(editor.containsKey("k50"));
+        ImmutableMap<String, Integer> map = editor.persistent();
+        assertEquals(expected, map);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(MiniMap.map("a", 1, "b", 2), original);
+        assertThrows(IllegalStateException.class, () -> editor.put("c", 3));
+        ImmutableMap.Transient<String, Integer> editor2 = original.toTransient();
+        assertSame(original.getEntry(1), editor2.persistent().getEntry(1));
+    }
+
+    @Test
+    public void shouldApplyManyRemovalsUsingTransient() {
+        Random random = new Random(2024);
+        ImmutableMap.Transient<Integer, Integer> editor = ImmutableMap.<Integer, Integer>emptyMap().toTransient();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(i < 10000 ? 3000 : 12);
+            if (random.nextInt(3) == 0) {
+                editor.remove(key);
+                expected.remove(key);
+            }
+            else {
+                editor.put(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), editor.size());
+            assertEquals(expected.get(key), editor.get(key));
+        }
+        ImmutableMap<Integer, Integer> map = editor.persistent();
+        assertEquals(expected, map);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+    }
 }
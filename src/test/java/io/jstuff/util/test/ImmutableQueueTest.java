@@ -0,0 +1,120 @@
+/*
+ * @(#) ImmutableQueueTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableQueue;
+
+public class ImmutableQueueTest {
+
+    @Test
+    public void shouldCreateEmptyQueue() {
+        ImmutableQueue<String> queue = ImmutableQueue.emptyQueue();
+        assertEquals(0, queue.size());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        assertThrows(NoSuchElementException.class, queue::element);
+        assertThrows(IllegalStateException.class, queue::dequeue);
+        assertSame(queue, ImmutableQueue.queueOf());
+        assertThrows(UnsupportedOperationException.class, () -> queue.offer("a"));
+        assertThrows(UnsupportedOperationException.class, () -> queue.add("a"));
+        assertThrows(UnsupportedOperationException.class, queue::poll);
+        assertThrows(UnsupportedOperationException.class, queue::remove);
+    }
+
+    @Test
+    public void shouldEnqueueAndDequeueInOrder() {
+        ImmutableQueue<Integer> queue = ImmutableQueue.emptyQueue();
+        List<Integer> expected = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < round % 7 + 1; i++) {
+                queue = queue.enqueue(next);
+                expected.add(next++);
+            }
+            assertEquals(expected, new ArrayList<>(queue));
+            assertArrayEquals(expected.toArray(), queue.toArray());
+            for (int i = 0; i < round % 5 && !expected.isEmpty(); i++) {
+                assertEquals(expected.remove(0), queue.element());
+                queue = queue.dequeue();
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+        List<Integer> visited = new ArrayList<>();
+        queue.forEach(visited::add);
+        assertEquals(expected, visited);
+        assertEquals(expected, queue.toImmutableList());
+    }
+
+    @Test
+    public void shouldLeaveOriginalUnchanged() {
+        ImmutableQueue<String> queue = ImmutableQueue.from(Arrays.asList("a", "b"));
+        ImmutableQueue<String> added = queue.enqueue("c");
+        ImmutableQueue<String> removed = queue.dequeue();
+        assertEquals(ImmutableQueue.queueOf("a", "b"), queue);
+        assertEquals(ImmutableQueue.queueOf("a", "b", "c"), added);
+        assertEquals(ImmutableQueue.queueOf("b"), removed);
+        assertEquals(ImmutableQueue.queueOf("b", "c"), added.dequeue());
+        assertEquals(Arrays.asList("b", "c").hashCode(), added.dequeue().hashCode());
+        assertNotEquals(ImmutableQueue.queueOf("a", "c"), queue);
+    }
+
+    @Test
+    public void shouldHandOffWorkThroughAtomicReference() throws InterruptedException {
+        AtomicReference<ImmutableQueue<Integer>> reference = new AtomicReference<>(ImmutableQueue.emptyQueue());
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                Integer value = i;
+                reference.updateAndGet(queue -> queue.enqueue(value));
+            }
+        });
+        producer.start();
+        List<Integer> consumed = new ArrayList<>();
+        while (consumed.size() < 20000) {
+            ImmutableQueue<Integer> queue = reference.get();
+            if (!queue.isEmpty() && reference.compareAndSet(queue, queue.dequeue()))
+                consumed.add(queue.peek());
+        }
+        producer.join();
+        for (int i = 0; i < 20000; i++)
+            assertEquals(Integer.valueOf(i), consumed.get(i));
+    }
+
+}
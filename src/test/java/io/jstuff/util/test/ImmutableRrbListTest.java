@@ -0,0 +1,254 @@
+/*
+ * @(#) ImmutableRrbListTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableRrbList;
+
+public class ImmutableRrbListTest {
+
+    @Test
+    public void shouldCreateEmptyList() {
+        ImmutableRrbList<String> list = ImmutableRrbList.emptyList();
+        assertEquals(0, list.size());
+        assertFalse(list.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        assertSame(list, ImmutableRrbList.listOf());
+        assertSame(list, list.concat(list));
+    }
+
+    @Test
+    public void shouldCreateListFromCollection() {
+        List<Integer> expected = range(0, 50000);
+        ImmutableRrbList<Integer> list = ImmutableRrbList.from(expected);
+        assertEquals(expected, list);
+        assertEquals(3, list.getHeight());
+        for (int i = 0; i < 50000; i += 97)
+            assertEquals(Integer.valueOf(i), list.get(i));
+        ImmutableList<Integer> immutableList = list.toImmutableList();
+        assertEquals(expected, immutableList);
+        assertEquals(expected.subList(10, 40000), ImmutableRrbList.from(immutableList.subList(10, 40000)));
+    }
+
+    @Test
+    public void shouldConcatenateAndSlice() {
+        ImmutableRrbList<Integer> a = ImmutableRrbList.from(range(0, 1000));
+        ImmutableRrbList<Integer> b = ImmutableRrbList.from(range(1000, 40000));
+        ImmutableRrbList<Integer> c = a.concat(b);
+        assertEquals(range(0, 40000), c);
+        assertEquals(range(0, 1000), a);
+        assertEquals(range(123, 38765), c.subList(123, 38765));
+        assertEquals(range(999, 1001), c.subList(999, 1001));
+        assertEquals(0, c.subList(5, 5).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> c.subList(0, 40001));
+        assertThrows(IllegalArgumentException.class, () -> c.subList(3, 2));
+    }
+
+    @Test
+    public void shouldMatchArrayListUnderRandomOperations() {
+        Random random = new Random(2718);
+        List<Integer> expected = new ArrayList<>();
+        ImmutableRrbList<Integer> list = ImmutableRrbList.emptyList();
+        int next = 0;
+        for (int i = 0; i < 3000; i++) {
+            switch (random.nextInt(6)) {
+                case 0: {
+                    List<Integer> other = range(next, next + random.nextInt(200));
+                    next += other.size();
+                    expected.addAll(other);
+                    list = list.concat(ImmutableRrbList.from(other));
+                    break;
+                }
+                case 1: {
+                    List<Integer> other = range(next, next + random.nextInt(5));
+                    next += other.size();
+                    expected.addAll(0, other);
+                    list = ImmutableRrbList.from(other).concat(list);
+                    break;
+                }
+                case 2: {
+                    int index = random.nextInt(expected.size() + 1);
+                    expected.add(index, next);
+                    list = list.insertAt(index, next++);
+                    break;
+                }
+                case 3: {
+                    if (expected.size() > 2) {
+                        int from = random.nextInt(expected.size() / 2);
+                        int to = expected.size() - random.nextInt(expected.size() / 4 + 1);
+                        expected = new ArrayList<>(expected.subList(from, to));
+                        list = list.subList(from, to);
+                    }
+                    break;
+                }
+                case 4: {
+                    if (!expected.isEmpty()) {
+                        int index = random.nextInt(expected.size());
+                        expected.set(index, -index);
+                        list = list.with(index, -index);
+                    }
+                    break;
+                }
+                default:
+                    expected.add(next);
+                    list = list.append(next++);
+                    break;
+            }
+            assertEquals(expected.size(), list.size());
+            if (i % 100 == 0) {
+                assertEquals(expected, list);
+                assertEquals(expected, Arrays.asList(list.toArray()));
+                for (int j = 0; j < expected.size(); j++)
+                    assertEquals(expected.get(j), list.get(j));
+            }
+        }
+        assertEquals(expected, list);
+        assertEquals(expected, list.parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldKeepTreeShallowUnderRepeatedAppend() {
+        ImmutableRrbList<Integer> list = ImmutableRrbList.emptyList();
+        for (int i = 0; i < 40000; i++)
+            list = list.append(i);
+        assertEquals(range(0, 40000), list);
+        assertTrue(list.getHeight() <= 4);
+    }
+
+    @Test
+    public void shouldSplitAtNodeBoundaries() {
+        ImmutableRrbList<Integer> list = ImmutableRrbList.from(range(0, 32 * 32 * 3));
+        Spliterator<Integer> spliterator = list.spliterator();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(32 * 32, prefix.estimateSize());
+        assertEquals(32 * 32 * 2, spliterator.estimateSize());
+        Spliterator<Integer> prefix2 = spliterator.trySplit();
+        assertEquals(32 * 32, prefix2.estimateSize());
+        Spliterator<Integer> small = ImmutableRrbList.from(range(0, 5)).spliterator();
+        assertEquals(2, small.trySplit().estimateSize());
+        assertTrue((spliterator.characteristics() & Spliterator.SUBSIZED) != 0);
+        List<Integer> collected = new ArrayList<>();
+        prefix.forEachRemaining(collected::add);
+        prefix2.tryAdvance(collected::add);
+        prefix2.forEachRemaining(collected::add);
+        spliterator.forEachRemaining(collected::add);
+        assertEquals(range(0, 32 * 32 * 3), collected);
+        assertEquals(range(0, 100000).stream().mapToLong(Integer::longValue).sum(),
+                ImmutableRrbList.from(range(0, 100000)).parallelStream().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    public void shouldIterateAndRejectModifyingOperations() {
+        ImmutableRrbList<Integer> list = ImmutableRrbList.from(range(0, 100));
+        Iterator<Integer> iterator = list.iterator();
+        for (int i = 0; i < 100; i++)
+            assertEquals(Integer.valueOf(i), iterator.next());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertThrows(UnsupportedOperationException.class, () -> list.add(1));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insertAt(101, 1));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+            result.add(i);
+        return result;
+    }
+
+
+    @Test
+    public void shouldAcceptAnyElementTypeWhenBuiltFromCovariantArray() {
+        String[] strings = new String[100];
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = "s" + i;
+        ImmutableRrbList<Object> fromList = ImmutableRrbList.from(ImmutableList.listOf(new String[] { "a", "b" }));
+        assertEquals(Arrays.asList("a", "b", 1), fromList.append(1));
+        assertEquals(Arrays.asList("a", 2, "b"), fromList.insertAt(1, 2));
+        ImmutableRrbList<Object> list = ImmutableRrbList.listOf((Object[])strings);
+        assertEquals(Integer.valueOf(1), list.with(0, 1).get(0));
+        assertEquals(Integer.valueOf(2), list.with(99, 2).get(99));
+        assertEquals(Integer.valueOf(3), list.append(3).get(100));
+        ImmutableRrbList<Object> joined = list.subList(0, 10).concat(ImmutableRrbList.listOf(4, 5));
+        assertEquals(12, joined.size());
+        assertEquals(Integer.valueOf(5), joined.get(11));
+    }
+
+
+    @Test
+    public void shouldRebalanceUnderRepeatedConcatenationOfSlices() {
+        ImmutableRrbList<Integer> source = ImmutableRrbList.from(range(0, 100));
+        ImmutableRrbList<Integer> slice = source.subList(30, 34);
+        assertEquals(1, slice.getHeight());
+        List<Integer> expected = new ArrayList<>();
+        ImmutableRrbList<Integer> list = ImmutableRrbList.emptyList();
+        for (int i = 0; i < 2000; i++) {
+            list = list.concat(slice);
+            expected.addAll(slice);
+        }
+        assertEquals(expected, list);
+        assertEquals(2, list.getHeight());
+        Random random = new Random(31415);
+        ImmutableRrbList<Integer> big = ImmutableRrbList.from(range(0, 50000));
+        expected = new ArrayList<>();
+        list = ImmutableRrbList.emptyList();
+        for (int i = 0; i < 3000; i++) {
+            int from = random.nextInt(49000);
+            int to = from + 1 + random.nextInt(random.nextBoolean() ? 5 : 100);
+            if (random.nextBoolean()) {
+                list = list.concat(big.subList(from, to));
+                expected.addAll(range(from, to));
+            }
+            else {
+                list = big.subList(from, to).concat(list);
+                expected.addAll(0, range(from, to));
+            }
+        }
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i += 7)
+            assertEquals(expected.get(i), list.get(i));
+        assertTrue(list.getHeight() <= 3);
+    }
+
+}
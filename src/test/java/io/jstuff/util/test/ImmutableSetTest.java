@@ -2,7 +2,7 @@
  * @(#) ImmutableSetTest.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2021, 2022, 2024 Peter Wall
+ * Copyright (c) 2021, 2022, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -25,16 +25,20 @@
 
 package io.jstuff.util.test;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import io.jstuff.util.ImmutableSet;
+import io.jstuff.util.MiniSet5;
 
 public class ImmutableSetTest {
 
@@ -160,4 +164,38 @@ public class ImmutableSetTest {
         assertEquals("[un, deux, trois]", set2.toString());
     }
 
+    @Test
+    public void shouldAddAndRemoveValuesUsingWithAndWithout() {
+        ImmutableSet<String> set = new ImmutableSet<>(new String[] { "a", "b", "c", "d", "e", "f" });
+        assertSame(set, set.with("a"));
+        Set<String> added = set.with("g");
+        assertTrue(added instanceof ImmutableSet);
+        assertEquals(7, added.size());
+        assertTrue(added.contains("g"));
+        assertEquals(6, set.size());
+        assertSame(set, set.without("x"));
+        Set<String> removed = set.without("a");
+        assertTrue(removed instanceof MiniSet5);
+        assertEquals(new HashSet<>(Arrays.asList("b", "c", "d", "e", "f")), removed);
+        assertSame(set, set.withAll(Arrays.asList("a", "f")));
+        Set<String> all = set.withAll(Arrays.asList("a", "x", "y", "x"));
+        assertEquals(8, all.size());
+        assertTrue(all.containsAll(Arrays.asList("a", "b", "c", "d", "e", "f", "x", "y")));
+    }
+
+
+    @Test
+    public void shouldAcceptAnyElementTypeWhenCreatedFromCovariantArray() {
+        ImmutableSet<Object> set = new ImmutableSet<>(new String[] { "a", "b", "c", "d", "e", "f" });
+        Set<Object> added = set.with(1);
+        assertEquals(7, added.size());
+        assertTrue(added.contains(1));
+        Set<Object> addedAll = set.withAll(Arrays.asList(2, 3));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d", "e", "f", 2, 3)), addedAll);
+        Set<Object> removed = new ImmutableSet<Object>(new String[] { "a", "b", "c", "d", "e", "f", "g" }).without("a");
+        assertTrue(removed instanceof ImmutableSet);
+        assertEquals(new HashSet<>(Arrays.asList("b", "c", "d", "e", "f", "g", 4)),
+                ((ImmutableSet<Object>)removed).with(4));
+    }
+
 }
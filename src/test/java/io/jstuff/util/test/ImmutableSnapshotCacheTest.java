@@ -0,0 +1,183 @@
+/*
+ * @(#) ImmutableSnapshotCacheTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.ImmutableSnapshotCache;
+import io.jstuff.util.MiniMap;
+
+public class ImmutableSnapshotCacheTest {
+
+    @Test
+    public void shouldPutAndRemoveEntries() {
+        ImmutableSnapshotCache<String, Integer> cache = new ImmutableSnapshotCache<>();
+        assertEquals(0, cache.size());
+        assertNull(cache.put("a", 1));
+        assertEquals(Integer.valueOf(1), cache.put("a", 2));
+        assertEquals(Integer.valueOf(2), cache.get("a"));
+        assertTrue(cache.snapshot() instanceof MiniMap);
+        for (int i = 0; i < 10; i++)
+            cache.put("k" + i, i);
+        assertTrue(cache.snapshot() instanceof ImmutableMap);
+        assertEquals(11, cache.size());
+        Map<String, Integer> snapshot = cache.snapshot();
+        assertEquals(Integer.valueOf(2), cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertEquals(10, cache.size());
+        assertEquals(11, snapshot.size());
+    }
+
+    @Test
+    public void shouldReportFailureWithoutChangingSnapshot() {
+        ImmutableSnapshotCache<Object, Integer> cache = new ImmutableSnapshotCache<>();
+        for (int i = 0; i < 10; i++)
+            cache.put(i, i);
+        Object badKey = new Object() {
+            @Override
+            public int hashCode() {
+                throw new IllegalStateException("Bad key");
+            }
+        };
+        Map<Object, Integer> snapshot = cache.snapshot();
+        assertThrows(IllegalStateException.class, () -> cache.put(badKey, 0));
+        assertEquals(snapshot, cache.snapshot());
+    }
+
+    @Test
+    public void shouldReportErrorAndContinueAcceptingWrites() {
+        ImmutableSnapshotCache<Object, Integer> cache = new ImmutableSnapshotCache<>();
+        for (int i = 0; i < 10; i++)
+            cache.put(i, i);
+        Object badKey = new Object() {
+            @Override
+            public int hashCode() {
+                throw new StackOverflowError();
+            }
+        };
+        assertThrows(StackOverflowError.class, () -> cache.put(badKey, 0));
+        assertEquals(10, cache.size());
+        assertNull(cache.put(10, 10));
+        assertEquals(11, cache.size());
+    }
+
+    @Test
+    public void shouldApplyConcurrentWritesWithoutLoss() throws InterruptedException {
+        ImmutableSnapshotCache<Integer, Integer> cache = new ImmutableSnapshotCache<>();
+        Thread[] threads = new Thread[8];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 1000;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException ignore) {
+                }
+                for (int i = 0; i < 1000; i++) {
+                    cache.put(base + i, i);
+                    if (i % 10 == 0)
+                        cache.remove(base + i);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(7200, cache.size());
+        for (int t = 0; t < threads.length; t++) {
+            for (int i = 0; i < 1000; i++) {
+                if (i % 10 == 0)
+                    assertNull(cache.get(t * 1000 + i));
+                else
+                    assertEquals(Integer.valueOf(i), cache.get(t * 1000 + i));
+            }
+        }
+    }
+
+
+    @Test
+    public void shouldIsolateFailingChangesFromOtherWritersInBatch() throws InterruptedException {
+        ImmutableSnapshotCache<Object, Integer> cache = new ImmutableSnapshotCache<>();
+        Object badKey = new Object() {
+            @Override
+            public int hashCode() {
+                throw new IllegalArgumentException("Bad key");
+            }
+        };
+        AtomicInteger goodFailures = new AtomicInteger();
+        AtomicInteger badFailures = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 1000;
+            boolean bad = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException ignore) {
+                }
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        cache.put(base + i, i);
+                    }
+                    catch (RuntimeException e) {
+                        goodFailures.incrementAndGet();
+                    }
+                    if (bad) {
+                        try {
+                            cache.put(badKey, i);
+                        }
+                        catch (IllegalArgumentException e) {
+                            badFailures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, goodFailures.get());
+        assertEquals(4000, badFailures.get());
+        assertEquals(8000, cache.size());
+        for (int i = 0; i < 8000; i++)
+            assertEquals(Integer.valueOf(i % 1000), cache.get(i));
+    }
+
+}
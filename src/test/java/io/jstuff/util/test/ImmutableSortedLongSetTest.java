@@ -0,0 +1,146 @@
+/*
+ * @(#) ImmutableSortedLongSetTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableSortedLongSet;
+
+public class ImmutableSortedLongSetTest {
+
+    private static long[] timestamps(int n) {
+        long[] values = new long[n];
+        long value = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            value += 1 + (i * 7919L) % 5000;
+            values[i] = value;
+        }
+        return values;
+    }
+
+    @Test
+    public void shouldCreateImmutableSortedLongSet() {
+        ImmutableSortedLongSet set = ImmutableSortedLongSet.setOf(30, 10, 20, 10);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(10));
+        assertTrue(set.contains(20L));
+        assertFalse(set.contains(15));
+        assertFalse(set.contains(Integer.valueOf(10)));
+        assertEquals(10, set.firstLong());
+        assertEquals(30, set.lastLong());
+        assertEquals("[10, 20, 30]", set.toString());
+    }
+
+    @Test
+    public void shouldLookUpValuesAcrossBlocks() {
+        long[] values = timestamps(1000);
+        ImmutableSortedLongSet set = new ImmutableSortedLongSet(values);
+        assertEquals(1000, set.size());
+        for (int i = 0; i < values.length; i++) {
+            assertTrue(set.contains(values[i]));
+            if (i + 1 < values.length && values[i + 1] != values[i] + 1)
+                assertFalse(set.contains(values[i] + 1));
+            assertEquals(values[i], set.getLong(i));
+        }
+        assertFalse(set.contains(values[0] - 1));
+        assertFalse(set.contains(values[999] + 1));
+        assertArrayEquals(values, set.toLongArray());
+        assertTrue(set.footprintBytes() < values.length * 3L);
+    }
+
+    @Test
+    public void shouldFindFloorAndCeiling() {
+        long[] values = timestamps(200);
+        ImmutableSortedLongSet set = new ImmutableSortedLongSet(values);
+        assertEquals(-1, set.floorIndex(values[0] - 1));
+        assertEquals(0, set.ceilingIndex(values[0] - 1));
+        assertEquals(199, set.floorIndex(Long.MAX_VALUE));
+        assertEquals(-1, set.ceilingIndex(values[199] + 1));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i, set.floorIndex(values[i]));
+            assertEquals(i, set.ceilingIndex(values[i]));
+            if (i + 1 < values.length && values[i + 1] > values[i] + 1) {
+                assertEquals(i, set.floorIndex(values[i] + 1));
+                assertEquals(i + 1, set.ceilingIndex(values[i] + 1));
+            }
+        }
+    }
+
+    @Test
+    public void shouldIterateWithoutBoxing() {
+        long[] values = timestamps(100);
+        ImmutableSortedLongSet set = new ImmutableSortedLongSet(values);
+        ImmutableSortedLongSet.LongIterator iterator = set.longIterator();
+        for (long value : values) {
+            assertTrue(iterator.hasNext());
+            assertEquals(value, iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void shouldHandleExtremeValues() {
+        ImmutableSortedLongSet set = ImmutableSortedLongSet.setOf(Long.MAX_VALUE, Long.MIN_VALUE, 0);
+        assertArrayEquals(new long[] { Long.MIN_VALUE, 0, Long.MAX_VALUE }, set.toLongArray());
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertFalse(set.contains(1));
+    }
+
+    @Test
+    public void shouldCompareWithADifferentSet() {
+        ImmutableSortedLongSet set = ImmutableSortedLongSet.setOf(5, 1, 3);
+        Set<Long> hashSet = new HashSet<>();
+        hashSet.add(1L);
+        hashSet.add(3L);
+        hashSet.add(5L);
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void shouldRejectInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> new ImmutableSortedLongSet(new long[] { 1, 3, 2 }));
+        assertThrows(IllegalArgumentException.class, () -> new ImmutableSortedLongSet(new long[] { 1, 1 }));
+        ImmutableSortedLongSet set = ImmutableSortedLongSet.setOf(1, 2);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(3L));
+        assertThrows(UnsupportedOperationException.class, set::clear);
+        ImmutableSortedLongSet empty = ImmutableSortedLongSet.setOf();
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.contains(0));
+        assertEquals(-1, empty.floorIndex(0));
+    }
+
+}
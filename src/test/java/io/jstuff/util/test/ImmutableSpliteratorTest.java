@@ -0,0 +1,158 @@
+/*
+ * @(#) ImmutableSpliteratorTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableMap;
+import io.jstuff.util.ImmutableMapEntry;
+import io.jstuff.util.ImmutableSet;
+import io.jstuff.util.ImmutableSpliterator;
+import io.jstuff.util.MiniMap;
+import io.jstuff.util.MiniSet;
+
+public class ImmutableSpliteratorTest {
+
+    private static final int standard = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED |
+            Spliterator.IMMUTABLE;
+
+    @Test
+    public void shouldReportCharacteristicsForList() {
+        ImmutableList<String> list = ImmutableList.listOf(new String[] { "a", "b", "c" });
+        Spliterator<String> spliterator = list.spliterator();
+        assertEquals(standard, spliterator.characteristics());
+        assertEquals(3, spliterator.estimateSize());
+        assertEquals(3, spliterator.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void shouldReportDistinctForSet() {
+        ImmutableSet<String> set = ImmutableSet.setOf(new String[] { "a", "b", "c" });
+        assertEquals(standard | Spliterator.DISTINCT, set.spliterator().characteristics());
+    }
+
+    @Test
+    public void shouldSplitIntoBalancedHalves() {
+        Integer[] array = new Integer[101];
+        for (int i = 0; i < array.length; i++)
+            array[i] = i;
+        Spliterator<Integer> second = ImmutableList.listOf(array).spliterator();
+        Spliterator<Integer> first = second.trySplit();
+        assertEquals(50, first.estimateSize());
+        assertEquals(51, second.estimateSize());
+        assertTrue(first.hasCharacteristics(Spliterator.SUBSIZED));
+        List<Integer> result = new ArrayList<>();
+        first.forEachRemaining(result::add);
+        assertTrue(second.tryAdvance(result::add));
+        second.forEachRemaining(result::add);
+        assertEquals(Arrays.asList(array), result);
+        assertFalse(second.tryAdvance(result::add));
+        assertEquals(0, second.estimateSize());
+    }
+
+    @Test
+    public void shouldNotSplitSingleElement() {
+        Spliterator<String> spliterator = ImmutableList.listOf(new String[] { "a" }).spliterator();
+        assertNull(spliterator.trySplit());
+        assertEquals(1, spliterator.estimateSize());
+    }
+
+    @Test
+    public void shouldRespectLengthOfList() {
+        String[] array = { "a", "b", "c", "d" };
+        ImmutableList<String> list = ImmutableList.listOf(array, 2);
+        assertEquals(Arrays.asList("a", "b"), list.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldProcessLargeListInParallel() {
+        Integer[] array = new Integer[100000];
+        for (int i = 0; i < array.length; i++)
+            array[i] = i;
+        ImmutableList<Integer> list = ImmutableList.listOf(array);
+        assertEquals(4999950000L, list.parallelStream().mapToLong(i -> i).sum());
+        assertEquals(Arrays.asList(array), list.parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldCreateSpliteratorsForKeysAndValues() {
+        ImmutableMapEntry<String, Integer>[] array = ImmutableMap.createArray(3);
+        array[0] = ImmutableMap.entry("a", 1);
+        array[1] = ImmutableMap.entry("b", 2);
+        array[2] = ImmutableMap.entry("c", 1);
+        ImmutableMap<String, Integer> map = ImmutableMap.mapOf(array);
+        Spliterator<String> keys = map.keySet().spliterator();
+        assertEquals(standard | Spliterator.DISTINCT, keys.characteristics());
+        Spliterator<String> firstKeys = keys.trySplit();
+        assertEquals(1, firstKeys.estimateSize());
+        assertEquals(2, keys.estimateSize());
+        assertEquals(standard, map.values().spliterator().characteristics());
+        assertEquals(Arrays.asList("a", "b", "c"), map.keySet().stream().collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1, 2, 1), map.values().parallelStream().collect(Collectors.toList()));
+        assertEquals(2, map.values().stream().distinct().count());
+        assertEquals(standard | Spliterator.DISTINCT, map.entrySet().spliterator().characteristics());
+    }
+
+    @Test
+    public void shouldCreateSpliteratorForMiniSet() {
+        Set<String> set = MiniSet.of("x", "y", "z");
+        Spliterator<String> spliterator = set.spliterator();
+        assertEquals(standard | Spliterator.DISTINCT, spliterator.characteristics());
+        assertEquals(3, spliterator.estimateSize());
+        assertEquals(Arrays.asList("x", "y", "z"), set.stream().collect(Collectors.toList()));
+        assertEquals(0, MiniSet.of().spliterator().estimateSize());
+    }
+
+    @Test
+    public void shouldNotReportDistinctForMiniMapValues() {
+        Map<String, Integer> map = MiniMap.map("a", 1, "b", 1);
+        assertEquals(standard, map.values().spliterator().characteristics());
+        assertEquals(1, map.values().stream().distinct().count());
+        assertEquals(standard | Spliterator.DISTINCT, map.keySet().spliterator().characteristics());
+    }
+
+    @Test
+    public void shouldRejectInvalidRange() {
+        String[] array = { "a", "b" };
+        assertThrows(IndexOutOfBoundsException.class, () -> new ImmutableSpliterator<>(array, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> new ImmutableSpliterator<>(array, 2, 1, 0));
+    }
+
+}
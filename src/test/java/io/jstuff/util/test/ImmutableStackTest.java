@@ -0,0 +1,112 @@
+/*
+ * @(#) ImmutableStackTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableStack;
+
+public class ImmutableStackTest {
+
+    @Test
+    public void shouldCreateEmptyStack() {
+        ImmutableStack<String> stack = ImmutableStack.emptyStack();
+        assertEquals(0, stack.size());
+        assertTrue(stack.isEmpty());
+        assertNull(stack.peek());
+        assertFalse(stack.iterator().hasNext());
+        assertThrows(IllegalStateException.class, stack::pop);
+        assertSame(stack, ImmutableStack.stackOf());
+        assertThrows(UnsupportedOperationException.class, () -> stack.add("a"));
+    }
+
+    @Test
+    public void shouldPushAndPopSharingTail() {
+        ImmutableStack<String> base = ImmutableStack.stackOf("b", "c");
+        ImmutableStack<String> pushed = base.push("a");
+        assertEquals(3, pushed.size());
+        assertEquals("a", pushed.peek());
+        assertSame(base, pushed.pop());
+        assertEquals(2, base.size());
+        assertEquals("b", base.peek());
+        assertArrayEquals(new Object[] { "a", "b", "c" }, pushed.toArray());
+        assertEquals(Arrays.asList("a", "b", "c"), pushed.toImmutableList());
+        Iterator<String> iterator = pushed.iterator();
+        assertEquals("a", iterator.next());
+        assertEquals("b", iterator.next());
+        assertEquals("c", iterator.next());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void shouldReverseAndCompare() {
+        ImmutableStack<Integer> stack = ImmutableStack.from(Arrays.asList(1, 2, 3));
+        assertEquals(ImmutableStack.stackOf(3, 2, 1), stack.reverse());
+        assertEquals(ImmutableStack.stackOf(1, 2, 3), stack);
+        assertEquals(Arrays.asList(1, 2, 3).hashCode(), stack.hashCode());
+        assertNotEquals(ImmutableStack.stackOf(1, 2), stack);
+        assertNotEquals(Arrays.asList(1, 2, 3), stack);
+        assertTrue(stack.contains(2));
+    }
+
+    @Test
+    public void shouldPublishThroughAtomicReference() throws InterruptedException {
+        AtomicReference<ImmutableStack<Integer>> reference = new AtomicReference<>(ImmutableStack.emptyStack());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 10000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    Integer value = base + i;
+                    reference.updateAndGet(stack -> stack.push(value));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        ImmutableStack<Integer> result = reference.get();
+        assertEquals(40000, result.size());
+        boolean[] seen = new boolean[40000];
+        result.forEach(i -> seen[i] = true);
+        for (boolean b : seen)
+            assertTrue(b);
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * @(#) ImmutableStringListTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableStringList;
+
+public class ImmutableStringListTest {
+
+    @Test
+    public void shouldCreateImmutableStringList() {
+        ImmutableStringList list = ImmutableStringList.listOf("alpha", "", "gamma");
+        assertEquals(3, list.size());
+        assertTrue(list.isLatin1());
+        assertEquals(10, list.totalChars());
+        assertEquals("alpha", list.get(0));
+        assertEquals("", list.get(1));
+        assertEquals("gamma", list.get(2));
+        assertEquals(5, list.stringLength(2));
+        assertEquals('m', list.charAt(2, 2));
+        assertEquals("[alpha, , gamma]", list.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.charAt(0, 5));
+    }
+
+    @Test
+    public void shouldStoreWideCharacters() {
+        ImmutableStringList list = ImmutableStringList.listOf("café", "€1", "abc");
+        assertFalse(list.isLatin1());
+        assertEquals("café", list.get(0));
+        assertEquals("€1", list.get(1));
+        assertEquals(1, list.indexOf("€1"));
+        ImmutableStringList latin1 = ImmutableStringList.listOf("café", "naïve");
+        assertTrue(latin1.isLatin1());
+        assertEquals("naïve", latin1.get(1));
+    }
+
+    @Test
+    public void shouldCompareContentWithoutCreatingStrings() {
+        ImmutableStringList list = ImmutableStringList.listOf("one", "two", "three", "two");
+        assertEquals(1, list.indexOf("two"));
+        assertEquals(3, list.lastIndexOf("two"));
+        assertEquals(-1, list.indexOf("four"));
+        assertEquals(-1, list.indexOf(new StringBuilder("two")));
+        assertEquals(2, list.indexOfContent(new StringBuilder("three")));
+        assertTrue(list.containsContent(new StringBuilder("one")));
+        assertFalse(list.containsContent("on"));
+        assertTrue(list.contains("three"));
+    }
+
+    @Test
+    public void shouldCompareWithADifferentList() {
+        ImmutableStringList list = ImmutableStringList.listOf("one", "two", "Δ");
+        List<String> arrayList = new ArrayList<>(Arrays.asList("one", "two", "Δ"));
+        assertEquals(list, arrayList);
+        assertEquals(arrayList, list);
+        assertEquals(arrayList.hashCode(), list.hashCode());
+        assertEquals(list, new ImmutableStringList(arrayList));
+    }
+
+    @Test
+    public void shouldMemoiseStrings() {
+        ImmutableStringList plain = ImmutableStringList.listOf("one", "two");
+        assertNotSame(plain.get(0), plain.get(0));
+        ImmutableStringList memoised = ImmutableStringList.memoisedListOf("one", "two");
+        assertSame(memoised.get(1), memoised.get(1));
+        assertEquals("one", memoised.get(0));
+    }
+
+    @Test
+    public void shouldRejectMutatingOperations() {
+        ImmutableStringList list = ImmutableStringList.listOf("one", "two");
+        assertThrows(UnsupportedOperationException.class, () -> list.add("three"));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, "three"));
+        assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+        Iterator<String> iterator = list.iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        assertThrows(NullPointerException.class, () -> ImmutableStringList.listOf("one", null));
+    }
+
+    @Test
+    public void shouldCreateEmptyList() {
+        ImmutableStringList empty = ImmutableStringList.emptyList();
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+        assertEquals(-1, empty.indexOf("x"));
+        assertSame(empty, ImmutableStringList.emptyList());
+        assertSame(empty, ImmutableStringList.listOf());
+        assertSame(empty, ImmutableStringList.memoisedListOf());
+    }
+
+}
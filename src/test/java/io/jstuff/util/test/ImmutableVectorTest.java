@@ -0,0 +1,198 @@
+/*
+ * @(#) ImmutableVectorTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.ImmutableList;
+import io.jstuff.util.ImmutableVector;
+
+public class ImmutableVectorTest {
+
+    @Test
+    public void shouldCreateEmptyVector() {
+        ImmutableVector<String> vector = ImmutableVector.emptyVector();
+        assertEquals(0, vector.size());
+        assertTrue(vector.isEmpty());
+        assertFalse(vector.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(0));
+        assertThrows(IllegalStateException.class, vector::pop);
+        assertThrows(NoSuchElementException.class, vector::last);
+        assertSame(vector, ImmutableVector.vectorOf());
+    }
+
+    @Test
+    public void shouldAppendAndPopThroughSeveralLevels() {
+        List<Integer> expected = new ArrayList<>();
+        ImmutableVector<Integer> vector = ImmutableVector.emptyVector();
+        for (int i = 0; i < 40000; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+            if ((i & 0x3FF) == 0 || i < 1100)
+                assertEquals(Integer.valueOf(i), vector.last());
+        }
+        assertEquals(expected, vector);
+        assertEquals(expected.hashCode(), vector.hashCode());
+        while (!vector.isEmpty()) {
+            vector = vector.pop();
+            expected.remove(expected.size() - 1);
+            if ((vector.size() & 0x3FF) == 0 || vector.size() < 1100)
+                assertEquals(expected, vector);
+        }
+        assertEquals(0, vector.size());
+    }
+
+    @Test
+    public void shouldReplaceElementsLeavingOriginalUnchanged() {
+        ImmutableVector<Integer> original = ImmutableVector.emptyVector();
+        for (int i = 0; i < 2000; i++)
+            original = original.append(i);
+        ImmutableVector<Integer> vector = original;
+        for (int i = 0; i < 2000; i += 7)
+            vector = vector.with(i, -i);
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(Integer.valueOf(i), original.get(i));
+            assertEquals(Integer.valueOf(i % 7 == 0 ? -i : i), vector.get(i));
+        }
+        ImmutableVector<Integer> appended = original.with(2000, 99);
+        assertEquals(2001, appended.size());
+        assertEquals(Integer.valueOf(99), appended.get(2000));
+        assertThrows(IndexOutOfBoundsException.class, () -> appended.pop().with(2001, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> appended.pop().with(-1, 0));
+    }
+
+    @Test
+    public void shouldConvertToAndFromImmutableList() {
+        Integer[] array = new Integer[1500];
+        for (int i = 0; i < array.length; i++)
+            array[i] = i;
+        ImmutableList<Integer> list = ImmutableList.listOf(array);
+        ImmutableVector<Integer> vector = ImmutableVector.from(list);
+        assertEquals(list, vector);
+        assertEquals(list, vector.toImmutableList());
+        ImmutableVector<Integer> fromSubList = ImmutableVector.from(list.subList(100, 1100));
+        assertEquals(list.subList(100, 1100), fromSubList);
+        assertEquals(Arrays.asList(1, 2, 3), ImmutableVector.from(Arrays.asList(1, 2, 3)));
+        assertSame(vector, ImmutableVector.from(vector));
+        assertEquals(Integer.valueOf(1499), vector.last());
+        assertEquals(list, vector.append(1500).pop());
+    }
+
+    @Test
+    public void shouldIterateOverElements() {
+        ImmutableVector<Integer> vector = ImmutableVector.emptyVector();
+        for (int i = 0; i < 100; i++)
+            vector = vector.append(i);
+        Iterator<Integer> iterator = vector.iterator();
+        for (int i = 0; i < 100; i++)
+            assertEquals(Integer.valueOf(i), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        List<Integer> collected = new ArrayList<>();
+        vector.forEach(collected::add);
+        assertEquals(vector, collected);
+        assertEquals(Arrays.asList(vector.toArray()), collected);
+    }
+
+    @Test
+    public void shouldRejectModifyingOperations() {
+        ImmutableVector<String> vector = ImmutableVector.vectorOf("a", "b");
+        assertThrows(UnsupportedOperationException.class, () -> vector.add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> vector.set(0, "c"));
+        assertThrows(UnsupportedOperationException.class, () -> vector.remove(0));
+        assertThrows(UnsupportedOperationException.class, vector::clear);
+    }
+
+    @Test
+    public void shouldApplyBatchChangesUsingTransient() {
+        ImmutableVector<Integer> original = ImmutableVector.emptyVector();
+        for (int i = 0; i < 1500; i++)
+            original = original.append(i);
+        List<Integer> expected = new ArrayList<>(original);
+        ImmutableVector.Transient<Integer> editor = original.toTransient();
+        for (int i = 0; i < 40000; i++) {
+            editor.append(-i);
+            expected.add(-i);
+        }
+        for (int i = 0; i < 41500; i += 3) {
+            editor.set(i, i * 2);
+            expected.set(i, i * 2);
+        }
+        for (int i = 0; i < 20000; i++) {
+            editor.pop();
+            expected.remove(expected.size() - 1);
+        }
+        assertEquals(expected.size(), editor.size());
+        assertEquals(expected.get(100), editor.get(100));
+        ImmutableVector<Integer> vector = editor.persistent();
+        assertEquals(expected, vector);
+        assertEquals(1500, original.size());
+        for (int i = 0; i < 1500; i++)
+            assertEquals(Integer.valueOf(i), original.get(i));
+        assertThrows(IllegalStateException.class, () -> editor.append(1));
+        assertThrows(IllegalStateException.class, editor::persistent);
+        ImmutableVector.Transient<Integer> editor2 = vector.toTransient();
+        editor2.set(0, 99);
+        while (editor2.size() > 0)
+            editor2.pop();
+        assertTrue(editor2.persistent().isEmpty());
+        assertEquals(expected, vector);
+        assertEquals(expected, vector.append(7).pop());
+    }
+
+
+    @Test
+    public void shouldAcceptAnyElementTypeWhenBuiltFromCovariantArray() {
+        String[] strings = new String[100];
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = "s" + i;
+        ImmutableVector<Object> small = ImmutableVector.from(ImmutableList.listOf(new String[] { "a", "b", "c" }));
+        assertEquals(Arrays.asList("a", "b", "c", 1), small.append(1));
+        assertEquals(Arrays.asList(1, "b", "c"), small.with(0, 1));
+        ImmutableVector<Object> vector = ImmutableVector.from(ImmutableList.<Object>listOf(strings));
+        assertEquals(Integer.valueOf(1), vector.with(5, 1).get(5));
+        assertEquals(Integer.valueOf(2), vector.with(99, 2).get(99));
+        assertEquals(Integer.valueOf(3), vector.append(3).get(100));
+        ImmutableVector.Transient<Object> editor = vector.toTransient();
+        editor.set(0, 4);
+        editor.append(5);
+        ImmutableVector<Object> edited = editor.persistent();
+        assertEquals(Integer.valueOf(4), edited.get(0));
+        assertEquals(Integer.valueOf(5), edited.get(100));
+    }
+
+}
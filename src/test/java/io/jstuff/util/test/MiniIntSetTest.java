@@ -0,0 +1,143 @@
+/*
+ * @(#) MiniIntSetTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.MiniIntSet;
+import io.jstuff.util.MiniIntSet0;
+import io.jstuff.util.MiniIntSet3;
+import io.jstuff.util.MiniIntSet5;
+import io.jstuff.util.MiniLongSet;
+import io.jstuff.util.MiniLongSet2;
+
+public class MiniIntSetTest {
+
+    @Test
+    public void shouldCreateMiniIntSetOfSize0() {
+        MiniIntSet set = MiniIntSet.of();
+        assertSame(MiniIntSet0.instance, set);
+        assertEquals(0, set.size());
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertEquals("[]", set.toString());
+        assertFalse(set.iterator().hasNext());
+        assertEquals(new HashSet<Integer>(), set);
+    }
+
+    @Test
+    public void shouldCreateMiniIntSetOfSize3() {
+        MiniIntSet set = MiniIntSet.of(200, 404, 500);
+        assertTrue(set instanceof MiniIntSet3);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(200));
+        assertTrue(set.contains(404));
+        assertTrue(set.contains(500));
+        assertFalse(set.contains(201));
+        assertTrue(set.contains((Object)404));
+        assertFalse(set.contains((Object)404L));
+        assertEquals("[200, 404, 500]", set.toString());
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        assertEquals(200, iterator.nextInt());
+        assertEquals(404, iterator.nextInt());
+        assertEquals(500, iterator.nextInt());
+        assertFalse(iterator.hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getInt(3));
+        Set<Integer> hashSet = new HashSet<>(Arrays.asList(500, 200, 404));
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void shouldCreateMiniIntSetFromVarargs() {
+        MiniIntSet set5 = MiniIntSet.of(new int[] { 1, 2, 3, 4, 5 });
+        assertTrue(set5 instanceof MiniIntSet5);
+        assertTrue(set5.contains(5));
+        MiniIntSet bitmap = MiniIntSet.of(200, 201, 202, 204, 206, 301, 302, 304, 404, 200);
+        assertTrue(bitmap instanceof MiniIntSet.Bitmap);
+        assertEquals(9, bitmap.size());
+        assertTrue(bitmap.contains(404));
+        assertTrue(bitmap.contains(200));
+        assertFalse(bitmap.contains(203));
+        assertFalse(bitmap.contains(199));
+        assertFalse(bitmap.contains(Integer.MIN_VALUE));
+        assertFalse(bitmap.contains(Integer.MAX_VALUE));
+        assertArrayEquals(new int[] { 200, 201, 202, 204, 206, 301, 302, 304, 404 }, bitmap.toIntArray());
+        MiniIntSet sorted = MiniIntSet.of(Integer.MAX_VALUE, -1, 1_000_000, 7, Integer.MIN_VALUE, 42);
+        assertTrue(sorted instanceof MiniIntSet.Sorted);
+        assertTrue(sorted.contains(Integer.MIN_VALUE));
+        assertTrue(sorted.contains(42));
+        assertFalse(sorted.contains(43));
+        assertEquals("[-2147483648, -1, 7, 42, 1000000, 2147483647]", sorted.toString());
+        assertEquals(MiniIntSet.of(7, 42, -1, 1_000_000, Integer.MIN_VALUE, Integer.MAX_VALUE), sorted);
+    }
+
+    @Test
+    public void shouldRejectMutatingOperations() {
+        MiniIntSet set = MiniIntSet.of(1, 2);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(3));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove(1));
+        assertThrows(UnsupportedOperationException.class, set::clear);
+        assertThrows(UnsupportedOperationException.class, () -> MiniIntSet.of().clear());
+    }
+
+    @Test
+    public void shouldCreateMiniLongSet() {
+        MiniLongSet set = MiniLongSet.of(10_000_000_000L, -5L);
+        assertTrue(set instanceof MiniLongSet2);
+        assertTrue(set.contains(-5L));
+        assertTrue(set.contains(10_000_000_000L));
+        assertFalse(set.contains(0L));
+        assertTrue(set.contains((Object)(-5L)));
+        assertFalse(set.contains((Object)(-5)));
+        Set<Long> hashSet = new HashSet<>(Arrays.asList(-5L, 10_000_000_000L));
+        assertEquals(hashSet, set);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+        MiniLongSet bitmap = MiniLongSet.of(Long.MAX_VALUE - 10, Long.MAX_VALUE, Long.MAX_VALUE - 3,
+                Long.MAX_VALUE - 4, Long.MAX_VALUE - 5, Long.MAX_VALUE - 6);
+        assertTrue(bitmap instanceof MiniLongSet.Bitmap);
+        assertTrue(bitmap.contains(Long.MAX_VALUE));
+        assertFalse(bitmap.contains(Long.MIN_VALUE));
+        assertFalse(bitmap.contains(Long.MAX_VALUE - 1));
+        MiniLongSet sorted = MiniLongSet.of(Long.MIN_VALUE, 0, 1, 2, 3, Long.MAX_VALUE);
+        assertTrue(sorted instanceof MiniLongSet.Sorted);
+        assertTrue(sorted.contains(Long.MAX_VALUE));
+        assertFalse(sorted.contains(4));
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * @(#) MiniLongSetTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package io.jstuff.util.test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.MiniLongSet;
+import io.jstuff.util.MiniLongSet0;
+import io.jstuff.util.MiniLongSet1;
+import io.jstuff.util.MiniLongSet2;
+import io.jstuff.util.MiniLongSet3;
+import io.jstuff.util.MiniLongSet4;
+import io.jstuff.util.MiniLongSet5;
+
+public class MiniLongSetTest {
+
+    private static final long big = 10_000_000_000L;
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize0() {
+        MiniLongSet set = MiniLongSet.of();
+        assertSame(MiniLongSet0.instance, set);
+        assertEquals(0, set.size());
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+        assertEquals("[]", set.toString());
+        assertFalse(set.iterator().hasNext());
+        assertArrayEquals(new long[0], set.toLongArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(0));
+        assertEquals(new HashSet<Long>(), set);
+        assertSame(MiniLongSet0.instance, MiniLongSet.of(new long[0]));
+    }
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize1() {
+        MiniLongSet set = MiniLongSet.of(big);
+        assertTrue(set instanceof MiniLongSet1);
+        assertEquals(1, set.size());
+        assertFalse(set.isEmpty());
+        assertTrue(set.contains(big));
+        assertFalse(set.contains((long)(int)big));
+        assertTrue(set.contains((Object)big));
+        assertFalse(set.contains((Object)(long)(int)big));
+        assertEquals("[10000000000]", set.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(1));
+        checkEquals(set, big);
+    }
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize2() {
+        MiniLongSet set = MiniLongSet.of(big, -5L);
+        assertTrue(set instanceof MiniLongSet2);
+        assertEquals(2, set.size());
+        assertTrue(set.contains(-5L));
+        assertTrue(set.contains(big));
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains((Object)(-5)));
+        assertEquals("[10000000000, -5]", set.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(2));
+        checkEquals(set, big, -5L);
+    }
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize3() {
+        MiniLongSet set = MiniLongSet.of(200L, Long.MIN_VALUE, 500L);
+        assertTrue(set instanceof MiniLongSet3);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(200L));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.contains(500L));
+        assertFalse(set.contains(201L));
+        PrimitiveIterator.OfLong iterator = set.iterator();
+        assertEquals(200L, iterator.nextLong());
+        assertEquals(Long.MIN_VALUE, iterator.nextLong());
+        assertEquals(500L, iterator.nextLong());
+        assertFalse(iterator.hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(3));
+        checkEquals(set, 200L, Long.MIN_VALUE, 500L);
+    }
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize4() {
+        MiniLongSet set = MiniLongSet.of(1L, 2L, big, Long.MAX_VALUE);
+        assertTrue(set instanceof MiniLongSet4);
+        assertEquals(4, set.size());
+        assertTrue(set.contains(1L));
+        assertTrue(set.contains(2L));
+        assertTrue(set.contains(big));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(3L));
+        assertArrayEquals(new long[] { 1L, 2L, big, Long.MAX_VALUE }, set.toLongArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(4));
+        checkEquals(set, 1L, 2L, big, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldCreateMiniLongSetOfSize5() {
+        MiniLongSet set = MiniLongSet.of(-1L, -2L, -3L, -4L, -big);
+        assertTrue(set instanceof MiniLongSet5);
+        assertEquals(5, set.size());
+        assertTrue(set.contains(-1L));
+        assertTrue(set.contains(-4L));
+        assertTrue(set.contains(-big));
+        assertFalse(set.contains(big));
+        assertEquals("[-1, -2, -3, -4, -10000000000]", set.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(-1));
+        checkEquals(set, -1L, -2L, -3L, -4L, -big);
+    }
+
+    @Test
+    public void shouldCreateFixedSizeFormsFromVarargs() {
+        assertTrue(MiniLongSet.of(new long[] { 1L }) instanceof MiniLongSet1);
+        assertTrue(MiniLongSet.of(new long[] { 1L, 2L }) instanceof MiniLongSet2);
+        assertTrue(MiniLongSet.of(new long[] { 1L, 2L, 3L }) instanceof MiniLongSet3);
+        assertTrue(MiniLongSet.of(new long[] { 1L, 2L, 3L, 4L }) instanceof MiniLongSet4);
+        MiniLongSet set5 = MiniLongSet.of(new long[] { 1L, 2L, 3L, 4L, big });
+        assertTrue(set5 instanceof MiniLongSet5);
+        assertTrue(set5.contains(big));
+    }
+
+    @Test
+    public void shouldPromoteToBitmapForm() {
+        long b = big;
+        MiniLongSet set = MiniLongSet.of(b + 200, b + 201, b + 202, b + 204, b + 206, b + 301, b + 302, b + 404,
+                b + 200);
+        assertTrue(set instanceof MiniLongSet.Bitmap);
+        assertEquals(8, set.size());
+        assertTrue(set.contains(b + 200));
+        assertTrue(set.contains(b + 404));
+        assertFalse(set.contains(b + 203));
+        assertFalse(set.contains(b + 199));
+        assertFalse(set.contains(b + 405));
+        assertFalse(set.contains(200L));
+        assertFalse(set.contains(Long.MIN_VALUE));
+        assertFalse(set.contains(Long.MAX_VALUE));
+        assertArrayEquals(new long[] { b + 200, b + 201, b + 202, b + 204, b + 206, b + 301, b + 302, b + 404 },
+                set.toLongArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(8));
+        checkEquals(set, b + 200, b + 201, b + 202, b + 204, b + 206, b + 301, b + 302, b + 404);
+    }
+
+    @Test
+    public void shouldPromoteToBitmapFormAtTopOfRange() {
+        MiniLongSet set = MiniLongSet.of(Long.MAX_VALUE - 10, Long.MAX_VALUE, Long.MAX_VALUE - 3,
+                Long.MAX_VALUE - 4, Long.MAX_VALUE - 5, Long.MAX_VALUE - 6);
+        assertTrue(set instanceof MiniLongSet.Bitmap);
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(Long.MAX_VALUE - 10));
+        assertFalse(set.contains(Long.MAX_VALUE - 1));
+        assertFalse(set.contains(Long.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, set.getLong(5));
+    }
+
+    @Test
+    public void shouldPromoteToSortedForm() {
+        MiniLongSet set = MiniLongSet.of(Long.MAX_VALUE, -1L, big, 7L, Long.MIN_VALUE, 42L, 7L);
+        assertTrue(set instanceof MiniLongSet.Sorted);
+        assertEquals(6, set.size());
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(big));
+        assertTrue(set.contains(42L));
+        assertFalse(set.contains(43L));
+        assertFalse(set.contains(0L));
+        assertEquals("[-9223372036854775808, -1, 7, 42, 10000000000, 9223372036854775807]", set.toString());
+        PrimitiveIterator.OfLong iterator = set.iterator();
+        assertEquals(Long.MIN_VALUE, iterator.nextLong());
+        assertEquals(-1L, iterator.nextLong());
+        assertEquals(7L, iterator.nextLong());
+        assertEquals(42L, iterator.nextLong());
+        assertEquals(big, iterator.nextLong());
+        assertEquals(Long.MAX_VALUE, iterator.nextLong());
+        assertFalse(iterator.hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.getLong(6));
+        checkEquals(set, Long.MAX_VALUE, -1L, big, 7L, Long.MIN_VALUE, 42L);
+        assertEquals(MiniLongSet.of(7L, 42L, -1L, big, Long.MIN_VALUE, Long.MAX_VALUE), set);
+    }
+
+    @Test
+    public void shouldCompareEqualAcrossForms() {
+        MiniLongSet sorted = MiniLongSet.of(1L, 2L, 3L, 4L, 5L, big);
+        MiniLongSet bitmap = MiniLongSet.of(1L, 2L, 3L, 4L, 5L, 6L);
+        assertTrue(sorted instanceof MiniLongSet.Sorted);
+        assertTrue(bitmap instanceof MiniLongSet.Bitmap);
+        assertFalse(sorted.equals(bitmap));
+        assertEquals(MiniLongSet.of(6L, 5L, 4L, 3L, 2L, 1L), bitmap);
+        assertEquals(MiniLongSet.of(1L, 2L, 3L), MiniLongSet.of(3L, 2L, 1L));
+        assertFalse(MiniLongSet.of(1L, 2L, 3L).equals(MiniLongSet.of(1L, 2L, 4L)));
+    }
+
+    @Test
+    public void shouldRejectMutatingOperations() {
+        MiniLongSet set = MiniLongSet.of(1L, 2L);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(3L));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove(1L));
+        assertThrows(UnsupportedOperationException.class, set::clear);
+        assertThrows(UnsupportedOperationException.class, () -> MiniLongSet.of().clear());
+    }
+
+    private static void checkEquals(MiniLongSet set, Long ... values) {
+        Set<Long> hashSet = new HashSet<>(Arrays.asList(values));
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+        assertTrue(set.containsAll(hashSet));
+        assertEquals(hashSet, new HashSet<>(Arrays.asList(set.toArray(new Long[0]))));
+    }
+
+}
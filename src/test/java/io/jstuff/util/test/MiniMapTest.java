@@ -2,7 +2,7 @@
  * @(#) MiniMapTest.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022, 2024 Peter Wall
+ * Copyright (c) 2022, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -33,9 +33,11 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import io.jstuff.util.ImmutableMap;
 import io.jstuff.util.MiniMap;
 import io.jstuff.util.MiniMap0;
 import io.jstuff.util.MiniMap1;
@@ -251,4 +253,53 @@ public class MiniMapTest {
         assertEquals("MiniMap3 size must be 3", e.getMessage());
     }
 
+    @Test
+    public void shouldVisitEntriesWithIndexAndFindIndex() {
+        MiniMap<String, Integer> map = new MiniMap3<>("a", 1, "b", 2, "c", 3);
+        StringBuilder sb = new StringBuilder();
+        map.forEachEntry((i, k, v) -> sb.append(i).append(k).append(v));
+        assertEquals("0a11b22c3", sb.toString());
+        assertEquals(1, map.findIndex((k, v) -> v == 2));
+        assertEquals(-1, map.findIndex((k, v) -> v == 4));
+        assertTrue(map.anyMatch((k, v) -> k.equals("c")));
+        assertEquals(0, new MiniMap1<>("x", 9).findIndex((k, v) -> v == 9));
+        assertFalse(new MiniMap0<String, Integer>().anyMatch((k, v) -> true));
+    }
+
+    @Test
+    public void shouldPromoteAndDemoteUsingWithAndWithout() {
+        Map<String, Integer> map0 = MiniMap.of();
+        Map<String, Integer> map1 = ((MiniMap<String, Integer>)map0).with("a", 1);
+        assertTrue(map1 instanceof MiniMap1);
+        Map<String, Integer> map2 = ((MiniMap<String, Integer>)map1).with("b", 2);
+        assertTrue(map2 instanceof MiniMap2);
+        Map<String, Integer> map3 = ((MiniMap<String, Integer>)map2).with("c", 3);
+        assertTrue(map3 instanceof MiniMap3);
+        Map<String, Integer> map4 = ((MiniMap<String, Integer>)map3).with("d", 4);
+        assertTrue(map4 instanceof ImmutableMap);
+        assertEquals(4, map4.size());
+        Map<String, Integer> demoted = ((ImmutableMap<String, Integer>)map4).without("b");
+        assertTrue(demoted instanceof MiniMap3);
+        assertEquals(MiniMap.map("a", 1, "c", 3, "d", 4), demoted);
+        assertSame(map3, ((MiniMap<String, Integer>)map3).with("b", 2));
+        assertEquals(Integer.valueOf(20), ((MiniMap<String, Integer>)map3).with("b", 20).get("b"));
+        assertSame(map3, ((MiniMap<String, Integer>)map3).without("x"));
+        assertEquals(MiniMap.map("a", 1, "c", 3), ((MiniMap<String, Integer>)map3).without("b"));
+        assertEquals(MiniMap.map("a", 1), ((MiniMap<String, Integer>)map2).without("b"));
+        assertTrue(((MiniMap<String, Integer>)map1).without("a").isEmpty());
+    }
+
+    @Test
+    public void shouldAddAllEntriesUsingWithAll() {
+        MiniMap<String, Integer> map = new MiniMap2<>("a", 1, "b", 2);
+        assertSame(map, map.withAll(new HashMap<>()));
+        assertSame(map, map.withAll(MiniMap.map("b", 2)));
+        Map<String, Integer> result = map.withAll(MiniMap.map("b", 20, "c", 3));
+        assertTrue(result instanceof MiniMap3);
+        assertEquals(MiniMap.map("a", 1, "b", 20, "c", 3), result);
+        Map<String, Integer> promoted = map.withAll(MiniMap.map("c", 3, "d", 4));
+        assertTrue(promoted instanceof ImmutableMap);
+        assertEquals(4, promoted.size());
+    }
+
 }
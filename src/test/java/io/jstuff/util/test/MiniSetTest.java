@@ -2,7 +2,7 @@
  * @(#) MiniSetTest.java
  *
  * immutables  High-performance immutable collections
- * Copyright (c) 2022, 2024 Peter Wall
+ * Copyright (c) 2022, 2024, 2026 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -33,9 +33,11 @@ import java.util.Set;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import io.jstuff.util.ImmutableSet;
 import io.jstuff.util.MiniSet;
 import io.jstuff.util.MiniSet0;
 import io.jstuff.util.MiniSet1;
@@ -248,4 +250,52 @@ public class MiniSetTest {
         assertEquals("MiniSet5 size must be 5", e.getMessage());
     }
 
+    @Test
+    public void shouldIterateWithIndexAndFindIndex() {
+        MiniSet<String> set = new MiniSet5<>("a", "b", "c", "d", "e");
+        StringBuilder sb = new StringBuilder();
+        set.forEachIndexed((i, s) -> sb.append(i).append(s));
+        assertEquals("0a1b2c3d4e", sb.toString());
+        assertEquals(3, set.findIndex("d"::equals));
+        assertEquals(-1, set.findIndex("z"::equals));
+        assertTrue(set.anyMatch("e"::equals));
+        assertEquals(0, new MiniSet1<>("x").findIndex("x"::equals));
+        assertFalse(new MiniSet0<String>().anyMatch(s -> true));
+    }
+
+    @Test
+    public void shouldPromoteAndDemoteUsingWithAndWithout() {
+        Set<String> set = MiniSet.of();
+        String[] values = { "a", "b", "c", "d", "e", "f" };
+        for (int i = 0; i < values.length; i++) {
+            set = ((MiniSet<String>)set).with(values[i]);
+            assertEquals(i + 1, set.size());
+            assertTrue(set.contains(values[i]));
+            if (i < 5)
+                assertTrue(set instanceof MiniSet);
+        }
+        assertTrue(set instanceof ImmutableSet);
+        Set<String> demoted = ((ImmutableSet<String>)set).without("c");
+        assertTrue(demoted instanceof MiniSet5);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "d", "e", "f")), demoted);
+        assertSame(demoted, ((MiniSet<String>)demoted).with("a"));
+        assertSame(demoted, ((MiniSet<String>)demoted).without("x"));
+        Set<String> smaller = ((MiniSet<String>)demoted).without("a");
+        assertTrue(smaller instanceof MiniSet4);
+        assertEquals(new HashSet<>(Arrays.asList("b", "d", "e", "f")), smaller);
+        assertTrue(((MiniSet<String>)MiniSet.of("x")).without("x").isEmpty());
+    }
+
+    @Test
+    public void shouldAddAllValuesUsingWithAll() {
+        MiniSet<String> set = MiniSet.of("a", "b");
+        assertSame(set, set.withAll(Arrays.asList("a", "b", "a")));
+        Set<String> result = set.withAll(Arrays.asList("b", "c", "c"));
+        assertTrue(result instanceof MiniSet3);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), result);
+        Set<String> promoted = set.withAll(Arrays.asList("c", "d", "e", "f"));
+        assertTrue(promoted instanceof ImmutableSet);
+        assertEquals(6, promoted.size());
+    }
+
 }
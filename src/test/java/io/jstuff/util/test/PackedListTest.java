@@ -0,0 +1,147 @@
+/*
+ * @(#) PackedListTest.java
+ *
+ * immutables  High-performance immutable collections
+ * Copyright (c) 2026 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jstuff.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jstuff.util.PackedIntList;
+import io.jstuff.util.PackedLongList;
+
+public class PackedListTest {
+
+    @Test
+    public void shouldCreatePackedIntList() {
+        PackedIntList list = PackedIntList.listOf(1000, 1200, 5000, 1001);
+        assertEquals(4, list.size());
+        assertEquals(1000, list.getBase());
+        assertEquals(12, list.bitWidth());
+        assertEquals(1000, list.getInt(0));
+        assertEquals(5000, list.getInt(2));
+        assertEquals(Integer.valueOf(1001), list.get(3));
+        assertEquals("[1000, 1200, 5000, 1001]", list.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(-1));
+    }
+
+    @Test
+    public void shouldPackValuesAcrossWordBoundaries() {
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = -500_000 + i * 997 % 700_001;
+        PackedIntList list = new PackedIntList(values);
+        assertEquals(20, list.bitWidth());
+        for (int i = 0; i < values.length; i++)
+            assertEquals(values[i], list.getInt(i));
+        assertArrayEquals(values, list.toIntArray());
+        int[] dest = new int[64];
+        assertEquals(64, list.decode(101, dest));
+        for (int i = 0; i < 64; i++)
+            assertEquals(values[101 + i], dest[i]);
+        assertEquals(9, list.decode(991, dest));
+        assertEquals(values[999], dest[8]);
+    }
+
+    @Test
+    public void shouldHandleExtremeIntValues() {
+        PackedIntList list = PackedIntList.listOf(Integer.MIN_VALUE, 0, Integer.MAX_VALUE);
+        assertEquals(32, list.bitWidth());
+        assertArrayEquals(new int[] { Integer.MIN_VALUE, 0, Integer.MAX_VALUE }, list.toIntArray());
+        PackedIntList constant = PackedIntList.listOf(7, 7, 7);
+        assertEquals(0, constant.bitWidth());
+        assertArrayEquals(new int[] { 7, 7, 7 }, constant.toIntArray());
+        assertTrue(PackedIntList.listOf().isEmpty());
+    }
+
+    @Test
+    public void shouldCompareWithADifferentList() {
+        PackedIntList list = PackedIntList.listOf(3, 1, 4, 1, 5);
+        List<Integer> arrayList = new ArrayList<>(Arrays.asList(3, 1, 4, 1, 5));
+        assertEquals(list, arrayList);
+        assertEquals(arrayList, list);
+        assertEquals(arrayList.hashCode(), list.hashCode());
+        assertEquals(list, new PackedIntList(arrayList));
+        assertEquals(2, list.indexOf(4));
+        assertEquals(-1, list.indexOf(9));
+        assertEquals(-1, list.indexOf(-9));
+        assertEquals(-1, list.indexOf("4"));
+        assertTrue(list.contains(5));
+        assertFalse(list.contains(6L));
+    }
+
+    @Test
+    public void shouldRejectMutatingOperations() {
+        PackedIntList list = PackedIntList.listOf(1, 2, 3);
+        assertThrows(UnsupportedOperationException.class, () -> list.add(4));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, 4));
+        assertThrows(UnsupportedOperationException.class, list::clear);
+    }
+
+    @Test
+    public void shouldCreatePackedLongList() {
+        long start = 1_700_000_000_000L;
+        long[] values = new long[500];
+        for (int i = 0; i < values.length; i++)
+            values[i] = start + (i * 172_807L) % 86_400_000L;
+        PackedLongList list = new PackedLongList(values);
+        assertEquals(27, list.bitWidth());
+        for (int i = 0; i < values.length; i++)
+            assertEquals(values[i], list.getLong(i));
+        assertArrayEquals(values, list.toLongArray());
+        assertEquals(Long.valueOf(values[3]), list.get(3));
+        assertEquals(3, list.indexOfLong(values[3]));
+        assertEquals(-1, list.indexOfLong(start - 1));
+        assertEquals(Arrays.hashCode(values), list.hashCode());
+    }
+
+    @Test
+    public void shouldHandleExtremeLongValues() {
+        PackedLongList list = PackedLongList.listOf(Long.MIN_VALUE, -1, 0, Long.MAX_VALUE);
+        assertEquals(64, list.bitWidth());
+        assertArrayEquals(new long[] { Long.MIN_VALUE, -1, 0, Long.MAX_VALUE }, list.toLongArray());
+        assertEquals(3, list.indexOfLong(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldReportSmallerFootprintThanBoxedList() {
+        int[] values = new int[10_000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = 100_000 + i * 31 % 65_536;
+        PackedIntList list = new PackedIntList(values);
+        assertEquals(16, list.bitWidth());
+        assertTrue(list.footprintBytes() < 21_000);
+        assertTrue(list.boxedFootprintBytes() > 200_000);
+    }
+
+}